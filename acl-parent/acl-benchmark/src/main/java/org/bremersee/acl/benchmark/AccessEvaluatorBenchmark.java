@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bremersee.acl.AccessEvaluation;
+import org.bremersee.acl.AccessEvaluator;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclUserContext;
+import org.bremersee.acl.CachingAccessEvaluator;
+import org.bremersee.acl.CompiledAcl;
+import org.bremersee.acl.CompiledAclUserContext;
+import org.bremersee.acl.NormalizedAclUserContext;
+import org.bremersee.acl.PermissionConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmarks of the access evaluation with access control lists of 1 to 10k principals per
+ * entry and user contexts with 1 to 500 roles and groups.
+ *
+ * @author Christian Bremer
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessEvaluatorBenchmark {
+
+  private static final List<String> PERMISSIONS = List
+      .of(PermissionConstants.READ, PermissionConstants.WRITE, PermissionConstants.DELETE);
+
+  /**
+   * The number of principals of every entry.
+   */
+  @Param({"1", "100", "10000"})
+  public int principals;
+
+  /**
+   * The number of roles and groups of the user.
+   */
+  @Param({"1", "50", "500"})
+  public int rolesAndGroups;
+
+  private Acl acl;
+
+  private AclUserContext userContext;
+
+  private NormalizedAclUserContext normalizedUserContext;
+
+  private CompiledAcl compiledAcl;
+
+  private CompiledAclUserContext compiledUserContext;
+
+  private CachingAccessEvaluator cachingAccessEvaluator;
+
+  /**
+   * Creates the access control list and the user contexts.
+   */
+  @Setup
+  public void setup() {
+    acl = AclFixtures.acl(principals);
+    userContext = AclFixtures.userContext(rolesAndGroups);
+    normalizedUserContext = NormalizedAclUserContext.of(userContext);
+    compiledAcl = CompiledAcl.of(acl);
+    compiledUserContext = CompiledAclUserContext.of(userContext);
+    cachingAccessEvaluator = new CachingAccessEvaluator();
+  }
+
+  /**
+   * Evaluates the access with the plain user context.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public boolean hasPermissions() {
+    return AccessEvaluator.of(acl)
+        .hasPermissions(userContext, AccessEvaluation.ALL_PERMISSIONS, PERMISSIONS);
+  }
+
+  /**
+   * Evaluates the access with the normalized user context.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public boolean hasPermissionsNormalized() {
+    return AccessEvaluator.of(acl)
+        .hasPermissions(normalizedUserContext, AccessEvaluation.ALL_PERMISSIONS, PERMISSIONS);
+  }
+
+  /**
+   * Evaluates the access with the compiled access control list and user context.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public boolean hasPermissionsCompiled() {
+    return compiledAcl
+        .hasPermissions(compiledUserContext, AccessEvaluation.ALL_PERMISSIONS, PERMISSIONS);
+  }
+
+  /**
+   * Evaluates the access with the caching access evaluator.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public boolean hasPermissionsCached() {
+    return cachingAccessEvaluator
+        .hasPermissions(acl, normalizedUserContext, AccessEvaluation.ALL_PERMISSIONS, PERMISSIONS);
+  }
+
+  /**
+   * Normalizes the user context, which should be done once per request.
+   *
+   * @return the normalized user context
+   */
+  @Benchmark
+  public NormalizedAclUserContext normalizeUserContext() {
+    return NormalizedAclUserContext.of(userContext);
+  }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that the allocated bytes per operation
+ * ({@code gc.alloc.rate.norm}) are reported together with the operations per second. The usual
+ * JMH command line options can be passed, for example a regular expression of the benchmarks:
+ * <pre>
+ * mvn -P benchmark -pl acl-parent/acl-benchmark -am package -DskipTests
+ * java -jar acl-parent/acl-benchmark/target/benchmarks.jar AccessEvaluatorBenchmark
+ * </pre>
+ *
+ * @author Christian Bremer
+ */
+public class AclBenchmarks {
+
+  private AclBenchmarks() {
+  }
+
+  /**
+   * The entry point.
+   *
+   * @param args the JMH command line options
+   * @throws CommandLineOptionException if the command line options are invalid
+   * @throws RunnerException if a benchmark fails
+   */
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclInterner;
+import org.bremersee.acl.spring.data.mongodb.convert.AclCodec;
+import org.bremersee.acl.spring.data.mongodb.convert.AclToDocumentConverter;
+import org.bremersee.acl.spring.data.mongodb.convert.DocumentToAclConverter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmarks of the document converters and the codec of the access control lists.
+ *
+ * @author Christian Bremer
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AclConverterBenchmark {
+
+  /**
+   * The number of principals of every entry.
+   */
+  @Param({"1", "100", "10000"})
+  public int principals;
+
+  /**
+   * Specifies whether the flattened grants are written.
+   */
+  @Param({"false", "true"})
+  public boolean flattenedGrants;
+
+  private Acl acl;
+
+  private Document document;
+
+  private BsonDocument bsonDocument;
+
+  private AclToDocumentConverter aclToDocumentConverter;
+
+  private DocumentToAclConverter documentToAclConverter;
+
+  private DocumentToAclConverter internedDocumentToAclConverter;
+
+  private AclCodec codec;
+
+  /**
+   * Creates the access control list and its documents.
+   */
+  @Setup
+  public void setup() {
+    acl = AclFixtures.acl(principals);
+    aclToDocumentConverter = new AclToDocumentConverter(flattenedGrants);
+    documentToAclConverter = new DocumentToAclConverter(null);
+    internedDocumentToAclConverter = new DocumentToAclConverter(new AclInterner());
+    codec = new AclCodec(flattenedGrants, null);
+    bsonDocument = encode();
+    // The document as it is read from the database (with lists instead of sets).
+    document = new DocumentCodec()
+        .decode(new BsonDocumentReader(bsonDocument), DecoderContext.builder().build());
+  }
+
+  /**
+   * Converts the access control list into a document.
+   *
+   * @return the document
+   */
+  @Benchmark
+  public Document aclToDocument() {
+    return aclToDocumentConverter.convert(acl);
+  }
+
+  /**
+   * Converts the document into an access control list.
+   *
+   * @return the access control list
+   */
+  @Benchmark
+  public Acl documentToAcl() {
+    return documentToAclConverter.convert(document);
+  }
+
+  /**
+   * Converts the document into an interned access control list.
+   *
+   * @return the access control list
+   */
+  @Benchmark
+  public Acl documentToInternedAcl() {
+    return internedDocumentToAclConverter.convert(document);
+  }
+
+  /**
+   * Encodes the access control list with the codec.
+   *
+   * @return the bson document
+   */
+  @Benchmark
+  public BsonDocument encode() {
+    BsonDocument target = new BsonDocument();
+    codec.encode(new BsonDocumentWriter(target), acl, EncoderContext.builder().build());
+    return target;
+  }
+
+  /**
+   * Decodes the access control list with the codec.
+   *
+   * @return the access control list
+   */
+  @Benchmark
+  public Acl decode() {
+    return codec.decode(new BsonDocumentReader(bsonDocument), DecoderContext.builder().build());
+  }
+
+}
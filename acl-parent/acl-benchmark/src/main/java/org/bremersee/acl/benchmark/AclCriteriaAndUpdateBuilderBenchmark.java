@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bremersee.acl.AccessEvaluation;
+import org.bremersee.acl.NormalizedAclUserContext;
+import org.bremersee.acl.PermissionConstants;
+import org.bremersee.acl.model.AccessControlListModifications;
+import org.bremersee.acl.spring.data.mongodb.AclCriteriaAndUpdateBuilder;
+import org.bremersee.acl.spring.data.mongodb.AclModificationUpdate;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+
+/**
+ * The benchmarks of the permission criteria and the modification updates of the criteria and
+ * update builder.
+ *
+ * @author Christian Bremer
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AclCriteriaAndUpdateBuilderBenchmark {
+
+  private static final List<String> PERMISSIONS = List
+      .of(PermissionConstants.READ, PermissionConstants.WRITE);
+
+  /**
+   * The number of roles and groups of the user.
+   */
+  @Param({"1", "50", "500"})
+  public int rolesAndGroups;
+
+  /**
+   * The number of modifications.
+   */
+  @Param({"1", "10", "100"})
+  public int batchSize;
+
+  /**
+   * Specifies whether the flattened grants are used.
+   */
+  @Param({"false", "true"})
+  public boolean flattenedGrants;
+
+  private NormalizedAclUserContext userContext;
+
+  private AccessControlListModifications modifications;
+
+  private AclCriteriaAndUpdateBuilder builder;
+
+  private AclCriteriaAndUpdateBuilder uncachedBuilder;
+
+  /**
+   * Creates the builders, the user context and the modifications.
+   */
+  @Setup
+  public void setup() {
+    userContext = NormalizedAclUserContext.of(AclFixtures.userContext(rolesAndGroups));
+    modifications = AclFixtures.modifications(batchSize);
+    builder = new AclCriteriaAndUpdateBuilder("acl", flattenedGrants);
+    uncachedBuilder = new AclCriteriaAndUpdateBuilder("acl", flattenedGrants);
+    uncachedBuilder.setCriteriaCacheSize(0);
+  }
+
+  /**
+   * Builds and renders the permission criteria with the criteria cache.
+   *
+   * @return the criteria document
+   */
+  @Benchmark
+  public Document permissionCriteria() {
+    return builder
+        .buildPermissionCriteria(userContext, AccessEvaluation.ANY_PERMISSION, PERMISSIONS)
+        .getCriteriaObject();
+  }
+
+  /**
+   * Builds and renders the permission criteria without the criteria cache.
+   *
+   * @return the criteria document
+   */
+  @Benchmark
+  public Document permissionCriteriaUncached() {
+    return uncachedBuilder
+        .buildPermissionCriteria(userContext, AccessEvaluation.ANY_PERMISSION, PERMISSIONS)
+        .getCriteriaObject();
+  }
+
+  /**
+   * Builds the modification update.
+   *
+   * @return the update
+   */
+  @Benchmark
+  public AclModificationUpdate update() {
+    return builder.buildUpdate(modifications);
+  }
+
+  /**
+   * Builds the pipeline update.
+   *
+   * @return the update
+   */
+  @Benchmark
+  public AggregationUpdate pipelineUpdate() {
+    return builder.buildPipelineUpdate(modifications);
+  }
+
+}
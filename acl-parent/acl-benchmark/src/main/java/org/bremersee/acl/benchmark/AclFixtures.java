@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclUserContext;
+import org.bremersee.acl.PermissionConstants;
+import org.bremersee.acl.model.AccessControlEntryModifications;
+import org.bremersee.acl.model.AccessControlListModifications;
+
+/**
+ * The test data of the benchmarks.
+ *
+ * @author Christian Bremer
+ */
+final class AclFixtures {
+
+  /**
+   * The owner of the access control lists.
+   */
+  static final String OWNER = "owner";
+
+  private AclFixtures() {
+  }
+
+  /**
+   * Creates an access control list with all permissions. The given number of principals is split
+   * equally between the users, roles and groups of every entry (at least one of each).
+   *
+   * @param principals the number of principals of every entry
+   * @return the access control list
+   */
+  static Acl acl(int principals) {
+    int size = Math.max(1, principals / 3);
+    return Acl.builder()
+        .owner(OWNER)
+        .addPermissions(PermissionConstants.getAll())
+        .addUsers(names("user-", 0, size))
+        .addRoles(names("role-", 0, size))
+        .addGroups(names("group-", 0, size))
+        .build();
+  }
+
+  /**
+   * Creates a user context with the given number of roles and groups. Only the last role is
+   * contained in the access control list of {@link #acl(int)}, so the evaluation has to look at
+   * all roles and groups.
+   *
+   * @param rolesAndGroups the number of roles and the number of groups
+   * @return the user context
+   */
+  static AclUserContext userContext(int rolesAndGroups) {
+    int size = Math.max(1, rolesAndGroups);
+    List<String> roles = new ArrayList<>(names("other-role-", 0, size - 1));
+    roles.add("role-0");
+    return AclUserContext.builder()
+        .name("anybody")
+        .roles(roles)
+        .groups(names("other-group-", 0, size))
+        .build();
+  }
+
+  /**
+   * Creates a batch of modifications. Every modification adds new principals to an entry and
+   * removes existing ones.
+   *
+   * @param batchSize the number of modifications
+   * @return the modifications
+   */
+  static AccessControlListModifications modifications(int batchSize) {
+    List<String> permissions = List.copyOf(PermissionConstants.getAll());
+    List<AccessControlEntryModifications> mods = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      mods.add(AccessControlEntryModifications.builder()
+          .permission(permissions.get(i % permissions.size()))
+          .addAddUsers("new-user-" + i)
+          .addAddRoles("new-role-" + i)
+          .addAddGroups("new-group-" + i)
+          .addRemoveUsers("user-" + i)
+          .addRemoveRoles("role-" + i)
+          .build());
+    }
+    return AccessControlListModifications.builder()
+        .modifications(mods)
+        .build();
+  }
+
+  private static List<String> names(String prefix, int from, int to) {
+    List<String> names = new ArrayList<>(Math.max(0, to - from));
+    for (int i = from; i < to; i++) {
+      names.add(prefix + i);
+    }
+    return names;
+  }
+
+}
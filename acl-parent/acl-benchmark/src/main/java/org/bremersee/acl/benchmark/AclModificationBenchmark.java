@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.model.AccessControlListModifications;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmarks of applying batches of modifications to access control lists.
+ *
+ * @author Christian Bremer
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AclModificationBenchmark {
+
+  /**
+   * The number of principals of every entry.
+   */
+  @Param({"1", "100", "10000"})
+  public int principals;
+
+  /**
+   * The number of modifications.
+   */
+  @Param({"1", "10", "100"})
+  public int batchSize;
+
+  private Acl acl;
+
+  private AccessControlListModifications modifications;
+
+  /**
+   * Creates the access control list and the modifications.
+   */
+  @Setup
+  public void setup() {
+    acl = AclFixtures.acl(principals);
+    modifications = AclFixtures.modifications(batchSize);
+  }
+
+  /**
+   * Applies the modifications.
+   *
+   * @return the modified access control list
+   */
+  @Benchmark
+  public Acl apply() {
+    return Acl.builder()
+        .from(acl)
+        .apply(modifications)
+        .build();
+  }
+
+}
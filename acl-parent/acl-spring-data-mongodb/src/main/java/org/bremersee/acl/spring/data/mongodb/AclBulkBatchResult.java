@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import java.time.Duration;
+import org.immutables.value.Value;
+import org.immutables.value.Value.Style.ImplementationVisibility;
+
+/**
+ * The result of one batch of acl bulk operations (see {@link AclBulkOperations}).
+ *
+ * @author Christian Bremer
+ */
+@Value.Immutable
+@Value.Style(visibility = ImplementationVisibility.PACKAGE)
+public interface AclBulkBatchResult {
+
+  /**
+   * Creates acl bulk batch result builder.
+   *
+   * @return the acl bulk batch result builder
+   */
+  static ImmutableAclBulkBatchResult.Builder builder() {
+    return ImmutableAclBulkBatchResult.builder();
+  }
+
+  /**
+   * Gets the number of update operations of the batch.
+   *
+   * @return the operation count
+   */
+  int getOperationCount();
+
+  /**
+   * Gets the number of documents, that were matched by the updates.
+   *
+   * @return the matched count
+   */
+  int getMatchedCount();
+
+  /**
+   * Gets the number of documents, that were modified by the updates.
+   *
+   * @return the modified count
+   */
+  int getModifiedCount();
+
+  /**
+   * Gets the duration of the bulk write.
+   *
+   * @return the duration
+   */
+  Duration getDuration();
+
+  /**
+   * Gets the throughput of the batch.
+   *
+   * @return the number of modified documents per second
+   */
+  @Value.Derived
+  default double getModifiedPerSecond() {
+    return getModifiedCount() * 1_000_000_000.0 / Math.max(1L, getDuration().toNanos());
+  }
+
+}
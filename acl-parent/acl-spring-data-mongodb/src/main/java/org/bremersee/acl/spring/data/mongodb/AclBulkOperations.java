@@ -0,0 +1,404 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import static java.util.Objects.nonNull;
+import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+import com.mongodb.bulk.BulkWriteResult;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import lombok.Getter;
+import org.bremersee.acl.Ace;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.annotation.AclHolder;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.util.Assert;
+
+/**
+ * The acl bulk operations rewrite the access control lists of many documents with unordered bulk
+ * writes. The updates are sent in chunks of the configured size (see {@link #setChunkSize(int)});
+ * the result of every chunk is reported to the batch listener (see
+ * {@link #setBatchListener(Consumer)}) and returned in the {@link AclBulkResult}.
+ *
+ * <p>Renaming and replacing a principal is done server-side with one update per permission
+ * entry, so the permissions must be known (like for the indexes, see
+ * {@link AclIndexOperations}). If flattened grants are enabled (see {@link AclGrants}), the grant
+ * tokens are renamed and replaced, too.
+ *
+ * @author Christian Bremer
+ */
+public class AclBulkOperations {
+
+  /**
+   * The default chunk size.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+  private static final String PRINCIPAL_IDENTIFIER = "principal";
+
+  private final MongoOperations mongoOperations;
+
+  private final Class<?> entityClass;
+
+  private final String collectionName;
+
+  private final String aclPath;
+
+  private final boolean flattenedGrants;
+
+  private final AclCriteriaAndUpdateBuilder updateBuilder;
+
+  /**
+   * The maximum number of updates, that are sent in one bulk write.
+   */
+  @Getter
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+  private Consumer<AclBulkBatchResult> batchListener = batch -> {
+  };
+
+  /**
+   * Instantiates new acl bulk operations.
+   *
+   * @param mongoOperations the mongo operations
+   * @param entityClass the entity class
+   * @param flattenedGrants specifies whether flattened grants are used
+   */
+  public AclBulkOperations(
+      MongoOperations mongoOperations,
+      Class<?> entityClass,
+      boolean flattenedGrants) {
+
+    Assert.notNull(mongoOperations, "Mongo operations must be present.");
+    Assert.notNull(entityClass, "Entity class must be present.");
+    this.mongoOperations = mongoOperations;
+    this.entityClass = entityClass;
+    this.collectionName = mongoOperations.getCollectionName(entityClass);
+    this.aclPath = Optional
+        .ofNullable(findAnnotation(entityClass, AclHolder.class))
+        .map(AclHolder::path)
+        .orElseThrow(() -> new IllegalArgumentException(String
+            .format(
+                "Entity class %s must be annotated with %s.",
+                entityClass.getSimpleName(), AclHolder.class.getSimpleName())));
+    this.flattenedGrants = flattenedGrants;
+    this.updateBuilder = new AclCriteriaAndUpdateBuilder(aclPath, flattenedGrants);
+  }
+
+  /**
+   * Instantiates new acl bulk operations.
+   *
+   * @param mongoOperations the mongo operations
+   * @param collectionName the collection name
+   * @param aclPath the acl path
+   * @param flattenedGrants specifies whether flattened grants are used
+   */
+  public AclBulkOperations(
+      MongoOperations mongoOperations,
+      String collectionName,
+      String aclPath,
+      boolean flattenedGrants) {
+
+    Assert.notNull(mongoOperations, "Mongo operations must be present.");
+    Assert.hasLength(collectionName, "Collection name must be present.");
+    this.mongoOperations = mongoOperations;
+    this.entityClass = null;
+    this.collectionName = collectionName.trim();
+    this.aclPath = isEmpty(aclPath) ? "" : aclPath.trim();
+    this.flattenedGrants = flattenedGrants;
+    this.updateBuilder = new AclCriteriaAndUpdateBuilder(this.aclPath, flattenedGrants);
+  }
+
+  /**
+   * Sets the maximum number of updates, that are sent in one bulk write.
+   *
+   * @param chunkSize the chunk size
+   */
+  public void setChunkSize(int chunkSize) {
+    Assert.isTrue(chunkSize > 0, "Chunk size must be greater than zero.");
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Sets the batch listener, that is called after every bulk write, for example to log the
+   * progress and the throughput.
+   *
+   * @param batchListener the batch listener
+   */
+  public void setBatchListener(Consumer<AclBulkBatchResult> batchListener) {
+    this.batchListener = nonNull(batchListener) ? batchListener : batch -> {
+    };
+  }
+
+  /**
+   * Changes the owners of the documents with the given ids.
+   *
+   * @param newOwnersById the new owners by document id
+   * @return the result
+   */
+  public AclBulkResult changeOwners(Map<?, String> newOwnersById) {
+    List<Pair<Query, UpdateDefinition>> updates = new ArrayList<>();
+    if (nonNull(newOwnersById)) {
+      newOwnersById.forEach((id, newOwner) -> updates
+          .add(Pair.of(idQuery(id), updateBuilder.buildUpdate(newOwner))));
+    }
+    return execute(updates, false);
+  }
+
+  /**
+   * Replaces the access control lists of the documents with the given ids.
+   *
+   * @param aclsById the access control lists by document id
+   * @return the result
+   */
+  public AclBulkResult replaceAcls(Map<?, ? extends Acl> aclsById) {
+    List<Pair<Query, UpdateDefinition>> updates = new ArrayList<>();
+    if (nonNull(aclsById)) {
+      aclsById.forEach((id, acl) -> updates
+          .add(Pair.of(idQuery(id), updateBuilder.buildUpdate(acl))));
+    }
+    return execute(updates, false);
+  }
+
+  /**
+   * Changes the owner of all documents, that are owned by the old owner.
+   *
+   * @param oldOwner the old owner
+   * @param newOwner the new owner
+   * @return the result
+   */
+  public AclBulkResult renameOwner(String oldOwner, String newOwner) {
+    Assert.hasText(oldOwner, "Old owner must be present.");
+    return execute(
+        List.of(Pair.of(
+            Query.query(Criteria.where(path(Acl.OWNER)).is(oldOwner)),
+            updateBuilder.buildUpdate(newOwner))),
+        true);
+  }
+
+  /**
+   * Renames a principal in the entries of the given permissions of all documents. The name is
+   * replaced in place with a filtered positional update ({@code arrayFilters}); in documents,
+   * that already contain the new name, the old name is removed.
+   *
+   * @param principalType the principal type
+   * @param oldName the old name
+   * @param newName the new name
+   * @param permissions the permissions
+   * @return the result
+   */
+  public AclBulkResult renamePrincipal(
+      PrincipalType principalType,
+      String oldName,
+      String newName,
+      Collection<String> permissions) {
+
+    Assert.notNull(principalType, "Principal type must be present.");
+    Assert.hasText(oldName, "Old name must be present.");
+    Assert.hasText(newName, "New name must be present.");
+    if (oldName.equals(newName)) {
+      return AclBulkResult.builder().build();
+    }
+    List<Pair<Query, UpdateDefinition>> updates = new ArrayList<>();
+    for (String permission : distinct(permissions)) {
+      addRenameUpdates(
+          updates,
+          path(Acl.ENTRIES, permission, principalType.getField()),
+          oldName,
+          newName);
+      if (flattenedGrants) {
+        addRenameUpdates(
+            updates,
+            path(AclGrants.GRANTS),
+            AclGrants.token(permission, principalType.getGrantType(), oldName),
+            AclGrants.token(permission, principalType.getGrantType(), newName));
+      }
+    }
+    return execute(updates, true);
+  }
+
+  private void addRenameUpdates(
+      List<Pair<Query, UpdateDefinition>> updates,
+      String path,
+      String oldName,
+      String newName) {
+
+    updates.add(Pair.of(
+        Query.query(Criteria.where(path).all(oldName).nin(newName)),
+        new Update()
+            .set(path + ".$[" + PRINCIPAL_IDENTIFIER + "]", newName)
+            .filterArray(Criteria.where(PRINCIPAL_IDENTIFIER).is(oldName))));
+    updates.add(Pair.of(
+        Query.query(Criteria.where(path).all(oldName, newName)),
+        new Update().pull(path, oldName)));
+  }
+
+  /**
+   * Replaces a principal by the given principals in the entries of the given permissions of all
+   * documents, for example if a group is split. The updates are aggregation pipelines, that
+   * require MongoDB 4.2 or later.
+   *
+   * @param principalType the principal type
+   * @param oldName the old name
+   * @param newNames the new names
+   * @param permissions the permissions
+   * @return the result
+   */
+  public AclBulkResult replacePrincipal(
+      PrincipalType principalType,
+      String oldName,
+      Collection<String> newNames,
+      Collection<String> permissions) {
+
+    Assert.notNull(principalType, "Principal type must be present.");
+    Assert.hasText(oldName, "Old name must be present.");
+    Set<String> names = distinct(newNames);
+    List<Pair<Query, UpdateDefinition>> updates = new ArrayList<>();
+    for (String permission : distinct(permissions)) {
+      addReplaceUpdate(
+          updates,
+          path(Acl.ENTRIES, permission, principalType.getField()),
+          oldName,
+          names);
+      if (flattenedGrants) {
+        addReplaceUpdate(
+            updates,
+            path(AclGrants.GRANTS),
+            AclGrants.token(permission, principalType.getGrantType(), oldName),
+            AclGrants.tokens(permission, principalType.getGrantType(), names));
+      }
+    }
+    return execute(updates, true);
+  }
+
+  private void addReplaceUpdate(
+      List<Pair<Query, UpdateDefinition>> updates,
+      String path,
+      String oldName,
+      Collection<String> newNames) {
+
+    Document fields = new Document();
+    AclCriteriaAndUpdateBuilder.appendSetExpression(fields, path, newNames, List.of(oldName));
+    updates.add(Pair.of(
+        Query.query(Criteria.where(path).is(oldName)),
+        AggregationUpdate.from(List.of(context -> new Document("$set", fields)))));
+  }
+
+  private AclBulkResult execute(List<Pair<Query, UpdateDefinition>> updates, boolean multi) {
+    List<AclBulkBatchResult> batches = new ArrayList<>();
+    for (int from = 0; from < updates.size(); from += chunkSize) {
+      List<Pair<Query, UpdateDefinition>> chunk = updates
+          .subList(from, Math.min(updates.size(), from + chunkSize));
+      BulkOperations bulkOps = nonNull(entityClass)
+          ? mongoOperations.bulkOps(BulkMode.UNORDERED, entityClass, collectionName)
+          : mongoOperations.bulkOps(BulkMode.UNORDERED, collectionName);
+      if (multi) {
+        bulkOps.updateMulti(chunk);
+      } else {
+        bulkOps.updateOne(chunk);
+      }
+      long start = System.nanoTime();
+      BulkWriteResult result = bulkOps.execute();
+      AclBulkBatchResult batch = AclBulkBatchResult.builder()
+          .operationCount(chunk.size())
+          .matchedCount(result.wasAcknowledged() ? result.getMatchedCount() : 0)
+          .modifiedCount(result.wasAcknowledged() ? result.getModifiedCount() : 0)
+          .duration(Duration.ofNanos(System.nanoTime() - start))
+          .build();
+      batchListener.accept(batch);
+      batches.add(batch);
+    }
+    return AclBulkResult.builder().batches(batches).build();
+  }
+
+  private static Query idQuery(Object id) {
+    return Query.query(Criteria.where("_id").is(id));
+  }
+
+  private static Set<String> distinct(Collection<String> values) {
+    Set<String> distinctValues = new LinkedHashSet<>();
+    if (nonNull(values)) {
+      values.stream()
+          .filter(value -> nonNull(value) && !value.isBlank())
+          .forEach(distinctValues::add);
+    }
+    return distinctValues;
+  }
+
+  private String path(String... pathSegments) {
+    String path = String.join(".", pathSegments);
+    return aclPath.isEmpty() ? path : aclPath + "." + path;
+  }
+
+  /**
+   * The principal type.
+   */
+  public enum PrincipalType {
+
+    /**
+     * User principal type.
+     */
+    USER(Ace.USERS, AclGrants.USER),
+
+    /**
+     * Role principal type.
+     */
+    ROLE(Ace.ROLES, AclGrants.ROLE),
+
+    /**
+     * Group principal type.
+     */
+    GROUP(Ace.GROUPS, AclGrants.GROUP);
+
+    /**
+     * The field of the access control entry.
+     */
+    @Getter
+    private final String field;
+
+    /**
+     * The principal type of the grant tokens.
+     */
+    @Getter
+    private final String grantType;
+
+    PrincipalType(String field, String grantType) {
+      this.field = field;
+      this.grantType = grantType;
+    }
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import java.time.Duration;
+import java.util.List;
+import org.immutables.value.Value;
+import org.immutables.value.Value.Style.ImplementationVisibility;
+
+/**
+ * The result of acl bulk operations (see {@link AclBulkOperations}).
+ *
+ * @author Christian Bremer
+ */
+@Value.Immutable
+@Value.Style(visibility = ImplementationVisibility.PACKAGE)
+public interface AclBulkResult {
+
+  /**
+   * Creates acl bulk result builder.
+   *
+   * @return the acl bulk result builder
+   */
+  static ImmutableAclBulkResult.Builder builder() {
+    return ImmutableAclBulkResult.builder();
+  }
+
+  /**
+   * Gets the results of the batches.
+   *
+   * @return the batches
+   */
+  List<AclBulkBatchResult> getBatches();
+
+  /**
+   * Gets the number of update operations.
+   *
+   * @return the operation count
+   */
+  @Value.Derived
+  default int getOperationCount() {
+    return getBatches().stream().mapToInt(AclBulkBatchResult::getOperationCount).sum();
+  }
+
+  /**
+   * Gets the number of documents, that were matched by the updates.
+   *
+   * @return the matched count
+   */
+  @Value.Derived
+  default int getMatchedCount() {
+    return getBatches().stream().mapToInt(AclBulkBatchResult::getMatchedCount).sum();
+  }
+
+  /**
+   * Gets the number of documents, that were modified by the updates.
+   *
+   * @return the modified count
+   */
+  @Value.Derived
+  default int getModifiedCount() {
+    return getBatches().stream().mapToInt(AclBulkBatchResult::getModifiedCount).sum();
+  }
+
+  /**
+   * Gets the duration of all bulk writes.
+   *
+   * @return the duration
+   */
+  @Value.Derived
+  default Duration getDuration() {
+    return getBatches().stream()
+        .map(AclBulkBatchResult::getDuration)
+        .reduce(Duration.ZERO, Duration::plus);
+  }
+
+}
@@ -21,17 +21,23 @@ import static org.springframework.util.ObjectUtils.isEmpty;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import lombok.EqualsAndHashCode;
 import org.bremersee.acl.AccessEvaluation;
 import org.bremersee.acl.Ace;
 import org.bremersee.acl.Acl;
 import org.bremersee.acl.AclUserContext;
+import org.bremersee.acl.BoundedCache;
+import org.bremersee.acl.NormalizedAclUserContext;
 import org.bremersee.acl.annotation.AclHolder;
 import org.bremersee.acl.model.AccessControlEntryModifications;
 import org.bremersee.acl.model.AccessControlListModifications;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.util.Assert;
@@ -39,19 +45,52 @@ import org.springframework.util.Assert;
 /**
  * The acl criteria and update builder.
  *
+ * <p>If flattened grants are enabled, the permission criteria query the grant tokens (see
+ * {@link AclGrants}) instead of the entries and the modification updates maintain the grant
+ * tokens together with the entries. The access control lists must then be written with grant
+ * tokens, too (see
+ * {@link org.bremersee.acl.spring.data.mongodb.convert.AclConverters#AclConverters(boolean)}).
+ *
+ * <p>The permission criteria are compiled once per normalized user context, access evaluation
+ * and permissions into a document, that is kept in a small, least recently used cache (see
+ * {@link #setCriteriaCacheSize(int)}). The returned criteria render the cached document and can
+ * be combined with other criteria as usual, for example with
+ * {@link Criteria#andOperator(Criteria...)}.
+ *
  * @author Christian Bremer
  */
 public class AclCriteriaAndUpdateBuilder {
 
+  /**
+   * The default size of the permission criteria cache.
+   */
+  public static final int DEFAULT_CRITERIA_CACHE_SIZE = 256;
+
   private final String aclPath;
 
+  private final boolean flattenedGrants;
+
+  private volatile BoundedCache<CriteriaKey, Document> compiledCriteria =
+      new BoundedCache<>(DEFAULT_CRITERIA_CACHE_SIZE);
+
   /**
    * Instantiates a new acl criteria and update builder.
    *
    * @param aclPath the acl path
    */
   public AclCriteriaAndUpdateBuilder(String aclPath) {
+    this(aclPath, false);
+  }
+
+  /**
+   * Instantiates a new acl criteria and update builder.
+   *
+   * @param aclPath the acl path
+   * @param flattenedGrants specifies whether flattened grants are used
+   */
+  public AclCriteriaAndUpdateBuilder(String aclPath, boolean flattenedGrants) {
     this.aclPath = Objects.isNull(aclPath) ? "" : aclPath;
+    this.flattenedGrants = flattenedGrants;
   }
 
   /**
@@ -60,7 +99,18 @@ public class AclCriteriaAndUpdateBuilder {
    * @param entityClass the entity class
    */
   public AclCriteriaAndUpdateBuilder(Class<?> entityClass) {
+    this(entityClass, false);
+  }
+
+  /**
+   * Instantiates a new acl criteria and update builder.
+   *
+   * @param entityClass the entity class
+   * @param flattenedGrants specifies whether flattened grants are used
+   */
+  public AclCriteriaAndUpdateBuilder(Class<?> entityClass, boolean flattenedGrants) {
     Assert.notNull(entityClass, "Entity class must be present.");
+    this.flattenedGrants = flattenedGrants;
     this.aclPath = Optional
         .ofNullable(findAnnotation(entityClass, AclHolder.class))
         .map(AclHolder::path)
@@ -71,7 +121,29 @@ public class AclCriteriaAndUpdateBuilder {
   }
 
   /**
-   * Build update acl modification update.
+   * Sets the maximum number of compiled permission criteria. The cache is cleared.
+   *
+   * @param criteriaCacheSize the maximum number of compiled permission criteria (if it is less
+   *     than {@code 1}, the permission criteria are not cached)
+   */
+  public void setCriteriaCacheSize(int criteriaCacheSize) {
+    this.compiledCriteria = new BoundedCache<>(criteriaCacheSize);
+  }
+
+  /**
+   * Gets the maximum number of compiled permission criteria.
+   *
+   * @return the maximum number of compiled permission criteria
+   */
+  public int getCriteriaCacheSize() {
+    return compiledCriteria.getMaximumSize();
+  }
+
+  /**
+   * Build update acl modification update. If something is removed, the modifications are split
+   * into preparation updates and a final update, that must be executed one after another. On
+   * MongoDB 4.2 or later {@link #buildPipelineUpdate(AccessControlListModifications)} should be
+   * used instead, that applies all modifications in one atomic write.
    *
    * @param accessControlListModifications the access control list modifications
    * @return the acl modification update
@@ -86,6 +158,8 @@ public class AclCriteriaAndUpdateBuilder {
     Update addAndSetUpdate = new Update();
     Update removeUpdate = new Update();
     boolean isSomethingRemoved = false;
+    List<String> addedGrants = new ArrayList<>();
+    List<String> removedGrants = new ArrayList<>();
 
     for (AccessControlEntryModifications mod : mods) {
 
@@ -93,6 +167,7 @@ public class AclCriteriaAndUpdateBuilder {
       addAndSetUpdate = addAndSetUpdate.set(
           path(Acl.ENTRIES, mod.getPermission(), Ace.GUEST),
           mod.isGuest());
+      collectGrants(mod, addedGrants, removedGrants);
 
       // users
       if (!mod.getAddUsers().isEmpty()) {
@@ -132,6 +207,15 @@ public class AclCriteriaAndUpdateBuilder {
             mod.getRemoveGroups().toArray(new String[0]));
       }
     }
+    if (!addedGrants.isEmpty()) {
+      addAndSetUpdate = addAndSetUpdate
+          .addToSet(path(AclGrants.GRANTS))
+          .each(addedGrants.toArray());
+    }
+    if (!removedGrants.isEmpty()) {
+      isSomethingRemoved = true;
+      removeUpdate = removeUpdate.pullAll(path(AclGrants.GRANTS), removedGrants.toArray());
+    }
     return AclModificationUpdate.builder()
         .preparationUpdates(isSomethingRemoved ? List.of(addAndSetUpdate) : List.of())
         .finalUpdate(isSomethingRemoved ? removeUpdate : addAndSetUpdate)
@@ -139,7 +223,105 @@ public class AclCriteriaAndUpdateBuilder {
   }
 
   /**
-   * Build update.
+   * Build an update, that applies all modifications of all permissions in one atomic write. The
+   * update is an aggregation pipeline with one {@code $set} stage, that combines the users, roles
+   * and groups (and the grants) with {@code $setUnion} and {@code $setDifference}. Like in
+   * {@link #buildUpdate(AccessControlListModifications)} the removals are applied after the
+   * additions.
+   *
+   * <p>Pipeline updates require MongoDB 4.2 or later. For older servers
+   * {@link #buildUpdate(AccessControlListModifications)} must be used, that splits the
+   * modifications into several updates.
+   *
+   * @param accessControlListModifications the access control list modifications
+   * @return the aggregation update
+   */
+  public AggregationUpdate buildPipelineUpdate(
+      AccessControlListModifications accessControlListModifications) {
+
+    Collection<AccessControlEntryModifications> mods = isEmpty(accessControlListModifications)
+        ? List.of()
+        : accessControlListModifications.getModificationsDistinct();
+
+    Document fields = new Document();
+    List<String> addedGrants = new ArrayList<>();
+    List<String> removedGrants = new ArrayList<>();
+    for (AccessControlEntryModifications mod : mods) {
+      fields.append(path(Acl.ENTRIES, mod.getPermission(), Ace.GUEST), mod.isGuest());
+      appendSetExpression(fields, path(Acl.ENTRIES, mod.getPermission(), Ace.USERS),
+          mod.getAddUsers(), mod.getRemoveUsers());
+      appendSetExpression(fields, path(Acl.ENTRIES, mod.getPermission(), Ace.ROLES),
+          mod.getAddRoles(), mod.getRemoveRoles());
+      appendSetExpression(fields, path(Acl.ENTRIES, mod.getPermission(), Ace.GROUPS),
+          mod.getAddGroups(), mod.getRemoveGroups());
+      collectGrants(mod, addedGrants, removedGrants);
+    }
+    appendSetExpression(fields, path(AclGrants.GRANTS), addedGrants, removedGrants);
+    if (fields.isEmpty()) {
+      // A pipeline stage must not be empty, so the owner is set to itself.
+      fields.append(path(Acl.OWNER), "$" + path(Acl.OWNER));
+    }
+    Document stage = new Document("$set", fields);
+    return AggregationUpdate.from(List.of(context -> stage));
+  }
+
+  /**
+   * Appends the expression, that adds and removes the given values to and from the array of the
+   * given path.
+   *
+   * @param fields the fields of the {@code $set} stage
+   * @param path the path of the array
+   * @param additions the values to add
+   * @param removals the values to remove
+   */
+  static void appendSetExpression(
+      Document fields,
+      String path,
+      Collection<String> additions,
+      Collection<String> removals) {
+
+    if (additions.isEmpty() && removals.isEmpty()) {
+      return;
+    }
+    Object value = new Document("$ifNull", List.of("$" + path, List.of()));
+    if (!additions.isEmpty()) {
+      value = new Document("$setUnion", List.of(value, literal(additions)));
+    }
+    if (!removals.isEmpty()) {
+      value = new Document("$setDifference", List.of(value, literal(removals)));
+    }
+    fields.append(path, value);
+  }
+
+  /**
+   * Wraps the values in {@code $literal}, so that values starting with {@code $} are not taken
+   * as field paths.
+   */
+  private static Document literal(Collection<String> values) {
+    return new Document("$literal", List.copyOf(values));
+  }
+
+  private void collectGrants(
+      AccessControlEntryModifications mod,
+      List<String> addedGrants,
+      List<String> removedGrants) {
+
+    if (!flattenedGrants) {
+      return;
+    }
+    String permission = mod.getPermission();
+    (mod.isGuest() ? addedGrants : removedGrants).add(AclGrants.guestToken(permission));
+    addedGrants.addAll(AclGrants.tokens(permission, AclGrants.USER, mod.getAddUsers()));
+    addedGrants.addAll(AclGrants.tokens(permission, AclGrants.ROLE, mod.getAddRoles()));
+    addedGrants.addAll(AclGrants.tokens(permission, AclGrants.GROUP, mod.getAddGroups()));
+    removedGrants.addAll(AclGrants.tokens(permission, AclGrants.USER, mod.getRemoveUsers()));
+    removedGrants.addAll(AclGrants.tokens(permission, AclGrants.ROLE, mod.getRemoveRoles()));
+    removedGrants.addAll(AclGrants.tokens(permission, AclGrants.GROUP, mod.getRemoveGroups()));
+  }
+
+  /**
+   * Build update. If flattened grants are enabled, the acl must be written by a converter, that
+   * adds the grant tokens.
    *
    * @param acl the acl
    * @return the update
@@ -182,10 +364,47 @@ public class AclCriteriaAndUpdateBuilder {
       AccessEvaluation accessEvaluation,
       Collection<String> permissions) {
 
+    Assert.notNull(userContext, "User context must be present.");
+    return buildPermissionCriteria(
+        NormalizedAclUserContext.of(userContext), accessEvaluation, permissions);
+  }
+
+  /**
+   * Build permission criteria. The roles and groups of the normalized user context are already
+   * deduplicated, so the user context should be normalized once per request and reused.
+   *
+   * @param userContext the normalized user context
+   * @param accessEvaluation the access evaluation
+   * @param permissions the permissions
+   * @return the criteria
+   */
+  public Criteria buildPermissionCriteria(
+      NormalizedAclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+
     Assert.notNull(userContext, "User context must be present.");
     Assert.notNull(accessEvaluation, "Access evaluation type must be present.");
     Assert.notEmpty(permissions, "At least one permission must be present.");
 
+    BoundedCache<CriteriaKey, Document> cache = compiledCriteria;
+    if (cache.getMaximumSize() < 1) {
+      return compilePermissionCriteria(userContext, accessEvaluation, permissions);
+    }
+    CriteriaKey key = new CriteriaKey(userContext, accessEvaluation, List.copyOf(permissions));
+    Document document = cache.get(key, k -> compilePermissionCriteria(
+        userContext, accessEvaluation, permissions).getCriteriaObject());
+    return new CompiledCriteria(document);
+  }
+
+  private Criteria compilePermissionCriteria(
+      NormalizedAclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+
+    if (flattenedGrants) {
+      return buildGrantsPermissionCriteria(userContext, accessEvaluation, permissions);
+    }
     List<Criteria> permissionCriteriaList = Set.copyOf(permissions).stream()
         .map(permission -> createAccessCriteria(userContext, permission))
         .toList();
@@ -199,31 +418,53 @@ public class AclCriteriaAndUpdateBuilder {
     return new Criteria().orOperator(ownerCriteria, permissionCriteria);
   }
 
+  private Criteria buildGrantsPermissionCriteria(
+      NormalizedAclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+
+    Set<String> distinctPermissions = new LinkedHashSet<>(permissions);
+    Criteria permissionCriteria;
+    if (accessEvaluation.isAnyPermission() || distinctPermissions.size() == 1) {
+      List<String> tokens = distinctPermissions.stream()
+          .flatMap(permission -> AclGrants.tokensOf(userContext, permission).stream())
+          .toList();
+      permissionCriteria = Criteria.where(path(AclGrants.GRANTS)).in(tokens);
+    } else {
+      permissionCriteria = new Criteria().andOperator(distinctPermissions.stream()
+          .map(permission -> Criteria
+              .where(path(AclGrants.GRANTS))
+              .in(AclGrants.tokensOf(userContext, permission)))
+          .toList());
+    }
+    if (userContext.getName().isBlank()) {
+      return permissionCriteria;
+    }
+    Criteria ownerCriteria = Criteria.where(path(Acl.OWNER)).is(userContext.getName());
+    return new Criteria().orOperator(ownerCriteria, permissionCriteria);
+  }
+
   private Criteria createAccessCriteria(
-      AclUserContext userContext,
+      NormalizedAclUserContext userContext,
       String permission) {
 
-    List<Criteria> criteriaList = new ArrayList<>();
+    List<Criteria> criteriaList = new ArrayList<>(4);
     criteriaList.add(Criteria.where(path(Acl.ENTRIES, permission, Ace.GUEST)).is(true));
     if (!userContext.getName().isBlank()) {
       criteriaList.add(Criteria
           .where(path(Acl.ENTRIES, permission, Ace.USERS))
           .all(userContext.getName()));
     }
-    criteriaList.addAll(userContext.getRoles().stream()
-        .filter(role -> !isEmpty(role))
-        .map(role -> Criteria.
-            where(path(Acl.ENTRIES, permission, Ace.ROLES))
-            .all(role))
-        .toList()
-    );
-    criteriaList.addAll(userContext.getGroups().stream()
-        .filter(group -> !isEmpty(group))
-        .map(group -> Criteria
-            .where(path(Acl.ENTRIES, permission, Ace.GROUPS))
-            .all(group))
-        .toList()
-    );
+    if (!userContext.getRoles().isEmpty()) {
+      criteriaList.add(Criteria
+          .where(path(Acl.ENTRIES, permission, Ace.ROLES))
+          .in(userContext.getRoles()));
+    }
+    if (!userContext.getGroups().isEmpty()) {
+      criteriaList.add(Criteria
+          .where(path(Acl.ENTRIES, permission, Ace.GROUPS))
+          .in(userContext.getGroups()));
+    }
     return new Criteria().orOperator(criteriaList);
   }
 
@@ -234,4 +475,80 @@ public class AclCriteriaAndUpdateBuilder {
     return aclPath + "." + String.join(".", pathSegments);
   }
 
+  /**
+   * The key of compiled permission criteria.
+   */
+  @EqualsAndHashCode
+  private static final class CriteriaKey {
+
+    private final NormalizedAclUserContext userContext;
+
+    private final AccessEvaluation accessEvaluation;
+
+    private final List<String> permissions;
+
+    private CriteriaKey(
+        NormalizedAclUserContext userContext,
+        AccessEvaluation accessEvaluation,
+        List<String> permissions) {
+      this.userContext = userContext;
+      this.accessEvaluation = accessEvaluation;
+      this.permissions = permissions;
+    }
+  }
+
+  /**
+   * The compiled permission criteria render a deep copy of the cached document, so neither the
+   * caller nor Spring Data can change the cached document or its nested documents and lists.
+   * Criteria, that are added to them, are combined with {@code $and}.
+   */
+  private static final class CompiledCriteria extends Criteria {
+
+    private final Document document;
+
+    private CompiledCriteria(Document document) {
+      super(new ArrayList<>(), null);
+      this.document = document;
+    }
+
+    @Override
+    protected Document getSingleCriteriaObject() {
+      Document additionalCriteria = super.getSingleCriteriaObject();
+      if (additionalCriteria.isEmpty()) {
+        return deepCopy(document);
+      }
+      return new Document("$and", List.of(deepCopy(document), additionalCriteria));
+    }
+
+    private static Document deepCopy(Document source) {
+      Document copy = new Document();
+      source.forEach((key, value) -> copy.append(key, deepCopyValue(value)));
+      return copy;
+    }
+
+    private static Object deepCopyValue(Object value) {
+      if (value instanceof Document document) {
+        return deepCopy(document);
+      }
+      if (value instanceof Collection<?> collection) {
+        List<Object> copy = new ArrayList<>(collection.size());
+        collection.forEach(element -> copy.add(deepCopyValue(element)));
+        return copy;
+      }
+      return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CompiledCriteria other
+          && document.equals(other.document)
+          && super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * super.hashCode() + document.hashCode();
+    }
+  }
+
 }
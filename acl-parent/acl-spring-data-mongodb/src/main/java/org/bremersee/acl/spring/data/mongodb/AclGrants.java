@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.bremersee.acl.Ace;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.NormalizedAclUserContext;
+
+/**
+ * The flattened grants of an access control list. Besides the entries, an access control list
+ * can be stored with a denormalized array of grant tokens ({@value #GRANTS}), that have the
+ * format {@code permission:principalType:principal}, for example {@code read:role:ROLE_USER}.
+ * Such an array can be queried with one {@code $in} query, that is supported by a single multikey
+ * index (see {@link AclIndexOperations#createAclGrantsIndexes(Class, boolean)}).
+ *
+ * <p>The tokens are compared case-sensitive like the entries in MongoDB queries. Permissions and
+ * principal types must not contain a colon; the principal can be any string.
+ *
+ * @author Christian Bremer
+ */
+public abstract class AclGrants {
+
+  /**
+   * The name of the grants field of the stored access control list.
+   */
+  public static final String GRANTS = "grants";
+
+  /**
+   * The principal type of guests.
+   */
+  public static final String GUEST = "guest";
+
+  /**
+   * The principal type of users.
+   */
+  public static final String USER = "user";
+
+  /**
+   * The principal type of roles.
+   */
+  public static final String ROLE = "role";
+
+  /**
+   * The principal type of groups.
+   */
+  public static final String GROUP = "group";
+
+  /**
+   * The principal of the guest token.
+   */
+  public static final String ANY_PRINCIPAL = "*";
+
+  private static final char SEPARATOR = ':';
+
+  private AclGrants() {
+  }
+
+  /**
+   * Creates the grant token.
+   *
+   * @param permission the permission
+   * @param principalType the principal type
+   * @param principal the principal
+   * @return the grant token
+   */
+  public static String token(String permission, String principalType, String principal) {
+    return permission + SEPARATOR + principalType + SEPARATOR + principal;
+  }
+
+  /**
+   * Creates the guest token of the given permission.
+   *
+   * @param permission the permission
+   * @return the guest token
+   */
+  public static String guestToken(String permission) {
+    return token(permission, GUEST, ANY_PRINCIPAL);
+  }
+
+  /**
+   * Creates the grant tokens of the given principals.
+   *
+   * @param permission the permission
+   * @param principalType the principal type
+   * @param principals the principals
+   * @return the grant tokens
+   */
+  public static List<String> tokens(
+      String permission,
+      String principalType,
+      Collection<String> principals) {
+
+    if (isNull(principals) || principals.isEmpty()) {
+      return List.of();
+    }
+    List<String> tokens = new ArrayList<>(principals.size());
+    for (String principal : principals) {
+      if (nonNull(principal) && !principal.isBlank()) {
+        tokens.add(token(permission, principalType, principal));
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Creates the sorted grant tokens of the given access control list. The owner is not part of
+   * the grants.
+   *
+   * @param acl the access control list
+   * @return the grant tokens
+   */
+  public static List<String> tokensOf(Acl acl) {
+    if (isNull(acl)) {
+      return List.of();
+    }
+    TreeSet<String> tokens = new TreeSet<>();
+    for (Map.Entry<String, Ace> entry : acl.getPermissionMap().entrySet()) {
+      String permission = entry.getKey();
+      Ace ace = entry.getValue();
+      if (ace.isGuest()) {
+        tokens.add(guestToken(permission));
+      }
+      tokens.addAll(tokens(permission, USER, ace.getUsers()));
+      tokens.addAll(tokens(permission, ROLE, ace.getRoles()));
+      tokens.addAll(tokens(permission, GROUP, ace.getGroups()));
+    }
+    return List.copyOf(tokens);
+  }
+
+  /**
+   * Creates the grant tokens, that give the user the given permission.
+   *
+   * @param userContext the normalized user context
+   * @param permission the permission
+   * @return the grant tokens
+   */
+  public static List<String> tokensOf(NormalizedAclUserContext userContext, String permission) {
+    List<String> tokens = new ArrayList<>(
+        2 + userContext.getRoles().size() + userContext.getGroups().size());
+    tokens.add(guestToken(permission));
+    if (!userContext.getName().isBlank()) {
+      tokens.add(token(permission, USER, userContext.getName()));
+    }
+    tokens.addAll(tokens(permission, ROLE, userContext.getRoles()));
+    tokens.addAll(tokens(permission, GROUP, userContext.getGroups()));
+    return tokens;
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.bremersee.acl.annotation.AclHolder;
+import org.bremersee.acl.spring.data.mongodb.convert.DocumentToAclConverter;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.Assert;
+
+/**
+ * The acl grants migration back-fills the flattened grants (see {@link AclGrants}) of existing
+ * documents. The grant tokens are calculated from the entries of the stored access control lists
+ * and written with unordered bulk updates.
+ *
+ * <p>The migration should run before the permission criteria are switched to flattened grants
+ * (see {@link AclCriteriaAndUpdateBuilder#AclCriteriaAndUpdateBuilder(Class, boolean)}).
+ * Documents, that are modified concurrently by an application, that doesn't maintain the grants
+ * yet, must be migrated again.
+ *
+ * @author Christian Bremer
+ */
+public class AclGrantsMigration {
+
+  /**
+   * The default batch size.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private final MongoOperations mongoOperations;
+
+  private final DocumentToAclConverter aclConverter = new DocumentToAclConverter(null);
+
+  /**
+   * Instantiates a new acl grants migration.
+   *
+   * @param mongoOperations the mongo operations
+   */
+  public AclGrantsMigration(MongoOperations mongoOperations) {
+    Assert.notNull(mongoOperations, "Mongo operations must be present.");
+    this.mongoOperations = mongoOperations;
+  }
+
+  /**
+   * Migrates the documents of the given entity class.
+   *
+   * @param entityClass the entity class
+   * @param onlyMissing specifies whether only documents without grants are migrated
+   * @return the number of modified documents
+   */
+  public long migrate(Class<?> entityClass, boolean onlyMissing) {
+    Assert.notNull(entityClass, "Entity class must be present.");
+    String aclPath = Optional
+        .ofNullable(findAnnotation(entityClass, AclHolder.class))
+        .map(AclHolder::path)
+        .orElseThrow(() -> new IllegalArgumentException(String
+            .format(
+                "Entity class %s must be annotated with %s.",
+                entityClass.getSimpleName(), AclHolder.class.getSimpleName())));
+    return migrate(
+        mongoOperations.getCollectionName(entityClass),
+        aclPath,
+        onlyMissing,
+        DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Migrates the documents of the given collection.
+   *
+   * @param collectionName the collection name
+   * @param aclPath the acl path
+   * @param onlyMissing specifies whether only documents without grants are migrated
+   * @param batchSize the number of documents, that are read and written at once
+   * @return the number of modified documents
+   */
+  public long migrate(
+      String collectionName,
+      String aclPath,
+      boolean onlyMissing,
+      int batchSize) {
+
+    Assert.hasLength(collectionName, "Collection name must be present.");
+    Assert.isTrue(batchSize > 0, "Batch size must be greater than zero.");
+    String validAclPath = isEmpty(aclPath) ? "" : aclPath.trim();
+    String grantsPath = validAclPath.isEmpty()
+        ? AclGrants.GRANTS
+        : validAclPath + "." + AclGrants.GRANTS;
+
+    Query query = new Query();
+    if (!validAclPath.isEmpty()) {
+      query.addCriteria(Criteria.where(validAclPath).type(3));
+      query.fields().include(validAclPath);
+    }
+    if (onlyMissing) {
+      query.addCriteria(Criteria.where(grantsPath).exists(false));
+    }
+    query.cursorBatchSize(batchSize);
+
+    long modified = 0L;
+    int pending = 0;
+    BulkOperations bulkOps = mongoOperations.bulkOps(BulkMode.UNORDERED, collectionName);
+    try (Stream<Document> documents = mongoOperations
+        .stream(query, Document.class, collectionName)) {
+      for (Document document : (Iterable<Document>) documents::iterator) {
+        Document aclDocument = validAclPath.isEmpty()
+            ? document
+            : document.getEmbedded(Arrays.asList(validAclPath.split("\\.")), Document.class);
+        List<String> grants = AclGrants.tokensOf(aclConverter.convert(aclDocument));
+        bulkOps.updateOne(
+            Query.query(Criteria.where("_id").is(document.get("_id"))),
+            Update.update(grantsPath, grants));
+        if (++pending == batchSize) {
+          modified += bulkOps.execute().getModifiedCount();
+          bulkOps = mongoOperations.bulkOps(BulkMode.UNORDERED, collectionName);
+          pending = 0;
+        }
+      }
+    }
+    if (pending > 0) {
+      modified += bulkOps.execute().getModifiedCount();
+    }
+    return modified;
+  }
+
+}
@@ -19,10 +19,12 @@ package org.bremersee.acl.spring.data.mongodb;
 import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
 import static org.springframework.util.ObjectUtils.isEmpty;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.bremersee.acl.Ace;
@@ -36,7 +38,9 @@ import org.springframework.data.mongodb.core.index.IndexOperations;
 import org.springframework.util.Assert;
 
 /**
- * The acl index operations.
+ * The acl index operations. Instead of indexing every entry field of all possible permissions,
+ * the indexes can be planned for the permissions, that are actually queried (see
+ * {@link AclIndexPlanner}).
  *
  * @author Christian Bremer
  */
@@ -93,12 +97,7 @@ public class AclIndexOperations {
   }
 
   private List<IndexInfo> getAclIndexInfo(IndexOperations indexOps, String aclPath) {
-    String validAclPath = isEmpty(aclPath) ? "" : aclPath.trim() + ".";
-    // Example: acl.(owner|(entries.(\.*).(guest|users|roles|groups)))(.*)
-    String regex = String.format(
-        "%s(%s|(%s.(.*).(%s|%s|%s|%s)))(.*)",
-        validAclPath, Acl.OWNER, Acl.ENTRIES, Ace.GUEST, Ace.USERS, Ace.ROLES, Ace.GROUPS);
-    Pattern pattern = Pattern.compile(regex);
+    Pattern pattern = aclIndexPattern(aclPath);
     return indexOps.getIndexInfo()
         .stream()
         .filter(indexInfo -> pattern.matcher(indexInfo.getName()).matches())
@@ -176,17 +175,124 @@ public class AclIndexOperations {
       dropUnusedAclIndexes(indexOps, aclPath, possiblePermissions);
     }
 
-    String validAclPath = isEmpty(aclPath) ? "" : aclPath.trim();
-    indexOps.createIndex(new Index()
-        .on(path(validAclPath, Acl.OWNER), Direction.ASC));
-    if (!isEmpty(possiblePermissions)) {
-      List.of(Ace.GUEST, Ace.USERS, Ace.ROLES, Ace.GROUPS)
-          .forEach(field -> Set.copyOf(possiblePermissions)
-              .forEach(permission -> indexOps
-                  .createIndex(new Index()
-                      .on(path(validAclPath, Acl.ENTRIES, permission, field),
-                          Direction.ASC))));
+    aclIndexes(aclPath, possiblePermissions).forEach(indexOps::createIndex);
+  }
+
+  /**
+   * Create the indexes of the owner and the flattened grants (see {@link AclGrants}). The grants
+   * are indexed by one multikey index.
+   *
+   * @param entityClass the entity class
+   * @param dropEntryIndexes specifies whether the indexes of the entries are dropped
+   */
+  public void createAclGrantsIndexes(Class<?> entityClass, boolean dropEntryIndexes) {
+    Assert.notNull(entityClass, ENTITY_NOT_NULL_MSG);
+    String aclPath = getAclPath(entityClass);
+    createAclGrantsIndexes(entityClass, aclPath, dropEntryIndexes);
+  }
+
+  /**
+   * Create the indexes of the owner and the flattened grants (see {@link AclGrants}). The grants
+   * are indexed by one multikey index.
+   *
+   * @param entityClass the entity class
+   * @param aclPath the acl path
+   * @param dropEntryIndexes specifies whether the indexes of the entries are dropped
+   */
+  public void createAclGrantsIndexes(
+      Class<?> entityClass,
+      String aclPath,
+      boolean dropEntryIndexes) {
+
+    Assert.notNull(entityClass, ENTITY_NOT_NULL_MSG);
+    createAclGrantsIndexes(mongoOperations.indexOps(entityClass), aclPath, dropEntryIndexes);
+  }
+
+  /**
+   * Create the indexes of the owner and the flattened grants (see {@link AclGrants}). The grants
+   * are indexed by one multikey index.
+   *
+   * @param collectionName the collection name
+   * @param aclPath the acl path
+   * @param dropEntryIndexes specifies whether the indexes of the entries are dropped
+   */
+  public void createAclGrantsIndexes(
+      String collectionName,
+      String aclPath,
+      boolean dropEntryIndexes) {
+
+    Assert.hasLength(collectionName, "Collection name must be present.");
+    createAclGrantsIndexes(
+        mongoOperations.indexOps(collectionName.trim()),
+        aclPath,
+        dropEntryIndexes);
+  }
+
+  private void createAclGrantsIndexes(
+      IndexOperations indexOps,
+      String aclPath,
+      boolean dropEntryIndexes) {
+
+    if (dropEntryIndexes) {
+      dropUnusedAclIndexes(indexOps, aclPath, Set.of());
     }
+    aclGrantsIndexes(aclPath).forEach(indexOps::createIndex);
+  }
+
+  /**
+   * Plans the acl indexes of the collection of the entity class (dry run). Nothing is changed.
+   *
+   * @param entityClass the entity class
+   * @param planner the acl index planner
+   * @return the acl index plan
+   */
+  public AclIndexPlan planAclIndexes(Class<?> entityClass, AclIndexPlanner planner) {
+    Assert.notNull(entityClass, ENTITY_NOT_NULL_MSG);
+    Assert.notNull(planner, "Acl index planner must be present.");
+    return planner.plan(mongoOperations.indexOps(entityClass).getIndexInfo());
+  }
+
+  /**
+   * Plans the acl indexes of the collection (dry run). Nothing is changed.
+   *
+   * @param collectionName the collection name
+   * @param planner the acl index planner
+   * @return the acl index plan
+   */
+  public AclIndexPlan planAclIndexes(String collectionName, AclIndexPlanner planner) {
+    Assert.hasLength(collectionName, "Collection name must be present.");
+    Assert.notNull(planner, "Acl index planner must be present.");
+    return planner.plan(mongoOperations.indexOps(collectionName.trim()).getIndexInfo());
+  }
+
+  /**
+   * Applies the acl index plan to the collection of the entity class: the indexes to drop are
+   * dropped first, then the indexes to create are created.
+   *
+   * @param entityClass the entity class
+   * @param plan the acl index plan
+   */
+  public void applyAclIndexPlan(Class<?> entityClass, AclIndexPlan plan) {
+    Assert.notNull(entityClass, ENTITY_NOT_NULL_MSG);
+    applyAclIndexPlan(mongoOperations.indexOps(entityClass), plan);
+  }
+
+  /**
+   * Applies the acl index plan to the collection: the indexes to drop are dropped first, then the
+   * indexes to create are created.
+   *
+   * @param collectionName the collection name
+   * @param plan the acl index plan
+   */
+  public void applyAclIndexPlan(String collectionName, AclIndexPlan plan) {
+    Assert.hasLength(collectionName, "Collection name must be present.");
+    applyAclIndexPlan(mongoOperations.indexOps(collectionName.trim()), plan);
+  }
+
+  private void applyAclIndexPlan(IndexOperations indexOps, AclIndexPlan plan) {
+    Assert.notNull(plan, "Acl index plan must be present.");
+    plan.getIndexesToDrop().forEach(indexOps::dropIndex);
+    plan.getIndexesToCreate().forEach(indexOps::createIndex);
   }
 
   private void dropUnusedAclIndexes(
@@ -194,6 +300,39 @@ public class AclIndexOperations {
       String aclPath,
       Collection<String> possiblePermissions) {
 
+    getAclIndexInfo(indexOps, aclPath)
+        .stream()
+        .filter(unusedEntryIndex(aclPath, possiblePermissions))
+        .forEach(indexInfo -> indexOps.dropIndex(indexInfo.getName()));
+  }
+
+  /**
+   * Creates the pattern of the names of all acl indexes.
+   *
+   * @param aclPath the acl path
+   * @return the pattern
+   */
+  static Pattern aclIndexPattern(String aclPath) {
+    String validAclPath = isEmpty(aclPath) ? "" : aclPath.trim() + ".";
+    // Example: acl.(owner|grants|(entries.(\.*).(guest|users|roles|groups)))(.*)
+    String regex = String.format(
+        "%s(%s|%s|(%s.(.*).(%s|%s|%s|%s)))(.*)",
+        validAclPath, Acl.OWNER, AclGrants.GRANTS, Acl.ENTRIES,
+        Ace.GUEST, Ace.USERS, Ace.ROLES, Ace.GROUPS);
+    return Pattern.compile(regex);
+  }
+
+  /**
+   * Creates the predicate of the entry indexes, that don't belong to the possible permissions.
+   *
+   * @param aclPath the acl path
+   * @param possiblePermissions the possible permissions
+   * @return the predicate
+   */
+  static Predicate<IndexInfo> unusedEntryIndex(
+      String aclPath,
+      Collection<String> possiblePermissions) {
+
     Set<String> newPermissions = isEmpty(possiblePermissions)
         ? Set.of()
         : Set.copyOf(possiblePermissions);
@@ -203,16 +342,52 @@ public class AclIndexOperations {
         "%s%s.(.*).(%s|%s|%s|%s)(.*)",
         validAclPath, Acl.ENTRIES, Ace.GUEST, Ace.USERS, Ace.ROLES, Ace.GROUPS);
     Pattern pattern = Pattern.compile(regex);
-    getAclIndexInfo(indexOps, aclPath)
-        .stream()
-        .filter(indexInfo -> {
-          Matcher matcher = pattern.matcher(indexInfo.getName());
-          return matcher.matches() && !newPermissions.contains(matcher.group(1));
-        })
-        .forEach(indexInfo -> indexOps.dropIndex(indexInfo.getName()));
+    return indexInfo -> {
+      Matcher matcher = pattern.matcher(indexInfo.getName());
+      return matcher.matches() && !newPermissions.contains(matcher.group(1));
+    };
+  }
+
+  /**
+   * Creates the indexes of the owner and the entries of the possible permissions.
+   *
+   * @param aclPath the acl path
+   * @param possiblePermissions the possible permissions
+   * @return the indexes
+   */
+  static List<Index> aclIndexes(String aclPath, Collection<String> possiblePermissions) {
+    String validAclPath = isEmpty(aclPath) ? "" : aclPath.trim();
+    List<Index> indexes = new ArrayList<>();
+    indexes.add(new Index().on(path(validAclPath, Acl.OWNER), Direction.ASC));
+    if (!isEmpty(possiblePermissions)) {
+      List.of(Ace.GUEST, Ace.USERS, Ace.ROLES, Ace.GROUPS)
+          .forEach(field -> Set.copyOf(possiblePermissions)
+              .forEach(permission -> indexes.add(new Index()
+                  .on(path(validAclPath, Acl.ENTRIES, permission, field), Direction.ASC))));
+    }
+    return indexes;
   }
 
-  private String getAclPath(Class<?> entityClass) {
+  /**
+   * Creates the indexes of the owner and the flattened grants.
+   *
+   * @param aclPath the acl path
+   * @return the indexes
+   */
+  static List<Index> aclGrantsIndexes(String aclPath) {
+    String validAclPath = isEmpty(aclPath) ? "" : aclPath.trim();
+    return List.of(
+        new Index().on(path(validAclPath, Acl.OWNER), Direction.ASC),
+        new Index().on(path(validAclPath, AclGrants.GRANTS), Direction.ASC));
+  }
+
+  /**
+   * Gets the acl path of the entity class.
+   *
+   * @param entityClass the entity class
+   * @return the acl path
+   */
+  static String getAclPath(Class<?> entityClass) {
     return Optional
         .ofNullable(findAnnotation(entityClass, AclHolder.class))
         .map(AclHolder::path)
@@ -222,7 +397,7 @@ public class AclIndexOperations {
                 entityClass.getSimpleName(), AclHolder.class.getSimpleName())));
   }
 
-  private String path(String... pathSegments) {
+  private static String path(String... pathSegments) {
     String aclPath = String.join(".", pathSegments);
     return aclPath.startsWith(".") ? aclPath.substring(1) : aclPath;
   }
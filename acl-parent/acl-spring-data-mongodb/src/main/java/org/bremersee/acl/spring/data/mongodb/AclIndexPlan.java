@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import java.util.List;
+import java.util.Locale;
+import org.immutables.value.Value;
+import org.immutables.value.Value.Style.ImplementationVisibility;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+
+/**
+ * The acl index plan (see {@link AclIndexPlanner}). It is a dry-run report, that compares the
+ * write cost of the current and the planned acl indexes with their query coverage; it can be
+ * applied with {@link AclIndexOperations#applyAclIndexPlan(String, AclIndexPlan)}.
+ *
+ * <p>The write cost is the number of acl indexes, that must be maintained on every insert and on
+ * every modification of an access control list. The query coverage is the part of the fields of
+ * the permission criteria, that can be looked up in an index; a permission query only uses
+ * indexes, if all fields are covered.
+ *
+ * @author Christian Bremer
+ */
+@Value.Immutable
+@Value.Style(visibility = ImplementationVisibility.PACKAGE)
+public interface AclIndexPlan {
+
+  /**
+   * Creates acl index plan builder.
+   *
+   * @return the acl index plan builder
+   */
+  static ImmutableAclIndexPlan.Builder builder() {
+    return ImmutableAclIndexPlan.builder();
+  }
+
+  /**
+   * Gets the indexes, that will be created.
+   *
+   * @return the indexes to create
+   */
+  List<IndexDefinition> getIndexesToCreate();
+
+  /**
+   * Gets the names of the existing acl indexes, that will be dropped.
+   *
+   * @return the names of the indexes to drop
+   */
+  List<String> getIndexesToDrop();
+
+  /**
+   * Gets the names of the existing acl indexes, that will be kept.
+   *
+   * @return the names of the indexes to keep
+   */
+  List<String> getIndexesToKeep();
+
+  /**
+   * Gets the fields of the permission criteria.
+   *
+   * @return the query fields
+   */
+  List<String> getQueryFields();
+
+  /**
+   * Gets the query fields, that are covered by the current indexes.
+   *
+   * @return the currently covered query fields
+   */
+  List<String> getCurrentlyCoveredFields();
+
+  /**
+   * Gets the query fields, that are covered by the planned indexes.
+   *
+   * @return the covered query fields after applying the plan
+   */
+  List<String> getPlannedCoveredFields();
+
+  /**
+   * Gets the number of current acl indexes.
+   *
+   * @return the current write cost
+   */
+  @Value.Derived
+  default int getCurrentWriteCost() {
+    return getIndexesToDrop().size() + getIndexesToKeep().size();
+  }
+
+  /**
+   * Gets the number of acl indexes after applying the plan.
+   *
+   * @return the planned write cost
+   */
+  @Value.Derived
+  default int getPlannedWriteCost() {
+    return getIndexesToKeep().size() + getIndexesToCreate().size();
+  }
+
+  /**
+   * Gets the query coverage of the current indexes.
+   *
+   * @return the current query coverage between {@code 0.0} and {@code 1.0}
+   */
+  @Value.Derived
+  default double getCurrentCoverage() {
+    return getQueryFields().isEmpty()
+        ? 1.0
+        : (double) getCurrentlyCoveredFields().size() / getQueryFields().size();
+  }
+
+  /**
+   * Gets the query coverage after applying the plan.
+   *
+   * @return the planned query coverage between {@code 0.0} and {@code 1.0}
+   */
+  @Value.Derived
+  default double getPlannedCoverage() {
+    return getQueryFields().isEmpty()
+        ? 1.0
+        : (double) getPlannedCoveredFields().size() / getQueryFields().size();
+  }
+
+  /**
+   * Gets the report of the plan.
+   *
+   * @return the report
+   */
+  @Value.Derived
+  default String getReport() {
+    return String.format(Locale.ENGLISH, """
+            acl indexes (write cost): %d -> %d
+            query coverage: %.2f -> %.2f
+            create: %s
+            drop: %s
+            keep: %s""",
+        getCurrentWriteCost(), getPlannedWriteCost(),
+        getCurrentCoverage(), getPlannedCoverage(),
+        getIndexesToCreate().stream().map(IndexDefinition::getIndexKeys).toList(),
+        getIndexesToDrop(),
+        getIndexesToKeep());
+  }
+
+}
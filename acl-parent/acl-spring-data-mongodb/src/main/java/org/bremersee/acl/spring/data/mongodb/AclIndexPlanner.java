@@ -0,0 +1,295 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.Getter;
+import lombok.Setter;
+import org.bremersee.acl.Ace;
+import org.bremersee.acl.Acl;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.util.Assert;
+
+/**
+ * The acl index planner plans the acl indexes of a collection for the permissions, that are
+ * actually queried, instead of indexing every entry field of all possible permissions (see
+ * {@link AclIndexOperations#createAclIndexes(Class, Collection, boolean)}).
+ *
+ * <p>The secondary filters are the fields, that are always queried together with the
+ * permissions (for example a tenant or a parent id). They are put in front of every acl index, so
+ * that each branch of the permission criteria is looked up with the secondary filters.
+ *
+ * <p>The plan (see {@link #plan(Collection)}) compares the planned indexes with the existing acl
+ * indexes: existing indexes with the same keys are kept, the others are dropped, if redundant
+ * indexes should be dropped (the default). An index is an acl index, if one of its keys belongs
+ * to the access control list.
+ *
+ * @author Christian Bremer
+ */
+public class AclIndexPlanner {
+
+  private static final String WILDCARD = "$**";
+
+  /**
+   * The acl path.
+   */
+  @Getter
+  private final String aclPath;
+
+  /**
+   * The index strategy.
+   */
+  @Getter
+  private final AclIndexStrategy strategy;
+
+  /**
+   * The queried permissions.
+   */
+  @Getter
+  private final Set<String> queriedPermissions;
+
+  /**
+   * The secondary filters.
+   */
+  @Getter
+  private List<String> secondaryFilters = List.of();
+
+  /**
+   * Specifies whether existing acl indexes, that are not planned, are dropped.
+   */
+  @Getter
+  @Setter
+  private boolean dropRedundantIndexes = true;
+
+  /**
+   * Instantiates a new acl index planner.
+   *
+   * @param entityClass the entity class, that must be annotated with
+   *     {@link org.bremersee.acl.annotation.AclHolder}
+   * @param strategy the index strategy
+   * @param queriedPermissions the queried permissions
+   */
+  public AclIndexPlanner(
+      Class<?> entityClass,
+      AclIndexStrategy strategy,
+      Collection<String> queriedPermissions) {
+    this(AclIndexOperations.getAclPath(entityClass), strategy, queriedPermissions);
+  }
+
+  /**
+   * Instantiates a new acl index planner.
+   *
+   * @param aclPath the acl path
+   * @param strategy the index strategy
+   * @param queriedPermissions the queried permissions
+   */
+  public AclIndexPlanner(
+      String aclPath,
+      AclIndexStrategy strategy,
+      Collection<String> queriedPermissions) {
+
+    Assert.notNull(strategy, "Index strategy must be present.");
+    this.aclPath = isEmpty(aclPath) ? "" : aclPath.trim();
+    this.strategy = strategy;
+    this.queriedPermissions = isEmpty(queriedPermissions)
+        ? Set.of()
+        : new TreeSet<>(queriedPermissions.stream().filter(Objects::nonNull).toList());
+  }
+
+  /**
+   * Sets the secondary filters.
+   *
+   * @param secondaryFilters the fields, that are always queried together with the permissions
+   */
+  public void setSecondaryFilters(List<String> secondaryFilters) {
+    this.secondaryFilters = isEmpty(secondaryFilters)
+        ? List.of()
+        : List.copyOf(new LinkedHashSet<>(secondaryFilters));
+  }
+
+  /**
+   * Gets the fields of the permission criteria.
+   *
+   * @return the query fields
+   */
+  public List<String> getQueryFields() {
+    List<String> fields = new ArrayList<>();
+    fields.add(path(Acl.OWNER));
+    if (strategy == AclIndexStrategy.GRANTS) {
+      fields.add(path(AclGrants.GRANTS));
+    } else {
+      for (String permission : queriedPermissions) {
+        for (String field : List.of(Ace.GUEST, Ace.USERS, Ace.ROLES, Ace.GROUPS)) {
+          fields.add(path(Acl.ENTRIES, permission, field));
+        }
+      }
+    }
+    return fields;
+  }
+
+  /**
+   * Gets the planned indexes.
+   *
+   * @return the planned indexes
+   */
+  public List<IndexDefinition> getPlannedIndexes() {
+    List<IndexDefinition> indexes = new ArrayList<>();
+    indexes.add(index(path(Acl.OWNER)));
+    switch (strategy) {
+      case GRANTS -> indexes.add(index(path(AclGrants.GRANTS)));
+      case WILDCARD -> {
+        if (!queriedPermissions.isEmpty()) {
+          indexes.add(index(path(Acl.ENTRIES, WILDCARD)));
+        }
+      }
+      default -> {
+        for (String permission : queriedPermissions) {
+          String guestPath = path(Acl.ENTRIES, permission, Ace.GUEST);
+          indexes.add(index(guestPath)
+              .partial(PartialIndexFilter.of(Criteria.where(guestPath).is(true))));
+          for (String field : List.of(Ace.USERS, Ace.ROLES, Ace.GROUPS)) {
+            indexes.add(index(path(Acl.ENTRIES, permission, field)));
+          }
+        }
+      }
+    }
+    return indexes;
+  }
+
+  private CompoundIndexDefinition index(String aclField) {
+    Document keys = new Document();
+    secondaryFilters.forEach(filter -> keys.append(filter, 1));
+    keys.append(aclField, 1);
+    return new CompoundIndexDefinition(keys);
+  }
+
+  /**
+   * Plans the acl indexes. Nothing is changed, the plan must be applied (see
+   * {@link AclIndexOperations#applyAclIndexPlan(String, AclIndexPlan)}).
+   *
+   * @param existingIndexes the existing indexes of the collection
+   * @return the acl index plan
+   */
+  public AclIndexPlan plan(Collection<IndexInfo> existingIndexes) {
+    List<IndexInfo> aclIndexes = isEmpty(existingIndexes)
+        ? List.of()
+        : existingIndexes.stream().filter(this::isAclIndex).toList();
+    List<IndexInfo> unmatched = new ArrayList<>(aclIndexes);
+    List<IndexDefinition> indexesToCreate = new ArrayList<>();
+    List<String> indexesToDrop = new ArrayList<>();
+    List<String> indexesToKeep = new ArrayList<>();
+    List<List<String>> plannedKeys = new ArrayList<>();
+    for (IndexDefinition index : getPlannedIndexes()) {
+      List<String> keys = List.copyOf(index.getIndexKeys().keySet());
+      IndexInfo existing = unmatched.stream()
+          .filter(indexInfo -> keysOf(indexInfo).equals(keys))
+          .findFirst()
+          .orElse(null);
+      if (isNull(existing)) {
+        indexesToCreate.add(index);
+        plannedKeys.add(keys);
+        continue;
+      }
+      unmatched.remove(existing);
+      boolean partial = index.getIndexOptions().containsKey("partialFilterExpression");
+      if (partial != nonNull(existing.getPartialFilterExpression()) && dropRedundantIndexes) {
+        indexesToDrop.add(existing.getName());
+        indexesToCreate.add(index);
+      } else {
+        indexesToKeep.add(existing.getName());
+      }
+      plannedKeys.add(keys);
+    }
+    for (IndexInfo indexInfo : unmatched) {
+      if (dropRedundantIndexes) {
+        indexesToDrop.add(indexInfo.getName());
+      } else {
+        indexesToKeep.add(indexInfo.getName());
+        plannedKeys.add(keysOf(indexInfo));
+      }
+    }
+    List<List<String>> currentKeys = aclIndexes.stream().map(AclIndexPlanner::keysOf).toList();
+    List<String> queryFields = getQueryFields();
+    return AclIndexPlan.builder()
+        .indexesToCreate(indexesToCreate)
+        .indexesToDrop(indexesToDrop)
+        .indexesToKeep(indexesToKeep)
+        .queryFields(queryFields)
+        .currentlyCoveredFields(queryFields.stream()
+            .filter(field -> isCovered(field, currentKeys))
+            .toList())
+        .plannedCoveredFields(queryFields.stream()
+            .filter(field -> isCovered(field, plannedKeys))
+            .toList())
+        .build();
+  }
+
+  private boolean isAclIndex(IndexInfo indexInfo) {
+    String prefix = aclPath.isEmpty() ? "" : aclPath + ".";
+    return keysOf(indexInfo).stream()
+        .anyMatch(key -> aclPath.isEmpty()
+            ? key.equals(Acl.OWNER) || key.equals(AclGrants.GRANTS)
+            || key.startsWith(Acl.ENTRIES + ".")
+            : key.startsWith(prefix));
+  }
+
+  private static List<String> keysOf(IndexInfo indexInfo) {
+    return indexInfo.getIndexFields().stream().map(IndexField::getKey).toList();
+  }
+
+  /**
+   * Determines whether the query field can be looked up in one of the indexes: the index must
+   * contain the field (or a wildcard of it) and only secondary filters in front of it.
+   */
+  private boolean isCovered(String field, List<List<String>> indexKeys) {
+    for (List<String> keys : indexKeys) {
+      for (String key : keys) {
+        if (key.equals(field) || (key.endsWith(WILDCARD)
+            && field.startsWith(key.substring(0, key.length() - WILDCARD.length())))) {
+          return true;
+        }
+        if (!secondaryFilters.contains(key)) {
+          break;
+        }
+      }
+    }
+    return false;
+  }
+
+  private String path(String... pathSegments) {
+    String path = String.join(".", pathSegments);
+    return aclPath.isEmpty() ? path : aclPath + "." + path;
+  }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+/**
+ * The index strategies of the acl index planner (see {@link AclIndexPlanner}).
+ *
+ * @author Christian Bremer
+ */
+public enum AclIndexStrategy {
+
+  /**
+   * One index per queried permission and entry field ({@code guest}, {@code users},
+   * {@code roles} and {@code groups}). The index of the guest flag is partial, so that it only
+   * contains the documents with guest access.
+   */
+  ENTRIES,
+
+  /**
+   * One multikey index of the flattened grants (see {@link AclGrants}).
+   */
+  GRANTS,
+
+  /**
+   * One wildcard index of all entries. Together with secondary filters a compound wildcard index
+   * is created, that requires MongoDB 7.0 or later.
+   */
+  WILDCARD
+
+}
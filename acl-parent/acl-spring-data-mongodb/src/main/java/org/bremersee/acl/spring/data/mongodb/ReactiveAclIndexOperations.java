@@ -0,0 +1,258 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive acl index operations. They create the same indexes as the
+ * {@link AclIndexOperations}.
+ *
+ * @author Christian Bremer
+ */
+public class ReactiveAclIndexOperations {
+
+  private static final String ENTITY_NOT_NULL_MSG = "Entity class must be present.";
+
+  private final ReactiveMongoOperations mongoOperations;
+
+  /**
+   * Instantiates new reactive acl index operations.
+   *
+   * @param mongoOperations the reactive mongo operations
+   */
+  public ReactiveAclIndexOperations(ReactiveMongoOperations mongoOperations) {
+    Assert.notNull(mongoOperations, "Mongo operations must be present.");
+    this.mongoOperations = mongoOperations;
+  }
+
+  /**
+   * Gets acl index info.
+   *
+   * @param entityClass the entity class
+   * @return the acl index info
+   */
+  public Flux<IndexInfo> getAclIndexInfo(Class<?> entityClass) {
+    Assert.notNull(entityClass, ENTITY_NOT_NULL_MSG);
+    return getAclIndexInfo(entityClass, AclIndexOperations.getAclPath(entityClass));
+  }
+
+  /**
+   * Gets acl index info.
+   *
+   * @param entityClass the entity class
+   * @param aclPath the acl path
+   * @return the acl index info
+   */
+  public Flux<IndexInfo> getAclIndexInfo(Class<?> entityClass, String aclPath) {
+    Assert.notNull(entityClass, ENTITY_NOT_NULL_MSG);
+    return getAclIndexInfo(mongoOperations.indexOps(entityClass), aclPath);
+  }
+
+  /**
+   * Gets acl index info.
+   *
+   * @param collectionName the collection name
+   * @param aclPath the acl path
+   * @return the acl index info
+   */
+  public Flux<IndexInfo> getAclIndexInfo(String collectionName, String aclPath) {
+    Assert.hasLength(collectionName, "Collection name must be present.");
+    return getAclIndexInfo(mongoOperations.indexOps(collectionName), aclPath);
+  }
+
+  private Flux<IndexInfo> getAclIndexInfo(ReactiveIndexOperations indexOps, String aclPath) {
+    Pattern pattern = AclIndexOperations.aclIndexPattern(aclPath);
+    return indexOps.getIndexInfo()
+        .filter(indexInfo -> pattern.matcher(indexInfo.getName()).matches());
+  }
+
+  /**
+   * Create acl indexes.
+   *
+   * @param entityClass the entity class
+   * @param possiblePermissions the possible permissions
+   * @param dropIndexesOfOtherPermissions the drop indexes of other permissions
+   * @return the mono, that completes when all indexes are created
+   */
+  public Mono<Void> createAclIndexes(
+      Class<?> entityClass,
+      Collection<String> possiblePermissions,
+      boolean dropIndexesOfOtherPermissions) {
+
+    Assert.notNull(entityClass, ENTITY_NOT_NULL_MSG);
+    return createAclIndexes(
+        entityClass,
+        AclIndexOperations.getAclPath(entityClass),
+        possiblePermissions,
+        dropIndexesOfOtherPermissions);
+  }
+
+  /**
+   * Create acl indexes.
+   *
+   * @param entityClass the entity class
+   * @param aclPath the acl path
+   * @param possiblePermissions the possible permissions
+   * @param dropIndexesOfOtherPermissions the drop indexes of other permissions
+   * @return the mono, that completes when all indexes are created
+   */
+  public Mono<Void> createAclIndexes(
+      Class<?> entityClass,
+      String aclPath,
+      Collection<String> possiblePermissions,
+      boolean dropIndexesOfOtherPermissions) {
+
+    Assert.notNull(entityClass, ENTITY_NOT_NULL_MSG);
+    return createAclIndexes(
+        mongoOperations.indexOps(entityClass),
+        aclPath,
+        possiblePermissions,
+        dropIndexesOfOtherPermissions);
+  }
+
+  /**
+   * Create acl indexes.
+   *
+   * @param collectionName the collection name
+   * @param aclPath the acl path
+   * @param possiblePermissions the possible permissions
+   * @param dropIndexesOfOtherPermissions the drop indexes of other permissions
+   * @return the mono, that completes when all indexes are created
+   */
+  public Mono<Void> createAclIndexes(
+      String collectionName,
+      String aclPath,
+      Collection<String> possiblePermissions,
+      boolean dropIndexesOfOtherPermissions) {
+
+    Assert.hasLength(collectionName, "Collection name must be present.");
+    return createAclIndexes(
+        mongoOperations.indexOps(collectionName.trim()),
+        aclPath,
+        possiblePermissions,
+        dropIndexesOfOtherPermissions);
+  }
+
+  private Mono<Void> createAclIndexes(
+      ReactiveIndexOperations indexOps,
+      String aclPath,
+      Collection<String> possiblePermissions,
+      boolean dropIndexesOfOtherPermissions) {
+
+    Mono<Void> drop = dropIndexesOfOtherPermissions
+        ? dropUnusedAclIndexes(indexOps, aclPath, possiblePermissions)
+        : Mono.empty();
+    return drop.thenMany(Flux
+            .fromIterable(AclIndexOperations.aclIndexes(aclPath, possiblePermissions))
+            .concatMap(indexOps::createIndex))
+        .then();
+  }
+
+  /**
+   * Create the indexes of the owner and the flattened grants (see {@link AclGrants}). The grants
+   * are indexed by one multikey index.
+   *
+   * @param entityClass the entity class
+   * @param dropEntryIndexes specifies whether the indexes of the entries are dropped
+   * @return the mono, that completes when all indexes are created
+   */
+  public Mono<Void> createAclGrantsIndexes(Class<?> entityClass, boolean dropEntryIndexes) {
+    Assert.notNull(entityClass, ENTITY_NOT_NULL_MSG);
+    return createAclGrantsIndexes(
+        entityClass,
+        AclIndexOperations.getAclPath(entityClass),
+        dropEntryIndexes);
+  }
+
+  /**
+   * Create the indexes of the owner and the flattened grants (see {@link AclGrants}). The grants
+   * are indexed by one multikey index.
+   *
+   * @param entityClass the entity class
+   * @param aclPath the acl path
+   * @param dropEntryIndexes specifies whether the indexes of the entries are dropped
+   * @return the mono, that completes when all indexes are created
+   */
+  public Mono<Void> createAclGrantsIndexes(
+      Class<?> entityClass,
+      String aclPath,
+      boolean dropEntryIndexes) {
+
+    Assert.notNull(entityClass, ENTITY_NOT_NULL_MSG);
+    return createAclGrantsIndexes(
+        mongoOperations.indexOps(entityClass),
+        aclPath,
+        dropEntryIndexes);
+  }
+
+  /**
+   * Create the indexes of the owner and the flattened grants (see {@link AclGrants}). The grants
+   * are indexed by one multikey index.
+   *
+   * @param collectionName the collection name
+   * @param aclPath the acl path
+   * @param dropEntryIndexes specifies whether the indexes of the entries are dropped
+   * @return the mono, that completes when all indexes are created
+   */
+  public Mono<Void> createAclGrantsIndexes(
+      String collectionName,
+      String aclPath,
+      boolean dropEntryIndexes) {
+
+    Assert.hasLength(collectionName, "Collection name must be present.");
+    return createAclGrantsIndexes(
+        mongoOperations.indexOps(collectionName.trim()),
+        aclPath,
+        dropEntryIndexes);
+  }
+
+  private Mono<Void> createAclGrantsIndexes(
+      ReactiveIndexOperations indexOps,
+      String aclPath,
+      boolean dropEntryIndexes) {
+
+    Mono<Void> drop = dropEntryIndexes
+        ? dropUnusedAclIndexes(indexOps, aclPath, Set.of())
+        : Mono.empty();
+    return drop.thenMany(Flux
+            .fromIterable(AclIndexOperations.aclGrantsIndexes(aclPath))
+            .concatMap(indexOps::createIndex))
+        .then();
+  }
+
+  private Mono<Void> dropUnusedAclIndexes(
+      ReactiveIndexOperations indexOps,
+      String aclPath,
+      Collection<String> possiblePermissions) {
+
+    return getAclIndexInfo(indexOps, aclPath)
+        .filter(AclIndexOperations.unusedEntryIndex(aclPath, possiblePermissions))
+        .concatMap(indexInfo -> indexOps.dropIndex(indexInfo.getName()))
+        .then();
+  }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import static java.util.Objects.isNull;
+
+import java.util.Collection;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.bremersee.acl.AccessEvaluation;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclUserContext;
+import org.bremersee.acl.PermissionConstants;
+import org.bremersee.acl.model.AccessControlListModifications;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive acl operations execute the criteria and updates of the
+ * {@link AclCriteriaAndUpdateBuilder} with the reactive mongo operations. They can be used to
+ * implement custom fragments of reactive repositories.
+ *
+ * <p>The access control list is modified by default with one pipeline update (see
+ * {@link AclCriteriaAndUpdateBuilder#buildPipelineUpdate(AccessControlListModifications)}), that
+ * requires MongoDB 4.2 or later. For older servers pipeline updates can be switched off (see
+ * {@code setPipelineUpdates(false)}), then the preparation updates are executed one after
+ * another before the final update.
+ *
+ * <p>The queries and updates are built when the returned publishers are subscribed, so invalid
+ * arguments (like a missing user context) are signalled as errors and not thrown.
+ *
+ * @param <T> the entity type
+ * @author Christian Bremer
+ */
+public class ReactiveAclOperations<T> {
+
+  private final ReactiveMongoOperations mongoOperations;
+
+  private final Class<T> entityClass;
+
+  private final AclCriteriaAndUpdateBuilder builder;
+
+  /**
+   * Specifies whether the access control list is modified with one pipeline update.
+   */
+  @Getter
+  @Setter
+  private boolean pipelineUpdates = true;
+
+  /**
+   * Instantiates new reactive acl operations.
+   *
+   * @param mongoOperations the reactive mongo operations
+   * @param entityClass the entity class, that must be annotated with
+   *     {@link org.bremersee.acl.annotation.AclHolder}
+   * @param flattenedGrants specifies whether flattened grants are used (see {@link AclGrants})
+   */
+  public ReactiveAclOperations(
+      ReactiveMongoOperations mongoOperations,
+      Class<T> entityClass,
+      boolean flattenedGrants) {
+
+    Assert.notNull(mongoOperations, "Mongo operations must be present.");
+    Assert.notNull(entityClass, "Entity class must be present.");
+    this.mongoOperations = mongoOperations;
+    this.entityClass = entityClass;
+    this.builder = new AclCriteriaAndUpdateBuilder(entityClass, flattenedGrants);
+  }
+
+  /**
+   * Find all entities, that match the given criteria and that the user may access.
+   *
+   * @param criteria the criteria (can be {@code null})
+   * @param userContext the user context
+   * @param accessEvaluation the access evaluation
+   * @param permissions the permissions
+   * @return the found entities
+   */
+  public Flux<T> find(
+      Criteria criteria,
+      AclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+
+    return Flux.defer(() -> mongoOperations.find(
+        permissionQuery(criteria, userContext, accessEvaluation, permissions),
+        entityClass));
+  }
+
+  /**
+   * Find one entity, that matches the given criteria and that the user may access.
+   *
+   * @param criteria the criteria (can be {@code null})
+   * @param userContext the user context
+   * @param accessEvaluation the access evaluation
+   * @param permissions the permissions
+   * @return the found entity
+   */
+  public Mono<T> findOne(
+      Criteria criteria,
+      AclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+
+    return Mono.defer(() -> mongoOperations.findOne(
+        permissionQuery(criteria, userContext, accessEvaluation, permissions),
+        entityClass));
+  }
+
+  /**
+   * Count all entities, that match the given criteria and that the user may access.
+   *
+   * @param criteria the criteria (can be {@code null})
+   * @param userContext the user context
+   * @param accessEvaluation the access evaluation
+   * @param permissions the permissions
+   * @return the number of entities
+   */
+  public Mono<Long> count(
+      Criteria criteria,
+      AclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+
+    return Mono.defer(() -> mongoOperations.count(
+        permissionQuery(criteria, userContext, accessEvaluation, permissions),
+        entityClass));
+  }
+
+  /**
+   * Modify the access control list of the entity, that matches the given criteria. The user must
+   * be the owner or must have the permission {@link PermissionConstants#ADMINISTRATION}.
+   *
+   * @param criteria the criteria (can be {@code null})
+   * @param userContext the user context
+   * @param modifications the modifications
+   * @return the modified entity
+   */
+  public Mono<T> modifyAcl(
+      Criteria criteria,
+      AclUserContext userContext,
+      AccessControlListModifications modifications) {
+
+    return Mono.defer(() -> {
+      Query query = adminQuery(criteria, userContext);
+      if (pipelineUpdates) {
+        return findAndModify(query, builder.buildPipelineUpdate(modifications));
+      }
+      AclModificationUpdate update = builder.buildUpdate(modifications);
+      return Flux.fromIterable(update.getPreparationUpdates())
+          .concatMap(preparationUpdate -> mongoOperations
+              .updateFirst(query, preparationUpdate, entityClass))
+          .then(findAndModify(query, update.getFinalUpdate()));
+    });
+  }
+
+  /**
+   * Replace the access control list of the entity, that matches the given criteria. The user must
+   * be the owner or must have the permission {@link PermissionConstants#ADMINISTRATION}.
+   *
+   * @param criteria the criteria (can be {@code null})
+   * @param userContext the user context
+   * @param newAcl the new access control list
+   * @return the modified entity
+   */
+  public Mono<T> replaceAcl(Criteria criteria, AclUserContext userContext, Acl newAcl) {
+    return Mono.defer(() -> findAndModify(
+        adminQuery(criteria, userContext),
+        builder.buildUpdate(newAcl)));
+  }
+
+  /**
+   * Change the owner of the entity, that matches the given criteria. Only the owner can change
+   * the owner.
+   *
+   * @param criteria the criteria (can be {@code null})
+   * @param userContext the user context
+   * @param newOwner the new owner
+   * @return the modified entity
+   */
+  public Mono<T> changeOwner(Criteria criteria, AclUserContext userContext, String newOwner) {
+    return Mono.defer(() -> findAndModify(
+        query(criteria, builder.buildUpdateOwnerCriteria(userContext)),
+        builder.buildUpdate(newOwner)));
+  }
+
+  private Mono<T> findAndModify(Query query, UpdateDefinition update) {
+    FindAndModifyOptions options = new FindAndModifyOptions()
+        .returnNew(true);
+    return mongoOperations.findAndModify(query, update, options, entityClass);
+  }
+
+  private Query permissionQuery(
+      Criteria criteria,
+      AclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+
+    return query(
+        criteria,
+        builder.buildPermissionCriteria(userContext, accessEvaluation, permissions));
+  }
+
+  private Query adminQuery(Criteria criteria, AclUserContext userContext) {
+    return permissionQuery(
+        criteria,
+        userContext,
+        AccessEvaluation.ANY_PERMISSION,
+        List.of(PermissionConstants.ADMINISTRATION));
+  }
+
+  private static Query query(Criteria criteria, Criteria accessCriteria) {
+    return isNull(criteria)
+        ? Query.query(accessCriteria)
+        : Query.query(new Criteria().andOperator(accessCriteria, criteria));
+  }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb.convert;
+
+import static java.util.Objects.isNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import org.bremersee.acl.Ace;
+import org.bremersee.acl.AclInterner;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * The ace codec reads and writes an access control entry directly from and to BSON, without
+ * creating a {@link org.bson.Document} first. The format is the same as the one of the
+ * {@link AceToDocumentConverter}. The decoded entries are interned (see {@link AclInterner}).
+ *
+ * @author Christian Bremer
+ */
+public class AceCodec implements Codec<Ace> {
+
+  private final AclInterner interner;
+
+  /**
+   * Instantiates a new ace codec, that uses the shared acl interner.
+   */
+  public AceCodec() {
+    this(AclInterner.shared());
+  }
+
+  /**
+   * Instantiates a new ace codec.
+   *
+   * @param interner the acl interner (can be {@code null}, then the access control entries are
+   *     not interned)
+   */
+  public AceCodec(AclInterner interner) {
+    this.interner = interner;
+  }
+
+  @Override
+  public Ace decode(BsonReader reader, DecoderContext decoderContext) {
+    List<Object> values = new ArrayList<>(4);
+    readValues(reader, values);
+    Ace ace = toAce(values, 0);
+    return isNull(interner) ? ace : interner.intern(ace);
+  }
+
+  /**
+   * Reads the values of an access control entry and adds the guest flag and the lists of users,
+   * roles and groups to the given values. A value, that doesn't exist or has the wrong type, is
+   * added as {@code null}, like the values of the source key of the
+   * {@link DocumentToAclConverter}.
+   *
+   * @param reader the reader
+   * @param values the values
+   */
+  static void readValues(BsonReader reader, List<Object> values) {
+    Boolean guest = null;
+    List<String> users = null;
+    List<String> roles = null;
+    List<String> groups = null;
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String name = reader.readName();
+      if (Ace.GUEST.equals(name) && reader.getCurrentBsonType() == BsonType.BOOLEAN) {
+        guest = reader.readBoolean();
+      } else if (Ace.USERS.equals(name)) {
+        users = readStrings(reader);
+      } else if (Ace.ROLES.equals(name)) {
+        roles = readStrings(reader);
+      } else if (Ace.GROUPS.equals(name)) {
+        groups = readStrings(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.readEndDocument();
+    values.add(guest);
+    values.add(users);
+    values.add(roles);
+    values.add(groups);
+  }
+
+  /**
+   * Creates the access control entry of the values, that were added by
+   * {@link #readValues(BsonReader, List)}.
+   *
+   * @param values the values
+   * @param offset the position of the guest flag
+   * @return the access control entry
+   */
+  @SuppressWarnings("unchecked")
+  static Ace toAce(List<Object> values, int offset) {
+    return Ace.builder()
+        .guest(Boolean.TRUE.equals(values.get(offset)))
+        .users((List<String>) values.get(offset + 1))
+        .roles((List<String>) values.get(offset + 2))
+        .groups((List<String>) values.get(offset + 3))
+        .build();
+  }
+
+  /**
+   * Reads the strings of an array. Other values are skipped.
+   *
+   * @param reader the reader
+   * @return the strings
+   */
+  static List<String> readStrings(BsonReader reader) {
+    if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+      reader.skipValue();
+      return List.of();
+    }
+    List<String> values = new ArrayList<>();
+    reader.readStartArray();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      if (reader.getCurrentBsonType() == BsonType.STRING) {
+        values.add(reader.readString());
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.readEndArray();
+    return values;
+  }
+
+  @Override
+  public void encode(BsonWriter writer, Ace value, EncoderContext encoderContext) {
+    writer.writeStartDocument();
+    writer.writeBoolean(Ace.GUEST, value.isGuest());
+    writeStrings(writer, Ace.USERS, value.getUsers());
+    writeStrings(writer, Ace.ROLES, value.getRoles());
+    writeStrings(writer, Ace.GROUPS, value.getGroups());
+    writer.writeEndDocument();
+  }
+
+  /**
+   * Writes the strings as array.
+   *
+   * @param writer the writer
+   * @param name the name of the array
+   * @param values the values
+   */
+  static void writeStrings(BsonWriter writer, String name, Collection<String> values) {
+    writer.writeStartArray(name);
+    for (String value : values) {
+      writer.writeString(value);
+    }
+    writer.writeEndArray();
+  }
+
+  @Override
+  public Class<Ace> getEncoderClass() {
+    return Ace.class;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o != null && getClass() == o.getClass();
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(getClass());
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb.convert;
+
+import static java.util.Objects.isNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.bremersee.acl.Ace;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclInterner;
+import org.bremersee.acl.spring.data.mongodb.AclGrants;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * The acl codec reads and writes an access control list directly from and to BSON, without
+ * creating a {@link org.bson.Document} tree first. The format is the same as the one of the
+ * {@link AclToDocumentConverter}; if flattened grants are enabled, the grant tokens are written,
+ * too (see {@link AclGrants}), and they are always ignored on reading. The decoded access control
+ * lists are interned (see {@link AclInterner}) by the values, that were read, so an access control
+ * list, that is already interned, is returned without building it again.
+ *
+ * <p>The codec is used by the driver, if it is added to the codec registry of the mongo client
+ * (see {@link AclConverters#getCodecRegistry()}). Spring Data maps entities from documents, so
+ * the properties of entities are still read and written by the converters.
+ *
+ * @author Christian Bremer
+ */
+public class AclCodec implements Codec<Acl> {
+
+  private final AceCodec aceCodec;
+
+  private final AclInterner interner;
+
+  private final boolean flattenedGrants;
+
+  /**
+   * Instantiates a new acl codec, that uses the shared acl interner.
+   */
+  public AclCodec() {
+    this(false);
+  }
+
+  /**
+   * Instantiates a new acl codec, that uses the shared acl interner.
+   *
+   * @param flattenedGrants specifies whether the grant tokens are written, too
+   */
+  public AclCodec(boolean flattenedGrants) {
+    this(flattenedGrants, AclInterner.shared());
+  }
+
+  /**
+   * Instantiates a new acl codec.
+   *
+   * @param flattenedGrants specifies whether the grant tokens are written, too
+   * @param interner the acl interner (can be {@code null}, then the access control lists are
+   *     not interned)
+   */
+  public AclCodec(boolean flattenedGrants, AclInterner interner) {
+    this.aceCodec = new AceCodec(interner);
+    this.interner = interner;
+    this.flattenedGrants = flattenedGrants;
+  }
+
+  @Override
+  public Acl decode(BsonReader reader, DecoderContext decoderContext) {
+    // The values are read into a source key like the one of the document to acl converter, so
+    // that an interned access control list is returned without building it again.
+    List<Object> values = new ArrayList<>();
+    values.add(null);
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String name = reader.readName();
+      if (Acl.OWNER.equals(name) && reader.getCurrentBsonType() == BsonType.STRING) {
+        values.set(0, reader.readString());
+      } else if (Acl.ENTRIES.equals(name) && reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+          String permission = reader.readName();
+          if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+            values.add(permission);
+            AceCodec.readValues(reader, values);
+          } else {
+            reader.skipValue();
+          }
+        }
+        reader.readEndDocument();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.readEndDocument();
+    return isNull(interner) ? toAcl(values) : interner.intern(values, () -> toAcl(values));
+  }
+
+  private static Acl toAcl(List<Object> values) {
+    Map<String, Ace> permissionMap = new HashMap<>();
+    for (int i = 1; i < values.size(); i += 5) {
+      permissionMap.put((String) values.get(i), AceCodec.toAce(values, i + 1));
+    }
+    return Acl.builder()
+        .owner((String) values.get(0))
+        .permissionMap(permissionMap)
+        .build();
+  }
+
+  @Override
+  public void encode(BsonWriter writer, Acl value, EncoderContext encoderContext) {
+    writer.writeStartDocument();
+    if (isNull(value.getOwner())) {
+      writer.writeNull(Acl.OWNER);
+    } else {
+      writer.writeString(Acl.OWNER, value.getOwner());
+    }
+    Map<String, Ace> permissionMap = value.getPermissionMap();
+    if (!permissionMap.isEmpty()) {
+      writer.writeStartDocument(Acl.ENTRIES);
+      for (Map.Entry<String, Ace> entry : permissionMap.entrySet()) {
+        writer.writeName(entry.getKey());
+        aceCodec.encode(writer, entry.getValue(), encoderContext);
+      }
+      writer.writeEndDocument();
+    }
+    if (flattenedGrants) {
+      AceCodec.writeStrings(writer, AclGrants.GRANTS, AclGrants.tokensOf(value));
+    }
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public Class<Acl> getEncoderClass() {
+    return Acl.class;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o != null && getClass() == o.getClass()
+        && flattenedGrants == ((AclCodec) o).flattenedGrants;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getClass(), flattenedGrants);
+  }
+}
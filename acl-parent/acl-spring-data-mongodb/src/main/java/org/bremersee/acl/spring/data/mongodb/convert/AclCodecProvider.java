@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.acl.spring.data.mongodb.convert;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.bremersee.acl.Ace;
+import org.bremersee.acl.Acl;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * The acl codec provider provides the {@link AclCodec} and the {@link AceCodec} for all
+ * implementations of {@link Acl} and {@link Ace}. The driver looks up the codec of a value by its
+ * concrete class, so a codec registry of the codecs alone would not find them.
+ *
+ * @author Christian Bremer
+ */
+@EqualsAndHashCode
+@ToString
+public class AclCodecProvider implements CodecProvider {
+
+  private final AclCodec aclCodec;
+
+  private final AceCodec aceCodec;
+
+  /**
+   * Instantiates a new acl codec provider.
+   *
+   * @param aclCodec the acl codec
+   * @param aceCodec the ace codec
+   */
+  public AclCodecProvider(AclCodec aclCodec, AceCodec aceCodec) {
+    this.aclCodec = aclCodec;
+    this.aceCodec = aceCodec;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+    if (Acl.class.isAssignableFrom(clazz)) {
+      return (Codec<T>) aclCodec;
+    }
+    if (Ace.class.isAssignableFrom(clazz)) {
+      return (Codec<T>) aceCodec;
+    }
+    return null;
+  }
+
+}
@@ -17,21 +17,49 @@
 package org.bremersee.acl.spring.data.mongodb.convert;
 
 import java.util.List;
+import org.bremersee.acl.spring.data.mongodb.AclGrants;
 import org.bremersee.spring.data.mongodb.core.convert.MongoCustomConversionsProvider;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
 import org.springframework.core.convert.converter.Converter;
 
 /**
- * The acl converters.
+ * The acl converters. Besides the converters, that are used by Spring Data, they provide the
+ * codecs of access control lists and entries for the codec registry of the driver. The acl
+ * converters are registered as service, so the mongo custom conversions' autoconfiguration of
+ * {@code spring-integration-boot-autoconfigure} adds the converters to the custom conversions.
+ *
+ * <p>The codecs are opt-in: Spring Data reads entities from documents, that are decoded by the
+ * driver, so the properties of entities are always read with the converters. The codecs are only
+ * used, if the driver encodes or decodes access control lists itself (for example inside a
+ * {@link org.bson.Document} or with a typed collection). They can be added to the settings of the
+ * mongo client, for example with a {@code MongoClientSettingsBuilderCustomizer}, that calls
+ * {@code builder.codecRegistry(CodecRegistries.fromRegistries(aclConverters.getCodecRegistry(),
+ * MongoClientSettings.getDefaultCodecRegistry()))}.
  *
  * @author Christian Bremer
  */
 public class AclConverters implements MongoCustomConversionsProvider {
 
+  private final boolean flattenedGrants;
+
   /**
    * Instantiates a new acl converters.
    */
   public AclConverters() {
-    super();
+    this(false);
+  }
+
+  /**
+   * Instantiates a new acl converters.
+   *
+   * @param flattenedGrants specifies whether the grant tokens of the access control lists are
+   *     written, too (see {@link AclGrants})
+   */
+  public AclConverters(boolean flattenedGrants) {
+    this.flattenedGrants = flattenedGrants;
   }
 
   /**
@@ -43,10 +71,41 @@ public class AclConverters implements MongoCustomConversionsProvider {
   public List<Converter<?, ?>> getCustomConversions() {
     return List.of(
         new AceToDocumentConverter(),
-        new AclToDocumentConverter(),
+        new AclToDocumentConverter(flattenedGrants),
         new DocumentToAceConverter(),
         new DocumentToAclConverter()
     );
   }
 
+  /**
+   * Gets the codecs of access control lists and entries.
+   *
+   * @return the codecs
+   */
+  public List<Codec<?>> getCodecs() {
+    return List.of(
+        new AceCodec(),
+        new AclCodec(flattenedGrants)
+    );
+  }
+
+  /**
+   * Gets the codec provider of access control lists and entries, that finds the codecs for all
+   * implementations of them.
+   *
+   * @return the codec providers
+   */
+  public List<CodecProvider> getCodecProviders() {
+    return List.of(new AclCodecProvider(new AclCodec(flattenedGrants), new AceCodec()));
+  }
+
+  /**
+   * Gets the codec registry of access control lists and entries.
+   *
+   * @return the codec registry
+   */
+  public CodecRegistry getCodecRegistry() {
+    return CodecRegistries.fromProviders(getCodecProviders());
+  }
+
 }
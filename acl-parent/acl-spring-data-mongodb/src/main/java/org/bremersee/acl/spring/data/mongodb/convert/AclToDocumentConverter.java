@@ -24,13 +24,15 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import org.bremersee.acl.Acl;
+import org.bremersee.acl.spring.data.mongodb.AclGrants;
 import org.bson.Document;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.convert.WritingConverter;
 import org.springframework.lang.NonNull;
 
 /**
- * The acl to document converter.
+ * The acl to document converter. If flattened grants are enabled, the document also contains
+ * the grant tokens of the access control list (see {@link AclGrants}).
  *
  * @author Christian Bremer
  */
@@ -39,11 +41,22 @@ public class AclToDocumentConverter implements Converter<Acl, Document> {
 
   private final AceToDocumentConverter aceConverter = new AceToDocumentConverter();
 
+  private final boolean flattenedGrants;
+
   /**
    * Instantiates a new acl to document converter.
    */
   public AclToDocumentConverter() {
-    super();
+    this(false);
+  }
+
+  /**
+   * Instantiates a new acl to document converter.
+   *
+   * @param flattenedGrants specifies whether the grant tokens are written, too
+   */
+  public AclToDocumentConverter(boolean flattenedGrants) {
+    this.flattenedGrants = flattenedGrants;
   }
 
   @Override
@@ -60,6 +73,9 @@ public class AclToDocumentConverter implements Converter<Acl, Document> {
     if (!entries.isEmpty()) {
       target.put(Acl.ENTRIES, entries);
     }
+    if (flattenedGrants) {
+      target.put(AclGrants.GRANTS, AclGrants.tokensOf(source));
+    }
     return target;
   }
 
@@ -68,11 +84,12 @@ public class AclToDocumentConverter implements Converter<Acl, Document> {
     if (this == o) {
       return true;
     }
-    return o != null && getClass() == o.getClass();
+    return o != null && getClass() == o.getClass()
+        && flattenedGrants == ((AclToDocumentConverter) o).flattenedGrants;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(getClass());
+    return Objects.hash(getClass(), flattenedGrants);
   }
 }
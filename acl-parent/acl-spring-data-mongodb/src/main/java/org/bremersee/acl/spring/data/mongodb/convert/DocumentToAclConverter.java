@@ -16,18 +16,28 @@
 
 package org.bremersee.acl.spring.data.mongodb.convert;
 
+import static java.util.Objects.isNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import org.bremersee.acl.Ace;
 import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclInterner;
 import org.bson.Document;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.convert.ReadingConverter;
 import org.springframework.lang.NonNull;
 
 /**
- * The document to acl converter.
+ * The document to acl converter. The converted access control lists are interned (see
+ * {@link AclInterner}), so that documents with the same access control list share one instance.
+ * A document, that was already converted, is recognized by its values, so that it isn't parsed
+ * again.
  *
  * @author Christian Bremer
  */
@@ -36,15 +46,34 @@ public class DocumentToAclConverter implements Converter<Document, Acl> {
 
   private final DocumentToAceConverter aceConverter = new DocumentToAceConverter();
 
+  private final AclInterner interner;
+
   /**
-   * Instantiates a new document to acl converter.
+   * Instantiates a new document to acl converter, that uses the shared acl interner.
    */
   public DocumentToAclConverter() {
-    super();
+    this(AclInterner.shared());
+  }
+
+  /**
+   * Instantiates a new document to acl converter.
+   *
+   * @param interner the acl interner (can be {@code null}, then the access control lists are
+   *     not interned)
+   */
+  public DocumentToAclConverter(AclInterner interner) {
+    this.interner = interner;
   }
 
   @Override
   public Acl convert(@NonNull Document source) {
+    if (isNull(interner)) {
+      return parse(source);
+    }
+    return interner.intern(sourceKey(source), () -> parse(source));
+  }
+
+  private Acl parse(Document source) {
     String owner = source.getString(Acl.OWNER);
     Object entries = source.get(Acl.ENTRIES);
     Map<String, Ace> permissionMap = new HashMap<>();
@@ -70,6 +99,33 @@ public class DocumentToAclConverter implements Converter<Document, Acl> {
         .build();
   }
 
+  /**
+   * Creates an immutable key of the values of the document, that are used by
+   * {@link #parse(Document)}, or {@code null}, if the document contains values, that cannot be
+   * used as key.
+   */
+  private static List<Object> sourceKey(Document source) {
+    List<Object> key = new ArrayList<>();
+    key.add(source.get(Acl.OWNER));
+    Object entries = source.get(Acl.ENTRIES);
+    if (entries instanceof Map<?, ?> entryMap) {
+      for (Map.Entry<?, ?> entry : entryMap.entrySet()) {
+        if (!(entry.getValue() instanceof Map<?, ?> aceMap)) {
+          return null;
+        }
+        key.add(entry.getKey());
+        key.add(aceMap.get(Ace.GUEST));
+        for (String name : List.of(Ace.USERS, Ace.ROLES, Ace.GROUPS)) {
+          Object values = aceMap.get(name);
+          key.add(values instanceof Collection<?> collection
+              ? Arrays.asList(collection.toArray())
+              : values);
+        }
+      }
+    }
+    return key;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
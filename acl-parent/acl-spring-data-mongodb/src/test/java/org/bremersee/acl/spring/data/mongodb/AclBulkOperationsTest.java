@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.bulk.BulkWriteResult;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.acl.spring.data.mongodb.AclBulkOperations.PrincipalType;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+
+/**
+ * The acl bulk operations test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class AclBulkOperationsTest {
+
+  /**
+   * Change owners in chunks.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void changeOwners(SoftAssertions softly) {
+    BulkOperations bulkOps = mock(BulkOperations.class);
+    when(bulkOps.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(),
+        List.of()));
+    MongoOperations mongoOperations = mock(MongoOperations.class);
+    when(mongoOperations.bulkOps(BulkMode.UNORDERED, "entities")).thenReturn(bulkOps);
+    AclBulkOperations target = new AclBulkOperations(mongoOperations, "entities", "acl", false);
+    target.setChunkSize(2);
+    List<AclBulkBatchResult> reported = new ArrayList<>();
+    target.setBatchListener(reported::add);
+
+    Map<Object, String> newOwners = new LinkedHashMap<>();
+    newOwners.put("1", "anna");
+    newOwners.put("2", "bernd");
+    newOwners.put("3", "carl");
+    AclBulkResult actual = target.changeOwners(newOwners);
+
+    softly.assertThat(actual.getBatches())
+        .hasSize(2)
+        .containsExactlyElementsOf(reported);
+    softly.assertThat(actual.getOperationCount())
+        .isEqualTo(3);
+    softly.assertThat(actual.getModifiedCount())
+        .isEqualTo(4);
+    softly.assertThat(actual.getBatches().get(0).getModifiedPerSecond())
+        .isPositive();
+    verify(bulkOps, times(2)).updateOne(anyList());
+  }
+
+  /**
+   * Rename principal.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void renamePrincipal(SoftAssertions softly) {
+    List<Pair<Query, UpdateDefinition>> updates = renameOrReplace(true);
+    softly.assertThat(updates)
+        .hasSize(4);
+    softly.assertThat(updates.get(0).getFirst().getQueryObject())
+        .isEqualTo(new Document("acl.entries.read.groups", new Document()
+            .append("$all", List.of("staff"))
+            .append("$nin", List.of("crew"))));
+    softly.assertThat(updates.get(0).getSecond())
+        .isInstanceOfSatisfying(Update.class, update -> {
+          softly.assertThat(update.getUpdateObject())
+              .isEqualTo(new Document("$set",
+                  new Document("acl.entries.read.groups.$[principal]", "crew")));
+          softly.assertThat(update.getArrayFilters())
+              .extracting(filter -> filter.asDocument())
+              .containsExactly(new Document("principal", "staff"));
+        });
+    softly.assertThat(updates.get(1).getFirst().getQueryObject())
+        .isEqualTo(new Document("acl.entries.read.groups",
+            new Document("$all", List.of("staff", "crew"))));
+    softly.assertThat(updates.get(2).getFirst().getQueryObject())
+        .isEqualTo(new Document("acl.grants", new Document()
+            .append("$all", List.of("read:group:staff"))
+            .append("$nin", List.of("read:group:crew"))));
+  }
+
+  /**
+   * Replace principal.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void replacePrincipal(SoftAssertions softly) {
+    List<Pair<Query, UpdateDefinition>> updates = renameOrReplace(false);
+    softly.assertThat(updates)
+        .hasSize(2);
+    softly.assertThat(updates.get(0).getFirst().getQueryObject())
+        .isEqualTo(new Document("acl.entries.read.groups", "staff"));
+    softly.assertThat(updates.get(0).getSecond())
+        .isInstanceOfSatisfying(AggregationUpdate.class, update -> softly
+            .assertThat(update.toPipeline(Aggregation.DEFAULT_CONTEXT))
+            .containsExactly(new Document("$set", new Document("acl.entries.read.groups",
+                new Document("$setDifference", List.of(
+                    new Document("$setUnion", List.of(
+                        new Document("$ifNull", List.of("$acl.entries.read.groups", List.of())),
+                        new Document("$literal", List.of("crew", "team")))),
+                    new Document("$literal", List.of("staff"))))))));
+    softly.assertThat(updates.get(1).getFirst().getQueryObject())
+        .isEqualTo(new Document("acl.grants", "read:group:staff"));
+  }
+
+  private static List<Pair<Query, UpdateDefinition>> renameOrReplace(boolean rename) {
+    BulkOperations bulkOps = mock(BulkOperations.class);
+    when(bulkOps.execute()).thenReturn(BulkWriteResult.unacknowledged());
+    MongoOperations mongoOperations = mock(MongoOperations.class);
+    when(mongoOperations.bulkOps(BulkMode.UNORDERED, "entities")).thenReturn(bulkOps);
+    AclBulkOperations target = new AclBulkOperations(mongoOperations, "entities", "acl", true);
+    if (rename) {
+      target.renamePrincipal(PrincipalType.GROUP, "staff", "crew", List.of("read", "read"));
+    } else {
+      target.replacePrincipal(PrincipalType.GROUP, "staff", List.of("crew", "team"),
+          List.of("read"));
+    }
+    //noinspection unchecked
+    ArgumentCaptor<List<Pair<Query, UpdateDefinition>>> captor = ArgumentCaptor
+        .forClass(List.class);
+    verify(bulkOps).updateMulti(captor.capture());
+    return captor.getValue();
+  }
+
+}
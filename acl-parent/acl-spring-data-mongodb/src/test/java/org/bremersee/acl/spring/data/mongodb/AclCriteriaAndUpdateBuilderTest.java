@@ -0,0 +1,293 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import java.util.List;
+import java.util.Set;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.acl.AccessEvaluation;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclUserContext;
+import org.bremersee.acl.NormalizedAclUserContext;
+import org.bremersee.acl.model.AccessControlEntryModifications;
+import org.bremersee.acl.model.AccessControlListModifications;
+import org.bremersee.acl.spring.data.mongodb.convert.AclToDocumentConverter;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * The acl criteria and update builder test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class AclCriteriaAndUpdateBuilderTest {
+
+  private static final AclCriteriaAndUpdateBuilder target
+      = new AclCriteriaAndUpdateBuilder("acl");
+
+  /**
+   * Build permission criteria.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void buildPermissionCriteria(SoftAssertions softly) {
+    AclUserContext userContext = AclUserContext.builder()
+        .name("junit")
+        .roles(List.of("ROLE_USER", "", "ROLE_USER", "ROLE_ADMIN"))
+        .groups(List.of("staff"))
+        .build();
+    Criteria actual = target.buildPermissionCriteria(
+        userContext, AccessEvaluation.ANY_PERMISSION, List.of("read"));
+    softly.assertThat(actual.getCriteriaObject().toJson())
+        .isEqualTo(new Document("$or", List.of(
+            new Document("acl.owner", "junit"),
+            new Document("$or", List.of(
+                new Document("$or", List.of(
+                    new Document("acl.entries.read.guest", true),
+                    new Document("acl.entries.read.users", new Document("$all", List.of("junit"))),
+                    new Document("acl.entries.read.roles",
+                        new Document("$in", List.of("ROLE_USER", "ROLE_ADMIN"))),
+                    new Document("acl.entries.read.groups",
+                        new Document("$in", List.of("staff")))))))))
+            .toJson());
+
+    NormalizedAclUserContext normalized = NormalizedAclUserContext.of(userContext);
+    softly.assertThat(target
+            .buildPermissionCriteria(normalized, AccessEvaluation.ANY_PERMISSION, List.of("read"))
+            .getCriteriaObject())
+        .isEqualTo(actual.getCriteriaObject());
+  }
+
+  /**
+   * Build permission criteria of anonymous user.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void buildPermissionCriteriaOfAnonymousUser(SoftAssertions softly) {
+    Criteria actual = target.buildPermissionCriteria(
+        AclUserContext.builder().build(), AccessEvaluation.ALL_PERMISSIONS, List.of("read"));
+    softly.assertThat(actual.getCriteriaObject())
+        .isEqualTo(new Document("$and", List.of(
+            new Document("$or", List.of(
+                new Document("acl.entries.read.guest", true))))));
+  }
+
+  /**
+   * Build permission criteria with flattened grants.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void buildGrantsPermissionCriteria(SoftAssertions softly) {
+    AclCriteriaAndUpdateBuilder grantsTarget = new AclCriteriaAndUpdateBuilder("acl", true);
+    AclUserContext userContext = AclUserContext.builder()
+        .name("junit")
+        .roles(List.of("ROLE_USER"))
+        .groups(List.of("staff"))
+        .build();
+    Criteria actual = grantsTarget.buildPermissionCriteria(
+        userContext, AccessEvaluation.ANY_PERMISSION, List.of("read", "write", "read"));
+    softly.assertThat(actual.getCriteriaObject().toJson())
+        .isEqualTo(new Document("$or", List.of(
+            new Document("acl.owner", "junit"),
+            new Document("acl.grants", new Document("$in", List.of(
+                "read:guest:*", "read:user:junit", "read:role:ROLE_USER", "read:group:staff",
+                "write:guest:*", "write:user:junit", "write:role:ROLE_USER",
+                "write:group:staff")))))
+            .toJson());
+
+    actual = grantsTarget.buildPermissionCriteria(
+        AclUserContext.builder().build(), AccessEvaluation.ALL_PERMISSIONS,
+        List.of("read", "write"));
+    softly.assertThat(actual.getCriteriaObject().toJson())
+        .isEqualTo(new Document("$and", List.of(
+            new Document("acl.grants", new Document("$in", List.of("read:guest:*"))),
+            new Document("acl.grants", new Document("$in", List.of("write:guest:*")))))
+            .toJson());
+  }
+
+  /**
+   * Build update with flattened grants.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void buildGrantsUpdate(SoftAssertions softly) {
+    AclCriteriaAndUpdateBuilder grantsTarget = new AclCriteriaAndUpdateBuilder("acl", true);
+    AclModificationUpdate actual = grantsTarget.buildUpdate(AccessControlListModifications
+        .builder()
+        .modifications(List.of(AccessControlEntryModifications.builder()
+            .permission("read")
+            .isGuest(true)
+            .addUsers(Set.of("anna"))
+            .removeRoles(Set.of("ROLE_USER"))
+            .build()))
+        .build());
+    softly.assertThat(actual.getPreparationUpdates())
+        .hasSize(1);
+    Document addToSet = actual.getPreparationUpdates().iterator().next()
+        .getUpdateObject().get("$addToSet", Document.class);
+    softly.assertThat(addToSet.get("acl.grants"))
+        .isInstanceOfSatisfying(Update.Modifier.class, each -> softly.assertThat(each.getValue())
+            .asInstanceOf(InstanceOfAssertFactories.array(Object[].class))
+            .containsExactly("read:guest:*", "read:user:anna"));
+    softly.assertThat(actual.getFinalUpdate().getUpdateObject().toJson())
+        .isEqualTo(new Document("$pullAll", new Document()
+            .append("acl.entries.read.roles", List.of("ROLE_USER"))
+            .append("acl.grants", List.of("read:role:ROLE_USER")))
+            .toJson());
+  }
+
+  /**
+   * Build pipeline update.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void buildPipelineUpdate(SoftAssertions softly) {
+    AclCriteriaAndUpdateBuilder grantsTarget = new AclCriteriaAndUpdateBuilder("acl", true);
+    AggregationUpdate actual = grantsTarget.buildPipelineUpdate(AccessControlListModifications
+        .builder()
+        .modifications(List.of(AccessControlEntryModifications.builder()
+            .permission("read")
+            .addUsers(Set.of("anna"))
+            .removeUsers(Set.of("$bernd"))
+            .removeRoles(Set.of("ROLE_USER"))
+            .build()))
+        .build());
+    Document ifNullUsers = new Document("$ifNull", List.of("$acl.entries.read.users", List.of()));
+    Document ifNullRoles = new Document("$ifNull", List.of("$acl.entries.read.roles", List.of()));
+    Document ifNullGrants = new Document("$ifNull", List.of("$acl.grants", List.of()));
+    softly.assertThat(actual.toPipeline(Aggregation.DEFAULT_CONTEXT))
+        .containsExactly(new Document("$set", new Document()
+            .append("acl.entries.read.guest", false)
+            .append("acl.entries.read.users", new Document("$setDifference", List.of(
+                new Document("$setUnion", List.of(
+                    ifNullUsers, new Document("$literal", List.of("anna")))),
+                new Document("$literal", List.of("$bernd")))))
+            .append("acl.entries.read.roles", new Document("$setDifference", List.of(
+                ifNullRoles, new Document("$literal", List.of("ROLE_USER")))))
+            .append("acl.grants", new Document("$setDifference", List.of(
+                new Document("$setUnion", List.of(
+                    ifNullGrants, new Document("$literal", List.of("read:user:anna")))),
+                new Document("$literal", List.of(
+                    "read:guest:*", "read:user:$bernd", "read:role:ROLE_USER")))))));
+
+    softly.assertThat(target.buildPipelineUpdate(null).toPipeline(Aggregation.DEFAULT_CONTEXT))
+        .containsExactly(new Document("$set", new Document("acl.owner", "$acl.owner")));
+  }
+
+  /**
+   * Tokens of acl.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void tokensOf(SoftAssertions softly) {
+    Acl acl = Acl.builder()
+        .owner("junit")
+        .guest("read", true)
+        .addUsers("read", List.of("anna"))
+        .addRoles("write", List.of("ROLE_ADMIN"))
+        .addGroups("write", List.of("staff"))
+        .build();
+    softly.assertThat(AclGrants.tokensOf(acl))
+        .containsExactly(
+            "read:guest:*", "read:user:anna", "write:group:staff", "write:role:ROLE_ADMIN");
+    softly.assertThat(new AclToDocumentConverter(true).convert(acl))
+        .containsEntry(AclGrants.GRANTS, AclGrants.tokensOf(acl));
+    softly.assertThat(new AclToDocumentConverter().convert(acl))
+        .doesNotContainKey(AclGrants.GRANTS);
+  }
+
+  /**
+   * Build compiled permission criteria and combine them with other criteria.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void buildCompiledPermissionCriteria(SoftAssertions softly) {
+    AclCriteriaAndUpdateBuilder builder = new AclCriteriaAndUpdateBuilder("acl", true);
+    NormalizedAclUserContext userContext = NormalizedAclUserContext.of(AclUserContext.builder()
+        .name("junit")
+        .build());
+    Document expected = new Document("$or", List.of(
+        new Document("acl.owner", "junit"),
+        new Document("acl.grants",
+            new Document("$in", List.of("read:guest:*", "read:user:junit")))));
+
+    Criteria actual = builder.buildPermissionCriteria(
+        userContext, AccessEvaluation.ANY_PERMISSION, List.of("read"));
+    softly.assertThat(actual.getCriteriaObject())
+        .isEqualTo(expected);
+    actual.getCriteriaObject().clear();
+    Criteria cached = builder.buildPermissionCriteria(
+        userContext, AccessEvaluation.ANY_PERMISSION, List.of("read"));
+    softly.assertThat(cached.getCriteriaObject())
+        .isEqualTo(expected);
+    softly.assertThat(cached)
+        .isEqualTo(actual);
+
+    Document rendered = cached.getCriteriaObject();
+    Document nestedIn = rendered.getList("$or", Document.class).get(1)
+        .get("acl.grants", Document.class);
+    nestedIn.put("$nin", List.of("read:guest:*"));
+    nestedIn.getList("$in", String.class).add("read:user:intruder");
+    rendered.getList("$or", Object.class).clear();
+    softly.assertThat(builder
+            .buildPermissionCriteria(userContext, AccessEvaluation.ANY_PERMISSION, List.of("read"))
+            .getCriteriaObject())
+        .isEqualTo(expected);
+
+    Document other = new Document("otherContent", "x");
+    softly.assertThat(new Criteria()
+            .andOperator(cached, Criteria.where("otherContent").is("x"))
+            .getCriteriaObject())
+        .isEqualTo(new Document("$and", List.of(expected, other)));
+    softly.assertThat(Query.query(cached).getQueryObject())
+        .isEqualTo(expected);
+    softly.assertThat(builder
+            .buildPermissionCriteria(userContext, AccessEvaluation.ANY_PERMISSION, List.of("read"))
+            .and("otherContent").is("x")
+            .getCriteriaObject())
+        .isEqualTo(new Document(expected).append("otherContent", "x"));
+    softly.assertThat(builder
+            .buildPermissionCriteria(userContext, AccessEvaluation.ANY_PERMISSION, List.of("read"))
+            .andOperator(Criteria.where("otherContent").is("x"))
+            .getCriteriaObject())
+        .isEqualTo(new Document(expected).append("$and", List.of(other)));
+
+    builder.setCriteriaCacheSize(0);
+    softly.assertThat(builder
+            .buildPermissionCriteria(userContext, AccessEvaluation.ANY_PERMISSION, List.of("read"))
+            .getCriteriaObject())
+        .isEqualTo(expected);
+  }
+
+}
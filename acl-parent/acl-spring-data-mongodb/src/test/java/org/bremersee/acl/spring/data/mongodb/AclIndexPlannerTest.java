@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+/**
+ * The acl index planner test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class AclIndexPlannerTest {
+
+  private static final List<String> PERMISSIONS = List.of(
+      "administration", "create", "delete", "read", "write", "execute");
+
+  /**
+   * Plan entry indexes of the queried permissions.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void planEntries(SoftAssertions softly) {
+    List<IndexInfo> existing = new ArrayList<>();
+    existing.add(indexInfo("_id"));
+    existing.add(indexInfo("otherContent"));
+    existing.add(indexInfo("acl.owner"));
+    for (String permission : PERMISSIONS) {
+      for (String field : List.of("guest", "users", "roles", "groups")) {
+        existing.add(indexInfo("acl.entries." + permission + "." + field));
+      }
+    }
+    AclIndexPlanner target = new AclIndexPlanner(
+        "acl", AclIndexStrategy.ENTRIES, List.of("write", "read"));
+    AclIndexPlan actual = target.plan(existing);
+
+    softly.assertThat(actual.getIndexesToCreate())
+        .extracting(IndexDefinition::getIndexKeys)
+        .containsExactly(
+            new Document("acl.entries.read.guest", 1),
+            new Document("acl.entries.write.guest", 1));
+    softly.assertThat(actual.getIndexesToCreate().get(0).getIndexOptions())
+        .containsEntry("partialFilterExpression", new Document("acl.entries.read.guest", true));
+    softly.assertThat(actual.getIndexesToDrop())
+        .hasSize(18)
+        .contains("acl.entries.read.guest_1", "acl.entries.execute.users_1")
+        .doesNotContain("_id_1", "otherContent_1");
+    softly.assertThat(actual.getIndexesToKeep())
+        .containsExactly(
+            "acl.owner_1",
+            "acl.entries.read.users_1",
+            "acl.entries.read.roles_1",
+            "acl.entries.read.groups_1",
+            "acl.entries.write.users_1",
+            "acl.entries.write.roles_1",
+            "acl.entries.write.groups_1");
+    softly.assertThat(actual.getCurrentWriteCost())
+        .isEqualTo(25);
+    softly.assertThat(actual.getPlannedWriteCost())
+        .isEqualTo(9);
+    softly.assertThat(actual.getPlannedCoverage())
+        .isEqualTo(1.0);
+    softly.assertThat(actual.getReport())
+        .contains("acl indexes (write cost): 25 -> 9", "query coverage: 1.00 -> 1.00");
+  }
+
+  /**
+   * Plan grants indexes with secondary filters.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void planGrants(SoftAssertions softly) {
+    AclIndexPlanner target = new AclIndexPlanner(
+        "acl", AclIndexStrategy.GRANTS, List.of("read"));
+    target.setSecondaryFilters(List.of("tenant"));
+    AclIndexPlan actual = target.plan(List.of(indexInfo("acl.owner"), indexInfo("tenant")));
+
+    softly.assertThat(actual.getIndexesToCreate())
+        .extracting(IndexDefinition::getIndexKeys)
+        .containsExactly(
+            new Document("tenant", 1).append("acl.owner", 1),
+            new Document("tenant", 1).append("acl.grants", 1));
+    softly.assertThat(actual.getIndexesToDrop())
+        .containsExactly("acl.owner_1");
+    softly.assertThat(actual.getQueryFields())
+        .containsExactly("acl.owner", "acl.grants");
+    softly.assertThat(actual.getCurrentCoverage())
+        .isEqualTo(0.5);
+    softly.assertThat(actual.getPlannedCoverage())
+        .isEqualTo(1.0);
+  }
+
+  /**
+   * Plan wildcard index and keep the other indexes.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void planWildcard(SoftAssertions softly) {
+    AclIndexPlanner target = new AclIndexPlanner(
+        "acl", AclIndexStrategy.WILDCARD, List.of("read"));
+    target.setDropRedundantIndexes(false);
+    AclIndexPlan actual = target.plan(List.of(
+        indexInfo("acl.owner"),
+        indexInfo("acl.entries.read.users")));
+
+    softly.assertThat(actual.getIndexesToCreate())
+        .extracting(IndexDefinition::getIndexKeys)
+        .containsExactly(new Document("acl.entries.$**", 1));
+    softly.assertThat(actual.getIndexesToDrop())
+        .isEmpty();
+    softly.assertThat(actual.getIndexesToKeep())
+        .containsExactly("acl.owner_1", "acl.entries.read.users_1");
+    softly.assertThat(actual.getCurrentlyCoveredFields())
+        .containsExactly("acl.owner", "acl.entries.read.users");
+    softly.assertThat(actual.getPlannedCoverage())
+        .isEqualTo(1.0);
+    softly.assertThat(actual.getPlannedWriteCost())
+        .isEqualTo(3);
+  }
+
+  private static IndexInfo indexInfo(String key) {
+    return IndexInfo.indexInfoOf(new Document("name", key + "_1")
+        .append("key", new Document(key, 1)));
+  }
+
+}
@@ -120,6 +120,38 @@ class MongoIntegrationTest {
                 + "." + Acl.ENTRIES + "." + PermissionConstants.ADMINISTRATION));
   }
 
+  /**
+   * Plan and apply acl indexes.
+   *
+   * @param softly the softly
+   */
+  @Order(2000)
+  @Test
+  void planAndApplyIndexes(SoftAssertions softly) {
+    AclIndexOperations aclIndexOperations = new AclIndexOperations(mongoTemplate);
+    AclIndexPlanner planner = new AclIndexPlanner(
+        ExampleEntity.class,
+        AclIndexStrategy.ENTRIES,
+        List.of(PermissionConstants.READ));
+    planner.setSecondaryFilters(List.of(ExampleEntity.OTHER_CONTENT));
+    AclIndexPlan plan = aclIndexOperations.planAclIndexes(ExampleEntity.class, planner);
+    softly.assertThat(plan.getIndexesToCreate())
+        .hasSize(5);
+    softly.assertThat(plan.getIndexesToDrop())
+        .hasSize(5);
+
+    aclIndexOperations.applyAclIndexPlan(ExampleEntity.class, plan);
+    AclIndexPlan actual = aclIndexOperations.planAclIndexes(ExampleEntity.class, planner);
+    softly.assertThat(actual.getIndexesToCreate())
+        .isEmpty();
+    softly.assertThat(actual.getIndexesToDrop())
+        .isEmpty();
+    softly.assertThat(actual.getIndexesToKeep())
+        .hasSize(5);
+    softly.assertThat(actual.getCurrentCoverage())
+        .isEqualTo(1.0);
+  }
+
   /**
    * Save and find.
    *
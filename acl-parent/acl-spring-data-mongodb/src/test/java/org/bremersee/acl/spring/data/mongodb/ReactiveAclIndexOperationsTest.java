@@ -0,0 +1,165 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.acl.spring.data.mongodb.app.ExampleEntity;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The reactive acl index operations test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class ReactiveAclIndexOperationsTest {
+
+  private ReactiveIndexOperations indexOps;
+
+  private ReactiveMongoOperations mongoOperations;
+
+  private ReactiveAclIndexOperations target;
+
+  /**
+   * Sets up the mocks.
+   */
+  @BeforeEach
+  void setUp() {
+    indexOps = mock(ReactiveIndexOperations.class);
+    when(indexOps.getIndexInfo()).thenReturn(Flux.just(
+        indexInfo("_id_"),
+        indexInfo("acl.owner_1"),
+        indexInfo("acl.entries.read.users_1"),
+        indexInfo("acl.entries.write.users_1")));
+    when(indexOps.dropIndex(anyString())).thenReturn(Mono.empty());
+    when(indexOps.createIndex(any())).thenReturn(Mono.just("index"));
+    mongoOperations = mock(ReactiveMongoOperations.class);
+    when(mongoOperations.indexOps(ExampleEntity.class)).thenReturn(indexOps);
+    when(mongoOperations.indexOps("entities")).thenReturn(indexOps);
+    target = new ReactiveAclIndexOperations(mongoOperations);
+  }
+
+  /**
+   * Gets acl index info.
+   */
+  @Test
+  void getAclIndexInfo() {
+    StepVerifier.create(target.getAclIndexInfo(ExampleEntity.class).map(IndexInfo::getName))
+        .expectNext("acl.owner_1", "acl.entries.read.users_1", "acl.entries.write.users_1")
+        .verifyComplete();
+  }
+
+  /**
+   * Create acl indexes and drop the indexes of other permissions.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void createAclIndexes(SoftAssertions softly) {
+    StepVerifier.create(target.createAclIndexes("entities", "acl", List.of("read"), true))
+        .verifyComplete();
+
+    verify(indexOps).dropIndex("acl.entries.write.users_1");
+    verify(indexOps, times(1)).dropIndex(anyString());
+    ArgumentCaptor<IndexDefinition> captor = ArgumentCaptor.forClass(IndexDefinition.class);
+    verify(indexOps, times(5)).createIndex(captor.capture());
+    softly.assertThat(captor.getAllValues())
+        .extracting(IndexDefinition::getIndexKeys)
+        .containsExactlyInAnyOrder(
+            new Document("acl.owner", 1),
+            new Document("acl.entries.read.guest", 1),
+            new Document("acl.entries.read.users", 1),
+            new Document("acl.entries.read.roles", 1),
+            new Document("acl.entries.read.groups", 1));
+    verify(indexOps, never()).ensureIndex(any());
+  }
+
+  /**
+   * Create acl indexes without dropping other indexes.
+   */
+  @Test
+  void createAclIndexesWithoutDrop() {
+    StepVerifier.create(target.createAclIndexes(ExampleEntity.class, List.of("read"), false))
+        .verifyComplete();
+
+    verify(indexOps, never()).getIndexInfo();
+    verify(indexOps, never()).dropIndex(anyString());
+    verify(indexOps, times(5)).createIndex(any());
+  }
+
+  /**
+   * Create acl grants indexes and drop the entry indexes.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void createAclGrantsIndexes(SoftAssertions softly) {
+    StepVerifier.create(target.createAclGrantsIndexes(ExampleEntity.class, true))
+        .verifyComplete();
+
+    verify(indexOps).dropIndex("acl.entries.read.users_1");
+    verify(indexOps).dropIndex("acl.entries.write.users_1");
+    verify(indexOps, never()).dropIndex("acl.owner_1");
+    ArgumentCaptor<IndexDefinition> captor = ArgumentCaptor.forClass(IndexDefinition.class);
+    verify(indexOps, times(2)).createIndex(captor.capture());
+    softly.assertThat(captor.getAllValues())
+        .extracting(IndexDefinition::getIndexKeys)
+        .containsExactly(
+            new Document("acl.owner", 1),
+            new Document("acl.grants", 1));
+    verify(indexOps, never()).ensureIndex(any());
+  }
+
+  /**
+   * Create acl indexes signals the error of the index creation.
+   */
+  @Test
+  void createAclIndexesWithError() {
+    when(indexOps.createIndex(any())).thenReturn(Mono.error(new IllegalStateException()));
+    StepVerifier.create(target.createAclGrantsIndexes("entities", "acl", false))
+        .verifyError(IllegalStateException.class);
+    verify(indexOps, times(1)).createIndex(any());
+  }
+
+  private static IndexInfo indexInfo(String name) {
+    return IndexInfo.indexInfoOf(new Document("name", name)
+        .append("key", new Document(name.substring(0, name.length() - 2), 1)));
+  }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import java.util.List;
+import java.util.Set;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.acl.AccessEvaluation;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclUserContext;
+import org.bremersee.acl.model.AccessControlEntryModifications;
+import org.bremersee.acl.model.AccessControlListModifications;
+import org.bremersee.acl.spring.data.mongodb.app.ExampleEntity;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The reactive acl operations test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class ReactiveAclOperationsTest {
+
+  private static final AclUserContext USER = AclUserContext.builder()
+      .name("anna")
+      .build();
+
+  private static final AccessControlListModifications MODIFICATIONS
+      = AccessControlListModifications.builder()
+      .modifications(List.of(AccessControlEntryModifications.builder()
+          .permission("read")
+          .addUsers(Set.of("bernd"))
+          .removeUsers(Set.of("carl"))
+          .build()))
+      .build();
+
+  private final ExampleEntity entity = new ExampleEntity();
+
+  private ReactiveMongoOperations mongoOperations;
+
+  private ReactiveAclOperations<ExampleEntity> target;
+
+  /**
+   * Sets up the mocks.
+   */
+  @BeforeEach
+  void setUp() {
+    mongoOperations = mock(ReactiveMongoOperations.class);
+    when(mongoOperations.find(any(Query.class), eq(ExampleEntity.class)))
+        .thenReturn(Flux.just(entity));
+    when(mongoOperations.findOne(any(Query.class), eq(ExampleEntity.class)))
+        .thenReturn(Mono.just(entity));
+    when(mongoOperations.count(any(Query.class), eq(ExampleEntity.class)))
+        .thenReturn(Mono.just(1L));
+    when(mongoOperations.updateFirst(
+        any(Query.class), any(UpdateDefinition.class), eq(ExampleEntity.class)))
+        .thenReturn(Mono.just(UpdateResult.acknowledged(1L, 1L, null)));
+    when(mongoOperations.findAndModify(
+        any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+        eq(ExampleEntity.class)))
+        .thenReturn(Mono.just(entity));
+    target = new ReactiveAclOperations<>(mongoOperations, ExampleEntity.class, false);
+  }
+
+  /**
+   * Find.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void find(SoftAssertions softly) {
+    StepVerifier
+        .create(target.find(
+            Criteria.where("otherContent").is("x"),
+            USER,
+            AccessEvaluation.ANY_PERMISSION,
+            List.of("read")))
+        .expectNext(entity)
+        .verifyComplete();
+
+    ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoOperations).find(captor.capture(), eq(ExampleEntity.class));
+    softly.assertThat(captor.getValue().getQueryObject().getList("$and", Document.class))
+        .hasSize(2)
+        .element(1)
+        .isEqualTo(new Document("otherContent", "x"));
+  }
+
+  /**
+   * Find one and count.
+   */
+  @Test
+  void findOneAndCount() {
+    StepVerifier
+        .create(target.findOne(null, USER, AccessEvaluation.ALL_PERMISSIONS, List.of("read")))
+        .expectNext(entity)
+        .verifyComplete();
+    StepVerifier
+        .create(target.count(null, USER, AccessEvaluation.ANY_PERMISSION, List.of("read")))
+        .expectNext(1L)
+        .verifyComplete();
+  }
+
+  /**
+   * Invalid arguments are signalled as errors and not thrown on assembly.
+   */
+  @Test
+  void invalidArgumentsAreSignalled() {
+    Flux<ExampleEntity> find = target
+        .find(null, null, AccessEvaluation.ANY_PERMISSION, List.of("read"));
+    Mono<ExampleEntity> findOne = target
+        .findOne(null, USER, AccessEvaluation.ANY_PERMISSION, List.of());
+    Mono<Long> count = target
+        .count(null, USER, null, List.of("read"));
+    Mono<ExampleEntity> modifyAcl = target.modifyAcl(null, null, MODIFICATIONS);
+    Mono<ExampleEntity> replaceAcl = target.replaceAcl(null, null, Acl.builder().build());
+    Mono<ExampleEntity> changeOwner = target.changeOwner(null, null, "bernd");
+
+    StepVerifier.create(find).verifyError(IllegalArgumentException.class);
+    StepVerifier.create(findOne).verifyError(IllegalArgumentException.class);
+    StepVerifier.create(count).verifyError(IllegalArgumentException.class);
+    StepVerifier.create(modifyAcl).verifyError(IllegalArgumentException.class);
+    StepVerifier.create(replaceAcl).verifyError(IllegalArgumentException.class);
+    StepVerifier.create(changeOwner).verifyError(IllegalArgumentException.class);
+    verifyNoInteractions(mongoOperations);
+  }
+
+  /**
+   * Modify acl with one pipeline update.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void modifyAclWithPipelineUpdate(SoftAssertions softly) {
+    StepVerifier.create(target.modifyAcl(null, USER, MODIFICATIONS))
+        .expectNext(entity)
+        .verifyComplete();
+
+    ArgumentCaptor<UpdateDefinition> captor = ArgumentCaptor.forClass(UpdateDefinition.class);
+    verify(mongoOperations).findAndModify(
+        any(Query.class), captor.capture(), any(FindAndModifyOptions.class),
+        eq(ExampleEntity.class));
+    softly.assertThat(captor.getValue())
+        .isInstanceOf(AggregationUpdate.class);
+    verify(mongoOperations, never())
+        .updateFirst(any(Query.class), any(UpdateDefinition.class), eq(ExampleEntity.class));
+  }
+
+  /**
+   * Modify acl with preparation updates.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void modifyAclWithPreparationUpdates(SoftAssertions softly) {
+    target.setPipelineUpdates(false);
+    StepVerifier.create(target.modifyAcl(null, USER, MODIFICATIONS))
+        .expectNext(entity)
+        .verifyComplete();
+
+    ArgumentCaptor<UpdateDefinition> preparation = ArgumentCaptor
+        .forClass(UpdateDefinition.class);
+    verify(mongoOperations).updateFirst(
+        any(Query.class), preparation.capture(), eq(ExampleEntity.class));
+    softly.assertThat(preparation.getValue().getUpdateObject().keySet())
+        .containsExactlyInAnyOrder("$set", "$addToSet");
+    ArgumentCaptor<UpdateDefinition> last = ArgumentCaptor.forClass(UpdateDefinition.class);
+    verify(mongoOperations).findAndModify(
+        any(Query.class), last.capture(), any(FindAndModifyOptions.class),
+        eq(ExampleEntity.class));
+    softly.assertThat(last.getValue())
+        .isInstanceOfSatisfying(Update.class, update -> softly
+            .assertThat(update.getUpdateObject().keySet())
+            .containsExactly("$pullAll"));
+  }
+
+  /**
+   * Change owner.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void changeOwner(SoftAssertions softly) {
+    StepVerifier.create(target.changeOwner(null, USER, "bernd"))
+        .expectNext(entity)
+        .verifyComplete();
+
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+    verify(mongoOperations).findAndModify(
+        query.capture(), update.capture(), any(FindAndModifyOptions.class),
+        eq(ExampleEntity.class));
+    softly.assertThat(query.getValue().getQueryObject())
+        .isEqualTo(new Document("acl.owner", "anna"));
+    softly.assertThat(update.getValue().getUpdateObject())
+        .isEqualTo(new Document("$set", new Document("acl.owner", "bernd")));
+  }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb.convert;
+
+import com.mongodb.MongoClientSettings;
+import java.util.List;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.acl.Ace;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclInterner;
+import org.bremersee.acl.spring.data.mongodb.AclGrants;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * The acl codec test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class AclCodecTest {
+
+  private static final Acl ACL = Acl.builder()
+      .owner("anna")
+      .addUsers("read", List.of("bernd"))
+      .addRoles("write", List.of("ROLE_ADMIN"))
+      .guest("read", true)
+      .build();
+
+  /**
+   * Encode like the acl to document converter.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void encode(SoftAssertions softly) {
+    softly.assertThat(encode(new AclCodec(true), ACL))
+        .isEqualTo(new AclToDocumentConverter(true).convert(ACL).toBsonDocument());
+    softly.assertThat(encode(new AclCodec(false), ACL))
+        .isEqualTo(new AclToDocumentConverter(false).convert(ACL).toBsonDocument())
+        .doesNotContainKey(AclGrants.GRANTS);
+    softly.assertThat(encode(new AclCodec(false), Acl.builder().owner("anna").build()))
+        .isEqualTo(new Document(Acl.OWNER, "anna").toBsonDocument());
+  }
+
+  /**
+   * Decode and intern.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void decode(SoftAssertions softly) {
+    BsonDocument source = encode(new AclCodec(true), ACL);
+    source.put("unknown", source.get(Acl.ENTRIES));
+    AclInterner interner = new AclInterner();
+    AclCodec target = new AclCodec(true, interner);
+    Acl first = decode(target, source);
+    long misses = interner.getMissCount();
+    softly.assertThat(first)
+        .isEqualTo(ACL);
+    softly.assertThat(decode(target, source))
+        .isSameAs(first);
+    softly.assertThat(decode(new AclCodec(false, null), source))
+        .isEqualTo(ACL)
+        .isNotSameAs(first);
+    softly.assertThat(new DocumentToAclConverter(interner)
+            .convert(new AclToDocumentConverter(false).convert(ACL)))
+        .isSameAs(first);
+    softly.assertThat(interner.getMissCount())
+        .isEqualTo(misses);
+
+    BsonDocument malformed = new Document(Acl.OWNER, 42)
+        .append(Acl.ENTRIES, new Document("read", new Document(Ace.GUEST, "yes")
+            .append(Ace.USERS, List.of("bernd", 7))
+            .append(Ace.ROLES, "ROLE_USER"))
+            .append("write", true))
+        .toBsonDocument();
+    softly.assertThat(decode(target, malformed))
+        .isEqualTo(Acl.builder()
+            .addUsers("read", List.of("bernd"))
+            .build());
+  }
+
+  /**
+   * Codec registry.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void getCodecRegistry(SoftAssertions softly) {
+    AclConverters converters = new AclConverters(true);
+    softly.assertThat(converters.getCodecRegistry().get(Acl.class))
+        .isEqualTo(new AclCodec(true));
+    softly.assertThat(converters.getCodecRegistry().get(Ace.class))
+        .isEqualTo(new AceCodec());
+    softly.assertThat(converters.getCodecRegistry().get(ACL.getClass()))
+        .isEqualTo(new AclCodec(true));
+    softly.assertThatThrownBy(() -> converters.getCodecRegistry().get(String.class))
+        .isInstanceOf(CodecConfigurationException.class);
+  }
+
+  /**
+   * The codec providers of the acl converters encode documents with access control lists.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void getCodecProviders(SoftAssertions softly) {
+    List<CodecProvider> codecProviders = new AclConverters().getCodecProviders();
+    softly.assertThat(codecProviders)
+        .containsExactly(new AclCodecProvider(new AclCodec(false), new AceCodec()));
+
+    CodecRegistry registry = CodecRegistries.fromRegistries(
+        CodecRegistries.fromProviders(codecProviders),
+        MongoClientSettings.getDefaultCodecRegistry());
+    BsonDocument actual = new BsonDocument();
+    registry.get(Document.class).encode(
+        new BsonDocumentWriter(actual),
+        new Document("acl", ACL),
+        EncoderContext.builder().build());
+    softly.assertThat(actual)
+        .isEqualTo(new Document("acl", new AclToDocumentConverter(false).convert(ACL))
+            .toBsonDocument());
+  }
+
+  private static BsonDocument encode(AclCodec codec, Acl acl) {
+    BsonDocument document = new BsonDocument();
+    codec.encode(new BsonDocumentWriter(document), acl, EncoderContext.builder().build());
+    return document;
+  }
+
+  private static Acl decode(AclCodec codec, BsonDocument document) {
+    return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+  }
+
+}
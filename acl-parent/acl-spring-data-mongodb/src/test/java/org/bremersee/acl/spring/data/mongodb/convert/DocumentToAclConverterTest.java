@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.spring.data.mongodb.convert;
+
+import java.util.List;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.acl.Ace;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclInterner;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * The document to acl converter test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class DocumentToAclConverterTest {
+
+  /**
+   * Convert.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void convert(SoftAssertions softly) {
+    Acl expected = Acl.builder()
+        .owner("anna")
+        .addUsers("read", List.of("bernd"))
+        .addRoles("write", List.of("ROLE_ADMIN"))
+        .guest("read", true)
+        .build();
+    AclInterner interner = new AclInterner();
+    DocumentToAclConverter target = new DocumentToAclConverter(interner);
+    Acl first = target.convert(document("anna"));
+    Acl second = target.convert(document("anna"));
+    softly.assertThat(first)
+        .isEqualTo(expected);
+    softly.assertThat(second)
+        .isSameAs(first);
+    softly.assertThat(new DocumentToAclConverter(null)
+            .convert(document("anna")))
+        .isEqualTo(expected)
+        .isNotSameAs(first);
+
+    softly.assertThat(target.convert(document("carl")))
+        .isNotSameAs(first)
+        .extracting(Acl::getOwner)
+        .isEqualTo("carl");
+  }
+
+  private static Document document(String owner) {
+    return new Document(Acl.OWNER, owner)
+        .append(Acl.ENTRIES, new Document()
+            .append("read", new Document(Ace.GUEST, true)
+                .append(Ace.USERS, List.of("bernd"))
+                .append(Ace.ROLES, List.of())
+                .append(Ace.GROUPS, List.of()))
+            .append("write", new Document(Ace.GUEST, false)
+                .append(Ace.USERS, List.of())
+                .append(Ace.ROLES, List.of("ROLE_ADMIN"))
+                .append(Ace.GROUPS, List.of())));
+  }
+
+}
@@ -20,6 +20,7 @@ import static java.util.Objects.isNull;
 import static org.bremersee.acl.AclUserContext.ANONYMOUS;
 
 import java.util.Collection;
+import java.util.function.Function;
 
 /**
  * The access evaluator.
@@ -38,6 +39,58 @@ public interface AccessEvaluator {
     return new Impl(acl);
   }
 
+  /**
+   * Evaluates the access control lists of the given items in one pass and returns the items, the
+   * user is permitted to access. The user context is normalized only once. If the number of items
+   * reaches {@link AccessFilterResult#DEFAULT_PARALLEL_THRESHOLD}, the items are evaluated in
+   * parallel by the common fork-join pool, so the acl function must be thread-safe.
+   *
+   * @param <T> the type of the items
+   * @param items the items
+   * @param aclFn the function, that gets the access control list of an item
+   * @param userContext the user context
+   * @param accessEvaluation the access evaluation type
+   * @param permissions the permissions (at most 64 distinct permissions)
+   * @return the result with the permitted items and the permission masks of all items
+   */
+  static <T> AccessFilterResult<T> filter(
+      Collection<T> items,
+      Function<T, Acl> aclFn,
+      AclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+    return filter(items, aclFn, userContext, accessEvaluation, permissions,
+        AccessFilterResult.DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Evaluates the access control lists of the given items in one pass and returns the items, the
+   * user is permitted to access. The user context is normalized only once. If the number of items
+   * reaches the given threshold, the items are evaluated in parallel by the common fork-join pool,
+   * so the acl function must be thread-safe.
+   *
+   * @param <T> the type of the items
+   * @param items the items
+   * @param aclFn the function, that gets the access control list of an item
+   * @param userContext the user context
+   * @param accessEvaluation the access evaluation type
+   * @param permissions the permissions (at most 64 distinct permissions)
+   * @param parallelThreshold the minimum number of items, that are evaluated in parallel (use
+   *     {@link Integer#MAX_VALUE} to disable parallel evaluation)
+   * @return the result with the permitted items and the permission masks of all items
+   */
+  static <T> AccessFilterResult<T> filter(
+      Collection<T> items,
+      Function<T, Acl> aclFn,
+      AclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions,
+      int parallelThreshold) {
+    return AccessFilterResult.evaluate(
+        items, aclFn, NormalizedAclUserContext.of(userContext), accessEvaluation, permissions,
+        parallelThreshold);
+  }
+
   /**
    * Determines whether the given user with the given roles and groups has the specified
    * permission.
@@ -73,6 +126,44 @@ public interface AccessEvaluator {
     }
   }
 
+  /**
+   * Determines whether the given user with the given roles and groups has the specified
+   * permission. The user context should be normalized once per request.
+   *
+   * @param userContext the normalized user context
+   * @param permission the permission
+   * @return {@code true} if the user has the permission, otherwise {@code false}
+   */
+  default boolean hasPermission(
+      NormalizedAclUserContext userContext,
+      String permission) {
+    return hasPermission((AclUserContext) userContext, permission);
+  }
+
+  /**
+   * Determines whether the given user with the given roles and groups has the specified permissions
+   * according to the given access evaluation type. The user context should be normalized once per
+   * request.
+   *
+   * @param userContext the normalized user context
+   * @param accessEvaluation the access evaluation type
+   * @param permissions the permissions
+   * @return {@code true} if the user has the permissions, otherwise {@code false}
+   */
+  default boolean hasPermissions(
+      NormalizedAclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+
+    if (accessEvaluation.isAnyPermission()) {
+      return permissions.stream()
+          .anyMatch(permission -> hasPermission(userContext, permission));
+    } else {
+      return !permissions.isEmpty() && permissions.stream()
+          .allMatch(permission -> hasPermission(userContext, permission));
+    }
+  }
+
   /**
    * The default access evaluator implementation.
    *
@@ -118,6 +209,65 @@ public interface AccessEvaluator {
       }
       return userContext.getGroups().stream().anyMatch(group -> ace.getGroups().contains(group));
     }
+
+    @Override
+    public boolean hasPermission(
+        NormalizedAclUserContext userContext,
+        String permission) {
+      return isGranted(acl, userContext, permission);
+    }
+
+    /**
+     * Determines whether the given user has the specified permission in the given access control
+     * list.
+     *
+     * @param acl the access control list
+     * @param userContext the normalized user context
+     * @param permission the permission
+     * @return {@code true} if the user has the permission, otherwise {@code false}
+     */
+    static boolean isGranted(
+        Acl acl,
+        NormalizedAclUserContext userContext,
+        String permission) {
+
+      if (isNull(acl)) {
+        return false;
+      }
+      if (isNull(permission)) {
+        return false;
+      }
+      if (isOwner(acl, userContext)) {
+        return true;
+      }
+      Ace ace = acl.getPermissionMap().get(permission);
+      return !isNull(ace) && isGranted(ace, userContext);
+    }
+
+    /**
+     * Determines whether the given access control entry grants access to the given user.
+     *
+     * @param ace the access control entry
+     * @param userContext the normalized user context
+     * @return {@code true} if the entry grants access to the user, otherwise {@code false}
+     */
+    static boolean isGranted(Ace ace, NormalizedAclUserContext userContext) {
+      return ace.isGuest()
+          || (!userContext.isAnonymous() && ace.getUsers().contains(userContext.getName()))
+          || userContext.hasAnyRole(ace.getRoles())
+          || userContext.hasAnyGroup(ace.getGroups());
+    }
+
+    /**
+     * Determines whether the given user is the owner of the given access control list.
+     *
+     * @param acl the access control list
+     * @param userContext the normalized user context
+     * @return {@code true} if the user is the owner, otherwise {@code false}
+     */
+    static boolean isOwner(Acl acl, NormalizedAclUserContext userContext) {
+      return !userContext.isAnonymous() && acl.getOwner().equals(userContext.getName());
+    }
   }
 
 }
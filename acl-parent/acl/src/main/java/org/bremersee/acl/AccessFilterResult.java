@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * The result of a batch evaluation of access control lists (see
+ * {@link AccessEvaluator#filter(Collection, Function, AclUserContext, AccessEvaluation,
+ * Collection)}). It contains the permitted items and a permission mask of every item: bit
+ * {@code i} of the mask is set, if the user has the permission {@code i} of
+ * {@link #getPermissions()}.
+ *
+ * @param <T> the type of the items
+ * @author Christian Bremer
+ */
+public final class AccessFilterResult<T> {
+
+  /**
+   * The default minimum number of items, that are evaluated in parallel.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 10_000;
+
+  private final List<T> items;
+
+  private final List<String> permissions;
+
+  private final long[] masks;
+
+  private final List<T> permitted;
+
+  private AccessFilterResult(
+      List<T> items,
+      List<String> permissions,
+      long[] masks,
+      List<T> permitted) {
+    this.items = items;
+    this.permissions = permissions;
+    this.masks = masks;
+    this.permitted = permitted;
+  }
+
+  static <T> AccessFilterResult<T> evaluate(
+      Collection<T> items,
+      Function<T, Acl> aclFn,
+      NormalizedAclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions,
+      int parallelThreshold) {
+
+    Objects.requireNonNull(aclFn, "Acl function must be present.");
+    Objects.requireNonNull(accessEvaluation, "Access evaluation must be present.");
+    List<String> permissionList = distinct(permissions);
+    if (permissionList.size() > Long.SIZE) {
+      throw new IllegalArgumentException(
+          "At most " + Long.SIZE + " permissions can be evaluated at once.");
+    }
+    List<T> itemList = isNull(items)
+        ? List.of()
+        : items instanceof List<T> list && items instanceof RandomAccess
+            ? list
+            : new ArrayList<>(items);
+    int size = itemList.size();
+    long[] masks = new long[size];
+    if (!permissionList.isEmpty()) {
+      if (size >= Math.max(2, parallelThreshold)
+          && ForkJoinPool.getCommonPoolParallelism() > 1) {
+        IntStream.range(0, size).parallel().forEach(i -> masks[i] = mask(
+            aclFn.apply(itemList.get(i)), userContext, permissionList));
+      } else {
+        for (int i = 0; i < size; i++) {
+          masks[i] = mask(aclFn.apply(itemList.get(i)), userContext, permissionList);
+        }
+      }
+    }
+    long all = permissionList.size() == Long.SIZE ? -1L : (1L << permissionList.size()) - 1L;
+    List<T> permitted = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      boolean isPermitted = accessEvaluation.isAnyPermission()
+          ? masks[i] != 0L
+          : !permissionList.isEmpty() && masks[i] == all;
+      if (isPermitted) {
+        permitted.add(itemList.get(i));
+      }
+    }
+    return new AccessFilterResult<>(
+        Collections.unmodifiableList(itemList),
+        permissionList,
+        masks,
+        Collections.unmodifiableList(permitted));
+  }
+
+  private static List<String> distinct(Collection<String> permissions) {
+    if (isNull(permissions)) {
+      return List.of();
+    }
+    return permissions.stream()
+        .filter(Objects::nonNull)
+        .collect(LinkedHashSet<String>::new, LinkedHashSet::add, LinkedHashSet::addAll)
+        .stream()
+        .toList();
+  }
+
+  private static long mask(
+      Acl acl,
+      NormalizedAclUserContext userContext,
+      List<String> permissions) {
+
+    if (isNull(acl)) {
+      return 0L;
+    }
+    int size = permissions.size();
+    if (AccessEvaluator.Impl.isOwner(acl, userContext)) {
+      return size == Long.SIZE ? -1L : (1L << size) - 1L;
+    }
+    Map<String, Ace> permissionMap = acl.getPermissionMap();
+    long mask = 0L;
+    for (int i = 0; i < size; i++) {
+      Ace ace = permissionMap.get(permissions.get(i));
+      if (nonNull(ace) && AccessEvaluator.Impl.isGranted(ace, userContext)) {
+        mask |= 1L << i;
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Gets the permitted items in the order of the evaluated items.
+   *
+   * @return the permitted items
+   */
+  public List<T> getPermitted() {
+    return permitted;
+  }
+
+  /**
+   * Gets the evaluated items.
+   *
+   * @return the evaluated items
+   */
+  public List<T> getItems() {
+    return items;
+  }
+
+  /**
+   * Gets the distinct permissions in the order of the bits of the permission masks.
+   *
+   * @return the permissions
+   */
+  public List<String> getPermissions() {
+    return permissions;
+  }
+
+  /**
+   * Gets the permission mask of the item with the given index.
+   *
+   * @param index the index of the item in {@link #getItems()}
+   * @return the permission mask
+   */
+  public long getPermissionMask(int index) {
+    return masks[index];
+  }
+
+  /**
+   * Determines whether the user has the given permission for the item with the given index.
+   *
+   * @param index the index of the item in {@link #getItems()}
+   * @param permission the permission
+   * @return {@code true} if the user has the permission, otherwise {@code false}
+   */
+  public boolean hasPermission(int index, String permission) {
+    int bit = permissions.indexOf(permission);
+    return bit >= 0 && (masks[index] & (1L << bit)) != 0L;
+  }
+
+  /**
+   * Gets the granted permissions of the item with the given index.
+   *
+   * @param index the index of the item in {@link #getItems()}
+   * @return the granted permissions
+   */
+  public List<String> getGrantedPermissions(int index) {
+    long mask = masks[index];
+    List<String> granted = new ArrayList<>(Long.bitCount(mask));
+    for (int bit = 0; bit < permissions.size(); bit++) {
+      if ((mask & (1L << bit)) != 0L) {
+        granted.add(permissions.get(bit));
+      }
+    }
+    return granted;
+  }
+
+}
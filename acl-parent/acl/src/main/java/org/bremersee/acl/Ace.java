@@ -20,11 +20,11 @@ import static java.util.Collections.unmodifiableSortedSet;
 import static java.util.Objects.nonNull;
 
 import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
+import java.util.Comparator;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import lombok.EqualsAndHashCode;
+import lombok.EqualsAndHashCode.CacheStrategy;
 import lombok.ToString;
 
 /**
@@ -54,6 +54,11 @@ public interface Ace {
    */
   String GROUPS = "groups";
 
+  /**
+   * The empty ace.
+   */
+  Ace EMPTY = builder().build();
+
   /**
    * Builder ace builder.
    *
@@ -64,12 +69,12 @@ public interface Ace {
   }
 
   /**
-   * Empty ace.
+   * Gets the empty ace. The empty ace is immutable and shared.
    *
-   * @return the ace
+   * @return the empty ace
    */
   static Ace empty() {
-    return builder().build();
+    return EMPTY;
   }
 
   /**
@@ -101,7 +106,9 @@ public interface Ace {
   SortedSet<String> getGroups();
 
   /**
-   * The ace builder.
+   * The ace builder. The builder shares the sets of the ace, it was created from (see
+   * {@link #from(Ace)}), and of the aces, it has built, and copies a set only when it is modified.
+   * If nothing was modified, the builder returns the ace, it was created from.
    *
    * @author Christian Bremer
    */
@@ -109,13 +116,22 @@ public interface Ace {
   @EqualsAndHashCode
   class AceBuilder {
 
+    private static final Comparator<String> COMPARATOR = String::compareToIgnoreCase;
+
+    private static final SortedSet<String> EMPTY_SET = unmodifiableSortedSet(
+        new TreeSet<>(COMPARATOR));
+
     private boolean guest;
 
-    private final TreeSet<String> users = new TreeSet<>(String::compareToIgnoreCase);
+    private SortedSet<String> users = EMPTY_SET;
+
+    private SortedSet<String> roles = EMPTY_SET;
 
-    private final TreeSet<String> roles = new TreeSet<>(String::compareToIgnoreCase);
+    private SortedSet<String> groups = EMPTY_SET;
 
-    private final TreeSet<String> groups = new TreeSet<>(String::compareToIgnoreCase);
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Ace source;
 
     /**
      * Instantiates a new ace builder.
@@ -131,7 +147,13 @@ public interface Ace {
      * @return the ace builder
      */
     public AceBuilder from(Ace ace) {
-      if (nonNull(ace)) {
+      if (ace instanceof AceImpl) {
+        this.guest = ace.isGuest();
+        this.users = ace.getUsers();
+        this.roles = ace.getRoles();
+        this.groups = ace.getGroups();
+        this.source = ace;
+      } else if (nonNull(ace)) {
         guest(ace.isGuest());
         users(ace.getUsers());
         roles(ace.getRoles());
@@ -158,8 +180,8 @@ public interface Ace {
      * @return the ace builder
      */
     public AceBuilder users(Collection<String> users) {
-      this.users.clear();
-      return addUsers(nonNull(users) ? users : List.of());
+      this.users = EMPTY_SET;
+      return addUsers(users);
     }
 
     /**
@@ -169,11 +191,7 @@ public interface Ace {
      * @return the ace builder
      */
     public AceBuilder addUsers(Collection<String> users) {
-      if (nonNull(users)) {
-        users.stream()
-            .filter(entry -> nonNull(entry) && !entry.isBlank())
-            .forEach(this.users::add);
-      }
+      this.users = add(this.users, users);
       return this;
     }
 
@@ -184,11 +202,7 @@ public interface Ace {
      * @return the ace builder
      */
     public AceBuilder removeUsers(Collection<String> users) {
-      if (nonNull(users)) {
-        users.stream()
-            .filter(Objects::nonNull)
-            .forEach(this.users::remove);
-      }
+      this.users = remove(this.users, users);
       return this;
     }
 
@@ -199,8 +213,8 @@ public interface Ace {
      * @return the ace builder
      */
     public AceBuilder roles(Collection<String> roles) {
-      this.roles.clear();
-      return addRoles(nonNull(roles) ? roles : List.of());
+      this.roles = EMPTY_SET;
+      return addRoles(roles);
     }
 
     /**
@@ -210,11 +224,7 @@ public interface Ace {
      * @return the ace builder
      */
     public AceBuilder addRoles(Collection<String> roles) {
-      if (nonNull(roles)) {
-        roles.stream()
-            .filter(entry -> nonNull(entry) && !entry.isBlank())
-            .forEach(this.roles::add);
-      }
+      this.roles = add(this.roles, roles);
       return this;
     }
 
@@ -225,11 +235,7 @@ public interface Ace {
      * @return the ace builder
      */
     public AceBuilder removeRoles(Collection<String> roles) {
-      if (nonNull(roles)) {
-        roles.stream()
-            .filter(Objects::nonNull)
-            .forEach(this.roles::remove);
-      }
+      this.roles = remove(this.roles, roles);
       return this;
     }
 
@@ -240,8 +246,8 @@ public interface Ace {
      * @return the ace builder
      */
     public AceBuilder groups(Collection<String> groups) {
-      this.groups.clear();
-      return addGroups(nonNull(groups) ? groups : List.of());
+      this.groups = EMPTY_SET;
+      return addGroups(groups);
     }
 
     /**
@@ -251,11 +257,7 @@ public interface Ace {
      * @return the ace builder
      */
     public AceBuilder addGroups(Collection<String> groups) {
-      if (nonNull(groups)) {
-        groups.stream()
-            .filter(entry -> nonNull(entry) && !entry.isBlank())
-            .forEach(this.groups::add);
-      }
+      this.groups = add(this.groups, groups);
       return this;
     }
 
@@ -266,11 +268,7 @@ public interface Ace {
      * @return the ace builder
      */
     public AceBuilder removeGroups(Collection<String> groups) {
-      if (nonNull(groups)) {
-        groups.stream()
-            .filter(Objects::nonNull)
-            .forEach(this.groups::remove);
-      }
+      this.groups = remove(this.groups, groups);
       return this;
     }
 
@@ -280,18 +278,78 @@ public interface Ace {
      * @return the ace
      */
     public Ace build() {
-      return new AceImpl(guest, users, roles, groups);
+      users = seal(users);
+      roles = seal(roles);
+      groups = seal(groups);
+      if (nonNull(source)
+          && source.isGuest() == guest
+          && source.getUsers() == users
+          && source.getRoles() == roles
+          && source.getGroups() == groups) {
+        return source;
+      }
+      source = new AceImpl(guest, users, roles, groups);
+      return source;
+    }
+
+    private static SortedSet<String> add(SortedSet<String> set, Collection<String> entries) {
+      SortedSet<String> result = set;
+      if (nonNull(entries)) {
+        for (String entry : entries) {
+          if (nonNull(entry) && !entry.isBlank() && !result.contains(entry)) {
+            result = modifiable(result);
+            result.add(entry);
+          }
+        }
+      }
+      return result;
+    }
+
+    private static SortedSet<String> remove(SortedSet<String> set, Collection<String> entries) {
+      SortedSet<String> result = set;
+      if (nonNull(entries)) {
+        for (String entry : entries) {
+          if (nonNull(entry) && result.contains(entry)) {
+            result = modifiable(result);
+            result.remove(entry);
+          }
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Returns the given set, if it is owned by this builder, otherwise a modifiable copy.
+     */
+    private static SortedSet<String> modifiable(SortedSet<String> set) {
+      if (set instanceof TreeSet) {
+        return set;
+      }
+      TreeSet<String> copy = new TreeSet<>(COMPARATOR);
+      copy.addAll(set);
+      return copy;
+    }
+
+    /**
+     * Returns an unmodifiable view of the given set, if it is owned by this builder, so that the
+     * next modification will copy it.
+     */
+    private static SortedSet<String> seal(SortedSet<String> set) {
+      if (set instanceof TreeSet) {
+        return set.isEmpty() ? EMPTY_SET : unmodifiableSortedSet(set);
+      }
+      return set;
     }
 
   }
 
   /**
-   * The ace implementation.
+   * The ace implementation. It is immutable, so it can be shared (see {@link AclInterner}).
    *
    * @author Christian Bremer
    */
   @ToString
-  @EqualsAndHashCode
+  @EqualsAndHashCode(cacheStrategy = CacheStrategy.LAZY)
   class AceImpl implements Ace {
 
     private final boolean guestFlag;
@@ -309,9 +367,9 @@ public interface Ace {
         SortedSet<String> groups) {
 
       this.guestFlag = guest;
-      this.userSet = unmodifiableSortedSet(users);
-      this.roleSet = unmodifiableSortedSet(roles);
-      this.groupSet = unmodifiableSortedSet(groups);
+      this.userSet = users;
+      this.roleSet = roles;
+      this.groupSet = groups;
     }
 
     @Override
@@ -31,6 +31,7 @@ import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import lombok.EqualsAndHashCode;
+import lombok.EqualsAndHashCode.CacheStrategy;
 import lombok.ToString;
 import org.bremersee.acl.model.AccessControlListModifications;
 
@@ -114,7 +115,9 @@ public interface Acl {
   }
 
   /**
-   * The al builder.
+   * The al builder. The entries are built with {@link Ace.AceBuilder}, so unmodified sets are
+   * shared with the entries of the source acl (see {@link #from(Acl)}). If nothing was modified,
+   * the builder returns the source acl.
    *
    * @author Christian Bremer
    */
@@ -126,6 +129,10 @@ public interface Acl {
 
     private final Map<String, Ace> permissionMap = new HashMap<>();
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Acl source;
+
     /**
      * Instantiates a new acl builder.
      */
@@ -154,6 +161,9 @@ public interface Acl {
       if (nonNull(acl)) {
         owner(acl.getOwner());
         permissionMap(acl.getPermissionMap());
+        if (acl instanceof AclImpl) {
+          this.source = acl;
+        }
       }
       return this;
     }
@@ -166,6 +176,7 @@ public interface Acl {
      */
     public AclBuilder owner(String owner) {
       this.owner = owner;
+      this.source = null;
       return this;
     }
 
@@ -177,6 +188,7 @@ public interface Acl {
      */
     public AclBuilder permissionMap(Map<String, ? extends Ace> permissionMap) {
       this.permissionMap.clear();
+      this.source = null;
       if (nonNull(permissionMap)) {
         permissionMap.entrySet().stream()
             .filter(entry -> nonNull(entry.getKey()) && !entry.getKey().isBlank())
@@ -188,8 +200,12 @@ public interface Acl {
 
     private AclBuilder doWithAce(String permission, UnaryOperator<Ace> aceFn) {
       if (nonNull(permission) && !permission.isBlank()) {
-        Ace ace = this.permissionMap.getOrDefault(permission, Ace.empty());
-        this.permissionMap.put(permission, aceFn.apply(ace));
+        Ace ace = this.permissionMap.get(permission);
+        Ace newAce = aceFn.apply(nonNull(ace) ? ace : Ace.empty());
+        if (newAce != ace) {
+          this.permissionMap.put(permission, newAce);
+          this.source = null;
+        }
       }
       return this;
     }
@@ -217,7 +233,11 @@ public interface Acl {
      */
     public AclBuilder removePermissions(Collection<String> permissions) {
       if (nonNull(permissions)) {
-        permissions.forEach(this.permissionMap::remove);
+        for (String permission : permissions) {
+          if (nonNull(this.permissionMap.remove(permission))) {
+            this.source = null;
+          }
+        }
       }
       return this;
     }
@@ -526,17 +546,21 @@ public interface Acl {
      * @return the acl
      */
     public Acl build() {
-      return new AclImpl(owner, permissionMap);
+      if (nonNull(source)) {
+        return source;
+      }
+      source = new AclImpl(owner, permissionMap);
+      return source;
     }
   }
 
   /**
-   * The acl implementation.
+   * The acl implementation. It is immutable, so it can be shared (see {@link AclInterner}).
    *
    * @author Christian Bremer
    */
   @ToString
-  @EqualsAndHashCode
+  @EqualsAndHashCode(cacheStrategy = CacheStrategy.LAZY)
   @SuppressWarnings("ClassCanBeRecord")
   class AclImpl implements Acl {
 
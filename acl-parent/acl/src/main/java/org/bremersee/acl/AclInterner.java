@@ -0,0 +1,333 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import static java.util.Objects.isNull;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import lombok.Getter;
+
+/**
+ * The acl interner is a bounded, least recently used cache of immutable access control lists and
+ * entries. Equal instances are replaced by one canonical instance (hash-consing), so that many
+ * entities with the same access control list (for example the default permissions of an owner
+ * and the admin roles) share one instance instead of holding their own sorted sets.
+ *
+ * <p>Two aces or acls are only interned to the same instance, if they are equal case-sensitive,
+ * so the names are never changed by interning. The entries of an interned acl are interned, too.
+ *
+ * <p>The interner is thread-safe and an interned instance is found without a lock (see
+ * {@link BoundedCache}). It should be shared (see {@link #shared()}).
+ *
+ * @author Christian Bremer
+ */
+public class AclInterner {
+
+  /**
+   * The default maximum size.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+  private static final AclInterner SHARED = new AclInterner();
+
+  /**
+   * The maximum number of interned instances.
+   */
+  @Getter
+  private final int maximumSize;
+
+  private final BoundedCache<Key, Object> instances;
+
+  /**
+   * Instantiates a new acl interner with the default maximum size.
+   */
+  public AclInterner() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Instantiates a new acl interner.
+   *
+   * @param maximumSize the maximum number of interned instances (if it is less than {@code 1},
+   *     nothing will be interned)
+   */
+  public AclInterner(int maximumSize) {
+    this.maximumSize = Math.max(0, maximumSize);
+    this.instances = new BoundedCache<>(this.maximumSize);
+  }
+
+  /**
+   * Gets the shared acl interner.
+   *
+   * @return the shared acl interner
+   */
+  public static AclInterner shared() {
+    return SHARED;
+  }
+
+  /**
+   * Interns the given access control entry.
+   *
+   * @param ace the access control entry
+   * @return the canonical instance of the access control entry
+   */
+  public Ace intern(Ace ace) {
+    if (isNull(ace)) {
+      return null;
+    }
+    Ace immutableAce = ace instanceof Ace.AceImpl ? ace : Ace.builder().from(ace).build();
+    return lookup(new Key(KeyType.ACE, immutableAce), () -> immutableAce);
+  }
+
+  /**
+   * Interns the given access control list.
+   *
+   * @param acl the access control list
+   * @return the canonical instance of the access control list
+   */
+  public Acl intern(Acl acl) {
+    if (isNull(acl)) {
+      return null;
+    }
+    if (!isImmutable(acl)) {
+      // The key must not change, so a mutable acl is copied first.
+      Acl immutableAcl = internEntries(acl);
+      return lookup(new Key(KeyType.ACL, immutableAcl), () -> immutableAcl);
+    }
+    return lookup(new Key(KeyType.ACL, acl), () -> internEntries(acl));
+  }
+
+  /**
+   * Interns the access control list, that is described by the given source key, for example the
+   * values of a database document. If the source key is known, the access control list is
+   * returned without calling the supplier, so that parsing the source can be skipped.
+   *
+   * @param sourceKey the source key; it must not be modified after calling this method and must
+   *     describe exactly one access control list
+   * @param aclSupplier the supplier, that creates the access control list from the source
+   * @return the canonical instance of the access control list
+   */
+  public Acl intern(List<?> sourceKey, Supplier<Acl> aclSupplier) {
+    if (isNull(sourceKey)) {
+      return intern(aclSupplier.get());
+    }
+    return lookup(new Key(KeyType.SOURCE, sourceKey), () -> intern(aclSupplier.get()));
+  }
+
+  private Acl internEntries(Acl acl) {
+    Map<String, Ace> permissionMap = new LinkedHashMap<>();
+    boolean modified = !(acl instanceof Acl.AclImpl);
+    for (Map.Entry<String, Ace> entry : acl.getPermissionMap().entrySet()) {
+      Ace ace = intern(entry.getValue());
+      modified = modified || ace != entry.getValue();
+      permissionMap.put(entry.getKey(), ace);
+    }
+    return modified
+        ? Acl.builder().owner(acl.getOwner()).permissionMap(permissionMap).build()
+        : acl;
+  }
+
+  private <T> T lookup(Key key, Supplier<T> instanceSupplier) {
+    //noinspection unchecked
+    return (T) instances.get(key, k -> instanceSupplier.get());
+  }
+
+  private static boolean isImmutable(Acl acl) {
+    if (!(acl instanceof Acl.AclImpl)) {
+      return false;
+    }
+    for (Ace ace : acl.getPermissionMap().values()) {
+      if (!(ace instanceof Ace.AceImpl)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the number of interned instances.
+   *
+   * @return the size
+   */
+  public int getSize() {
+    return instances.getSize();
+  }
+
+  /**
+   * Gets the number of requests, that returned an interned instance.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return instances.getHitCount();
+  }
+
+  /**
+   * Gets the number of requests, that didn't find an interned instance.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return instances.getMissCount();
+  }
+
+  /**
+   * Gets the number of instances, that were removed because the maximum size was reached.
+   *
+   * @return the eviction count
+   */
+  public long getEvictionCount() {
+    return instances.getEvictionCount();
+  }
+
+  /**
+   * Removes all interned instances and resets the statistics.
+   */
+  public void clear() {
+    instances.clear();
+  }
+
+  @Override
+  public String toString() {
+    return "AclInterner {maximumSize=" + maximumSize
+        + ", size=" + getSize()
+        + ", hitCount=" + getHitCount()
+        + ", missCount=" + getMissCount()
+        + ", evictionCount=" + getEvictionCount()
+        + '}';
+  }
+
+  private enum KeyType {
+    ACE, ACL, SOURCE
+  }
+
+  /**
+   * The interner key. The keys of aces and acls wrap the immutable instances and compare their
+   * values case-sensitive in the order of their sorted sets and maps, so that no values have to be
+   * copied.
+   */
+  private static final class Key {
+
+    private final KeyType type;
+
+    private final Object value;
+
+    private final int hash;
+
+    private Key(KeyType type, Object value) {
+      this.type = type;
+      this.value = value;
+      int valueHash = switch (type) {
+        case ACE -> hashOf((Ace) value);
+        case ACL -> hashOf((Acl) value);
+        case SOURCE -> value.hashCode();
+      };
+      this.hash = 31 * type.ordinal() + valueHash;
+    }
+
+    private static int hashOf(Ace ace) {
+      int result = Boolean.hashCode(ace.isGuest());
+      result = 31 * result + hashOf(ace.getUsers());
+      result = 31 * result + hashOf(ace.getRoles());
+      return 31 * result + hashOf(ace.getGroups());
+    }
+
+    private static int hashOf(Acl acl) {
+      int result = Objects.hashCode(acl.getOwner());
+      for (Map.Entry<String, Ace> entry : acl.getPermissionMap().entrySet()) {
+        result = 31 * result + entry.getKey().hashCode();
+        result = 31 * result + hashOf(entry.getValue());
+      }
+      return result;
+    }
+
+    private static int hashOf(Collection<String> values) {
+      int result = 1;
+      for (String value : values) {
+        result = 31 * result + Objects.hashCode(value);
+      }
+      return result;
+    }
+
+    private static boolean equals(Ace ace1, Ace ace2) {
+      return ace1 == ace2 || (ace1.isGuest() == ace2.isGuest()
+          && equals(ace1.getUsers(), ace2.getUsers())
+          && equals(ace1.getRoles(), ace2.getRoles())
+          && equals(ace1.getGroups(), ace2.getGroups()));
+    }
+
+    private static boolean equals(Acl acl1, Acl acl2) {
+      if (acl1 == acl2) {
+        return true;
+      }
+      if (!Objects.equals(acl1.getOwner(), acl2.getOwner())
+          || acl1.getPermissionMap().size() != acl2.getPermissionMap().size()) {
+        return false;
+      }
+      Iterator<Map.Entry<String, Ace>> iterator2 = acl2.getPermissionMap().entrySet().iterator();
+      for (Map.Entry<String, Ace> entry1 : acl1.getPermissionMap().entrySet()) {
+        Map.Entry<String, Ace> entry2 = iterator2.next();
+        if (!entry1.getKey().equals(entry2.getKey())
+            || !equals(entry1.getValue(), entry2.getValue())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean equals(Collection<String> values1, Collection<String> values2) {
+      if (values1.size() != values2.size()) {
+        return false;
+      }
+      Iterator<String> iterator2 = values2.iterator();
+      for (String value1 : values1) {
+        if (!Objects.equals(value1, iterator2.next())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key other) || type != other.type || hash != other.hash) {
+        return false;
+      }
+      return switch (type) {
+        case ACE -> equals((Ace) value, (Ace) other.value);
+        case ACL -> equals((Acl) value, (Acl) other.value);
+        case SOURCE -> value.equals(other.value);
+      };
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+}
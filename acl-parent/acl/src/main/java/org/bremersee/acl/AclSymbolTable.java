@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The acl symbol table interns permissions, roles and groups into integer ids. It is used to
+ * compile access control lists and user contexts (see {@link CompiledAcl} and
+ * {@link CompiledAclUserContext}), so that an access check becomes an array lookup and a few
+ * word-wise bit operations.
+ *
+ * <p>The names are compared case-insensitive like the entries of an {@link Ace}. Permissions,
+ * roles and groups have their own id spaces. The symbol table is thread-safe and never forgets a
+ * name, so it should be shared (see {@link #shared()}) and not be fed with unbounded sets of
+ * names. Therefore the names of users are never interned (a compiled access control list keeps
+ * them as sorted normalized names), and the roles and groups of a compiled user context are only
+ * looked up; an unknown name gets no id and cannot match any entry. So the symbol table only
+ * grows with the permissions, roles and groups of the compiled access control lists, which are
+ * usually a small and closed set.
+ *
+ * @author Christian Bremer
+ */
+public class AclSymbolTable {
+
+  private static final AclSymbolTable SHARED = new AclSymbolTable();
+
+  private final Symbols permissions = new Symbols();
+
+  private final Symbols roles = new Symbols();
+
+  private final Symbols groups = new Symbols();
+
+  /**
+   * Instantiates a new acl symbol table.
+   */
+  public AclSymbolTable() {
+    super();
+  }
+
+  /**
+   * Gets the shared symbol table.
+   *
+   * @return the shared symbol table
+   */
+  public static AclSymbolTable shared() {
+    return SHARED;
+  }
+
+  /**
+   * Normalizes the given name, so that two names, that are equal ignoring case (see
+   * {@link String#compareToIgnoreCase(String)}), have the same normalized form.
+   *
+   * @param name the name
+   * @return the normalized name
+   */
+  public static String normalize(String name) {
+    if (isNull(name)) {
+      return null;
+    }
+    int length = name.length();
+    int i = 0;
+    while (i < length) {
+      int codePoint = name.codePointAt(i);
+      if (fold(codePoint) != codePoint) {
+        break;
+      }
+      i += Character.charCount(codePoint);
+    }
+    if (i == length) {
+      return name;
+    }
+    StringBuilder sb = new StringBuilder(length).append(name, 0, i);
+    while (i < length) {
+      int codePoint = name.codePointAt(i);
+      sb.appendCodePoint(fold(codePoint));
+      i += Character.charCount(codePoint);
+    }
+    return sb.toString();
+  }
+
+  private static int fold(int codePoint) {
+    return Character.toLowerCase(Character.toUpperCase(codePoint));
+  }
+
+  /**
+   * Gets the id of the given permission.
+   *
+   * @param permission the permission
+   * @return the id of the permission or {@code -1}, if the permission is unknown
+   */
+  public int getPermissionId(String permission) {
+    return permissions.find(permission);
+  }
+
+  /**
+   * Gets the number of known permissions.
+   *
+   * @return the number of known permissions
+   */
+  public int getPermissionCount() {
+    return permissions.size();
+  }
+
+  /**
+   * Compiles the given access control list.
+   *
+   * @param acl the access control list
+   * @return the compiled access control list
+   */
+  public CompiledAcl compile(Acl acl) {
+    return new CompiledAcl(this, acl);
+  }
+
+  /**
+   * Compiles the given user context.
+   *
+   * @param userContext the user context
+   * @return the compiled user context
+   */
+  public CompiledAclUserContext compile(AclUserContext userContext) {
+    return new CompiledAclUserContext(this, userContext);
+  }
+
+  /**
+   * Gets the number of known roles and groups. It only grows, so a changed count means, that
+   * names were added since it was read.
+   *
+   * @return the number of known roles and groups
+   */
+  int getPrincipalCount() {
+    return roles.size() + groups.size();
+  }
+
+  void findRoles(Collection<String> roles, BitSet bits, Collection<String> unknown) {
+    this.roles.find(roles, bits, unknown);
+  }
+
+  void findGroups(Collection<String> groups, BitSet bits, Collection<String> unknown) {
+    this.groups.find(groups, bits, unknown);
+  }
+
+  int internPermission(String permission) {
+    return permissions.intern(permission);
+  }
+
+  BitSet internRoles(Collection<String> roles) {
+    return this.roles.intern(roles);
+  }
+
+  BitSet internGroups(Collection<String> groups) {
+    return this.groups.intern(groups);
+  }
+
+  /**
+   * The ids of one kind of names.
+   */
+  private static final class Symbols {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    private int find(String name) {
+      if (isNull(name) || name.isBlank()) {
+        return -1;
+      }
+      Integer id = ids.get(normalize(name));
+      return nonNull(id) ? id : -1;
+    }
+
+    /**
+     * Sets the bits of the known names and adds the normalized unknown names to the given
+     * collection.
+     */
+    private void find(Collection<String> names, BitSet bits, Collection<String> unknown) {
+      if (nonNull(names)) {
+        for (String name : names) {
+          if (nonNull(name) && !name.isBlank()) {
+            String normalizedName = normalize(name);
+            Integer id = ids.get(normalizedName);
+            if (nonNull(id)) {
+              bits.set(id);
+            } else {
+              unknown.add(normalizedName);
+            }
+          }
+        }
+      }
+    }
+
+    private int intern(String name) {
+      if (isNull(name) || name.isBlank()) {
+        return -1;
+      }
+      return ids.computeIfAbsent(normalize(name), key -> nextId.getAndIncrement());
+    }
+
+    private BitSet intern(Collection<String> names) {
+      BitSet bits = new BitSet();
+      if (nonNull(names)) {
+        for (String name : names) {
+          int id = intern(name);
+          if (id >= 0) {
+            bits.set(id);
+          }
+        }
+      }
+      return bits;
+    }
+
+    private int size() {
+      return nextId.get();
+    }
+  }
+
+}
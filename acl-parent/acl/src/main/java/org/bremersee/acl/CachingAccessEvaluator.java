@@ -0,0 +1,333 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * The caching access evaluator keeps the decisions of access evaluations in a bounded, least
+ * recently used cache, so that the same access control list is not evaluated again for the same
+ * user and permissions (for example, when a list is rendered, then the actions of every item and
+ * finally the write is checked).
+ *
+ * <p>The key of a decision is the access control list, the normalized user context, the access
+ * evaluation and the permissions. Access control lists are compared by their values; the
+ * immutable implementations (see {@link Acl#builder()}) cache their hash code, other
+ * implementations are copied into an immutable one. The user context should be normalized once
+ * per request (see {@link NormalizedAclUserContext#of(AclUserContext)}), because the normalized
+ * user context caches its hash code, too.
+ *
+ * <p>A decision expires after the time to live, so that changed roles and groups of a user are
+ * taken into account without clearing the cache. The cache is thread-safe and a cached decision
+ * is read without a lock (see {@link BoundedCache}). The evaluation is done outside the lock, so
+ * a decision, that is requested concurrently for the first time, may be evaluated more than
+ * once.
+ *
+ * @author Christian Bremer
+ */
+public class CachingAccessEvaluator {
+
+  /**
+   * The default maximum size.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+  /**
+   * The default time to live.
+   */
+  public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+  /**
+   * The maximum number of cached decisions.
+   */
+  @Getter
+  private final int maximumSize;
+
+  /**
+   * The time to live of a decision.
+   */
+  @Getter
+  private final Duration timeToLive;
+
+  private final long timeToLiveNanos;
+
+  private final LongSupplier ticker;
+
+  private final BoundedCache<Key, Decision> decisions;
+
+  /**
+   * Instantiates a new caching access evaluator with the default maximum size and the default
+   * time to live.
+   */
+  public CachingAccessEvaluator() {
+    this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TIME_TO_LIVE);
+  }
+
+  /**
+   * Instantiates a new caching access evaluator.
+   *
+   * @param maximumSize the maximum number of cached decisions (if it is less than {@code 1},
+   *     nothing will be cached)
+   * @param timeToLive the time to live of a decision (if it is {@code null}, the default time to
+   *     live is used; if it is zero or negative, nothing will be cached)
+   */
+  public CachingAccessEvaluator(int maximumSize, Duration timeToLive) {
+    this(maximumSize, timeToLive, System::nanoTime);
+  }
+
+  /**
+   * Instantiates a new caching access evaluator.
+   *
+   * @param maximumSize the maximum number of cached decisions
+   * @param timeToLive the time to live of a decision
+   * @param ticker the ticker, that returns the current time in nanoseconds
+   */
+  CachingAccessEvaluator(int maximumSize, Duration timeToLive, LongSupplier ticker) {
+    this.timeToLive = Objects.requireNonNullElse(timeToLive, DEFAULT_TIME_TO_LIVE);
+    this.timeToLiveNanos = this.timeToLive.isNegative() ? 0L : toNanos(this.timeToLive);
+    this.maximumSize = this.timeToLiveNanos > 0L ? Math.max(0, maximumSize) : 0;
+    this.ticker = ticker;
+    this.decisions = new BoundedCache<>(this.maximumSize);
+  }
+
+  private static long toNanos(Duration duration) {
+    try {
+      return duration.toNanos();
+    } catch (ArithmeticException e) {
+      return Long.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Creates an access evaluator of the given access control list, that uses this cache.
+   *
+   * @param acl the access control list
+   * @return the access evaluator
+   */
+  public AccessEvaluator of(Acl acl) {
+    Acl immutableAcl = immutable(acl);
+    return new AccessEvaluator() {
+      @Override
+      public boolean hasPermission(AclUserContext userContext, String permission) {
+        return CachingAccessEvaluator.this.hasPermission(immutableAcl, userContext, permission);
+      }
+
+      @Override
+      public boolean hasPermissions(
+          AclUserContext userContext,
+          AccessEvaluation accessEvaluation,
+          Collection<String> permissions) {
+        return CachingAccessEvaluator.this
+            .hasPermissions(immutableAcl, userContext, accessEvaluation, permissions);
+      }
+
+      @Override
+      public boolean hasPermissions(
+          NormalizedAclUserContext userContext,
+          AccessEvaluation accessEvaluation,
+          Collection<String> permissions) {
+        return CachingAccessEvaluator.this
+            .hasPermissions(immutableAcl, userContext, accessEvaluation, permissions);
+      }
+    };
+  }
+
+  /**
+   * Determines whether the given user has the specified permission in the given access control
+   * list.
+   *
+   * @param acl the access control list
+   * @param userContext the user context
+   * @param permission the permission
+   * @return {@code true} if the user has the permission, otherwise {@code false}
+   */
+  public boolean hasPermission(Acl acl, AclUserContext userContext, String permission) {
+    if (isNull(permission)) {
+      return false;
+    }
+    return hasPermissions(acl, userContext, AccessEvaluation.ANY_PERMISSION, List.of(permission));
+  }
+
+  /**
+   * Determines whether the given user has the specified permissions in the given access control
+   * list according to the given access evaluation type.
+   *
+   * @param acl the access control list
+   * @param userContext the user context
+   * @param accessEvaluation the access evaluation type
+   * @param permissions the permissions
+   * @return {@code true} if the user has the permissions, otherwise {@code false}
+   */
+  public boolean hasPermissions(
+      Acl acl,
+      AclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+
+    if (isNull(acl) || isNull(permissions) || permissions.isEmpty()) {
+      return false;
+    }
+    NormalizedAclUserContext normalizedUserContext = NormalizedAclUserContext.of(userContext);
+    AccessEvaluation evaluation = Objects
+        .requireNonNullElse(accessEvaluation, AccessEvaluation.ANY_PERMISSION);
+    if (maximumSize == 0 || permissions.stream().anyMatch(Objects::isNull)) {
+      return evaluate(acl, normalizedUserContext, evaluation, permissions);
+    }
+    Acl immutableAcl = immutable(acl);
+    Key key = new Key(immutableAcl, normalizedUserContext, evaluation, Set.copyOf(permissions));
+    long now = ticker.getAsLong();
+    Decision decision = decisions
+        .getIfValid(key, cached -> now - cached.createdAt < timeToLiveNanos);
+    if (nonNull(decision)) {
+      return decision.granted;
+    }
+    boolean granted = evaluate(immutableAcl, normalizedUserContext, evaluation, key.permissions);
+    decisions.putIfAbsent(key, new Decision(granted, now));
+    return granted;
+  }
+
+  private static boolean evaluate(
+      Acl acl,
+      NormalizedAclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+    return AccessEvaluator.of(acl).hasPermissions(userContext, accessEvaluation, permissions);
+  }
+
+  private static Acl immutable(Acl acl) {
+    return isNull(acl) || acl instanceof Acl.AclImpl ? acl : Acl.builder().from(acl).build();
+  }
+
+  /**
+   * Gets the number of cached decisions (including expired decisions, that were not requested
+   * again).
+   *
+   * @return the size
+   */
+  public int getSize() {
+    return decisions.getSize();
+  }
+
+  /**
+   * Gets the number of evaluations, that were answered from the cache.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return decisions.getHitCount();
+  }
+
+  /**
+   * Gets the number of evaluations, that were not answered from the cache.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return decisions.getMissCount();
+  }
+
+  /**
+   * Gets the number of decisions, that were removed because the maximum size was reached or
+   * because they were expired.
+   *
+   * @return the eviction count
+   */
+  public long getEvictionCount() {
+    return decisions.getEvictionCount();
+  }
+
+  /**
+   * Gets the hit rate.
+   *
+   * @return the hit rate between {@code 0.0} and {@code 1.0} ({@code 1.0} if there were no
+   *     requests)
+   */
+  public double getHitRate() {
+    return decisions.getHitRate();
+  }
+
+  /**
+   * Removes all decisions and resets the statistics.
+   */
+  public void clear() {
+    decisions.clear();
+  }
+
+  @Override
+  public String toString() {
+    return "CachingAccessEvaluator {maximumSize=" + maximumSize
+        + ", timeToLive=" + timeToLive
+        + ", size=" + getSize()
+        + ", hitCount=" + getHitCount()
+        + ", missCount=" + getMissCount()
+        + ", evictionCount=" + getEvictionCount()
+        + '}';
+  }
+
+  /**
+   * The cache key.
+   */
+  @EqualsAndHashCode
+  private static final class Key {
+
+    private final Acl acl;
+
+    private final NormalizedAclUserContext userContext;
+
+    private final AccessEvaluation accessEvaluation;
+
+    private final Set<String> permissions;
+
+    private Key(
+        Acl acl,
+        NormalizedAclUserContext userContext,
+        AccessEvaluation accessEvaluation,
+        Set<String> permissions) {
+      this.acl = acl;
+      this.userContext = userContext;
+      this.accessEvaluation = accessEvaluation;
+      this.permissions = permissions;
+    }
+  }
+
+  /**
+   * The cached decision.
+   */
+  private static final class Decision {
+
+    private final boolean granted;
+
+    private final long createdAt;
+
+    private Decision(boolean granted, long createdAt) {
+      this.granted = granted;
+      this.createdAt = createdAt;
+    }
+  }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.bremersee.acl.AclUserContext.ANONYMOUS;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import lombok.Getter;
+import org.bremersee.acl.CompiledAclUserContext.Principals;
+
+/**
+ * The compiled access control list. The permissions, roles and groups of the access control list
+ * are interned into integer ids of a {@link AclSymbolTable}. Each entry is stored as the guest
+ * flag, the sorted normalized names of the users and the bitsets of the roles and groups, so that
+ * an access check of a {@link CompiledAclUserContext} is an array lookup, a binary search and two
+ * word-wise intersections of bitsets. The names of the users are not interned, because they are
+ * an unbounded set.
+ *
+ * <p>The compiled access control list is immutable and thread-safe. It evaluates exactly like
+ * {@link AccessEvaluator#of(Acl)}.
+ *
+ * @author Christian Bremer
+ */
+public final class CompiledAcl implements AccessEvaluator {
+
+  private static final CompiledAce[] NO_ACES = new CompiledAce[0];
+
+  private final AclSymbolTable symbolTable;
+
+  /**
+   * The access control list.
+   */
+  @Getter
+  private final Acl acl;
+
+  private final CompiledAce[] aces;
+
+  /**
+   * Instantiates a new compiled access control list.
+   *
+   * @param symbolTable the symbol table
+   * @param acl the access control list
+   */
+  CompiledAcl(AclSymbolTable symbolTable, Acl acl) {
+    this.symbolTable = symbolTable;
+    this.acl = acl;
+    if (isNull(acl) || acl.getPermissionMap().isEmpty()) {
+      this.aces = NO_ACES;
+    } else {
+      int[] permissionIds = new int[acl.getPermissionMap().size()];
+      CompiledAce[] compiledAces = new CompiledAce[permissionIds.length];
+      int maxPermissionId = -1;
+      int i = 0;
+      for (Map.Entry<String, Ace> entry : acl.getPermissionMap().entrySet()) {
+        permissionIds[i] = symbolTable.internPermission(entry.getKey());
+        compiledAces[i] = new CompiledAce(symbolTable, entry.getValue());
+        maxPermissionId = Math.max(maxPermissionId, permissionIds[i]);
+        i++;
+      }
+      this.aces = new CompiledAce[maxPermissionId + 1];
+      for (i = 0; i < permissionIds.length; i++) {
+        if (permissionIds[i] >= 0) {
+          this.aces[permissionIds[i]] = compiledAces[i];
+        }
+      }
+    }
+  }
+
+  /**
+   * Compiles the given access control list with the shared symbol table.
+   *
+   * @param acl the access control list
+   * @return the compiled access control list
+   */
+  public static CompiledAcl of(Acl acl) {
+    return AclSymbolTable.shared().compile(acl);
+  }
+
+  /**
+   * Determines whether the given user has the specified permission.
+   *
+   * @param userContext the compiled user context
+   * @param permission the permission
+   * @return {@code true} if the user has the permission, otherwise {@code false}
+   */
+  public boolean hasPermission(CompiledAclUserContext userContext, String permission) {
+    if (isNull(acl) || isNull(permission)) {
+      return false;
+    }
+    CompiledAclUserContext user = compatible(userContext);
+    return isOwner(user)
+        || hasPermission(user, user.getPrincipals(), symbolTable.getPermissionId(permission));
+  }
+
+  /**
+   * Determines whether the given user has the specified permissions according to the given
+   * access evaluation type.
+   *
+   * @param userContext the compiled user context
+   * @param accessEvaluation the access evaluation type
+   * @param permissions the permissions
+   * @return {@code true} if the user has the permissions, otherwise {@code false}
+   */
+  public boolean hasPermissions(
+      CompiledAclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+
+    if (isNull(acl) || permissions.isEmpty()) {
+      return false;
+    }
+    CompiledAclUserContext user = compatible(userContext);
+    boolean owner = isOwner(user);
+    Principals principals = owner ? null : user.getPrincipals();
+    boolean any = accessEvaluation.isAnyPermission();
+    for (String permission : permissions) {
+      boolean granted = nonNull(permission)
+          && (owner || hasPermission(user, principals, symbolTable.getPermissionId(permission)));
+      if (granted == any) {
+        return any;
+      }
+    }
+    return !any;
+  }
+
+  /**
+   * Determines whether the given user has the specified permission. A user context, that is not
+   * compiled, is evaluated against the source access control list; for the compiled evaluation
+   * the user context must be compiled once per request (see
+   * {@link #hasPermission(CompiledAclUserContext, String)}).
+   *
+   * @param userContext the user context
+   * @param permission the permission
+   * @return {@code true} if the user has the permission, otherwise {@code false}
+   */
+  @Override
+  public boolean hasPermission(AclUserContext userContext, String permission) {
+    return AccessEvaluator.Impl
+        .isGranted(acl, NormalizedAclUserContext.of(userContext), permission);
+  }
+
+  /**
+   * Determines whether the given user has the specified permissions according to the given
+   * access evaluation type. A user context, that is not compiled, is evaluated against the source
+   * access control list; for the compiled evaluation the user context must be compiled once per
+   * request (see {@link #hasPermissions(CompiledAclUserContext, AccessEvaluation, Collection)}).
+   *
+   * @param userContext the user context
+   * @param accessEvaluation the access evaluation type
+   * @param permissions the permissions
+   * @return {@code true} if the user has the permissions, otherwise {@code false}
+   */
+  @Override
+  public boolean hasPermissions(
+      AclUserContext userContext,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+    return AccessEvaluator.super
+        .hasPermissions(NormalizedAclUserContext.of(userContext), accessEvaluation, permissions);
+  }
+
+  private CompiledAclUserContext compatible(CompiledAclUserContext userContext) {
+    return userContext.getSymbolTable() == symbolTable
+        ? userContext
+        : symbolTable.compile(userContext.getUserContext());
+  }
+
+  private boolean isOwner(CompiledAclUserContext userContext) {
+    return !ANONYMOUS.equals(userContext.getName())
+        && acl.getOwner().equals(userContext.getName());
+  }
+
+  private boolean hasPermission(
+      CompiledAclUserContext userContext,
+      Principals principals,
+      int permissionId) {
+    if (permissionId < 0 || permissionId >= aces.length) {
+      return false;
+    }
+    CompiledAce ace = aces[permissionId];
+    return nonNull(ace) && ace.isGranted(userContext, principals);
+  }
+
+  /**
+   * The compiled access control entry.
+   */
+  private static final class CompiledAce {
+
+    private final boolean guest;
+
+    private final String[] users;
+
+    private final BitSet roles;
+
+    private final BitSet groups;
+
+    private CompiledAce(AclSymbolTable symbolTable, Ace ace) {
+      this.guest = ace.isGuest();
+      this.users = ace.getUsers().stream()
+          .filter(user -> nonNull(user) && !user.isBlank())
+          .map(AclSymbolTable::normalize)
+          .distinct()
+          .sorted()
+          .toArray(String[]::new);
+      this.roles = symbolTable.internRoles(ace.getRoles());
+      this.groups = symbolTable.internGroups(ace.getGroups());
+    }
+
+    private boolean isGranted(CompiledAclUserContext userContext, Principals principals) {
+      return guest
+          || (users.length > 0 && nonNull(userContext.getNormalizedName())
+          && Arrays.binarySearch(users, userContext.getNormalizedName()) >= 0)
+          || roles.intersects(principals.getRoles())
+          || groups.intersects(principals.getGroups());
+    }
+  }
+
+}
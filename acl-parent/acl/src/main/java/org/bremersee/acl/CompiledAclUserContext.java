@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import static java.util.Objects.isNull;
+import static org.bremersee.acl.AclUserContext.ANONYMOUS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The compiled user context contains the normalized name of the user and the bitsets of the roles
+ * and groups. It should be created once per request (see
+ * {@link AclSymbolTable#compile(AclUserContext)}) and can then be evaluated against many compiled
+ * access control lists of the same symbol table.
+ *
+ * <p>The roles and groups of the user are only looked up in the symbol table and never interned,
+ * so requesting users don't fill the symbol table. A role or group, that is unknown, cannot be
+ * granted by any compiled access control list. If the symbol table learns new names afterwards,
+ * only the unknown names are looked up again; the result is kept, so that the user context stays
+ * valid while the symbol table grows.
+ *
+ * @author Christian Bremer
+ */
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(onlyExplicitlyIncluded = true)
+public final class CompiledAclUserContext {
+
+  private static final String[] NO_NAMES = new String[0];
+
+  @Getter(AccessLevel.PACKAGE)
+  private final AclSymbolTable symbolTable;
+
+  /**
+   * The user context.
+   */
+  @EqualsAndHashCode.Include
+  @ToString.Include
+  @Getter
+  private final AclUserContext userContext;
+
+  /**
+   * The normalized name of the user or {@code null}, if the user is anonymous.
+   */
+  @Getter(AccessLevel.PACKAGE)
+  private final String normalizedName;
+
+  private volatile Principals principals;
+
+  /**
+   * Instantiates a new compiled user context.
+   *
+   * @param symbolTable the symbol table
+   * @param userContext the user context
+   */
+  CompiledAclUserContext(AclSymbolTable symbolTable, AclUserContext userContext) {
+    this.symbolTable = symbolTable;
+    this.userContext = isNull(userContext) ? AclUserContext.builder().build() : userContext;
+    String name = this.userContext.getName();
+    this.normalizedName = isNull(name) || name.isBlank() ? null : AclSymbolTable.normalize(name);
+    this.principals = Principals.find(
+        symbolTable,
+        this.userContext.getRoles(),
+        this.userContext.getGroups(),
+        new BitSet(),
+        new BitSet());
+  }
+
+  /**
+   * Creates a compiled user context with the shared symbol table.
+   *
+   * @param userContext the user context
+   * @return the compiled user context
+   */
+  public static CompiledAclUserContext of(AclUserContext userContext) {
+    return AclSymbolTable.shared().compile(userContext);
+  }
+
+  /**
+   * Gets the name of the user.
+   *
+   * @return the name of the user
+   */
+  public String getName() {
+    return userContext.getName();
+  }
+
+  /**
+   * Determines whether the user is anonymous.
+   *
+   * @return {@code true} if the user is anonymous, otherwise {@code false}
+   */
+  public boolean isAnonymous() {
+    return ANONYMOUS.equals(userContext.getName());
+  }
+
+  /**
+   * Gets the ids of the roles and groups of the user. If names were added to the symbol table
+   * since they were looked up and some names of the user were unknown, only these names are
+   * looked up again and the result is kept.
+   *
+   * @return the ids of the roles and groups
+   */
+  Principals getPrincipals() {
+    Principals current = principals;
+    if (current.isComplete() || current.principalCount == symbolTable.getPrincipalCount()) {
+      return current;
+    }
+    Principals refreshed = Principals.find(
+        symbolTable,
+        Arrays.asList(current.unknownRoles),
+        Arrays.asList(current.unknownGroups),
+        (BitSet) current.roles.clone(),
+        (BitSet) current.groups.clone());
+    principals = refreshed;
+    return refreshed;
+  }
+
+  /**
+   * The ids of the roles and groups, that were known to the symbol table, and the normalized
+   * names, that were not.
+   */
+  static final class Principals {
+
+    private final int principalCount;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final BitSet roles;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final BitSet groups;
+
+    private final String[] unknownRoles;
+
+    private final String[] unknownGroups;
+
+    private Principals(
+        int principalCount,
+        BitSet roles,
+        BitSet groups,
+        String[] unknownRoles,
+        String[] unknownGroups) {
+      this.principalCount = principalCount;
+      this.roles = roles;
+      this.groups = groups;
+      this.unknownRoles = unknownRoles;
+      this.unknownGroups = unknownGroups;
+    }
+
+    private static Principals find(
+        AclSymbolTable symbolTable,
+        Collection<String> roles,
+        Collection<String> groups,
+        BitSet roleIds,
+        BitSet groupIds) {
+      // Read the count first, so that names added during the lookup are looked up again.
+      int principalCount = symbolTable.getPrincipalCount();
+      List<String> unknownRoles = new ArrayList<>(0);
+      List<String> unknownGroups = new ArrayList<>(0);
+      symbolTable.findRoles(roles, roleIds, unknownRoles);
+      symbolTable.findGroups(groups, groupIds, unknownGroups);
+      return new Principals(
+          principalCount,
+          roleIds,
+          groupIds,
+          unknownRoles.toArray(NO_NAMES),
+          unknownGroups.toArray(NO_NAMES));
+    }
+
+    private boolean isComplete() {
+      return unknownRoles.length == 0 && unknownGroups.length == 0;
+    }
+  }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The normalized user context is the precompiled form of an {@link AclUserContext}. It should be
+ * created once per request. The roles and groups are deduplicated and blank entries are removed;
+ * additionally they are kept as hash sets of their normalized (case-folded) form (see
+ * {@link AclSymbolTable#normalize(String)}), so that the case-insensitive comparison with the
+ * entries of an {@link Ace} doesn't fold the names of the user again and again. The hash code is
+ * computed only once, so the normalized user context can be used as key of a cache.
+ *
+ * @author Christian Bremer
+ */
+public final class NormalizedAclUserContext implements AclUserContext {
+
+  private final String name;
+
+  private final Set<String> roles;
+
+  private final Set<String> groups;
+
+  private final Set<String> normalizedRoles;
+
+  private final Set<String> normalizedGroups;
+
+  private final int hash;
+
+  private NormalizedAclUserContext(AclUserContext userContext) {
+    this.name = isNull(userContext.getName()) ? ANONYMOUS : userContext.getName();
+    this.roles = distinct(userContext.getRoles());
+    this.groups = distinct(userContext.getGroups());
+    this.normalizedRoles = normalize(roles);
+    this.normalizedGroups = normalize(groups);
+    this.hash = 31 * (31 * name.hashCode() + roles.hashCode()) + groups.hashCode();
+  }
+
+  /**
+   * Creates the normalized form of the given user context.
+   *
+   * @param userContext the user context
+   * @return the normalized user context (if the given user context is already normalized, it
+   *     will be returned)
+   */
+  public static NormalizedAclUserContext of(AclUserContext userContext) {
+    if (userContext instanceof NormalizedAclUserContext normalizedUserContext) {
+      return normalizedUserContext;
+    }
+    return new NormalizedAclUserContext(
+        isNull(userContext) ? AclUserContext.builder().build() : userContext);
+  }
+
+  private static Set<String> distinct(Collection<String> names) {
+    Set<String> distinctNames = new LinkedHashSet<>();
+    if (nonNull(names)) {
+      for (String name : names) {
+        if (nonNull(name) && !name.isBlank()) {
+          distinctNames.add(name);
+        }
+      }
+    }
+    return unmodifiableSet(distinctNames);
+  }
+
+  private static Set<String> normalize(Set<String> names) {
+    Set<String> normalizedNames = new HashSet<>(Math.max(4, names.size() * 2));
+    for (String name : names) {
+      normalizedNames.add(AclSymbolTable.normalize(name));
+    }
+    return unmodifiableSet(normalizedNames);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the distinct, non-blank roles in their original form.
+   *
+   * @return the roles
+   */
+  @Override
+  public Set<String> getRoles() {
+    return roles;
+  }
+
+  /**
+   * Gets the distinct, non-blank groups in their original form.
+   *
+   * @return the groups
+   */
+  @Override
+  public Set<String> getGroups() {
+    return groups;
+  }
+
+  /**
+   * Determines whether the user is anonymous.
+   *
+   * @return {@code true} if the user is anonymous, otherwise {@code false}
+   */
+  public boolean isAnonymous() {
+    return ANONYMOUS.equals(name);
+  }
+
+  /**
+   * Determines whether the user has any of the given roles (ignoring case).
+   *
+   * @param roles the roles
+   * @return {@code true} if the user has any of the given roles, otherwise {@code false}
+   */
+  public boolean hasAnyRole(Collection<String> roles) {
+    return containsAny(normalizedRoles, roles);
+  }
+
+  /**
+   * Determines whether the user is a member of any of the given groups (ignoring case).
+   *
+   * @param groups the groups
+   * @return {@code true} if the user is a member of any of the given groups, otherwise
+   *     {@code false}
+   */
+  public boolean hasAnyGroup(Collection<String> groups) {
+    return containsAny(normalizedGroups, groups);
+  }
+
+  private static boolean containsAny(Set<String> normalizedNames, Collection<String> names) {
+    if (normalizedNames.isEmpty() || isNull(names)) {
+      return false;
+    }
+    for (String name : names) {
+      if (nonNull(name) && normalizedNames.contains(AclSymbolTable.normalize(name))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof NormalizedAclUserContext other)) {
+      return false;
+    }
+    return hash == other.hash
+        && name.equals(other.name)
+        && roles.equals(other.roles)
+        && groups.equals(other.groups);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return "NormalizedAclUserContext{name=" + name
+        + ", roles=" + roles
+        + ", groups=" + groups
+        + '}';
+  }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.reactive;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.bremersee.acl.AccessEvaluation;
+import org.bremersee.acl.AccessEvaluator;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclUserContext;
+import org.bremersee.acl.NormalizedAclUserContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * The reactive acl user context holder resolves the user context once per exchange and keeps it
+ * in the Reactor {@link Context}, so that repeated permission checks within one request don't
+ * map the authentication again and again.
+ *
+ * <p>The user context is resolved by the given source, for example from the reactive security
+ * context of Spring Security (see {@link ReactiveSecurityContextUserContextSource}):
+ * <pre>{@code
+ * ReactiveAclUserContextHolder holder = new ReactiveAclUserContextHolder(
+ *     new ReactiveSecurityContextUserContextSource());
+ * }</pre>
+ *
+ * <p>A web filter caches the resolved user context for the whole exchange by writing it into the
+ * context of the filter chain:
+ * <pre>{@code
+ * return chain.filter(exchange).contextWrite(holder.withUserContext());
+ * }</pre>
+ *
+ * <p>Without this, every subscription to {@link #getUserContext()} resolves the user context
+ * again. If the source is empty, the anonymous user context is used.
+ *
+ * @author Christian Bremer
+ */
+public class ReactiveAclUserContextHolder {
+
+  /**
+   * The key of the cached user context in the Reactor context.
+   */
+  public static final Class<NormalizedAclUserContext> USER_CONTEXT_KEY
+      = NormalizedAclUserContext.class;
+
+  private static final NormalizedAclUserContext ANONYMOUS_USER_CONTEXT = NormalizedAclUserContext
+      .of(AclUserContext.builder().build());
+
+  private final Supplier<? extends Mono<? extends AclUserContext>> userContextSource;
+
+  private final Function<Acl, AccessEvaluator> accessEvaluatorFn;
+
+  /**
+   * Instantiates a new reactive acl user context holder.
+   *
+   * @param userContextSource the source of the user context
+   */
+  public ReactiveAclUserContextHolder(
+      Supplier<? extends Mono<? extends AclUserContext>> userContextSource) {
+    this(userContextSource, AccessEvaluator::of);
+  }
+
+  /**
+   * Instantiates a new reactive acl user context holder.
+   *
+   * @param userContextSource the source of the user context
+   * @param accessEvaluatorFn the function, that creates the access evaluator of an access control
+   *     list (for example {@code cachingAccessEvaluator::of})
+   */
+  public ReactiveAclUserContextHolder(
+      Supplier<? extends Mono<? extends AclUserContext>> userContextSource,
+      Function<Acl, AccessEvaluator> accessEvaluatorFn) {
+    this.userContextSource = Objects
+        .requireNonNull(userContextSource, "User context source must be present.");
+    this.accessEvaluatorFn = Objects
+        .requireNonNullElse(accessEvaluatorFn, AccessEvaluator::of);
+  }
+
+  /**
+   * Creates the context function, that puts the given user context into the Reactor context.
+   * This is useful for tests or for exchanges, where the user is already known.
+   *
+   * @param userContext the user context
+   * @return the context function
+   */
+  public static Function<Context, Context> withUserContext(AclUserContext userContext) {
+    Mono<NormalizedAclUserContext> cached = Mono.just(NormalizedAclUserContext.of(userContext));
+    return context -> context.put(USER_CONTEXT_KEY, cached);
+  }
+
+  /**
+   * Creates the context function, that puts the lazily resolved and cached user context into the
+   * Reactor context. If the Reactor context already contains a user context, it will be kept.
+   *
+   * @return the context function
+   */
+  public Function<Context, Context> withUserContext() {
+    return context -> context.hasKey(USER_CONTEXT_KEY)
+        ? context
+        : context.put(USER_CONTEXT_KEY, resolveUserContext().cache());
+  }
+
+  /**
+   * Gets the user context. If it is cached in the Reactor context, the cached one is returned,
+   * otherwise it will be resolved by the source.
+   *
+   * @return the normalized user context (never empty)
+   */
+  public Mono<NormalizedAclUserContext> getUserContext() {
+    return Mono.deferContextual(context -> context
+        .<Mono<NormalizedAclUserContext>>getOrEmpty(USER_CONTEXT_KEY)
+        .orElseGet(this::resolveUserContext));
+  }
+
+  private Mono<NormalizedAclUserContext> resolveUserContext() {
+    return Mono.defer(userContextSource)
+        .map(NormalizedAclUserContext::of)
+        .defaultIfEmpty(ANONYMOUS_USER_CONTEXT);
+  }
+
+  /**
+   * Determines whether the current user has the specified permission in the given access control
+   * list.
+   *
+   * @param acl the access control list
+   * @param permission the permission
+   * @return {@code true} if the user has the permission, otherwise {@code false}
+   */
+  public Mono<Boolean> hasPermission(Acl acl, String permission) {
+    return getUserContext()
+        .map(userContext -> accessEvaluatorFn.apply(acl).hasPermission(userContext, permission));
+  }
+
+  /**
+   * Determines whether the current user has the specified permissions in the given access control
+   * list according to the given access evaluation type.
+   *
+   * @param acl the access control list
+   * @param accessEvaluation the access evaluation type
+   * @param permissions the permissions
+   * @return {@code true} if the user has the permissions, otherwise {@code false}
+   */
+  public Mono<Boolean> hasPermissions(
+      Acl acl,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+    return getUserContext()
+        .map(userContext -> accessEvaluatorFn.apply(acl)
+            .hasPermissions(userContext, accessEvaluation, permissions));
+  }
+
+  /**
+   * Creates an operator, that removes all items from a flux, the current user is not permitted
+   * to access. It can be applied with {@link Flux#transform(Function)}. The user context is
+   * resolved only once per subscription.
+   *
+   * @param <T> the type of the items
+   * @param aclFn the function, that gets the access control list of an item
+   * @param accessEvaluation the access evaluation type
+   * @param permissions the permissions
+   * @return the operator
+   */
+  public <T> Function<Flux<T>, Flux<T>> filter(
+      Function<T, Acl> aclFn,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+    Objects.requireNonNull(aclFn, "Acl function must be present.");
+    Objects.requireNonNull(accessEvaluation, "Access evaluation must be present.");
+    return flux -> getUserContext()
+        .flatMapMany(userContext -> flux.filter(item -> accessEvaluatorFn
+            .apply(aclFn.apply(item))
+            .hasPermissions(userContext, accessEvaluation, permissions)));
+  }
+
+  /**
+   * Creates an operator, that completes a mono empty, if the current user is not permitted to
+   * access its item. It can be applied with {@link Mono#transform(Function)}.
+   *
+   * @param <T> the type of the item
+   * @param aclFn the function, that gets the access control list of the item
+   * @param accessEvaluation the access evaluation type
+   * @param permissions the permissions
+   * @return the operator
+   */
+  public <T> Function<Mono<T>, Mono<T>> filterMono(
+      Function<T, Acl> aclFn,
+      AccessEvaluation accessEvaluation,
+      Collection<String> permissions) {
+    Objects.requireNonNull(aclFn, "Acl function must be present.");
+    Objects.requireNonNull(accessEvaluation, "Access evaluation must be present.");
+    return mono -> mono
+        .filterWhen(item -> hasPermissions(aclFn.apply(item), accessEvaluation, permissions));
+  }
+
+}
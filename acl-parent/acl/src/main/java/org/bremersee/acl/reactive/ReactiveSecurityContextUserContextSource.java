@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.reactive;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.ToString;
+import org.bremersee.acl.AclUserContext;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive security context user context source reads the authentication from the
+ * {@link ReactiveSecurityContextHolder} of Spring Security and maps it into an
+ * {@link AclUserContext}. It is the source of a {@link ReactiveAclUserContextHolder}:
+ * <pre>{@code
+ * ReactiveAclUserContextHolder holder = new ReactiveAclUserContextHolder(
+ *     new ReactiveSecurityContextUserContextSource());
+ * }</pre>
+ *
+ * <p>The name of the user is the name of the authentication. By default, all granted authorities
+ * are roles and the user has no groups; both mappings can be replaced, for example to map
+ * authorities with a certain prefix to groups. An anonymous authentication (see
+ * {@link AnonymousAuthenticationToken}), an unauthenticated authentication and a missing security
+ * context are empty, so the holder uses the anonymous user context.
+ *
+ * <p>Spring Security is an optional dependency of this module, so this class can only be used,
+ * if {@code spring-security-core} is on the classpath.
+ *
+ * @author Christian Bremer
+ */
+@ToString
+public class ReactiveSecurityContextUserContextSource
+    implements Supplier<Mono<AclUserContext>> {
+
+  private final Function<Authentication, ? extends Collection<String>> rolesFn;
+
+  private final Function<Authentication, ? extends Collection<String>> groupsFn;
+
+  /**
+   * Instantiates a new reactive security context user context source, that maps all granted
+   * authorities to roles and no groups.
+   */
+  public ReactiveSecurityContextUserContextSource() {
+    this(ReactiveSecurityContextUserContextSource::authorities);
+  }
+
+  /**
+   * Instantiates a new reactive security context user context source, that maps no groups.
+   *
+   * @param rolesFn the function, that gets the roles of an authentication
+   */
+  public ReactiveSecurityContextUserContextSource(
+      Function<Authentication, ? extends Collection<String>> rolesFn) {
+    this(rolesFn, authentication -> List.of());
+  }
+
+  /**
+   * Instantiates a new reactive security context user context source.
+   *
+   * @param rolesFn the function, that gets the roles of an authentication
+   * @param groupsFn the function, that gets the groups of an authentication
+   */
+  public ReactiveSecurityContextUserContextSource(
+      Function<Authentication, ? extends Collection<String>> rolesFn,
+      Function<Authentication, ? extends Collection<String>> groupsFn) {
+    this.rolesFn = Objects.requireNonNull(rolesFn, "Roles function must be present.");
+    this.groupsFn = Objects.requireNonNull(groupsFn, "Groups function must be present.");
+  }
+
+  /**
+   * Gets the names of all granted authorities of the given authentication.
+   *
+   * @param authentication the authentication
+   * @return the names of the granted authorities
+   */
+  public static Collection<String> authorities(Authentication authentication) {
+    return AuthorityUtils.authorityListToSet(authentication.getAuthorities());
+  }
+
+  /**
+   * Gets the user context of the current authentication.
+   *
+   * @return the user context (can be empty)
+   */
+  @Override
+  public Mono<AclUserContext> get() {
+    return ReactiveSecurityContextHolder.getContext()
+        .mapNotNull(SecurityContext::getAuthentication)
+        .filter(authentication -> authentication.isAuthenticated()
+            && !(authentication instanceof AnonymousAuthenticationToken))
+        .map(this::toUserContext);
+  }
+
+  private AclUserContext toUserContext(Authentication authentication) {
+    return AclUserContext.builder()
+        .name(authentication.getName())
+        .roles(rolesFn.apply(authentication))
+        .groups(groupsFn.apply(authentication))
+        .build();
+  }
+
+}
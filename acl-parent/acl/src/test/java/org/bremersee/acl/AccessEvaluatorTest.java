@@ -19,6 +19,7 @@ package org.bremersee.acl;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.List;
+import org.assertj.core.api.SoftAssertions;
 import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -153,4 +154,74 @@ class AccessEvaluatorTest {
         .isTrue();
   }
 
-}
\ No newline at end of file
+  /**
+   * Has permission with normalized user context.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void hasPermissionWithNormalizedUserContext(SoftAssertions softly) {
+    Acl acl = Acl.builder()
+        .owner("anna")
+        .addPermissions(List.of("read", "write", "delete"))
+        .addUsers("read", List.of("Junit"))
+        .addRoles("write", List.of("ROLE_USER"))
+        .addGroups("delete", List.of("Staff"))
+        .build();
+    AccessEvaluator target = AccessEvaluator.of(acl);
+    List<AclUserContext> userContexts = List.of(
+        AclUserContext.builder().name("anna").build(),
+        AclUserContext.builder().name("junit").build(),
+        AclUserContext.builder().build(),
+        AclUserContext.builder().name("junit").roles(List.of("role_user", "")).build(),
+        AclUserContext.builder().name("junit").groups(List.of("staff", "staff")).build(),
+        AclUserContext.builder().name("bernd").roles(List.of("ROLE_ADMIN")).build());
+    for (AclUserContext userContext : userContexts) {
+      NormalizedAclUserContext normalized = NormalizedAclUserContext.of(userContext);
+      for (String permission : List.of("read", "WRITE", "delete", "unknown")) {
+        softly.assertThat(target.hasPermission(normalized, permission))
+            .as("%s has permission %s", userContext, permission)
+            .isEqualTo(target.hasPermission(userContext, permission));
+      }
+      for (AccessEvaluation evaluation : AccessEvaluation.values()) {
+        softly.assertThat(target.hasPermissions(normalized, evaluation, List.of("read", "write")))
+            .isEqualTo(target.hasPermissions(userContext, evaluation, List.of("read", "write")));
+      }
+    }
+  }
+
+  /**
+   * Normalized user context.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void normalizedUserContext(SoftAssertions softly) {
+    AclUserContext userContext = AclUserContext.builder()
+        .name("junit")
+        .roles(List.of("ROLE_USER", "", "ROLE_USER", "ROLE_ADMIN"))
+        .groups(List.of("Staff"))
+        .build();
+    NormalizedAclUserContext target = NormalizedAclUserContext.of(userContext);
+    softly.assertThat(target.getRoles())
+        .containsExactly("ROLE_USER", "ROLE_ADMIN");
+    softly.assertThat(target.hasAnyRole(List.of("role_admin")))
+        .isTrue();
+    softly.assertThat(target.hasAnyGroup(List.of("STAFF")))
+        .isTrue();
+    softly.assertThat(target.hasAnyGroup(List.of("other")))
+        .isFalse();
+    softly.assertThat(NormalizedAclUserContext.of(target))
+        .isSameAs(target);
+    softly.assertThat(NormalizedAclUserContext.of(AclUserContext.builder()
+            .name("junit")
+            .roles(List.of("ROLE_ADMIN", "ROLE_USER"))
+            .groups(List.of("Staff"))
+            .build()))
+        .isEqualTo(target)
+        .hasSameHashCodeAs(target);
+    softly.assertThat(NormalizedAclUserContext.of(null).isAnonymous())
+        .isTrue();
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * The access filter result test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class AccessFilterResultTest {
+
+  private static final List<String> PERMISSIONS = List.of("read", "write", "delete");
+
+  /**
+   * Filter.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void filter(SoftAssertions softly) {
+    List<Acl> acls = List.of(
+        Acl.builder().owner("junit").build(),
+        Acl.builder().owner("anna").addUsers("read", List.of("JUnit")).build(),
+        Acl.builder().owner("anna")
+            .addRoles("read", List.of("ROLE_USER"))
+            .addGroups("write", List.of("staff"))
+            .build(),
+        Acl.builder().owner("anna").addPermissions(PERMISSIONS).build());
+    AclUserContext userContext = AclUserContext.builder()
+        .name("junit")
+        .roles(List.of("role_user"))
+        .groups(List.of("STAFF"))
+        .build();
+
+    AccessFilterResult<Acl> actual = AccessEvaluator.filter(
+        acls, Function.identity(), userContext, AccessEvaluation.ANY_PERMISSION,
+        List.of("read", "write", "read"));
+    softly.assertThat(actual.getPermissions())
+        .containsExactly("read", "write");
+    softly.assertThat(actual.getPermitted())
+        .containsExactly(acls.get(0), acls.get(1), acls.get(2));
+    softly.assertThat(actual.getPermissionMask(0))
+        .isEqualTo(0b11L);
+    softly.assertThat(actual.getPermissionMask(1))
+        .isEqualTo(0b01L);
+    softly.assertThat(actual.getGrantedPermissions(2))
+        .containsExactly("read", "write");
+    softly.assertThat(actual.hasPermission(1, "write"))
+        .isFalse();
+    softly.assertThat(actual.getPermissionMask(3))
+        .isZero();
+
+    actual = AccessEvaluator.filter(
+        acls, Function.identity(), userContext, AccessEvaluation.ALL_PERMISSIONS,
+        List.of("read", "write"));
+    softly.assertThat(actual.getPermitted())
+        .containsExactly(acls.get(0), acls.get(2));
+
+    actual = AccessEvaluator.filter(
+        acls, Function.identity(), userContext, AccessEvaluation.ALL_PERMISSIONS, List.of());
+    softly.assertThat(actual.getPermitted())
+        .isEmpty();
+  }
+
+  /**
+   * Filter evaluates like the access evaluator, sequentially and in parallel.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void filterLikeAccessEvaluator(SoftAssertions softly) {
+    Random random = new Random(7L);
+    List<String> names = List.of("anna", "bernd", "carl", "dora");
+    Collection<Acl> acls = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      Acl.AclBuilder builder = Acl.builder()
+          .owner(names.get(random.nextInt(names.size())))
+          .addPermissions(PERMISSIONS);
+      for (String permission : PERMISSIONS) {
+        builder
+            .guest(permission, random.nextInt(20) == 0)
+            .addUsers(permission, List.of(names.get(random.nextInt(names.size()))))
+            .addRoles(permission, List.of("role" + random.nextInt(8)))
+            .addGroups(permission, List.of("group" + random.nextInt(8)));
+      }
+      acls.add(builder.build());
+    }
+    AclUserContext userContext = AclUserContext.builder()
+        .name("carl")
+        .roles(List.of("ROLE1"))
+        .groups(List.of("group2", "group3"))
+        .build();
+    for (AccessEvaluation evaluation : AccessEvaluation.values()) {
+      List<Acl> expected = acls.stream()
+          .filter(acl -> AccessEvaluator.of(acl)
+              .hasPermissions(userContext, evaluation, List.of("read", "delete")))
+          .toList();
+      AccessFilterResult<Acl> sequential = AccessEvaluator.filter(
+          acls, Function.identity(), userContext, evaluation, List.of("read", "delete"),
+          Integer.MAX_VALUE);
+      AccessFilterResult<Acl> parallel = AccessEvaluator.filter(
+          acls, Function.identity(), userContext, evaluation, List.of("read", "delete"), 2);
+      softly.assertThat(sequential.getPermitted())
+          .containsExactlyElementsOf(expected);
+      softly.assertThat(parallel.getPermitted())
+          .containsExactlyElementsOf(expected);
+      softly.assertThat(IntStream.range(0, acls.size())
+              .filter(i -> parallel.getPermissionMask(i) != sequential.getPermissionMask(i)))
+          .isEmpty();
+    }
+  }
+
+  /**
+   * Filter with too many permissions.
+   */
+  @Test
+  void filterWithTooManyPermissions() {
+    List<String> permissions = IntStream.range(0, 65)
+        .mapToObj(i -> "permission" + i)
+        .toList();
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> AccessEvaluator.filter(
+            List.of(Acl.builder().build()), Function.identity(),
+            AclUserContext.builder().build(), AccessEvaluation.ANY_PERMISSION, permissions));
+  }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import java.util.List;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * The acl interner test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class AclInternerTest {
+
+  /**
+   * Intern.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void intern(SoftAssertions softly) {
+    AclInterner target = new AclInterner();
+    Acl first = target.intern(Acl.with("anna", List.of("read", "write"), List.of("ROLE_ADMIN")));
+    Acl second = target.intern(Acl.with("anna", List.of("write", "read"), List.of("ROLE_ADMIN")));
+    softly.assertThat(second)
+        .isSameAs(first);
+    softly.assertThat(second.getPermissionMap().get("write"))
+        .isSameAs(first.getPermissionMap().get("read"));
+    softly.assertThat(target.intern(Acl.with("Anna", List.of("read", "write"),
+            List.of("ROLE_ADMIN"))))
+        .isNotSameAs(first);
+    softly.assertThat(target.intern(Ace.builder().roles(List.of("role_admin")).build()))
+        .isNotSameAs(first.getPermissionMap().get("read"));
+    softly.assertThat(target.getHitCount())
+        .isPositive();
+
+    Acl fromSource = target.intern(List.of("source"), () -> first);
+    softly.assertThat(target.intern(List.of("source"), () -> null))
+        .isSameAs(fromSource)
+        .isSameAs(first);
+
+    target.clear();
+    softly.assertThat(target.getSize())
+        .isZero();
+    softly.assertThat(new AclInterner(0).intern(first))
+        .isSameAs(first);
+  }
+
+  /**
+   * Intern with eviction.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void internWithEviction(SoftAssertions softly) {
+    AclInterner target = new AclInterner(2);
+    Ace guest = target.intern(Ace.builder().guest(true).build());
+    target.intern(Ace.builder().users(List.of("anna")).build());
+    target.intern(Ace.builder().users(List.of("bernd")).build());
+    softly.assertThat(target.getSize())
+        .isEqualTo(2);
+    softly.assertThat(target.getEvictionCount())
+        .isEqualTo(1L);
+    softly.assertThat(target.intern(Ace.builder().guest(true).build()))
+        .isNotSameAs(guest)
+        .isEqualTo(guest);
+  }
+
+  /**
+   * Builders share unmodified sets.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void buildersShareUnmodifiedSets(SoftAssertions softly) {
+    Acl acl = Acl.builder()
+        .addUsers("read", List.of("anna"))
+        .addRoles("read", List.of("ROLE_USER"))
+        .addGroups("write", List.of("staff"))
+        .build();
+    softly.assertThat(Acl.builder().from(acl).build())
+        .isSameAs(acl);
+    softly.assertThat(Acl.builder().from(acl).addUsers("read", List.of("ANNA")).build())
+        .isSameAs(acl);
+    softly.assertThat(Acl.builder().from(acl).removeGroups("read", List.of("staff")).build())
+        .isSameAs(acl);
+
+    Acl modified = Acl.builder().from(acl).addUsers("read", List.of("bernd")).build();
+    softly.assertThat(modified.getPermissionMap().get("read").getUsers())
+        .containsExactly("anna", "bernd");
+    softly.assertThat(modified.getPermissionMap().get("read").getRoles())
+        .isSameAs(acl.getPermissionMap().get("read").getRoles());
+    softly.assertThat(modified.getPermissionMap().get("write"))
+        .isSameAs(acl.getPermissionMap().get("write"));
+    softly.assertThat(acl.getPermissionMap().get("read").getUsers())
+        .containsExactly("anna");
+  }
+
+  /**
+   * Built ace is immutable.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void builtAceIsImmutable(SoftAssertions softly) {
+    Ace.AceBuilder builder = Ace.builder().users(List.of("anna"));
+    Ace first = builder.build();
+    softly.assertThat(builder.build())
+        .isSameAs(first);
+    Ace second = builder.addUsers(List.of("bernd")).build();
+    softly.assertThat(first.getUsers())
+        .containsExactly("anna");
+    softly.assertThat(second.getUsers())
+        .containsExactly("anna", "bernd");
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import java.util.stream.IntStream;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * The bounded cache test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class BoundedCacheTest {
+
+  /**
+   * Referenced entries get a second chance.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void evictLeastRecentlyUsed(SoftAssertions softly) {
+    BoundedCache<String, String> target = new BoundedCache<>(2);
+    target.get("a", String::toUpperCase);
+    target.get("b", String::toUpperCase);
+    target.get("a", String::toUpperCase);
+    target.get("c", String::toUpperCase);
+    softly.assertThat(target.getSize())
+        .isEqualTo(2);
+    softly.assertThat(target.getEvictionCount())
+        .isEqualTo(1L);
+    softly.assertThat(target.get("a"))
+        .isEqualTo("A");
+    softly.assertThat(target.get("b"))
+        .isNull();
+    softly.assertThat(target.get("c"))
+        .isEqualTo("C");
+    softly.assertThat(target.getHitCount())
+        .isEqualTo(3L);
+    softly.assertThat(target.getMissCount())
+        .isEqualTo(4L);
+  }
+
+  /**
+   * Invalid entries are removed.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void getIfValid(SoftAssertions softly) {
+    BoundedCache<String, String> target = new BoundedCache<>(10);
+    softly.assertThat(target.putIfAbsent("a", "A"))
+        .isEqualTo("A");
+    softly.assertThat(target.putIfAbsent("a", "B"))
+        .isEqualTo("A");
+    softly.assertThat(target.getIfValid("a", "A"::equals))
+        .isEqualTo("A");
+    softly.assertThat(target.getIfValid("a", "B"::equals))
+        .isNull();
+    softly.assertThat(target.getSize())
+        .isZero();
+    softly.assertThat(target.getEvictionCount())
+        .isEqualTo(1L);
+    softly.assertThat(target.getHitRate())
+        .isEqualTo(0.5);
+
+    // Removed entries don't keep their place in the eviction order.
+    IntStream.range(0, 100).forEach(i -> {
+      target.putIfAbsent("a", "A");
+      target.getIfValid("a", value -> false);
+    });
+    IntStream.range(0, 20).forEach(i -> target.putIfAbsent("k" + i, "v" + i));
+    softly.assertThat(target.getSize())
+        .isEqualTo(10);
+    softly.assertThat(target.get("k19"))
+        .isEqualTo("v19");
+
+    target.clear();
+    softly.assertThat(target.getSize())
+        .isZero();
+    softly.assertThat(target.getEvictionCount())
+        .isZero();
+    softly.assertThat(target.getHitRate())
+        .isEqualTo(1.0);
+  }
+
+  /**
+   * Disabled cache.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void disabled(SoftAssertions softly) {
+    BoundedCache<String, String> target = new BoundedCache<>(-1);
+    softly.assertThat(target.get("a", String::toUpperCase))
+        .isEqualTo("A");
+    softly.assertThat(target.getSize())
+        .isZero();
+    softly.assertThat(target.getMaximumSize())
+        .isZero();
+    softly.assertThat(target)
+        .hasToString("BoundedCache {maximumSize=0, size=0, hitCount=0, missCount=1, "
+            + "evictionCount=0}");
+  }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * The caching access evaluator test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class CachingAccessEvaluatorTest {
+
+  private static final Acl ACL = Acl.builder()
+      .owner("anna")
+      .addRoles(PermissionConstants.READ, List.of("ROLE_USER"))
+      .addUsers(PermissionConstants.WRITE, List.of("bernd"))
+      .build();
+
+  private static final AclUserContext BERND = AclUserContext.builder()
+      .name("bernd")
+      .roles(List.of("ROLE_USER"))
+      .build();
+
+  /**
+   * Has permissions.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void hasPermissions(SoftAssertions softly) {
+    CachingAccessEvaluator target = new CachingAccessEvaluator();
+    NormalizedAclUserContext userContext = NormalizedAclUserContext.of(BERND);
+    List<String> permissions = List.of(PermissionConstants.WRITE, PermissionConstants.DELETE);
+    for (int i = 0; i < 3; i++) {
+      softly.assertThat(target.hasPermission(ACL, userContext, PermissionConstants.READ))
+          .isTrue();
+      softly.assertThat(target.hasPermissions(
+              ACL, userContext, AccessEvaluation.ANY_PERMISSION, permissions))
+          .isTrue();
+      softly.assertThat(target.of(ACL).hasPermissions(
+              userContext, AccessEvaluation.ALL_PERMISSIONS, permissions))
+          .isFalse();
+    }
+    softly.assertThat(target.getSize())
+        .isEqualTo(3);
+    softly.assertThat(target.getMissCount())
+        .isEqualTo(3L);
+    softly.assertThat(target.getHitCount())
+        .isEqualTo(6L);
+    softly.assertThat(target.getHitRate())
+        .isEqualTo(6.0 / 9.0);
+
+    Acl equalAcl = Acl.builder().from(ACL).build();
+    softly.assertThat(target.hasPermission(equalAcl, BERND, PermissionConstants.READ))
+        .isTrue();
+    softly.assertThat(target.getHitCount())
+        .isEqualTo(7L);
+    softly.assertThat(target.hasPermission(ACL, null, PermissionConstants.READ))
+        .isFalse();
+    softly.assertThat(target.hasPermission(null, BERND, PermissionConstants.READ))
+        .isFalse();
+    softly.assertThat(target.hasPermissions(
+            ACL, BERND, AccessEvaluation.ANY_PERMISSION, List.of()))
+        .isFalse();
+
+    target.clear();
+    softly.assertThat(target.getSize())
+        .isZero();
+    softly.assertThat(target.getHitRate())
+        .isEqualTo(1.0);
+  }
+
+  /**
+   * Decisions expire and are evicted.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void expireAndEvict(SoftAssertions softly) {
+    AtomicLong now = new AtomicLong();
+    CachingAccessEvaluator target = new CachingAccessEvaluator(
+        2, Duration.ofSeconds(10), now::get);
+    target.hasPermission(ACL, BERND, PermissionConstants.READ);
+    now.addAndGet(Duration.ofSeconds(9).toNanos());
+    target.hasPermission(ACL, BERND, PermissionConstants.READ);
+    softly.assertThat(target.getHitCount())
+        .isEqualTo(1L);
+
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    target.hasPermission(ACL, BERND, PermissionConstants.READ);
+    softly.assertThat(target.getMissCount())
+        .isEqualTo(2L);
+    softly.assertThat(target.getEvictionCount())
+        .isEqualTo(1L);
+
+    target.hasPermission(ACL, BERND, PermissionConstants.WRITE);
+    target.hasPermission(ACL, BERND, PermissionConstants.DELETE);
+    softly.assertThat(target.getSize())
+        .isEqualTo(2);
+    softly.assertThat(target.getEvictionCount())
+        .isEqualTo(2L);
+
+    CachingAccessEvaluator disabled = new CachingAccessEvaluator(10, Duration.ZERO);
+    softly.assertThat(disabled.hasPermission(ACL, BERND, PermissionConstants.READ))
+        .isTrue();
+    softly.assertThat(disabled.getSize())
+        .isZero();
+    softly.assertThat(disabled.getMaximumSize())
+        .isZero();
+  }
+
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * The compiled acl test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class CompiledAclTest {
+
+  private static final List<String> PERMISSIONS = List
+      .of("read", "write", "delete", "administration");
+
+  private static final List<String> NAMES = List
+      .of("anna", "Anna", "bernd", "carl", "Dora", "emil", "STRASSE", "straße");
+
+  /**
+   * Normalize.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void normalize(SoftAssertions softly) {
+    softly.assertThat(AclSymbolTable.normalize(null))
+        .isNull();
+    String name = "anna";
+    softly.assertThat(AclSymbolTable.normalize(name))
+        .isSameAs(name);
+    softly.assertThat(AclSymbolTable.normalize("ROLE_Admin"))
+        .isEqualTo("role_admin");
+    softly.assertThat(AclSymbolTable.normalize("ÄÖÜ"))
+        .isEqualTo("äöü");
+  }
+
+  /**
+   * Has permission.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void hasPermission(SoftAssertions softly) {
+    Acl acl = Acl.builder()
+        .owner("anna")
+        .addPermissions(PERMISSIONS)
+        .addUsers("read", List.of("Bernd"))
+        .addRoles("write", List.of("ROLE_USER"))
+        .addGroups("delete", List.of("staff"))
+        .guest("administration", true)
+        .build();
+    CompiledAcl target = new AclSymbolTable().compile(acl);
+
+    softly.assertThat(target.hasPermission(user("anna", List.of(), List.of()), "read"))
+        .isTrue();
+    softly.assertThat(target.hasPermission(user("anna", List.of(), List.of()), "unknown"))
+        .isTrue();
+    softly.assertThat(target.hasPermission(user("anna", List.of(), List.of()), null))
+        .isFalse();
+    softly.assertThat(target.hasPermission(user("bernd", List.of(), List.of()), "READ"))
+        .isTrue();
+    softly.assertThat(target.hasPermission(user("bernd", List.of(), List.of()), "write"))
+        .isFalse();
+    softly.assertThat(target.hasPermission(user("carl", List.of("role_user"), List.of()), "write"))
+        .isTrue();
+    softly.assertThat(target.hasPermission(user("carl", List.of(), List.of("Staff")), "delete"))
+        .isTrue();
+    softly.assertThat(target.hasPermission(user("", List.of(), List.of()), "administration"))
+        .isTrue();
+    softly.assertThat(target.hasPermission(user("", List.of(), List.of()), "read"))
+        .isFalse();
+    softly.assertThat(target.getAcl())
+        .isSameAs(acl);
+  }
+
+  /**
+   * Has permission with acl null.
+   */
+  @Test
+  void hasPermissionWithAclNull() {
+    assertThat(CompiledAcl.of(null).hasPermission(CompiledAclUserContext.of(null), "read"))
+        .isFalse();
+  }
+
+  /**
+   * Compiled acl evaluates like the access evaluator.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void evaluatesLikeAccessEvaluator(SoftAssertions softly) {
+    Random random = new Random(42L);
+    AclSymbolTable symbolTable = new AclSymbolTable();
+    List<AclUserContext> users = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      users.add(AclUserContext.builder()
+          .name(random.nextInt(5) == 0 ? AclUserContext.ANONYMOUS : pick(random))
+          .roles(picks(random))
+          .groups(picks(random))
+          .build());
+    }
+    for (int i = 0; i < 200; i++) {
+      Acl.AclBuilder builder = Acl.builder()
+          .owner(random.nextInt(3) == 0 ? null : pick(random))
+          .addPermissions(PERMISSIONS);
+      for (String permission : PERMISSIONS) {
+        builder
+            .guest(permission, random.nextInt(10) == 0)
+            .addUsers(permission, picks(random))
+            .addRoles(permission, picks(random))
+            .addGroups(permission, picks(random));
+      }
+      Acl acl = builder.build();
+      AccessEvaluator expected = AccessEvaluator.of(acl);
+      CompiledAcl actual = symbolTable.compile(acl);
+      for (AclUserContext user : users) {
+        CompiledAclUserContext compiledUser = symbolTable.compile(user);
+        for (String permission : List.of("read", "WRITE", "delete", "administration", "x")) {
+          softly.assertThat(actual.hasPermission(compiledUser, permission))
+              .as("User %s has permission %s in %s", user, permission, acl)
+              .isEqualTo(expected.hasPermission(user, permission));
+        }
+        for (AccessEvaluation evaluation : AccessEvaluation.values()) {
+          softly.assertThat(actual.hasPermissions(compiledUser, evaluation, PERMISSIONS))
+              .isEqualTo(expected.hasPermissions(user, evaluation, PERMISSIONS));
+          softly.assertThat(actual.hasPermissions(user, evaluation, List.of("read", "write")))
+              .isEqualTo(expected.hasPermissions(user, evaluation, List.of("read", "write")));
+        }
+      }
+    }
+  }
+
+  /**
+   * User context of another symbol table is recompiled.
+   */
+  @Test
+  void userContextOfAnotherSymbolTable() {
+    Acl acl = Acl.builder()
+        .owner("anna")
+        .addRoles("read", List.of("ROLE_USER"))
+        .build();
+    CompiledAclUserContext user = new AclSymbolTable()
+        .compile(AclUserContext.builder().name("bernd").roles(List.of("ROLE_USER")).build());
+    assertThat(new AclSymbolTable().compile(acl).hasPermission(user, "read"))
+        .isTrue();
+  }
+
+  /**
+   * The names of a user context are not interned, and new names are looked up once.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void userContextIsNotInterned(SoftAssertions softly) {
+    AclSymbolTable symbolTable = new AclSymbolTable();
+    CompiledAclUserContext user = symbolTable.compile(AclUserContext.builder()
+        .name("bernd")
+        .roles(List.of("ROLE_USER"))
+        .groups(List.of("staff"))
+        .build());
+    softly.assertThat(symbolTable.getPrincipalCount())
+        .isZero();
+
+    CompiledAcl acl = symbolTable.compile(Acl.builder()
+        .owner("anna")
+        .addRoles("read", List.of("ROLE_USER"))
+        .build());
+    softly.assertThat(acl.hasPermission(user, "read"))
+        .isTrue();
+    softly.assertThat(symbolTable.getPrincipalCount())
+        .isEqualTo(1);
+    CompiledAclUserContext.Principals principals = user.getPrincipals();
+    softly.assertThat(user.getPrincipals())
+        .isSameAs(principals);
+
+    CompiledAclUserContext stranger = symbolTable.compile(AclUserContext.builder()
+        .name("carl")
+        .roles(List.of("ROLE_GUEST"))
+        .build());
+    softly.assertThat(acl.hasPermission(stranger, "read"))
+        .isFalse();
+    softly.assertThat(symbolTable.getPrincipalCount())
+        .isEqualTo(1);
+  }
+
+  /**
+   * The names of users are not interned, so compiling access control lists with new users keeps
+   * the user contexts valid.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void userNamesAreNotInterned(SoftAssertions softly) {
+    AclSymbolTable symbolTable = new AclSymbolTable();
+    CompiledAclUserContext user = symbolTable.compile(AclUserContext.builder()
+        .name("Bernd")
+        .roles(List.of("ROLE_USER"))
+        .build());
+    CompiledAclUserContext.Principals principals = user.getPrincipals();
+    for (int i = 0; i < 100; i++) {
+      CompiledAcl acl = symbolTable.compile(Acl.builder()
+          .owner("owner" + i)
+          .addUsers("read", List.of("user" + i, "BERND"))
+          .build());
+      softly.assertThat(acl.hasPermission(user, "read"))
+          .isTrue();
+    }
+    softly.assertThat(symbolTable.getPrincipalCount())
+        .isZero();
+    softly.assertThat(user.getPrincipals())
+        .isSameAs(principals);
+  }
+
+  private static CompiledAclUserContext user(
+      String name,
+      List<String> roles,
+      List<String> groups) {
+    return CompiledAclUserContext.of(AclUserContext.builder()
+        .name(name)
+        .roles(roles)
+        .groups(groups)
+        .build());
+  }
+
+  private static String pick(Random random) {
+    return NAMES.get(random.nextInt(NAMES.size()));
+  }
+
+  private static List<String> picks(Random random) {
+    List<String> names = new ArrayList<>();
+    int size = random.nextInt(3);
+    for (int i = 0; i < size; i++) {
+      names.add(pick(random));
+    }
+    return names;
+  }
+
+}
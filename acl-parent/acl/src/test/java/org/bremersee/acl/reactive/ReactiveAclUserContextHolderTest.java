@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.reactive;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.acl.AccessEvaluation;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclUserContext;
+import org.bremersee.acl.CachingAccessEvaluator;
+import org.bremersee.acl.PermissionConstants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The reactive acl user context holder test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class ReactiveAclUserContextHolderTest {
+
+  private static final Acl ANNAS_ACL = Acl.builder()
+      .owner("anna")
+      .addRoles(PermissionConstants.READ, List.of("ROLE_USER"))
+      .build();
+
+  private static final Acl CARLS_ACL = Acl.builder()
+      .owner("carl")
+      .build();
+
+  private static final AclUserContext BERND = AclUserContext.builder()
+      .name("bernd")
+      .roles(List.of("ROLE_USER"))
+      .build();
+
+  /**
+   * The user context is resolved only once, if it is cached in the reactor context.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void withUserContext(SoftAssertions softly) {
+    AtomicInteger resolutions = new AtomicInteger();
+    ReactiveAclUserContextHolder target = new ReactiveAclUserContextHolder(
+        () -> Mono.fromCallable(() -> {
+          resolutions.incrementAndGet();
+          return BERND;
+        }));
+
+    Mono<List<Boolean>> checks = Flux
+        .concat(
+            target.hasPermission(ANNAS_ACL, PermissionConstants.READ),
+            target.hasPermission(ANNAS_ACL, PermissionConstants.WRITE),
+            target.hasPermissions(ANNAS_ACL, AccessEvaluation.ANY_PERMISSION,
+                List.of(PermissionConstants.WRITE, PermissionConstants.READ)),
+            target.hasPermission(CARLS_ACL, PermissionConstants.READ))
+        .collectList();
+
+    StepVerifier.create(checks.contextWrite(target.withUserContext()))
+        .assertNext(results -> softly.assertThat(results)
+            .containsExactly(true, false, true, false))
+        .verifyComplete();
+    softly.assertThat(resolutions.get())
+        .isEqualTo(1);
+
+    StepVerifier.create(checks)
+        .expectNextCount(1L)
+        .verifyComplete();
+    softly.assertThat(resolutions.get())
+        .isEqualTo(5);
+  }
+
+  /**
+   * Filter flux and mono.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void filter(SoftAssertions softly) {
+    CachingAccessEvaluator cachingAccessEvaluator = new CachingAccessEvaluator();
+    ReactiveAclUserContextHolder target = new ReactiveAclUserContextHolder(
+        Mono::empty, cachingAccessEvaluator::of);
+    List<String> permissions = List.of(PermissionConstants.READ);
+
+    StepVerifier
+        .create(Flux.just(ANNAS_ACL, CARLS_ACL, ANNAS_ACL)
+            .transform(target.filter(acl -> acl, AccessEvaluation.ALL_PERMISSIONS, permissions))
+            .contextWrite(ReactiveAclUserContextHolder.withUserContext(BERND)))
+        .expectNext(ANNAS_ACL, ANNAS_ACL)
+        .verifyComplete();
+    softly.assertThat(cachingAccessEvaluator.getHitCount())
+        .isEqualTo(1L);
+
+    StepVerifier
+        .create(Mono.just(ANNAS_ACL)
+            .transform(target.filterMono(
+                acl -> acl, AccessEvaluation.ALL_PERMISSIONS, permissions)))
+        .verifyComplete();
+
+    StepVerifier
+        .create(Mono.just(ANNAS_ACL)
+            .transform(target.filterMono(
+                acl -> acl, AccessEvaluation.ALL_PERMISSIONS, permissions))
+            .contextWrite(ReactiveAclUserContextHolder.withUserContext(BERND)))
+        .expectNext(ANNAS_ACL)
+        .verifyComplete();
+  }
+
+}
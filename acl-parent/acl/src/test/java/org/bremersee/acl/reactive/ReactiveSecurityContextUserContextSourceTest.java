@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.bremersee.acl.reactive;
+
+import java.util.List;
+import java.util.Set;
+import org.bremersee.acl.Acl;
+import org.bremersee.acl.AclUserContext;
+import org.bremersee.acl.PermissionConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The reactive security context user context source test.
+ *
+ * @author Christian Bremer
+ */
+class ReactiveSecurityContextUserContextSourceTest {
+
+  private static final Authentication BERND = UsernamePasswordAuthenticationToken.authenticated(
+      "bernd", "secret", AuthorityUtils.createAuthorityList("ROLE_USER", "GROUP_staff"));
+
+  /**
+   * All authorities are roles by default.
+   */
+  @Test
+  void get() {
+    StepVerifier
+        .create(new ReactiveSecurityContextUserContextSource().get()
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(BERND)))
+        .expectNextMatches(userContext -> "bernd".equals(userContext.getName())
+            && Set.copyOf(userContext.getRoles()).equals(Set.of("ROLE_USER", "GROUP_staff"))
+            && userContext.getGroups().isEmpty())
+        .verifyComplete();
+  }
+
+  /**
+   * The roles and groups are mapped by the given functions.
+   */
+  @Test
+  void getWithMappings() {
+    ReactiveSecurityContextUserContextSource target = new ReactiveSecurityContextUserContextSource(
+        authentication -> ReactiveSecurityContextUserContextSource.authorities(authentication)
+            .stream()
+            .filter(authority -> authority.startsWith("ROLE_"))
+            .toList(),
+        authentication -> ReactiveSecurityContextUserContextSource.authorities(authentication)
+            .stream()
+            .filter(authority -> authority.startsWith("GROUP_"))
+            .map(authority -> authority.substring("GROUP_".length()))
+            .toList());
+    StepVerifier
+        .create(target.get()
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(BERND)))
+        .expectNextMatches(userContext -> List.copyOf(userContext.getRoles())
+            .equals(List.of("ROLE_USER"))
+            && List.copyOf(userContext.getGroups()).equals(List.of("staff")))
+        .verifyComplete();
+  }
+
+  /**
+   * Without security context and with an anonymous or unauthenticated authentication the source
+   * is empty.
+   */
+  @Test
+  void getEmpty() {
+    ReactiveSecurityContextUserContextSource target
+        = new ReactiveSecurityContextUserContextSource();
+    StepVerifier.create(target.get())
+        .verifyComplete();
+    StepVerifier
+        .create(target.get()
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                new AnonymousAuthenticationToken("key", "anonymousUser",
+                    AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")))))
+        .verifyComplete();
+    StepVerifier
+        .create(target.get()
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                UsernamePasswordAuthenticationToken.unauthenticated("bernd", "secret"))))
+        .verifyComplete();
+  }
+
+  /**
+   * The holder resolves the user context from the security context.
+   */
+  @Test
+  void withReactiveAclUserContextHolder() {
+    ReactiveAclUserContextHolder holder = new ReactiveAclUserContextHolder(
+        new ReactiveSecurityContextUserContextSource());
+    Acl acl = Acl.builder()
+        .owner("anna")
+        .addRoles(PermissionConstants.READ, List.of("ROLE_USER"))
+        .build();
+    StepVerifier
+        .create(holder.hasPermission(acl, PermissionConstants.READ)
+            .contextWrite(holder.withUserContext())
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(BERND)))
+        .expectNext(true)
+        .verifyComplete();
+    StepVerifier
+        .create(holder.getUserContext())
+        .expectNextMatches(userContext -> AclUserContext.ANONYMOUS.equals(userContext.getName()))
+        .verifyComplete();
+  }
+
+}
@@ -19,7 +19,9 @@ package org.bremersee.comparator.spring.boot;
 import java.util.Optional;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.bremersee.comparator.KeyExtractingSorterFactory;
 import org.bremersee.comparator.model.SortOrderTextSeparators;
+import org.bremersee.comparator.spring.converter.SortOrderCache;
 import org.bremersee.comparator.spring.converter.SortOrderConverter;
 import org.bremersee.comparator.spring.converter.SortOrderItemConverter;
 import org.bremersee.comparator.spring.mapper.SortMapper;
@@ -51,6 +53,10 @@ public class SortOrderAutoConfiguration {
 
   private final SortOrderTextSeparators separators;
 
+  private final int sortOrderCacheSize;
+
+  private final int parallelSortThreshold;
+
   /**
    * Instantiates a new sort order converter autoconfiguration.
    *
@@ -66,6 +72,8 @@ public class SortOrderAutoConfiguration {
             .filter(StringUtils::hasText)
             .orElse(defaults.getChainSeparator()))
         .build();
+    this.parallelSortThreshold = properties.getParallelSortThreshold();
+    this.sortOrderCacheSize = properties.getSortOrderCacheSize();
   }
 
   /**
@@ -77,19 +85,50 @@ public class SortOrderAutoConfiguration {
             
             *********************************************************************************
             * %s
+            *********************************************************************************
+            * separators = %s
+            * parallelSortThreshold = %d
+            * sortOrderCacheSize = %d
             *********************************************************************************""",
-        ClassUtils.getUserClass(getClass()).getSimpleName()));
+        ClassUtils.getUserClass(getClass()).getSimpleName(),
+        separators,
+        parallelSortThreshold,
+        sortOrderCacheSize));
+  }
+
+  /**
+   * Creates key extracting sorter factory with the configured parallel sort threshold.
+   *
+   * @return the key extracting sorter factory
+   */
+  @ConditionalOnMissingBean
+  @Bean
+  public KeyExtractingSorterFactory keyExtractingSorterFactory() {
+    return new KeyExtractingSorterFactory(parallelSortThreshold);
+  }
+
+  /**
+   * Creates sort order cache, that is shared by the sort order converter and the argument
+   * resolvers.
+   *
+   * @return the sort order cache
+   */
+  @ConditionalOnMissingBean
+  @Bean
+  public SortOrderCache sortOrderCache() {
+    return new SortOrderCache(sortOrderCacheSize);
   }
 
   /**
    * Creates sort order converter.
    *
+   * @param sortOrderCache the sort order cache
    * @return the sort order converter
    */
   @ConditionalOnMissingBean
   @Bean
-  public SortOrderConverter sortOrderConverter() {
-    return new SortOrderConverter(separators);
+  public SortOrderConverter sortOrderConverter(SortOrderCache sortOrderCache) {
+    return new SortOrderConverter(separators, sortOrderCache);
   }
 
   /**
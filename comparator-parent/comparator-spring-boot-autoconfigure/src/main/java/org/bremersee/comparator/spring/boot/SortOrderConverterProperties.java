@@ -17,6 +17,9 @@
 package org.bremersee.comparator.spring.boot;
 
 import lombok.Data;
+import org.bremersee.comparator.KeyExtractingSorter;
+import org.bremersee.comparator.KeyExtractingSorterFactory;
+import org.bremersee.comparator.spring.converter.SortOrderCache;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -38,6 +41,22 @@ public class SortOrderConverterProperties {
    */
   private String chainSeparator = ",";
 
+  /**
+   * The minimum number of entries, that are sorted in parallel by the key extracting sorters of
+   * the {@link KeyExtractingSorterFactory} bean. The bean is passed to the page builders (see
+   * {@code PageBuilder.sorterFactory(KeyExtractingSorterFactory)}). Parallel sorting is only
+   * used, if all comparators are thread-safe. Use {@code 2147483647} to disable parallel
+   * sorting.
+   */
+  private int parallelSortThreshold = KeyExtractingSorter.DEFAULT_PARALLEL_THRESHOLD;
+
+  /**
+   * The maximum number of parsed sort order texts, that are cached (see {@link SortOrderCache}).
+   * The cache is shared by the converter and the argument resolvers of webmvc and webflux. Use
+   * {@code 0} to disable caching.
+   */
+  private int sortOrderCacheSize = SortOrderCache.DEFAULT_MAXIMUM_SIZE;
+
   /**
    * Instantiates new sort order converter properties.
    */
@@ -21,7 +21,9 @@ import java.util.Optional;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.bremersee.comparator.model.SortOrderTextSeparators;
+import org.bremersee.comparator.spring.converter.SortOrderCache;
 import org.bremersee.comparator.spring.web.SortOrderHandlerMethodArgumentResolver;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
@@ -52,12 +54,17 @@ public class SortOrderWebAutoConfiguration implements WebMvcConfigurer {
 
   private final SortOrderTextSeparators separators;
 
+  private final ObjectProvider<SortOrderCache> sortOrderCache;
+
   /**
    * Instantiates a new sort order autoconfiguration for webmvc.
    *
    * @param properties the properties
+   * @param sortOrderCache the shared cache of parsed sort orders
    */
-  public SortOrderWebAutoConfiguration(SortOrderConverterProperties properties) {
+  public SortOrderWebAutoConfiguration(
+      SortOrderConverterProperties properties,
+      ObjectProvider<SortOrderCache> sortOrderCache) {
     SortOrderTextSeparators defaults = SortOrderTextSeparators.defaults();
     this.separators = SortOrderTextSeparators.builder()
         .argumentSeparator(Optional.ofNullable(properties.getArgumentSeparator())
@@ -67,6 +74,7 @@ public class SortOrderWebAutoConfiguration implements WebMvcConfigurer {
             .filter(StringUtils::hasText)
             .orElse(defaults.getChainSeparator()))
         .build();
+    this.sortOrderCache = sortOrderCache;
   }
 
   /**
@@ -86,6 +94,7 @@ public class SortOrderWebAutoConfiguration implements WebMvcConfigurer {
   public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
     var resolver = new SortOrderHandlerMethodArgumentResolver();
     resolver.setTextSeparators(separators);
+    resolver.setSortOrderCache(sortOrderCache.getIfAvailable());
     resolvers.add(resolver);
   }
 
@@ -20,7 +20,9 @@ import java.util.Optional;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.bremersee.comparator.model.SortOrderTextSeparators;
+import org.bremersee.comparator.spring.converter.SortOrderCache;
 import org.bremersee.comparator.spring.web.ReactiveSortOrderHandlerMethodArgumentResolver;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
@@ -51,12 +53,17 @@ public class SortOrderWebFluxAutoConfiguration implements WebFluxConfigurer {
 
   private final SortOrderTextSeparators separators;
 
+  private final ObjectProvider<SortOrderCache> sortOrderCache;
+
   /**
    * Instantiates a new sort order autoconfiguration for webflux.
    *
    * @param properties the properties
+   * @param sortOrderCache the shared cache of parsed sort orders
    */
-  public SortOrderWebFluxAutoConfiguration(SortOrderConverterProperties properties) {
+  public SortOrderWebFluxAutoConfiguration(
+      SortOrderConverterProperties properties,
+      ObjectProvider<SortOrderCache> sortOrderCache) {
     SortOrderTextSeparators defaults = SortOrderTextSeparators.defaults();
     this.separators = SortOrderTextSeparators.builder()
         .argumentSeparator(Optional.ofNullable(properties.getArgumentSeparator())
@@ -66,6 +73,7 @@ public class SortOrderWebFluxAutoConfiguration implements WebFluxConfigurer {
             .filter(StringUtils::hasText)
             .orElse(defaults.getChainSeparator()))
         .build();
+    this.sortOrderCache = sortOrderCache;
   }
 
   /**
@@ -85,6 +93,7 @@ public class SortOrderWebFluxAutoConfiguration implements WebFluxConfigurer {
   public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
     var resolver = new ReactiveSortOrderHandlerMethodArgumentResolver();
     resolver.setTextSeparators(separators);
+    resolver.setSortOrderCache(sortOrderCache.getIfAvailable());
     configurer.addCustomResolver(resolver);
   }
 
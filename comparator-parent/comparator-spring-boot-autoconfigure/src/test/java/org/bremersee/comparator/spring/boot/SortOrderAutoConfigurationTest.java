@@ -2,6 +2,10 @@ package org.bremersee.comparator.spring.boot;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.KeyExtractingSorter;
+import org.bremersee.comparator.KeyExtractingSorterFactory;
+import org.bremersee.comparator.spring.converter.SortOrderCache;
 import org.bremersee.comparator.spring.converter.SortOrderConverter;
 import org.bremersee.comparator.spring.converter.SortOrderItemConverter;
 import org.bremersee.comparator.spring.mapper.SortMapper;
@@ -31,8 +35,24 @@ class SortOrderAutoConfigurationTest {
    */
   @Test
   void sortOrderConverter() {
-    SortOrderConverter actual = target.sortOrderConverter();
+    SortOrderCache cache = target.sortOrderCache();
+    SortOrderConverter actual = target.sortOrderConverter(cache);
     assertThat(actual).isNotNull();
+    actual.convert("a;b,desc");
+    actual.convert("a;b,desc");
+    assertThat(cache.getMissCount()).isEqualTo(1L);
+    assertThat(cache.getHitCount()).isEqualTo(1L);
+  }
+
+  /**
+   * Sort order cache.
+   */
+  @Test
+  void sortOrderCache() {
+    SortOrderConverterProperties properties = new SortOrderConverterProperties();
+    properties.setSortOrderCacheSize(10);
+    SortOrderCache actual = new SortOrderAutoConfiguration(properties).sortOrderCache();
+    assertThat(actual.getMaximumSize()).isEqualTo(10);
   }
 
   /**
@@ -44,6 +64,20 @@ class SortOrderAutoConfigurationTest {
     assertThat(actual).isNotNull();
   }
 
+  /**
+   * Parallel sort threshold.
+   */
+  @Test
+  void parallelSortThreshold() {
+    SortOrderConverterProperties properties = new SortOrderConverterProperties();
+    properties.setParallelSortThreshold(5000);
+    KeyExtractingSorterFactory actual = new SortOrderAutoConfiguration(properties)
+        .keyExtractingSorterFactory();
+    assertThat(actual.getParallelThreshold()).isEqualTo(5000);
+    KeyExtractingSorter<Object> sorter = actual.createSorter(ComparatorBuilder.newInstance());
+    assertThat(sorter.getParallelThreshold()).isEqualTo(5000);
+  }
+
   /**
    * Default sort mapper.
    */
@@ -17,11 +17,15 @@
 package org.bremersee.comparator.spring.boot;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.bremersee.comparator.spring.converter.SortOrderCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 
 /**
@@ -36,9 +40,12 @@ class SortOrderWebAutoConfigurationTest {
   /**
    * Init.
    */
+  @SuppressWarnings("unchecked")
   @BeforeEach
   void init() {
-    target = new SortOrderWebAutoConfiguration(new SortOrderConverterProperties());
+    ObjectProvider<SortOrderCache> sortOrderCache = mock(ObjectProvider.class);
+    when(sortOrderCache.getIfAvailable()).thenReturn(new SortOrderCache());
+    target = new SortOrderWebAutoConfiguration(new SortOrderConverterProperties(), sortOrderCache);
     target.init();
   }
 
@@ -19,9 +19,12 @@ package org.bremersee.comparator.spring.boot;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import org.bremersee.comparator.spring.converter.SortOrderCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
 
 /**
@@ -36,9 +39,13 @@ class SortOrderWebFluxAutoConfigurationTest {
   /**
    * Init.
    */
+  @SuppressWarnings("unchecked")
   @BeforeEach
   void init() {
-    target = new SortOrderWebFluxAutoConfiguration(new SortOrderConverterProperties());
+    ObjectProvider<SortOrderCache> sortOrderCache = mock(ObjectProvider.class);
+    when(sortOrderCache.getIfAvailable()).thenReturn(new SortOrderCache());
+    target = new SortOrderWebFluxAutoConfiguration(
+        new SortOrderConverterProperties(), sortOrderCache);
     target.init();
   }
 
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.spring.converter;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.Getter;
+
+/**
+ * The bounded cache keeps at most the maximum number of entries and evicts the least recently
+ * used ones in second-chance order (a clock): a hit only marks its entry as referenced, and when
+ * the cache is full, the oldest entry, that was not referenced since it was passed last time, is
+ * evicted. It is the cache of the {@link SortOrderCache}.
+ *
+ * <p>The cache is thread-safe. A hit reads a concurrent map and takes no lock, only adding and
+ * evicting entries is serialized. A value is loaded outside the lock, so a key, that is requested
+ * concurrently for the first time, may be loaded more than once; the first value wins.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @author Christian Bremer
+ */
+final class BoundedCache<K, V> {
+
+  /**
+   * The maximum number of entries.
+   */
+  @Getter
+  private final int maximumSize;
+
+  private final Map<K, Node<K, V>> entries = new ConcurrentHashMap<>();
+
+  /**
+   * The entries in insertion order.
+   */
+  private final ArrayDeque<Node<K, V>> clock = new ArrayDeque<>();
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Instantiates a new bounded cache.
+   *
+   * @param maximumSize the maximum number of entries (if it is less than {@code 1}, nothing will
+   *     be cached)
+   */
+  BoundedCache(int maximumSize) {
+    this.maximumSize = Math.max(0, maximumSize);
+  }
+
+  /**
+   * Gets the value of the given key.
+   *
+   * @param key the key
+   * @return the value or {@code null}, if the key is not cached
+   */
+  V get(K key) {
+    Node<K, V> node = entries.get(key);
+    if (isNull(node)) {
+      misses.increment();
+      return null;
+    }
+    if (!node.referenced) {
+      node.referenced = true;
+    }
+    hits.increment();
+    return node.value;
+  }
+
+  /**
+   * Gets the value of the given key or loads and adds it, if the key is not cached.
+   *
+   * @param key the key
+   * @param loader the loader, that creates the value; a {@code null} value is not cached
+   * @return the value
+   */
+  V get(K key, Function<? super K, ? extends V> loader) {
+    V value = get(key);
+    return isNull(value) ? putIfAbsent(key, loader.apply(key)) : value;
+  }
+
+  /**
+   * Adds the given value, if the key is not cached.
+   *
+   * @param key the key
+   * @param value the value (a {@code null} value is not cached)
+   * @return the cached value, if the key is already cached, otherwise the given value
+   */
+  V putIfAbsent(K key, V value) {
+    if (maximumSize == 0 || isNull(value)) {
+      return value;
+    }
+    synchronized (clock) {
+      Node<K, V> existing = entries.get(key);
+      if (nonNull(existing)) {
+        return existing.value;
+      }
+      Node<K, V> node = new Node<>(key, value);
+      entries.put(key, node);
+      clock.addLast(node);
+      evict();
+      return value;
+    }
+  }
+
+  private void evict() {
+    while (entries.size() > maximumSize) {
+      Node<K, V> node = clock.pollFirst();
+      if (node.referenced) {
+        node.referenced = false;
+        clock.addLast(node);
+      } else {
+        entries.remove(node.key);
+        evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * Gets the number of cached entries.
+   *
+   * @return the size
+   */
+  int getSize() {
+    return entries.size();
+  }
+
+  /**
+   * Gets the number of requests, that were answered from the cache.
+   *
+   * @return the hit count
+   */
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the number of requests, that were not answered from the cache.
+   *
+   * @return the miss count
+   */
+  long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Gets the number of entries, that were removed because the maximum size was reached.
+   *
+   * @return the eviction count
+   */
+  long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Gets the hit rate.
+   *
+   * @return the hit rate between {@code 0.0} and {@code 1.0} ({@code 1.0} if there were no
+   *     requests)
+   */
+  double getHitRate() {
+    long hitCount = getHitCount();
+    long requestCount = hitCount + getMissCount();
+    return requestCount == 0L ? 1.0 : (double) hitCount / requestCount;
+  }
+
+  /**
+   * Removes all entries and resets the statistics.
+   */
+  void clear() {
+    synchronized (clock) {
+      entries.clear();
+      clock.clear();
+    }
+    hits.reset();
+    misses.reset();
+    evictions.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "BoundedCache {maximumSize=" + maximumSize
+        + ", size=" + getSize()
+        + ", hitCount=" + getHitCount()
+        + ", missCount=" + getMissCount()
+        + ", evictionCount=" + getEvictionCount()
+        + '}';
+  }
+
+  /**
+   * The cache entry.
+   */
+  private static final class Node<K, V> {
+
+    private final K key;
+
+    private final V value;
+
+    private volatile boolean referenced;
+
+    private Node(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.spring.converter;
+
+import java.util.Objects;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.bremersee.comparator.model.SortOrder;
+import org.bremersee.comparator.model.SortOrderTextSeparators;
+import org.bremersee.comparator.spring.mapper.SortMapper;
+import org.springframework.data.domain.Sort;
+
+/**
+ * A bounded, least recently used cache of parsed sort orders and their Spring Data sorts. The
+ * key is the sort order text together with the text separators. The cached sort orders and sorts
+ * are immutable and can therefore be shared between requests.
+ *
+ * <p>The cache is thread-safe and a cached sort order is read without a lock (see
+ * {@link BoundedCache}). Parsing is done outside the lock, so a text, that is requested
+ * concurrently for the first time, may be parsed more than once.
+ *
+ * @author Christian Bremer
+ */
+public class SortOrderCache {
+
+  /**
+   * The default maximum size.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 256;
+
+  /**
+   * The maximum number of cached sort order texts.
+   */
+  @Getter
+  private final int maximumSize;
+
+  private final SortMapper sortMapper;
+
+  private final BoundedCache<Key, Entry> entries;
+
+  /**
+   * Instantiates a new sort order cache with the default maximum size.
+   */
+  public SortOrderCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Instantiates a new sort order cache.
+   *
+   * @param maximumSize the maximum number of cached sort order texts (if it is less than
+   *     {@code 1}, nothing will be cached)
+   */
+  public SortOrderCache(int maximumSize) {
+    this(maximumSize, SortMapper.defaultSortMapper());
+  }
+
+  /**
+   * Instantiates a new sort order cache.
+   *
+   * @param maximumSize the maximum number of cached sort order texts (if it is less than
+   *     {@code 1}, nothing will be cached)
+   * @param sortMapper the sort mapper, that creates the Spring Data sort
+   */
+  public SortOrderCache(int maximumSize, SortMapper sortMapper) {
+    this.maximumSize = Math.max(0, maximumSize);
+    this.sortMapper = Objects.requireNonNullElseGet(sortMapper, SortMapper::defaultSortMapper);
+    this.entries = new BoundedCache<>(this.maximumSize);
+  }
+
+  /**
+   * Gets the parsed sort order of the given text.
+   *
+   * @param sortOrderText the sort order text
+   * @param separators the text separators
+   * @return the sort order
+   */
+  public SortOrder getSortOrder(String sortOrderText, SortOrderTextSeparators separators) {
+    return getEntry(sortOrderText, separators).sortOrder;
+  }
+
+  /**
+   * Gets the Spring Data sort of the given text.
+   *
+   * @param sortOrderText the sort order text
+   * @param separators the text separators
+   * @return the sort
+   */
+  public Sort getSort(String sortOrderText, SortOrderTextSeparators separators) {
+    Entry entry = getEntry(sortOrderText, separators);
+    Sort sort = entry.sort;
+    if (sort == null) {
+      sort = sortMapper.toSort(entry.sortOrder);
+      entry.sort = sort;
+    }
+    return sort;
+  }
+
+  private Entry getEntry(String sortOrderText, SortOrderTextSeparators separators) {
+    SortOrderTextSeparators textSeparators = Objects
+        .requireNonNullElseGet(separators, SortOrderTextSeparators::defaults);
+    return entries.get(
+        new Key(sortOrderText, textSeparators),
+        key -> new Entry(SortOrder.fromSortOrderText(sortOrderText, textSeparators)));
+  }
+
+  /**
+   * Gets the number of cached sort order texts.
+   *
+   * @return the size
+   */
+  public int getSize() {
+    return entries.getSize();
+  }
+
+  /**
+   * Gets the number of requests, that were answered from the cache.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return entries.getHitCount();
+  }
+
+  /**
+   * Gets the number of requests, that required parsing the sort order text.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return entries.getMissCount();
+  }
+
+  /**
+   * Gets the number of entries, that were removed because the maximum size was reached.
+   *
+   * @return the eviction count
+   */
+  public long getEvictionCount() {
+    return entries.getEvictionCount();
+  }
+
+  /**
+   * Gets the hit rate.
+   *
+   * @return the hit rate between {@code 0.0} and {@code 1.0} ({@code 1.0} if there were no
+   *     requests)
+   */
+  public double getHitRate() {
+    return entries.getHitRate();
+  }
+
+  /**
+   * Removes all entries and resets the statistics.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  @Override
+  public String toString() {
+    return "SortOrderCache {maximumSize=" + maximumSize
+        + ", size=" + getSize()
+        + ", hitCount=" + getHitCount()
+        + ", missCount=" + getMissCount()
+        + ", evictionCount=" + getEvictionCount()
+        + '}';
+  }
+
+  /**
+   * The cache key.
+   */
+  @EqualsAndHashCode
+  private static final class Key {
+
+    private final String sortOrderText;
+
+    private final SortOrderTextSeparators separators;
+
+    private Key(String sortOrderText, SortOrderTextSeparators separators) {
+      this.sortOrderText = sortOrderText;
+      this.separators = separators;
+    }
+  }
+
+  /**
+   * The cache entry with the parsed sort order and the lazily created sort.
+   */
+  private static final class Entry {
+
+    private final SortOrder sortOrder;
+
+    private volatile Sort sort;
+
+    private Entry(SortOrder sortOrder) {
+      this.sortOrder = sortOrder;
+    }
+  }
+
+}
@@ -34,6 +34,8 @@ public class SortOrderConverter implements Converter<String, SortOrder> {
   @Getter
   private final SortOrderTextSeparators separators;
 
+  private final SortOrderCache cache;
+
   /**
    * Instantiates a new sort order converter.
    */
@@ -47,13 +49,26 @@ public class SortOrderConverter implements Converter<String, SortOrder> {
    * @param separators the separators
    */
   public SortOrderConverter(SortOrderTextSeparators separators) {
+    this(separators, null);
+  }
+
+  /**
+   * Instantiates a new sort order converter, that uses the given cache of parsed sort orders.
+   *
+   * @param separators the separators
+   * @param cache the cache (can be {@code null})
+   */
+  public SortOrderConverter(SortOrderTextSeparators separators, SortOrderCache cache) {
     this.separators = Optional.ofNullable(separators)
         .orElseGet(SortOrderTextSeparators::defaults);
+    this.cache = cache;
   }
 
   @Override
   public SortOrder convert(@NonNull String source) {
-    return SortOrder.fromSortOrderText(source, separators);
+    return cache != null
+        ? cache.getSortOrder(source, separators)
+        : SortOrder.fromSortOrderText(source, separators);
   }
 
 }
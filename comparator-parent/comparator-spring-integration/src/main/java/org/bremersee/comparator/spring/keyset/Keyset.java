@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.spring.keyset;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.bremersee.comparator.ValueComparator;
+import org.bremersee.comparator.ValueExtractor;
+import org.bremersee.comparator.model.SortOrder;
+import org.bremersee.comparator.model.SortOrderItem;
+import org.bremersee.comparator.spring.mapper.SortMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+/**
+ * The keyset of a sort order is used for keyset (seek) pagination: instead of skipping the
+ * entries of the previous pages (offset pagination), the next slice is queried with the sort key
+ * values of the last entry of the previous slice. These values are kept in a {@link KeysetCursor},
+ * that can be passed to the client as an opaque token.
+ *
+ * <p>A cursor can be turned into an in-memory predicate, that compares like the
+ * {@link ValueComparator} (and therefore honours the direction, the case-handling and the
+ * null-handling of the sort order), into a Spring Data {@link ScrollPosition} or into a MongoDB
+ * criteria (see {@link MongoKeysetCriteria}).
+ *
+ * <p>The in-memory predicates place {@code null} like the {@link ValueComparator}, the MongoDB
+ * criteria like the MongoDB sort; both only agree, if the sort key values are never
+ * {@code null}. A cursor must therefore be used with the same store, that sorted its slice.
+ *
+ * <p>Every entry must be uniquely identified by the sort order (for example by adding the id as
+ * last item), otherwise entries with the same sort key values may be skipped.
+ *
+ * @author Christian Bremer
+ */
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(onlyExplicitlyIncluded = true)
+public class Keyset {
+
+  /**
+   * The sort order.
+   */
+  @EqualsAndHashCode.Include
+  @ToString.Include
+  @Getter
+  private final SortOrder sortOrder;
+
+  private final List<ValueComparator> comparators;
+
+  private final byte[] fingerprint;
+
+  /**
+   * Instantiates a new keyset.
+   *
+   * @param sortOrder the sort order
+   */
+  public Keyset(SortOrder sortOrder) {
+    this(sortOrder, null);
+  }
+
+  /**
+   * Instantiates a new keyset.
+   *
+   * @param sortOrder the sort order
+   * @param valueExtractor the value extractor (can be {@code null})
+   */
+  public Keyset(SortOrder sortOrder, ValueExtractor valueExtractor) {
+    this.sortOrder = Objects.requireNonNullElseGet(sortOrder, () -> new SortOrder(List.of()));
+    this.comparators = this.sortOrder.getItems().stream()
+        .map(item -> new ValueComparator(item, valueExtractor))
+        .toList();
+    this.fingerprint = fingerprint(this.sortOrder);
+  }
+
+  /**
+   * Creates the fingerprint of the sort order: the first bytes of the SHA-256 digest of the sort
+   * order text, so that a cursor of another sort order is rejected.
+   */
+  private static byte[] fingerprint(SortOrder sortOrder) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(sortOrder.getSortOrderText().getBytes(StandardCharsets.UTF_8));
+      return Arrays.copyOf(digest, KeysetCursor.FINGERPRINT_LENGTH);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+  }
+
+  /**
+   * Creates the cursor of the given entry.
+   *
+   * @param entry the entry
+   * @return the cursor
+   */
+  public KeysetCursor cursorOf(Object entry) {
+    List<Object> values = new ArrayList<>(comparators.size());
+    for (ValueComparator comparator : comparators) {
+      values.add(comparator.extractKey(entry));
+    }
+    return new KeysetCursor(fingerprint, values);
+  }
+
+  /**
+   * Creates the cursor token of the given entry.
+   *
+   * @param entry the entry
+   * @return the cursor token
+   */
+  public String tokenOf(Object entry) {
+    return cursorOf(entry).encode();
+  }
+
+  /**
+   * Decodes the given cursor token and checks, that it belongs to the sort order of this keyset.
+   *
+   * @param token the cursor token
+   * @return the cursor
+   * @throws IllegalArgumentException if the token is not valid or belongs to another sort order
+   */
+  public KeysetCursor decode(String token) {
+    KeysetCursor cursor = KeysetCursor.decode(token);
+    if (!MessageDigest.isEqual(cursor.getFingerprint(), fingerprint)
+        || cursor.getValues().size() != comparators.size()) {
+      throw new IllegalArgumentException(
+          "Keyset cursor token does not belong to sort order '"
+              + sortOrder.getSortOrderText() + "'.");
+    }
+    return cursor;
+  }
+
+  /**
+   * Creates a predicate, that accepts all entries, that are sorted after the entry of the cursor.
+   *
+   * @param <T> the type of the entries
+   * @param cursor the cursor
+   * @return the predicate
+   */
+  public <T> Predicate<T> after(KeysetCursor cursor) {
+    return entry -> compareTo(entry, cursor) > 0;
+  }
+
+  /**
+   * Creates a predicate, that accepts all entries, that are sorted before the entry of the cursor.
+   *
+   * @param <T> the type of the entries
+   * @param cursor the cursor
+   * @return the predicate
+   */
+  public <T> Predicate<T> before(KeysetCursor cursor) {
+    return entry -> compareTo(entry, cursor) < 0;
+  }
+
+  private int compareTo(Object entry, KeysetCursor cursor) {
+    for (int i = 0; i < comparators.size(); i++) {
+      ValueComparator comparator = comparators.get(i);
+      int result = comparator.compareKeys(comparator.extractKey(entry), cursor.getValues().get(i));
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Gets the sort of the sort order.
+   *
+   * @return the sort
+   */
+  public Sort toSort() {
+    return SortMapper.defaultSortMapper().toSort(sortOrder);
+  }
+
+  /**
+   * Gets the reversed sort, that is used to query the previous slice. The entries of the result
+   * must be reversed.
+   *
+   * @return the reversed sort
+   */
+  public Sort toReverseSort() {
+    List<Sort.Order> orders = toSort().stream()
+        .map(order -> order
+            .with(order.getDirection().isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC)
+            .with(switch (order.getNullHandling()) {
+              case NULLS_FIRST -> Sort.NullHandling.NULLS_LAST;
+              case NULLS_LAST -> Sort.NullHandling.NULLS_FIRST;
+              case NATIVE -> Sort.NullHandling.NATIVE;
+            }))
+        .toList();
+    return orders.isEmpty() ? Sort.unsorted() : Sort.by(orders);
+  }
+
+  /**
+   * Creates the Spring Data scroll position of the given cursor.
+   *
+   * @param cursor the cursor
+   * @param backward specifies whether the previous ({@code true}) or the next slice is requested
+   * @return the scroll position
+   */
+  public KeysetScrollPosition toScrollPosition(KeysetCursor cursor, boolean backward) {
+    Map<String, Object> keys = new LinkedHashMap<>();
+    List<SortOrderItem> items = sortOrder.getItems();
+    for (int i = 0; i < items.size(); i++) {
+      keys.put(items.get(i).getField(), cursor.getValues().get(i));
+    }
+    return backward ? ScrollPosition.backward(keys) : ScrollPosition.forward(keys);
+  }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.spring.keyset;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * The keyset cursor contains the sort key values of an entry (normally the last entry of a
+ * slice) in the order of the items of a sort order. It can be encoded into an opaque, url-safe
+ * token and decoded again.
+ *
+ * <p>Supported values are {@code null}, strings, characters, booleans, numbers ({@link Integer},
+ * {@link Long}, {@link Short}, {@link Byte}, {@link Double}, {@link Float}, {@link BigInteger},
+ * {@link BigDecimal}), {@link Instant}, {@link OffsetDateTime}, {@link LocalDate},
+ * {@link LocalDateTime}, {@link Date} and {@link UUID}.
+ *
+ * @author Christian Bremer
+ */
+@EqualsAndHashCode
+@ToString
+public class KeysetCursor {
+
+  private static final byte VERSION = 2;
+
+  /**
+   * The length of the fingerprint in bytes.
+   */
+  static final int FINGERPRINT_LENGTH = 16;
+
+  private final byte[] fingerprint;
+
+  private final List<Object> values;
+
+  /**
+   * Instantiates a new keyset cursor.
+   *
+   * @param fingerprint the fingerprint of the sort order
+   * @param values the values
+   */
+  KeysetCursor(byte[] fingerprint, List<?> values) {
+    if (fingerprint == null || fingerprint.length != FINGERPRINT_LENGTH) {
+      throw new IllegalArgumentException(
+          "Keyset cursor fingerprint must have " + FINGERPRINT_LENGTH + " bytes.");
+    }
+    this.fingerprint = fingerprint.clone();
+    this.values = Collections.unmodifiableList(new ArrayList<>(values));
+  }
+
+  /**
+   * Gets the fingerprint of the sort order, that belongs to this cursor.
+   *
+   * @return the fingerprint
+   */
+  byte[] getFingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * Gets the sort key values.
+   *
+   * @return the sort key values (can contain {@code null})
+   */
+  public List<Object> getValues() {
+    return values;
+  }
+
+  /**
+   * Encodes this cursor into an opaque, url-safe token.
+   *
+   * @return the token
+   * @throws IllegalArgumentException if a value is not supported
+   */
+  public String encode() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      out.write(fingerprint);
+      out.writeShort(values.size());
+      for (Object value : values) {
+        writeValue(out, value);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Encoding keyset cursor failed.", e);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+  }
+
+  /**
+   * Decodes a token, that was created by {@link #encode()}.
+   *
+   * @param token the token
+   * @return the keyset cursor
+   * @throws IllegalArgumentException if the token is not valid
+   */
+  public static KeysetCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      throw new IllegalArgumentException("Keyset cursor token must be present.");
+    }
+    final byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(token);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Keyset cursor token is not valid.", e);
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      if (in.readByte() != VERSION) {
+        throw new IllegalArgumentException("Keyset cursor token has an unknown version.");
+      }
+      byte[] fingerprint = new byte[FINGERPRINT_LENGTH];
+      in.readFully(fingerprint);
+      int size = in.readUnsignedShort();
+      List<Object> values = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        values.add(readValue(in));
+      }
+      if (in.available() > 0) {
+        throw new IllegalArgumentException("Keyset cursor token is too long.");
+      }
+      return new KeysetCursor(fingerprint, values);
+    } catch (IOException | DateTimeException | NumberFormatException e) {
+      throw new IllegalArgumentException("Keyset cursor token is not valid.", e);
+    }
+  }
+
+  private static void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(0);
+    } else if (value instanceof String s) {
+      out.writeByte(1);
+      writeString(out, s);
+    } else if (value instanceof Integer i) {
+      out.writeByte(2);
+      out.writeInt(i);
+    } else if (value instanceof Long l) {
+      out.writeByte(3);
+      out.writeLong(l);
+    } else if (value instanceof Double d) {
+      out.writeByte(4);
+      out.writeDouble(d);
+    } else if (value instanceof Float f) {
+      out.writeByte(5);
+      out.writeFloat(f);
+    } else if (value instanceof Boolean b) {
+      out.writeByte(6);
+      out.writeBoolean(b);
+    } else if (value instanceof Short s) {
+      out.writeByte(7);
+      out.writeShort(s);
+    } else if (value instanceof Byte b) {
+      out.writeByte(8);
+      out.writeByte(b);
+    } else if (value instanceof Character c) {
+      out.writeByte(9);
+      out.writeChar(c);
+    } else if (value instanceof BigDecimal bd) {
+      out.writeByte(10);
+      writeString(out, bd.toString());
+    } else if (value instanceof BigInteger bi) {
+      out.writeByte(11);
+      writeString(out, bi.toString());
+    } else if (value instanceof Instant instant) {
+      out.writeByte(12);
+      out.writeLong(instant.getEpochSecond());
+      out.writeInt(instant.getNano());
+    } else if (value instanceof OffsetDateTime offsetDateTime) {
+      out.writeByte(13);
+      writeString(out, offsetDateTime.toString());
+    } else if (value instanceof LocalDate localDate) {
+      out.writeByte(14);
+      writeString(out, localDate.toString());
+    } else if (value instanceof LocalDateTime localDateTime) {
+      out.writeByte(15);
+      writeString(out, localDateTime.toString());
+    } else if (value instanceof Date date) {
+      out.writeByte(16);
+      out.writeLong(date.getTime());
+    } else if (value instanceof UUID uuid) {
+      out.writeByte(17);
+      out.writeLong(uuid.getMostSignificantBits());
+      out.writeLong(uuid.getLeastSignificantBits());
+    } else {
+      throw new IllegalArgumentException(
+          "Keyset cursor value of type '" + value.getClass().getName() + "' is not supported.");
+    }
+  }
+
+  private static Object readValue(DataInputStream in) throws IOException {
+    byte type = in.readByte();
+    return switch (type) {
+      case 0 -> null;
+      case 1 -> readString(in);
+      case 2 -> in.readInt();
+      case 3 -> in.readLong();
+      case 4 -> in.readDouble();
+      case 5 -> in.readFloat();
+      case 6 -> in.readBoolean();
+      case 7 -> in.readShort();
+      case 8 -> in.readByte();
+      case 9 -> in.readChar();
+      case 10 -> new BigDecimal(readString(in));
+      case 11 -> new BigInteger(readString(in));
+      case 12 -> Instant.ofEpochSecond(in.readLong(), in.readInt());
+      case 13 -> OffsetDateTime.parse(readString(in));
+      case 14 -> LocalDate.parse(readString(in));
+      case 15 -> LocalDateTime.parse(readString(in));
+      case 16 -> new Date(in.readLong());
+      case 17 -> new UUID(in.readLong(), in.readLong());
+      default -> throw new IllegalArgumentException("Keyset cursor token has an unknown value.");
+    };
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > in.available()) {
+      throw new IllegalArgumentException("Keyset cursor token has an invalid string.");
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
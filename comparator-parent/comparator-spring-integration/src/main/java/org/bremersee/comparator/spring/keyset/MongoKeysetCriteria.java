@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.spring.keyset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import org.bremersee.comparator.model.SortOrder;
+import org.bremersee.comparator.model.SortOrderItem;
+import org.bremersee.comparator.model.SortOrderItem.NullHandling;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Collation.ComparisonLevel;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Creates MongoDB seek criteria of a keyset cursor. For a sort order {@code a, b, c} the criteria
+ * of the next slice is {@code a > va OR (a = va AND b > vb) OR (a = va AND b = vb AND c > vc)}
+ * with {@code <} instead of {@code >} for descending items.
+ *
+ * <p>The criteria follow the native order of MongoDB, where {@code null} (and missing fields) is
+ * less than all other values, because that is the order of the MongoDB sort, that the query uses.
+ * MongoDB sorts cannot express {@code NULLS_FIRST} or {@code NULLS_LAST}, so only sort orders with
+ * the null-handling {@code NATIVE} are accepted. Note, that the in-memory predicates of the
+ * {@link Keyset} follow the order of the {@code ValueComparator}, which places {@code null}
+ * differently; a cursor must therefore be used with the same store, that sorted its slice.
+ *
+ * <p>Case-insensitive items must be queried with a collation of strength 2 (see
+ * {@link #collation(SortOrder, Locale)}), otherwise strings are compared case-sensitive.
+ *
+ * @author Christian Bremer
+ */
+public abstract class MongoKeysetCriteria {
+
+  private MongoKeysetCriteria() {
+  }
+
+  /**
+   * Creates the criteria of all documents, that are sorted after the entry of the cursor.
+   *
+   * @param keyset the keyset
+   * @param cursor the cursor
+   * @return the criteria
+   * @throws IllegalArgumentException if the null-handling of a sort order item is not
+   *     {@code NATIVE}
+   */
+  public static Criteria after(Keyset keyset, KeysetCursor cursor) {
+    return seek(keyset.getSortOrder(), cursor, true);
+  }
+
+  /**
+   * Creates the criteria of all documents, that are sorted before the entry of the cursor.
+   *
+   * @param keyset the keyset
+   * @param cursor the cursor
+   * @return the criteria
+   * @throws IllegalArgumentException if the null-handling of a sort order item is not
+   *     {@code NATIVE}
+   */
+  public static Criteria before(Keyset keyset, KeysetCursor cursor) {
+    return seek(keyset.getSortOrder(), cursor, false);
+  }
+
+  /**
+   * Creates the collation, that must be used by the query, if the sort order contains
+   * case-insensitive items.
+   *
+   * @param sortOrder the sort order
+   * @param locale the locale (if it is {@code null}, the root locale is used)
+   * @return the collation
+   */
+  public static Collation collation(SortOrder sortOrder, Locale locale) {
+    Collation collation = Collation.of(Objects.requireNonNullElse(locale, Locale.ROOT));
+    boolean insensitive = sortOrder != null && sortOrder.getItems().stream()
+        .anyMatch(item -> item.getCaseHandling().isInsensitive());
+    return insensitive
+        ? collation.strength(ComparisonLevel.secondary())
+        : collation.strength(ComparisonLevel.tertiary());
+  }
+
+  private static Criteria seek(SortOrder sortOrder, KeysetCursor cursor, boolean forward) {
+    List<SortOrderItem> items = sortOrder.getItems();
+    List<Criteria> alternatives = new ArrayList<>(items.size());
+    List<Criteria> equalities = new ArrayList<>(items.size());
+    for (int i = 0; i < items.size(); i++) {
+      SortOrderItem item = items.get(i);
+      String field = item.getField();
+      if (field == null || field.isBlank()) {
+        throw new IllegalArgumentException("Keyset criteria requires fields in sort order.");
+      }
+      if (item.getNullHandling() != NullHandling.NATIVE) {
+        throw new IllegalArgumentException("Keyset criteria of MongoDB require the null-handling "
+            + "NATIVE, but field '" + field + "' has " + item.getNullHandling() + ".");
+      }
+      Object value = cursor.getValues().get(i);
+      Criteria follows = follows(item, value, forward);
+      if (follows != null) {
+        List<Criteria> parts = new ArrayList<>(equalities);
+        parts.add(follows);
+        alternatives.add(parts.size() == 1 ? follows : new Criteria().andOperator(parts));
+      }
+      equalities.add(Criteria.where(field).is(value));
+    }
+    if (alternatives.isEmpty()) {
+      // There is no document after (or before) the cursor.
+      return Criteria.where("_id").in(List.of());
+    }
+    return alternatives.size() == 1
+        ? alternatives.get(0)
+        : new Criteria().orOperator(alternatives);
+  }
+
+  /**
+   * Creates the criteria of the values of the field, that follow the given value in seek
+   * direction, or {@code null}, if there are no such values.
+   */
+  private static Criteria follows(SortOrderItem item, Object value, boolean forward) {
+    String field = item.getField();
+    boolean ascending = item.getDirection().isAscending() == forward;
+    // null is the least value, so it comes first in seek direction, if that is ascending
+    boolean nullsFirst = ascending;
+    if (value == null) {
+      return nullsFirst ? Criteria.where(field).ne(null) : null;
+    }
+    Criteria greater = ascending
+        ? Criteria.where(field).gt(value)
+        : Criteria.where(field).lt(value);
+    return nullsFirst
+        ? greater
+        : new Criteria().orOperator(greater, Criteria.where(field).is(null));
+  }
+
+}
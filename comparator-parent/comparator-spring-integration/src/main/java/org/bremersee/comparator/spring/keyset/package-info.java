@@ -0,0 +1,24 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * This package contains the keyset (seek) pagination support: opaque cursor tokens, that are
+ * built from the sort keys of the last entry of a slice, and their conversion into predicates,
+ * Spring's {@code Sort} and {@code ScrollPosition} and MongoDB criteria.
+ *
+ * @author Christian Bremer
+ */
+package org.bremersee.comparator.spring.keyset;
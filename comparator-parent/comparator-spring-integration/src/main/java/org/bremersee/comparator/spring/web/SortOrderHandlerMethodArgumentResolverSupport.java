@@ -25,6 +25,7 @@ import java.util.Optional;
 import org.bremersee.comparator.model.SortOrder;
 import org.bremersee.comparator.model.SortOrderItem;
 import org.bremersee.comparator.model.SortOrderTextSeparators;
+import org.bremersee.comparator.spring.converter.SortOrderCache;
 import org.springframework.core.MethodParameter;
 import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.ValueConstants;
@@ -38,6 +39,8 @@ public abstract class SortOrderHandlerMethodArgumentResolverSupport {
 
   private SortOrderTextSeparators textSeparators = SortOrderTextSeparators.defaults();
 
+  private SortOrderCache sortOrderCache;
+
   /**
    * Instantiates a new sort order handler method argument resolver support.
    */
@@ -56,6 +59,15 @@ public abstract class SortOrderHandlerMethodArgumentResolverSupport {
     }
   }
 
+  /**
+   * Sets the cache of parsed sort orders. The same cache can be shared by several resolvers.
+   *
+   * @param sortOrderCache the sort order cache (can be {@code null})
+   */
+  public void setSortOrderCache(SortOrderCache sortOrderCache) {
+    this.sortOrderCache = sortOrderCache;
+  }
+
   /**
    * Gets parameter name.
    *
@@ -91,7 +103,7 @@ public abstract class SortOrderHandlerMethodArgumentResolverSupport {
     return Optional.ofNullable(parameter.getParameterAnnotation(SortOrderRequestParam.class))
         .map(SortOrderRequestParam::defaultSort)
         .filter(defaultValue -> !ValueConstants.DEFAULT_NONE.equals(defaultValue))
-        .map(defaultValue -> SortOrder.fromSortOrderText(defaultValue, textSeparators))
+        .map(this::parseSortOrderText)
         .orElseGet(SortOrder::unsorted);
   }
 
@@ -102,11 +114,20 @@ public abstract class SortOrderHandlerMethodArgumentResolverSupport {
    * @return the sort order
    */
   protected SortOrder parseParameterValues(List<String> parameterValues) {
+    if (parameterValues.size() == 1) {
+      return parseSortOrderText(parameterValues.get(0));
+    }
     List<SortOrderItem> sortOrderItems = new ArrayList<>();
     for (String parameterValue : parameterValues) {
-      sortOrderItems.addAll(SortOrder.fromSortOrderText(parameterValue, textSeparators).getItems());
+      sortOrderItems.addAll(parseSortOrderText(parameterValue).getItems());
     }
     return new SortOrder(sortOrderItems);
   }
 
+  private SortOrder parseSortOrderText(String sortOrderText) {
+    return nonNull(sortOrderCache)
+        ? sortOrderCache.getSortOrder(sortOrderText, textSeparators)
+        : SortOrder.fromSortOrderText(sortOrderText, textSeparators);
+  }
+
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.spring.converter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.comparator.model.SortOrder;
+import org.bremersee.comparator.model.SortOrderTextSeparators;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.domain.Sort;
+
+/**
+ * The sort order cache test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class SortOrderCacheTest {
+
+  /**
+   * Get sort order and sort.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void getSortOrderAndSort(SoftAssertions softly) {
+    SortOrderCache target = new SortOrderCache();
+    SortOrder sortOrder = target.getSortOrder("lastName;firstName,desc", null);
+    softly.assertThat(sortOrder)
+        .isEqualTo(SortOrder.fromSortOrderText("lastName;firstName,desc"));
+    softly.assertThat(target.getSortOrder("lastName;firstName,desc", null))
+        .isSameAs(sortOrder);
+
+    Sort sort = target.getSort("lastName;firstName,desc", null);
+    softly.assertThat(sort)
+        .containsExactly(
+            Sort.Order.asc("lastName").ignoreCase(),
+            Sort.Order.desc("firstName").ignoreCase());
+    softly.assertThat(target.getSort("lastName;firstName,desc", null))
+        .isSameAs(sort);
+
+    softly.assertThat(target.getMissCount())
+        .isEqualTo(1L);
+    softly.assertThat(target.getHitCount())
+        .isEqualTo(3L);
+    softly.assertThat(target.getHitRate())
+        .isEqualTo(0.75);
+    softly.assertThat(target.getSize())
+        .isEqualTo(1);
+
+    target.clear();
+    softly.assertThat(target.getSize())
+        .isZero();
+    softly.assertThat(target.getHitCount())
+        .isZero();
+  }
+
+  /**
+   * Separators are part of the key.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void separatorsArePartOfTheKey(SoftAssertions softly) {
+    SortOrderCache target = new SortOrderCache();
+    SortOrderTextSeparators separators = SortOrderTextSeparators.builder()
+        .argumentSeparator(":")
+        .chainSeparator("|")
+        .build();
+    SortOrder actual = target.getSortOrder("a:desc|b", separators);
+    softly.assertThat(actual)
+        .isEqualTo(SortOrder.fromSortOrderText("a:desc|b", separators));
+    softly.assertThat(target.getSortOrder("a:desc|b", null))
+        .isEqualTo(SortOrder.fromSortOrderText("a:desc|b"));
+    softly.assertThat(target.getMissCount())
+        .isEqualTo(2L);
+  }
+
+  /**
+   * Least recently used entries are evicted.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void evictLeastRecentlyUsed(SoftAssertions softly) {
+    SortOrderCache target = new SortOrderCache(2);
+    target.getSortOrder("a", null);
+    target.getSortOrder("b", null);
+    target.getSortOrder("a", null);
+    target.getSortOrder("c", null);
+    softly.assertThat(target.getSize())
+        .isEqualTo(2);
+    softly.assertThat(target.getEvictionCount())
+        .isEqualTo(1L);
+
+    target.getSortOrder("a", null);
+    softly.assertThat(target.getHitCount())
+        .as("'a' was recently used and must not be evicted")
+        .isEqualTo(2L);
+    target.getSortOrder("b", null);
+    softly.assertThat(target.getMissCount())
+        .as("'b' was evicted")
+        .isEqualTo(4L);
+  }
+
+  /**
+   * Disabled cache.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void disabled(SoftAssertions softly) {
+    SortOrderCache target = new SortOrderCache(0);
+    softly.assertThat(target.getSortOrder("a", null))
+        .isEqualTo(SortOrder.fromSortOrderText("a"));
+    target.getSortOrder("a", null);
+    softly.assertThat(target.getSize())
+        .isZero();
+    softly.assertThat(target.getMissCount())
+        .isEqualTo(2L);
+  }
+
+  /**
+   * Concurrent access.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void concurrentAccess(SoftAssertions softly) {
+    SortOrderCache target = new SortOrderCache(8);
+    List<CompletableFuture<Void>> futures = IntStream.range(0, 8)
+        .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+          for (int i = 0; i < 1000; i++) {
+            String text = "field" + (i % 16);
+            target.getSort(text, null);
+          }
+        }))
+        .toList();
+    futures.forEach(CompletableFuture::join);
+    softly.assertThat(target.getHitCount() + target.getMissCount())
+        .isEqualTo(8000L);
+    softly.assertThat(target.getSize())
+        .isLessThanOrEqualTo(8);
+  }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator.spring.keyset;
+
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.model.SortOrder;
+import org.bremersee.comparator.model.SortOrderItem;
+import org.bremersee.comparator.model.SortOrderItem.CaseHandling;
+import org.bremersee.comparator.model.SortOrderItem.Direction;
+import org.bremersee.comparator.model.SortOrderItem.NullHandling;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * The keyset test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class KeysetTest {
+
+  /**
+   * Encode and decode cursor.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void encodeAndDecode(SoftAssertions softly) {
+    List<Object> values = Arrays.asList(
+        null, "Straße", 1, 2L, 3.5, 4.5f, true, (short) 5, (byte) 6, 'x',
+        new BigDecimal("7.25"), new BigInteger("123456789012345678901234567890"),
+        Instant.ofEpochSecond(1700000000L, 123),
+        OffsetDateTime.of(2024, 1, 2, 3, 4, 5, 6, ZoneOffset.ofHours(2)),
+        LocalDate.of(2024, 2, 29), LocalDateTime.of(2024, 3, 1, 12, 0),
+        new Date(1234567890L), UUID.randomUUID());
+    KeysetCursor cursor = new KeysetCursor(new byte[KeysetCursor.FINGERPRINT_LENGTH], values);
+    String token = cursor.encode();
+    softly.assertThat(token)
+        .matches("[A-Za-z0-9_-]+");
+    softly.assertThat(KeysetCursor.decode(token))
+        .isEqualTo(cursor);
+  }
+
+  /**
+   * Decode invalid tokens.
+   */
+  @Test
+  void decodeInvalidTokens() {
+    Keyset keyset = new Keyset(SortOrder.by(SortOrderItem.by("name")));
+    Keyset otherKeyset = new Keyset(SortOrder.by(SortOrderItem.by("number")));
+    String token = keyset.tokenOf(new Entry("a", 1, 1));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> otherKeyset.decode(token));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> keyset.decode("not a token"));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> keyset.decode(token.substring(0, token.length() - 2)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> keyset.decode(null));
+    // The sort order texts of these fields have the same hash code.
+    Keyset aa = new Keyset(SortOrder.by(SortOrderItem.by("Aa")), (obj, field) -> "a");
+    Keyset bb = new Keyset(SortOrder.by(SortOrderItem.by("BB")));
+    String aaToken = aa.tokenOf(new Entry("a", 1, 1));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> bb.decode(aaToken));
+    byte[] fingerprint = new byte[KeysetCursor.FINGERPRINT_LENGTH];
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> new KeysetCursor(fingerprint, List.of(new Object())).encode());
+  }
+
+  /**
+   * Seek through all entries with the in-memory predicates.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void seekInMemory(SoftAssertions softly) {
+    Random random = new Random(17L);
+    String[] names = {"anna", "Anna", "bernd", "Bernd", "carl", null};
+    List<Entry> entries = new ArrayList<>();
+    for (int id = 0; id < 200; id++) {
+      entries.add(new Entry(
+          names[random.nextInt(names.length)],
+          random.nextInt(5) == 0 ? null : random.nextInt(10),
+          id));
+    }
+    List<SortOrder> sortOrders = List.of(
+        SortOrder.by(SortOrderItem.by("name"), SortOrderItem.by("id")),
+        SortOrder.by(
+            new SortOrderItem("number", Direction.DESC, CaseHandling.INSENSITIVE,
+                NullHandling.NULLS_FIRST),
+            new SortOrderItem("name", Direction.ASC, CaseHandling.SENSITIVE,
+                NullHandling.NULLS_LAST),
+            SortOrderItem.by("id").with(Direction.DESC)));
+    for (SortOrder sortOrder : sortOrders) {
+      List<Entry> expected = new ArrayList<>(entries);
+      expected.sort(ComparatorBuilder.newInstance().addAll(sortOrder).build());
+      Keyset keyset = new Keyset(sortOrder);
+
+      List<Entry> actual = new ArrayList<>();
+      String token = null;
+      do {
+        KeysetCursor cursor = token == null ? null : keyset.decode(token);
+        List<Entry> slice = expected.stream()
+            .filter(entry -> cursor == null || keyset.after(cursor).test(entry))
+            .limit(30)
+            .toList();
+        actual.addAll(slice);
+        token = slice.isEmpty() ? null : keyset.tokenOf(slice.get(slice.size() - 1));
+      } while (token != null);
+      softly.assertThat(actual)
+          .as("Seek forward with %s", sortOrder)
+          .containsExactlyElementsOf(expected);
+
+      KeysetCursor middle = keyset.cursorOf(expected.get(100));
+      softly.assertThat(expected.stream().filter(keyset.before(middle)).toList())
+          .as("Seek backward with %s", sortOrder)
+          .containsExactlyElementsOf(expected.subList(0, 100));
+    }
+  }
+
+  /**
+   * To sort, reverse sort and scroll position.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void toSortAndScrollPosition(SoftAssertions softly) {
+    Keyset keyset = new Keyset(SortOrder.by(
+        new SortOrderItem("name", Direction.ASC, CaseHandling.INSENSITIVE,
+            NullHandling.NULLS_FIRST),
+        SortOrderItem.by("id").with(Direction.DESC)));
+    softly.assertThat(keyset.toSort())
+        .containsExactly(
+            Sort.Order.asc("name").ignoreCase().nullsFirst(),
+            Sort.Order.desc("id").ignoreCase());
+    softly.assertThat(keyset.toReverseSort())
+        .containsExactly(
+            Sort.Order.desc("name").ignoreCase().nullsLast(),
+            Sort.Order.asc("id").ignoreCase());
+
+    KeysetScrollPosition position = keyset
+        .toScrollPosition(keyset.cursorOf(new Entry("anna", null, 7)), false);
+    Map<String, Object> expectedKeys = new LinkedHashMap<>();
+    expectedKeys.put("name", "anna");
+    expectedKeys.put("id", 7);
+    softly.assertThat(position.getKeys())
+        .containsExactlyEntriesOf(expectedKeys);
+    softly.assertThat(position.scrollsForward())
+        .isTrue();
+    softly.assertThat(keyset
+            .toScrollPosition(keyset.cursorOf(new Entry("anna", null, 7)), true)
+            .scrollsBackward())
+        .isTrue();
+  }
+
+  /**
+   * Mongo criteria.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void mongoCriteria(SoftAssertions softly) {
+    Keyset keyset = new Keyset(SortOrder.by(
+        SortOrderItem.by("name"),
+        SortOrderItem.by("id").with(Direction.DESC)));
+    Criteria actual = MongoKeysetCriteria.after(keyset, keyset.cursorOf(new Entry("b", 1, 5)));
+    softly.assertThat(actual.getCriteriaObject())
+        .isEqualTo(new Document("$or", List.of(
+            new Document("name", new Document("$gt", "b")),
+            new Document("$and", List.of(
+                new Document("name", "b"),
+                new Document("$or", List.of(
+                    new Document("id", new Document("$lt", 5)),
+                    new Document("id", null))))))));
+
+    actual = MongoKeysetCriteria.before(keyset, keyset.cursorOf(new Entry(null, 1, 5)));
+    softly.assertThat(actual.getCriteriaObject())
+        .isEqualTo(new Document("$and", List.of(
+            new Document("name", null),
+            new Document("id", new Document("$gt", 5)))));
+
+    keyset = new Keyset(SortOrder.by(SortOrderItem.by("name").with(Direction.DESC)));
+    actual = MongoKeysetCriteria.after(keyset, keyset.cursorOf(new Entry(null, 1, 5)));
+    softly.assertThat(actual.getCriteriaObject())
+        .isEqualTo(new Document("_id", new Document("$in", List.of())));
+    actual = MongoKeysetCriteria.before(keyset, keyset.cursorOf(new Entry(null, 1, 5)));
+    softly.assertThat(actual.getCriteriaObject())
+        .isEqualTo(new Document("name", new Document("$ne", null)));
+
+    softly.assertThat(MongoKeysetCriteria.collation(keyset.getSortOrder(), Locale.GERMAN)
+            .toDocument())
+        .containsEntry("locale", "de")
+        .containsEntry("strength", 2);
+  }
+
+  /**
+   * Mongo criteria reject null-handling, that MongoDB sorts cannot express.
+   */
+  @Test
+  void mongoCriteriaRequireNativeNullHandling() {
+    for (NullHandling nullHandling : List.of(NullHandling.NULLS_FIRST, NullHandling.NULLS_LAST)) {
+      Keyset keyset = new Keyset(SortOrder.by(SortOrderItem.by("name").with(nullHandling)));
+      KeysetCursor cursor = keyset.cursorOf(new Entry("a", 1, 1));
+      assertThatIllegalArgumentException()
+          .isThrownBy(() -> MongoKeysetCriteria.after(keyset, cursor));
+      assertThatIllegalArgumentException()
+          .isThrownBy(() -> MongoKeysetCriteria.before(keyset, cursor));
+    }
+  }
+
+  /**
+   * The test entry.
+   *
+   * @param name the name
+   * @param number the number
+   * @param id the id
+   */
+  record Entry(String name, Integer number, int id) {
+
+  }
+
+}
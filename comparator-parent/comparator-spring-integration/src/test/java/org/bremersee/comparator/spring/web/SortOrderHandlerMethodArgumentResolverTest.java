@@ -23,6 +23,7 @@ import static org.mockito.Mockito.mock;
 import org.assertj.core.api.SoftAssertions;
 import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
 import org.bremersee.comparator.model.SortOrder;
+import org.bremersee.comparator.spring.converter.SortOrderCache;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -169,4 +170,39 @@ class SortOrderHandlerMethodArgumentResolverTest {
         .isEqualTo(expected);
   }
 
-}
\ No newline at end of file
+  /**
+   * Resolve argument with sort order cache.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void resolveArgumentWithSortOrderCache(SoftAssertions softly) {
+    SortOrderCache cache = new SortOrderCache();
+    SortOrderHandlerMethodArgumentResolver resolver = new SortOrderHandlerMethodArgumentResolver();
+    resolver.setSortOrderCache(cache);
+
+    MethodParameter parameter = mock(MethodParameter.class);
+    doReturn("sort")
+        .when(parameter)
+        .getParameterName();
+
+    NativeWebRequest webRequest = mock(NativeWebRequest.class);
+    String[] parameterValues = {"lastName;firstName,desc"};
+    doReturn(parameterValues)
+        .when(webRequest)
+        .getParameterValues("sort");
+
+    SortOrder first = resolver.resolveArgument(parameter, null, webRequest, null);
+    SortOrder second = resolver.resolveArgument(parameter, null, webRequest, null);
+
+    softly.assertThat(first)
+        .isEqualTo(SortOrder.fromSortOrderText("lastName;firstName,desc"));
+    softly.assertThat(second)
+        .isSameAs(first);
+    softly.assertThat(cache.getMissCount())
+        .isEqualTo(1L);
+    softly.assertThat(cache.getHitCount())
+        .isEqualTo(1L);
+  }
+
+}
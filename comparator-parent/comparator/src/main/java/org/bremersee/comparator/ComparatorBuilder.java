@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
@@ -142,6 +143,23 @@ public interface ComparatorBuilder {
     return this;
   }
 
+  /**
+   * Creates and adds value comparators for the given field ordering descriptions, that compare
+   * strings with the collator of the given locale (see
+   * {@link ValueComparator#ValueComparator(SortOrderItem, ValueExtractor, Locale)}).
+   *
+   * @param sortOrders the ordering descriptions (can be {@code null} - no comparator will be
+   *     added)
+   * @param locale the locale (can be {@code null} - then strings are compared by their natural
+   *     order)
+   * @return the comparator builder
+   */
+  default ComparatorBuilder addAll(
+      Collection<? extends SortOrderItem> sortOrders,
+      Locale locale) {
+    return addAll(sortOrders, sortOrder -> new ValueComparator(sortOrder, null, locale));
+  }
+
   /**
    * Adds comparators for the given sortOrders ordering descriptions.
    *
@@ -189,6 +207,24 @@ public interface ComparatorBuilder {
         .orElse(this);
   }
 
+  /**
+   * Creates and adds value comparators for the given field ordering descriptions, that compare
+   * strings with the collator of the given locale.
+   *
+   * @param sortOrder the ordering descriptions (can be {@code null} - no comparator will be
+   *     added)
+   * @param locale the locale (can be {@code null} - then strings are compared by their natural
+   *     order)
+   * @return the comparator builder
+   */
+  default ComparatorBuilder addAll(
+      SortOrder sortOrder,
+      Locale locale) {
+    return Optional.ofNullable(sortOrder)
+        .map(orders -> addAll(orders.getItems(), locale))
+        .orElse(this);
+  }
+
   /**
    * Add all comparator builder.
    *
@@ -251,6 +287,31 @@ public interface ComparatorBuilder {
    */
   <T> Comparator<T> build();
 
+  /**
+   * Builds a sorter, that extracts the sort keys of every element only once (decorate, sort,
+   * undecorate) instead of on every comparison. The sort result is the same as sorting with the
+   * comparator of {@link #build()}.
+   *
+   * @param <T> the type parameter
+   * @return the key extracting sorter
+   */
+  default <T> KeyExtractingSorter<T> buildKeyExtractingSorter() {
+    return buildKeyExtractingSorter(KeyExtractingSorter.DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Builds a sorter, that extracts the sort keys of every element only once (decorate, sort,
+   * undecorate) instead of on every comparison. Lists with at least as many elements as the given
+   * threshold are sorted in parallel, if all comparators are thread-safe.
+   *
+   * @param <T> the type parameter
+   * @param parallelThreshold the minimum size of a list, that is sorted in parallel
+   * @return the key extracting sorter
+   */
+  default <T> KeyExtractingSorter<T> buildKeyExtractingSorter(int parallelThreshold) {
+    return new KeyExtractingSorter<>(List.of(build()), parallelThreshold);
+  }
+
   /**
    * The default comparator builder.
    */
@@ -278,6 +339,11 @@ public interface ComparatorBuilder {
       //noinspection unchecked
       return (Comparator<T>) new ComparatorChain(comparatorChain);
     }
+
+    @Override
+    public <T> KeyExtractingSorter<T> buildKeyExtractingSorter(int parallelThreshold) {
+      return new KeyExtractingSorter<>(comparatorChain, parallelThreshold);
+    }
   }
 
 }
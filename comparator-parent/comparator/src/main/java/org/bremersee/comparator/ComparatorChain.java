@@ -42,6 +42,16 @@ public class ComparatorChain implements Comparator<Object> {
     this.comparators = comparators != null ? comparators : new LinkedList<>();
   }
 
+  /**
+   * Determines whether all comparators of this chain are thread-safe (see
+   * {@link KeyExtractingComparator#isThreadSafe()}).
+   *
+   * @return {@code true} if all comparators are thread-safe, otherwise {@code false}
+   */
+  public boolean isThreadSafe() {
+    return comparators.stream().allMatch(KeyExtractingSorter::isThreadSafe);
+  }
+
   @Override
   public int compare(Object o1, Object o2) {
     boolean wasCompared = false;
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * The compiled value extractor supports the same field names and paths as the
+ * {@link DefaultValueExtractor}, but it resolves every pair of class and field path only once into
+ * a chain of method handles. The chains are kept in a bounded concurrent cache, so that comparing
+ * many objects of the same class doesn't look up fields and methods by reflection again and
+ * again.
+ *
+ * <p>If the cache reaches its maximum size, it will be cleared.
+ *
+ * @author Christian Bremer
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class CompiledValueExtractor implements ValueExtractor {
+
+  /**
+   * The default maximum size of the accessor cache.
+   */
+  public static final int DEFAULT_MAX_CACHE_SIZE = 1024;
+
+  private static final CompiledValueExtractor DEFAULT_VALUE_EXTRACTOR
+      = new CompiledValueExtractor();
+
+  private static final MethodType ACCESSOR_TYPE
+      = MethodType.methodType(Object.class, Object.class);
+
+  @ToString.Include
+  @EqualsAndHashCode.Include
+  private final boolean throwingException;
+
+  @ToString.Include
+  @EqualsAndHashCode.Include
+  private final int maxCacheSize;
+
+  private final Map<PlanKey, Accessor[]> plans = new ConcurrentHashMap<>();
+
+  private final Map<AccessorKey, ResolvedAccessor> accessors = new ConcurrentHashMap<>();
+
+  /**
+   * Instantiates a new compiled value extractor that will throw {@link ValueExtractorException},
+   * if the given field cannot be found.
+   */
+  public CompiledValueExtractor() {
+    this(true);
+  }
+
+  /**
+   * Instantiates a new compiled value extractor.
+   *
+   * @param throwingException if {@code true} and the given field cannot be found,
+   *     {@link ValueExtractorException} will be thrown; otherwise {@code null} will be returned
+   */
+  public CompiledValueExtractor(boolean throwingException) {
+    this(throwingException, DEFAULT_MAX_CACHE_SIZE);
+  }
+
+  /**
+   * Instantiates a new compiled value extractor.
+   *
+   * @param throwingException if {@code true} and the given field cannot be found,
+   *     {@link ValueExtractorException} will be thrown; otherwise {@code null} will be returned
+   * @param maxCacheSize the maximum number of compiled field paths and accessors
+   */
+  public CompiledValueExtractor(boolean throwingException, int maxCacheSize) {
+    if (maxCacheSize < 1) {
+      throw new IllegalArgumentException("Max cache size must be greater than zero.");
+    }
+    this.throwingException = throwingException;
+    this.maxCacheSize = maxCacheSize;
+  }
+
+  /**
+   * Gets the shared compiled value extractor, that is used by default by {@link ValueComparator}
+   * and {@link DelegatingComparator}. It throws {@link ValueExtractorException}, if a field cannot
+   * be found.
+   *
+   * @return the shared compiled value extractor
+   */
+  public static CompiledValueExtractor defaultValueExtractor() {
+    return DEFAULT_VALUE_EXTRACTOR;
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public Object findValue(Object obj, String fieldPath) {
+    if (obj == null || fieldPath == null) {
+      return obj;
+    }
+    Accessor[] chain = compile(obj.getClass(), fieldPath);
+    Object value = obj;
+    for (int i = 0; i < chain.length && value != null; i++) {
+      value = chain[i].get(value);
+    }
+    return value;
+  }
+
+  private Accessor[] compile(Class<?> clazz, String fieldPath) {
+    PlanKey key = new PlanKey(clazz, fieldPath);
+    Accessor[] chain = plans.get(key);
+    if (chain == null) {
+      if (plans.size() >= maxCacheSize) {
+        plans.clear();
+      }
+      chain = plans.computeIfAbsent(key, k -> Arrays.stream(splitFieldPath(k.fieldPath()))
+          .map(Accessor::new)
+          .toArray(Accessor[]::new));
+    }
+    return chain;
+  }
+
+  private ResolvedAccessor resolve(Class<?> clazz, String fieldName) {
+    AccessorKey key = new AccessorKey(clazz, fieldName);
+    ResolvedAccessor resolved = accessors.get(key);
+    if (resolved == null) {
+      if (accessors.size() >= maxCacheSize) {
+        accessors.clear();
+      }
+      resolved = accessors.computeIfAbsent(key, k -> new ResolvedAccessor(
+          k.type(), createHandle(k.type(), k.fieldName())));
+    }
+    return resolved;
+  }
+
+  private MethodHandle createHandle(Class<?> clazz, String fieldName) {
+    Optional<Field> field = findField(clazz, fieldName);
+    if (field.isPresent()) {
+      return createHandle(field.get());
+    }
+    return findMethod(clazz, fieldName)
+        .map(this::createHandle)
+        .orElse(null);
+  }
+
+  private MethodHandle createHandle(Field field) {
+    try {
+      field.trySetAccessible();
+      MethodHandle handle = MethodHandles.lookup().unreflectGetter(field);
+      if (Modifier.isStatic(field.getModifiers())) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      return handle.asType(ACCESSOR_TYPE);
+    } catch (IllegalAccessException e) {
+      throw new ValueExtractorException("Getting value from field '" + field.getName()
+          + "' failed", e);
+    }
+  }
+
+  private MethodHandle createHandle(Method method) {
+    try {
+      method.trySetAccessible();
+      MethodHandle handle = MethodHandles.lookup().unreflect(method);
+      if (Modifier.isStatic(method.getModifiers())) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      return handle.asType(ACCESSOR_TYPE);
+    } catch (IllegalAccessException e) {
+      throw new ValueExtractorException("Invoking method '" + method.getName() + "' failed.", e);
+    }
+  }
+
+  private static String[] splitFieldPath(String fieldPath) {
+    return Arrays.stream(fieldPath.split("\\."))
+        .map(String::trim)
+        .filter(segment -> !segment.isEmpty())
+        .toArray(String[]::new);
+  }
+
+  private record PlanKey(Class<?> type, String fieldPath) {
+
+  }
+
+  private record AccessorKey(Class<?> type, String fieldName) {
+
+  }
+
+  /**
+   * The resolved accessor of a class. The handle is {@code null}, if the class has no such field
+   * or method.
+   */
+  private record ResolvedAccessor(Class<?> type, MethodHandle handle) {
+
+  }
+
+  /**
+   * One segment of a compiled field path. It remembers the last resolved accessor, so that the
+   * lookup is skipped as long as the values have the same class.
+   */
+  private final class Accessor {
+
+    private final String fieldName;
+
+    private volatile ResolvedAccessor resolved;
+
+    private Accessor(String fieldName) {
+      this.fieldName = fieldName;
+    }
+
+    private Object get(Object obj) {
+      ResolvedAccessor current = resolved;
+      if (current == null || current.type() != obj.getClass()) {
+        current = resolve(obj.getClass(), fieldName);
+        resolved = current;
+      }
+      MethodHandle handle = current.handle();
+      if (handle == null) {
+        if (throwingException) {
+          throw new ValueExtractorException(
+              "Field [" + fieldName + "] was not found on object [" + obj + "].");
+        }
+        return null;
+      }
+      try {
+        return (Object) handle.invokeExact(obj);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new ValueExtractorException("Getting value of '" + fieldName + "' failed.", t);
+      }
+    }
+  }
+
+}
@@ -56,6 +56,11 @@ public class DefaultValueExtractor implements ValueExtractor {
     this.throwingException = throwingException;
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
   @Override
   public Object findValue(Object obj, String fieldPath) {
     final String fieldIdentifier = trimFieldPath(fieldPath);
@@ -26,7 +26,7 @@ import lombok.ToString;
  * @author Christian Bremer
  */
 @ToString
-public class DelegatingComparator implements Comparator<Object> {
+public class DelegatingComparator implements KeyExtractingComparator {
 
   private final ValueExtractor valueExtractor;
 
@@ -49,7 +49,8 @@ public class DelegatingComparator implements Comparator<Object> {
    * Instantiates a new delegating comparator.
    *
    * @param field the field name or path (can be {@code null})
-   * @param valueExtractor a custom value extractor (can be {@code null})
+   * @param valueExtractor a custom value extractor (if it is {@code null}, the
+   *     {@link CompiledValueExtractor#defaultValueExtractor()} will be used)
    * @param comparator the comparator to compare the value of the field
    */
   public DelegatingComparator(
@@ -61,15 +62,25 @@ public class DelegatingComparator implements Comparator<Object> {
     }
     this.field = field;
     this.comparator = comparator;
-    this.valueExtractor = valueExtractor != null ? valueExtractor : new DefaultValueExtractor();
+    this.valueExtractor = valueExtractor != null
+        ? valueExtractor
+        : CompiledValueExtractor.defaultValueExtractor();
   }
 
   @Override
-  public int compare(Object o1, Object o2) {
-    final Object v1 = valueExtractor.findValue(o1, field);
-    final Object v2 = valueExtractor.findValue(o2, field);
+  public Object extractKey(Object obj) {
+    return valueExtractor.findValue(obj, field);
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return valueExtractor.isThreadSafe() && KeyExtractingSorter.isThreadSafe(comparator);
+  }
+
+  @Override
+  public int compareKeys(Object key1, Object key2) {
     //noinspection unchecked
-    return comparator.compare(v1, v2);
+    return comparator.compare(key1, key2);
   }
 
 }
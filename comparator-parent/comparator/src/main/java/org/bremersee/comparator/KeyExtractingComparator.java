@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.Comparator;
+
+/**
+ * A comparator, that compares objects by a sort key. The sort key of an object can be extracted
+ * once and then be compared many times, for example by the {@link KeyExtractingSorter}.
+ *
+ * @author Christian Bremer
+ */
+public interface KeyExtractingComparator extends Comparator<Object> {
+
+  /**
+   * Extracts the sort key of the given object.
+   *
+   * @param obj the object (can be {@code null})
+   * @return the sort key (can be {@code null})
+   */
+  Object extractKey(Object obj);
+
+  /**
+   * Compares two sort keys, that were extracted by {@link #extractKey(Object)}.
+   *
+   * @param key1 the first sort key
+   * @param key2 the second sort key
+   * @return a negative integer, zero, or a positive integer as the first sort key is less than,
+   *     equal to, or greater than the second
+   */
+  int compareKeys(Object key1, Object key2);
+
+  /**
+   * Creates the sort keys of all elements from the given keys, that were extracted by
+   * {@link #extractKey(Object)}. The default implementation compares the given keys with
+   * {@link #compareKeys(Object, Object)}.
+   *
+   * @param keys the extracted keys of the elements
+   * @return the sort keys
+   */
+  default SortKeys createSortKeys(Object[] keys) {
+    return (index1, index2) -> compareKeys(keys[index1], keys[index2]);
+  }
+
+  /**
+   * Determines whether the keys can be extracted and compared by multiple threads at the same
+   * time. The default implementation returns {@code false}.
+   *
+   * @return {@code true} if this comparator is thread-safe, otherwise {@code false}
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+
+  @Override
+  default int compare(Object o1, Object o2) {
+    return compareKeys(extractKey(o1), extractKey(o2));
+  }
+
+}
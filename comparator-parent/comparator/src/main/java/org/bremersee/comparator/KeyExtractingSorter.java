@@ -0,0 +1,329 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The key extracting sorter sorts a list with the decorate-sort-undecorate pattern (also known as
+ * Schwartzian transform): the sort keys of every comparator of the chain are extracted only once
+ * per element (see {@link KeyExtractingComparator#extractKey(Object)} and
+ * {@link KeyExtractingComparator#createSortKeys(Object[])}), then the indexes of the elements are
+ * sorted by their keys and at last the elements of the list are reordered.
+ *
+ * <p>Only comparators, that implement {@link KeyExtractingComparator} (like
+ * {@link ValueComparator} and {@link DelegatingComparator}) can extract a sort key. Any other
+ * comparator gets the element itself as sort key.
+ *
+ * <p>The sort is stable, so the result is the same as sorting the list with the
+ * {@link ComparatorChain} of the same comparators.
+ *
+ * <p>If the list has at least as many elements as the parallel threshold, the keys are extracted
+ * and the indexes are sorted in parallel with the common {@link ForkJoinPool}. This is only done,
+ * if all comparators are thread-safe (see {@link KeyExtractingComparator#isThreadSafe()}),
+ * otherwise the list is sorted by the calling thread. Because the merge sort is stable, the
+ * result of the parallel sort is the same as the result of the sequential sort.
+ *
+ * @param <T> the type of the elements
+ * @author Christian Bremer
+ */
+@SuppressWarnings({"rawtypes"})
+@ToString
+public class KeyExtractingSorter<T> {
+
+  /**
+   * The default parallel threshold.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 100_000;
+
+  private static final int INSERTION_SORT_THRESHOLD = 7;
+
+  private static final int MIN_PARALLEL_SORT_GRANULARITY = 1 << 13;
+
+  private final KeyExtractingComparator[] comparators;
+
+  /**
+   * The minimum size of a list, that is sorted in parallel.
+   */
+  @Getter
+  private final int parallelThreshold;
+
+  /**
+   * Specifies whether all comparators are thread-safe.
+   */
+  @Getter
+  private final boolean threadSafe;
+
+  /**
+   * Instantiates a new key extracting sorter with the default parallel threshold (see
+   * {@link #DEFAULT_PARALLEL_THRESHOLD}).
+   *
+   * @param comparators the comparators (can be {@code null} or empty - then the elements must be
+   *     comparable)
+   */
+  public KeyExtractingSorter(List<Comparator> comparators) {
+    this(comparators, DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Instantiates a new key extracting sorter.
+   *
+   * @param comparators the comparators (can be {@code null} or empty - then the elements must be
+   *     comparable)
+   * @param parallelThreshold the minimum size of a list, that is sorted in parallel (a value less
+   *     than {@code 2} is treated as {@code 2})
+   */
+  public KeyExtractingSorter(List<Comparator> comparators, int parallelThreshold) {
+    if (comparators == null || comparators.isEmpty()) {
+      this.comparators = new KeyExtractingComparator[]{
+          new IdentityKeyComparator(new ComparatorChain(null))
+      };
+    } else {
+      this.comparators = comparators.stream()
+          .map(KeyExtractingSorter::toKeyExtractingComparator)
+          .toArray(KeyExtractingComparator[]::new);
+    }
+    this.parallelThreshold = Math.max(2, parallelThreshold);
+    this.threadSafe = Arrays.stream(this.comparators)
+        .allMatch(KeyExtractingComparator::isThreadSafe);
+  }
+
+  /**
+   * Determines whether the given comparator can be used by multiple threads at the same time.
+   * Besides thread-safe {@link KeyExtractingComparator}s and {@link ComparatorChain}s, only the
+   * natural and the reverse order are known to be thread-safe.
+   *
+   * @param comparator the comparator
+   * @return {@code true} if the comparator is thread-safe, otherwise {@code false}
+   */
+  static boolean isThreadSafe(Comparator<?> comparator) {
+    if (comparator instanceof KeyExtractingComparator keyExtractingComparator) {
+      return keyExtractingComparator.isThreadSafe();
+    }
+    if (comparator instanceof ComparatorChain comparatorChain) {
+      return comparatorChain.isThreadSafe();
+    }
+    return comparator == Comparator.naturalOrder() || comparator == Comparator.reverseOrder();
+  }
+
+  private static KeyExtractingComparator toKeyExtractingComparator(Comparator comparator) {
+    if (comparator instanceof KeyExtractingComparator keyExtractingComparator) {
+      return keyExtractingComparator;
+    }
+    return new IdentityKeyComparator(comparator);
+  }
+
+  /**
+   * Sorts the given list.
+   *
+   * @param list the list (can be {@code null})
+   */
+  public void sort(List<T> list) {
+    if (list == null || list.size() < 2) {
+      return;
+    }
+    final Object[] elements = list.toArray();
+    final boolean parallel = threadSafe
+        && elements.length >= parallelThreshold
+        && ForkJoinPool.getCommonPoolParallelism() > 1;
+    final SortKeys[] keys = new SortKeys[comparators.length];
+    for (int k = 0; k < comparators.length; k++) {
+      KeyExtractingComparator comparator = comparators[k];
+      Object[] extractedKeys = new Object[elements.length];
+      IntStream indexes = IntStream.range(0, elements.length);
+      (parallel ? indexes.parallel() : indexes)
+          .forEach(i -> extractedKeys[i] = comparator.extractKey(elements[i]));
+      keys[k] = comparator.createSortKeys(extractedKeys);
+    }
+    final int[] order = new int[elements.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    if (parallel) {
+      int granularity = Math.max(
+          MIN_PARALLEL_SORT_GRANULARITY,
+          order.length / (ForkJoinPool.getCommonPoolParallelism() << 2));
+      ForkJoinPool.commonPool()
+          .invoke(new ParallelMergeSort(order.clone(), order, 0, order.length, keys, granularity));
+    } else {
+      sortIndexes(order, keys);
+    }
+    ListIterator<T> iterator = list.listIterator();
+    for (int index : order) {
+      iterator.next();
+      //noinspection unchecked
+      iterator.set((T) elements[index]);
+    }
+  }
+
+  /**
+   * Creates a top-k selector, that keeps the first {@code limit} of all accepted elements in the
+   * sort order of this sorter without sorting all elements.
+   *
+   * @param limit the maximum number of selected elements
+   * @return the top-k selector
+   */
+  public TopKSelector<T> topKSelector(int limit) {
+    return new TopKSelector<>(comparators, limit);
+  }
+
+  /**
+   * Sorts the given element indexes stable by the sort keys of the elements.
+   *
+   * @param order the element indexes
+   * @param keys the sort keys
+   */
+  static void sortIndexes(int[] order, SortKeys[] keys) {
+    mergeSort(order.clone(), order, 0, order.length, keys);
+  }
+
+  /**
+   * A stable merge sort of the element indexes (like the legacy merge sort of
+   * {@link Arrays#sort(Object[])}), that doesn't need to box the indexes.
+   */
+  private static void mergeSort(int[] src, int[] dest, int low, int high, SortKeys[] keys) {
+    int length = high - low;
+    if (length < INSERTION_SORT_THRESHOLD) {
+      for (int i = low; i < high; i++) {
+        for (int j = i; j > low && compare(keys, dest[j - 1], dest[j]) > 0; j--) {
+          int tmp = dest[j];
+          dest[j] = dest[j - 1];
+          dest[j - 1] = tmp;
+        }
+      }
+      return;
+    }
+    int mid = (low + high) >>> 1;
+    mergeSort(dest, src, low, mid, keys);
+    mergeSort(dest, src, mid, high, keys);
+    merge(src, dest, low, mid, high, keys);
+  }
+
+  /**
+   * Merges the sorted ranges {@code [low, mid)} and {@code [mid, high)} of the source into the
+   * destination.
+   */
+  private static void merge(int[] src, int[] dest, int low, int mid, int high, SortKeys[] keys) {
+    if (compare(keys, src[mid - 1], src[mid]) <= 0) {
+      System.arraycopy(src, low, dest, low, high - low);
+      return;
+    }
+    for (int i = low, p = low, q = mid; i < high; i++) {
+      if (q >= high || p < mid && compare(keys, src[p], src[q]) <= 0) {
+        dest[i] = src[p++];
+      } else {
+        dest[i] = src[q++];
+      }
+    }
+  }
+
+  private static int compare(SortKeys[] keys, int index1, int index2) {
+    for (SortKeys key : keys) {
+      int result = key.compare(index1, index2);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * The fork-join task of the parallel merge sort. Both halves are sorted in parallel and merged
+   * by the calling thread. Ranges, that are not larger than the granularity, are sorted
+   * sequentially.
+   */
+  private static class ParallelMergeSort extends RecursiveAction {
+
+    private final int[] src;
+
+    private final int[] dest;
+
+    private final int low;
+
+    private final int high;
+
+    private final transient SortKeys[] keys;
+
+    private final int granularity;
+
+    private ParallelMergeSort(
+        int[] src,
+        int[] dest,
+        int low,
+        int high,
+        SortKeys[] keys,
+        int granularity) {
+      this.src = src;
+      this.dest = dest;
+      this.low = low;
+      this.high = high;
+      this.keys = keys;
+      this.granularity = granularity;
+    }
+
+    @Override
+    protected void compute() {
+      if (high - low <= granularity) {
+        mergeSort(src, dest, low, high, keys);
+        return;
+      }
+      int mid = (low + high) >>> 1;
+      invokeAll(
+          new ParallelMergeSort(dest, src, low, mid, keys, granularity),
+          new ParallelMergeSort(dest, src, mid, high, keys, granularity));
+      merge(src, dest, low, mid, high, keys);
+    }
+  }
+
+  /**
+   * Uses the element itself as sort key.
+   */
+  @ToString
+  private static class IdentityKeyComparator implements KeyExtractingComparator {
+
+    private final Comparator comparator;
+
+    private IdentityKeyComparator(Comparator comparator) {
+      this.comparator = comparator;
+    }
+
+    @Override
+    public Object extractKey(Object obj) {
+      return obj;
+    }
+
+    @Override
+    public int compareKeys(Object key1, Object key2) {
+      //noinspection unchecked
+      return comparator.compare(key1, key2);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+      return KeyExtractingSorter.isThreadSafe(comparator);
+    }
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.Comparator;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The key extracting sorter factory creates key extracting sorters with a configured parallel
+ * threshold. It can be provided as a bean of an application context and passed to the page
+ * builders, so that the threshold is configured once per application and not per sort.
+ *
+ * @author Christian Bremer
+ */
+@EqualsAndHashCode
+@ToString
+public class KeyExtractingSorterFactory {
+
+  /**
+   * The minimum size of a list, that is sorted in parallel.
+   */
+  @Getter
+  private final int parallelThreshold;
+
+  /**
+   * Instantiates a new key extracting sorter factory with the default parallel threshold (see
+   * {@link KeyExtractingSorter#DEFAULT_PARALLEL_THRESHOLD}).
+   */
+  public KeyExtractingSorterFactory() {
+    this(KeyExtractingSorter.DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Instantiates a new key extracting sorter factory.
+   *
+   * @param parallelThreshold the minimum size of a list, that is sorted in parallel (use
+   *     {@link Integer#MAX_VALUE} to disable parallel sorting)
+   */
+  public KeyExtractingSorterFactory(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * Creates a key extracting sorter with the comparators of the given comparator builder.
+   *
+   * @param <T> the type of the elements
+   * @param comparatorBuilder the comparator builder
+   * @return the key extracting sorter
+   */
+  public <T> KeyExtractingSorter<T> createSorter(ComparatorBuilder comparatorBuilder) {
+    return comparatorBuilder.buildKeyExtractingSorter(parallelThreshold);
+  }
+
+  /**
+   * Creates a key extracting sorter with the given comparators.
+   *
+   * @param <T> the type of the elements
+   * @param comparators the comparators (can be {@code null} or empty - then the elements must be
+   *     comparable)
+   * @return the key extracting sorter
+   */
+  @SuppressWarnings("rawtypes")
+  public <T> KeyExtractingSorter<T> createSorter(List<Comparator> comparators) {
+    return new KeyExtractingSorter<>(comparators, parallelThreshold);
+  }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+/**
+ * The sort keys of an array of elements, that were extracted by
+ * {@link KeyExtractingComparator#createSortKeys(Object[])}. The keys are addressed by the index of
+ * the element.
+ *
+ * @author Christian Bremer
+ */
+@FunctionalInterface
+public interface SortKeys {
+
+  /**
+   * Compares the sort keys of the elements with the given indexes.
+   *
+   * @param index1 the index of the first element
+   * @param index2 the index of the second element
+   * @return a negative integer, zero, or a positive integer as the sort key of the first element
+   *     is less than, equal to, or greater than the sort key of the second element
+   */
+  int compare(int index1, int index2);
+
+}
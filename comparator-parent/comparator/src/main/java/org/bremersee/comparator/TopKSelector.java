@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The top-k selector keeps the first {@code limit} elements of all accepted elements in the sort
+ * order of a {@link KeyExtractingSorter} (partial sort). The accepted elements and their extracted
+ * keys are collected in a buffer, that holds up to {@code limit} retained elements and a batch of
+ * new elements. When the buffer is full, it is sorted with the same sort keys as the
+ * {@link KeyExtractingSorter} (see {@link KeyExtractingComparator#createSortKeys(Object[])}), so
+ * primitive, temporal, string and collation keys are used, and only the first {@code limit}
+ * elements are retained. So selecting the first {@code k} of {@code n} elements needs
+ * {@code O(n log k)} time and {@code O(k)} memory instead of {@code O(n log n)} time and
+ * {@code O(n)} memory of a full sort. The keys of every element are extracted only once.
+ *
+ * <p>Elements with equal sort keys are kept in the order in which they were accepted, so the
+ * result is the same as the first {@code limit} elements of a full (stable) sort.
+ *
+ * <p>A top-k selector is not thread-safe and can only be used once.
+ *
+ * @param <T> the type of the elements
+ * @author Christian Bremer
+ */
+@SuppressWarnings({"rawtypes"})
+@ToString(onlyExplicitlyIncluded = true)
+public class TopKSelector<T> implements Consumer<T> {
+
+  private static final int MIN_BATCH_SIZE = 256;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private final KeyExtractingComparator[] comparators;
+
+  /**
+   * The maximum number of selected elements.
+   */
+  @ToString.Include
+  @Getter
+  private final int limit;
+
+  private final int capacity;
+
+  private Object[] elements;
+
+  private final Object[][] keys;
+
+  private int size;
+
+  /**
+   * The number of accepted elements.
+   */
+  @ToString.Include
+  @Getter
+  private long count;
+
+  /**
+   * Instantiates a new top-k selector.
+   *
+   * @param comparators the key extracting comparators
+   * @param limit the maximum number of selected elements
+   */
+  TopKSelector(KeyExtractingComparator[] comparators, int limit) {
+    this.comparators = comparators;
+    this.limit = Math.max(0, limit);
+    this.capacity = (int) Math.min(
+        MAX_CAPACITY,
+        (long) this.limit + Math.max(this.limit, MIN_BATCH_SIZE));
+    int initialCapacity = this.limit == 0 ? 0 : Math.min(capacity, INITIAL_CAPACITY);
+    this.elements = new Object[initialCapacity];
+    this.keys = new Object[comparators.length][initialCapacity];
+  }
+
+  @Override
+  public void accept(T element) {
+    count++;
+    if (limit == 0) {
+      return;
+    }
+    if (size == elements.length) {
+      if (size == capacity) {
+        retainFirst();
+      } else {
+        grow();
+      }
+    }
+    elements[size] = element;
+    for (int k = 0; k < comparators.length; k++) {
+      keys[k][size] = comparators[k].extractKey(element);
+    }
+    size++;
+  }
+
+  /**
+   * Gets the selected elements in sort order.
+   *
+   * @return the selected elements
+   */
+  public List<T> getResult() {
+    retainFirst();
+    List<T> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      //noinspection unchecked
+      result.add((T) elements[i]);
+    }
+    return result;
+  }
+
+  private void grow() {
+    int newCapacity = (int) Math.min(capacity, 2L * elements.length);
+    elements = Arrays.copyOf(elements, newCapacity);
+    for (int k = 0; k < keys.length; k++) {
+      keys[k] = Arrays.copyOf(keys[k], newCapacity);
+    }
+  }
+
+  /**
+   * Sorts the buffer by the sort keys and retains only the first {@code limit} elements. The
+   * retained elements were accepted before the new elements and are kept in front of them, so
+   * the stable sort keeps elements with equal keys in the order in which they were accepted.
+   */
+  private void retainFirst() {
+    if (size < 2) {
+      return;
+    }
+    SortKeys[] sortKeys = new SortKeys[comparators.length];
+    for (int k = 0; k < comparators.length; k++) {
+      Object[] extractedKeys = size == keys[k].length ? keys[k] : Arrays.copyOf(keys[k], size);
+      sortKeys[k] = comparators[k].createSortKeys(extractedKeys);
+    }
+    int[] order = new int[size];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    KeyExtractingSorter.sortIndexes(order, sortKeys);
+    int retained = Math.min(size, limit);
+    Object[] retainedElements = new Object[retained];
+    Object[][] retainedKeys = new Object[keys.length][retained];
+    for (int i = 0; i < retained; i++) {
+      retainedElements[i] = elements[order[i]];
+      for (int k = 0; k < keys.length; k++) {
+        retainedKeys[k][i] = keys[k][order[i]];
+      }
+    }
+    System.arraycopy(retainedElements, 0, elements, 0, retained);
+    Arrays.fill(elements, retained, size, null);
+    for (int k = 0; k < keys.length; k++) {
+      System.arraycopy(retainedKeys[k], 0, keys[k], 0, retained);
+      Arrays.fill(keys[k], retained, size, null);
+    }
+    size = retained;
+  }
+
+}
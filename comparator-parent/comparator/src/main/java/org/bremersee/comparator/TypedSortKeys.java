@@ -0,0 +1,286 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+/**
+ * Creates sort keys, that are specialized for the type of the extracted values. If all values,
+ * that are not {@code null}, have the same class and this class is a number, a character, a
+ * boolean, an {@link Instant}, an {@link OffsetDateTime} or a {@link String}, the values are kept
+ * as primitives (or strings) and compared without boxing. If a collator is given, the
+ * {@link CollationKey}s of strings are computed once and compared instead of the strings.
+ * Otherwise, the given fallback comparator is used.
+ *
+ * <p>The specialized sort keys compare exactly like the natural order of the values with the same
+ * direction and null-handling as the {@link ValueComparator}.
+ *
+ * @author Christian Bremer
+ */
+final class TypedSortKeys {
+
+  private TypedSortKeys() {
+  }
+
+  /**
+   * Creates the sort keys.
+   *
+   * @param keys the extracted values
+   * @param ascending the direction
+   * @param caseInsensitive the case-handling of strings
+   * @param collator the collator of strings (can be {@code null})
+   * @param nullOrder the result, if the first value is {@code null} and the second is not
+   * @param fallback the comparator of values, that have no specialized sort keys
+   * @return the sort keys
+   */
+  static SortKeys of(
+      Object[] keys,
+      boolean ascending,
+      boolean caseInsensitive,
+      Collator collator,
+      int nullOrder,
+      KeyExtractingComparator fallback) {
+
+    Class<?> type = commonType(keys);
+    if (type == Integer.class || type == Long.class || type == Short.class
+        || type == Byte.class || type == Character.class || type == Boolean.class) {
+      return new LongKeys(keys, ascending, nullOrder);
+    }
+    if (type == Double.class || type == Float.class) {
+      return new DoubleKeys(keys, ascending, nullOrder);
+    }
+    if (type == Instant.class || type == OffsetDateTime.class) {
+      return new TemporalKeys(keys, ascending, nullOrder);
+    }
+    if (type == String.class && collator != null) {
+      return new CollationKeys(keys, ascending, collator, nullOrder);
+    }
+    if (type == String.class) {
+      return new StringKeys(keys, ascending, caseInsensitive, nullOrder);
+    }
+    return (index1, index2) -> fallback.compareKeys(keys[index1], keys[index2]);
+  }
+
+  private static Class<?> commonType(Object[] keys) {
+    Class<?> type = null;
+    for (Object key : keys) {
+      if (key != null) {
+        if (type == null) {
+          type = key.getClass();
+        } else if (type != key.getClass()) {
+          return null;
+        }
+      }
+    }
+    return type;
+  }
+
+  private static long toLong(Object value) {
+    if (value instanceof Number number) {
+      return number.longValue();
+    }
+    if (value instanceof Character character) {
+      return character;
+    }
+    return ((Boolean) value) ? 1L : 0L;
+  }
+
+  /**
+   * Sort keys with null-handling and direction.
+   */
+  private abstract static class NullableKeys implements SortKeys {
+
+    private final boolean[] nulls;
+
+    private final boolean ascending;
+
+    private final int nullOrder;
+
+    NullableKeys(Object[] keys, boolean ascending, int nullOrder) {
+      this.nulls = new boolean[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        this.nulls[i] = keys[i] == null;
+      }
+      this.ascending = ascending;
+      this.nullOrder = nullOrder;
+    }
+
+    @Override
+    public int compare(int index1, int index2) {
+      boolean null1 = nulls[index1];
+      boolean null2 = nulls[index2];
+      if (null1) {
+        return null2 ? 0 : nullOrder;
+      }
+      if (null2) {
+        return -1 * nullOrder;
+      }
+      return ascending ? compareNonNull(index1, index2) : compareNonNull(index2, index1);
+    }
+
+    /**
+     * Compares two values, that are not {@code null}, in ascending order.
+     *
+     * @param index1 the index of the first value
+     * @param index2 the index of the second value
+     * @return the comparison result
+     */
+    abstract int compareNonNull(int index1, int index2);
+  }
+
+  /**
+   * Integral numbers, characters and booleans as primitive longs.
+   */
+  private static final class LongKeys extends NullableKeys {
+
+    private final long[] values;
+
+    LongKeys(Object[] keys, boolean ascending, int nullOrder) {
+      super(keys, ascending, nullOrder);
+      this.values = new long[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != null) {
+          this.values[i] = toLong(keys[i]);
+        }
+      }
+    }
+
+    @Override
+    int compareNonNull(int index1, int index2) {
+      return Long.compare(values[index1], values[index2]);
+    }
+  }
+
+  /**
+   * Floating point numbers as primitive doubles.
+   */
+  private static final class DoubleKeys extends NullableKeys {
+
+    private final double[] values;
+
+    DoubleKeys(Object[] keys, boolean ascending, int nullOrder) {
+      super(keys, ascending, nullOrder);
+      this.values = new double[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != null) {
+          this.values[i] = ((Number) keys[i]).doubleValue();
+        }
+      }
+    }
+
+    @Override
+    int compareNonNull(int index1, int index2) {
+      return Double.compare(values[index1], values[index2]);
+    }
+  }
+
+  /**
+   * Instants and offset date times as epoch seconds and nanos. Offset date times with the same
+   * instant are compared by their local date time (like {@link OffsetDateTime#compareTo}).
+   */
+  private static final class TemporalKeys extends NullableKeys {
+
+    private final long[] seconds;
+
+    private final int[] nanos;
+
+    private final Object[] keys;
+
+    TemporalKeys(Object[] keys, boolean ascending, int nullOrder) {
+      super(keys, ascending, nullOrder);
+      this.seconds = new long[keys.length];
+      this.nanos = new int[keys.length];
+      boolean offsetDateTimes = false;
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] instanceof Instant instant) {
+          this.seconds[i] = instant.getEpochSecond();
+          this.nanos[i] = instant.getNano();
+        } else if (keys[i] instanceof OffsetDateTime offsetDateTime) {
+          this.seconds[i] = offsetDateTime.toEpochSecond();
+          this.nanos[i] = offsetDateTime.getNano();
+          offsetDateTimes = true;
+        }
+      }
+      this.keys = offsetDateTimes ? keys : null;
+    }
+
+    @Override
+    int compareNonNull(int index1, int index2) {
+      int result = Long.compare(seconds[index1], seconds[index2]);
+      if (result == 0) {
+        result = Integer.compare(nanos[index1], nanos[index2]);
+      }
+      if (result == 0 && keys != null) {
+        result = ((OffsetDateTime) keys[index1]).compareTo((OffsetDateTime) keys[index2]);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Strings.
+   */
+  private static final class StringKeys extends NullableKeys {
+
+    private final String[] values;
+
+    private final boolean caseInsensitive;
+
+    StringKeys(Object[] keys, boolean ascending, boolean caseInsensitive, int nullOrder) {
+      super(keys, ascending, nullOrder);
+      this.values = new String[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        this.values[i] = (String) keys[i];
+      }
+      this.caseInsensitive = caseInsensitive;
+    }
+
+    @Override
+    int compareNonNull(int index1, int index2) {
+      return caseInsensitive
+          ? values[index1].compareToIgnoreCase(values[index2])
+          : values[index1].compareTo(values[index2]);
+    }
+  }
+
+  /**
+   * Collation keys of strings.
+   */
+  private static final class CollationKeys extends NullableKeys {
+
+    private final CollationKey[] values;
+
+    CollationKeys(Object[] keys, boolean ascending, Collator collator, int nullOrder) {
+      super(keys, ascending, nullOrder);
+      this.values = new CollationKey[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != null) {
+          this.values[i] = collator.getCollationKey((String) keys[i]);
+        }
+      }
+    }
+
+    @Override
+    int compareNonNull(int index1, int index2) {
+      return values[index1].compareTo(values[index2]);
+    }
+  }
+
+}
@@ -16,9 +16,9 @@
 
 package org.bremersee.comparator;
 
-import java.util.Comparator;
+import java.text.Collator;
+import java.util.Locale;
 import java.util.Objects;
-import java.util.Optional;
 import lombok.ToString;
 import org.bremersee.comparator.model.SortOrderItem;
 
@@ -27,15 +27,28 @@ import org.bremersee.comparator.model.SortOrderItem;
  * specified description (ascending or descending, case-sensitive or insensitive and
  * 'null-handling') for sorting.
  *
+ * <p>If a locale is specified, strings are compared with a {@link Collator} of this locale
+ * instead of their natural order. A case-insensitive comparison uses the secondary strength of
+ * the collator (different accents are different, different cases are equal), a case-sensitive
+ * comparison uses the tertiary strength. When the value comparator is used by the
+ * {@link KeyExtractingSorter} or its {@link TopKSelector}, the collation keys of the strings are
+ * computed once per sort and compared instead of calling the (synchronized) collator for every
+ * comparison.
+ *
  * @author Christian Bremer
  */
 @ToString
-public class ValueComparator implements Comparator<Object> {
+public class ValueComparator implements KeyExtractingComparator {
 
   private final ValueExtractor valueExtractor;
 
   private final SortOrderItem sortOrder;
 
+  private final Locale locale;
+
+  @ToString.Exclude
+  private final Collator collator;
+
   /**
    * Instantiates a new value comparator.
    *
@@ -49,38 +62,76 @@ public class ValueComparator implements Comparator<Object> {
    * Instantiates a new value comparator.
    *
    * @param sortOrder the sort order
-   * @param valueExtractor a custom value extractor (if it is {@code null}, a default will be
-   *     used)
+   * @param valueExtractor a custom value extractor (if it is {@code null}, the
+   *     {@link CompiledValueExtractor#defaultValueExtractor()} will be used)
    */
   public ValueComparator(
       SortOrderItem sortOrder,
       ValueExtractor valueExtractor) {
+    this(sortOrder, valueExtractor, null);
+  }
+
+  /**
+   * Instantiates a new value comparator, that compares strings with the collator of the given
+   * locale.
+   *
+   * @param sortOrder the sort order
+   * @param valueExtractor a custom value extractor (if it is {@code null}, the
+   *     {@link CompiledValueExtractor#defaultValueExtractor()} will be used)
+   * @param locale the locale (if it is {@code null}, strings will be compared by their natural
+   *     order)
+   */
+  public ValueComparator(
+      SortOrderItem sortOrder,
+      ValueExtractor valueExtractor,
+      Locale locale) {
     this.sortOrder = Objects.requireNonNullElseGet(sortOrder, () -> SortOrderItem.by(null));
-    this.valueExtractor = valueExtractor != null ? valueExtractor : new DefaultValueExtractor();
+    this.valueExtractor = valueExtractor != null
+        ? valueExtractor
+        : CompiledValueExtractor.defaultValueExtractor();
+    this.locale = locale;
+    this.collator = locale != null ? createCollator(locale, this.sortOrder) : null;
+  }
+
+  private static Collator createCollator(Locale locale, SortOrderItem sortOrder) {
+    Collator collator = Collator.getInstance(locale);
+    collator.setStrength(sortOrder.getCaseHandling().isInsensitive()
+        ? Collator.SECONDARY
+        : Collator.TERTIARY);
+    collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+    return collator;
   }
 
   @Override
-  public int compare(Object o1, Object o2) {
-    final Object v1 = valueExtractor.findValue(o1, sortOrder.getField());
-    final Object v2 = valueExtractor.findValue(o2, sortOrder.getField());
-
-    return compareNullSafe(v1, v2)
-        .or(() -> compareNonNull(v1, v2))
-        .orElseThrow(() -> new ComparatorException(
-            "Comparison of field '" + sortOrder.getField() + "' is not possible."));
+  public Object extractKey(Object obj) {
+    return valueExtractor.findValue(obj, sortOrder.getField());
   }
 
-  private Optional<Integer> compareNullSafe(Object v1, Object v2) {
-    if (v1 == null && v2 == null) {
-      return Optional.of(0);
-    }
+  @Override
+  public SortKeys createSortKeys(Object[] keys) {
+    return TypedSortKeys.of(
+        keys,
+        sortOrder.getDirection().isAscending(),
+        sortOrder.getCaseHandling().isInsensitive(),
+        collator,
+        firstIsNull(),
+        this);
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return valueExtractor.isThreadSafe();
+  }
+
+  @Override
+  public int compareKeys(Object v1, Object v2) {
     if (v1 == null) {
-      return Optional.of(firstIsNull());
+      return v2 == null ? 0 : firstIsNull();
     }
     if (v2 == null) {
-      return Optional.of(-1 * firstIsNull());
+      return -1 * firstIsNull();
     }
-    return Optional.empty();
+    return compareNonNull(v1, v2);
   }
 
   private int firstIsNull() {
@@ -94,27 +145,23 @@ public class ValueComparator implements Comparator<Object> {
   }
 
   @SuppressWarnings("rawtypes")
-  private Optional<Integer> compareNonNull(Object v1, Object v2) {
-    if (sortOrder.getDirection().isAscending() && v1 instanceof Comparable c1) {
-      if (sortOrder.getCaseHandling().isInsensitive()
-          && v1 instanceof String s1 && v2 instanceof String s2) {
-        return Optional.of(s1.compareToIgnoreCase(s2));
-      } else {
-        //noinspection unchecked
-        return Optional.of(c1.compareTo(v2));
+  private int compareNonNull(Object v1, Object v2) {
+    boolean ascending = sortOrder.getDirection().isAscending();
+    Object first = ascending ? v1 : v2;
+    Object second = ascending ? v2 : v1;
+    if (first instanceof Comparable c) {
+      if (collator != null && first instanceof String s1 && second instanceof String s2) {
+        return collator.compare(s1, s2);
       }
-
-    } else if (!sortOrder.getDirection().isAscending() && v2 instanceof Comparable c2) {
-
       if (sortOrder.getCaseHandling().isInsensitive()
-          && v1 instanceof String s1 && v2 instanceof String s2) {
-        return Optional.of(s2.compareToIgnoreCase(s1));
-      } else {
-        //noinspection unchecked
-        return Optional.of(c2.compareTo(v1));
+          && first instanceof String s1 && second instanceof String s2) {
+        return s1.compareToIgnoreCase(s2);
       }
+      //noinspection unchecked
+      return c.compareTo(second);
     }
-    return Optional.empty();
+    throw new ComparatorException(
+        "Comparison of field '" + sortOrder.getField() + "' is not possible.");
   }
 
 }
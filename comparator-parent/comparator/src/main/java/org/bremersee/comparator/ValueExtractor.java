@@ -40,6 +40,17 @@ public interface ValueExtractor {
    */
   Object findValue(Object obj, String field);
 
+  /**
+   * Determines whether this value extractor can be used by multiple threads at the same time. The
+   * {@link KeyExtractingSorter} only sorts in parallel, if the value extractors of the comparators
+   * are thread-safe. The default implementation returns {@code false}.
+   *
+   * @return {@code true} if this value extractor is thread-safe, otherwise {@code false}
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+
   /**
    * Find field with the given name of the specified class.
    *
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.List;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.comparator.testmodel.ComplexObject;
+import org.bremersee.comparator.testmodel.ComplexObjectExtension;
+import org.bremersee.comparator.testmodel.SimpleGetObject;
+import org.bremersee.comparator.testmodel.SimpleIsObject;
+import org.bremersee.comparator.testmodel.SimpleObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * The compiled value extractor tests.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class CompiledValueExtractorTest {
+
+  private final CompiledValueExtractor extractor = new CompiledValueExtractor(false);
+
+  private final CompiledValueExtractor throwingExtractor = new CompiledValueExtractor();
+
+  /**
+   * Test returning of given object.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testReturningOfGivenObject(SoftAssertions softly) {
+    softly.assertThat(extractor.findValue(null, "foo")).isNull();
+    softly.assertThat(extractor.findValue("Object", "foo")).isNull();
+    softly.assertThat(extractor.findValue("Object", null))
+        .isEqualTo("Object");
+    softly.assertThat(extractor.findValue("Object", ""))
+        .isEqualTo("Object");
+  }
+
+  /**
+   * Test illegal field and expect exception.
+   */
+  @Test
+  void testIllegalFieldAndExpectException() {
+    assertThatExceptionOfType(ComparatorException.class).isThrownBy(() -> throwingExtractor
+        .findValue("Object", "foo"));
+  }
+
+  /**
+   * Test objects.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testObjects(SoftAssertions softly) {
+    softly.assertThat(extractor.findValue(new SimpleObject(1), "number"))
+        .isEqualTo(1);
+    softly.assertThat(extractor.findValue(new SimpleObject(2), "number"))
+        .isEqualTo(2);
+    softly.assertThat(extractor.findValue(new SimpleIsObject(true), "nice"))
+        .isEqualTo(true);
+    softly.assertThat(extractor.findValue(new SimpleGetObject(7), "number"))
+        .isEqualTo(7);
+    softly.assertThat(extractor.findValue(new ComplexObject(new SimpleObject(3)), "simple"))
+        .isEqualTo(new SimpleObject(3));
+    softly.assertThat(extractor.findValue(new ComplexObject(new SimpleObject(4)), "simple.number"))
+        .isEqualTo(4);
+    softly.assertThat(
+            extractor.findValue(new ComplexObject(new SimpleObject(4)), ". simple..number."))
+        .isEqualTo(4);
+    softly.assertThat(extractor.findValue(
+            new ComplexObjectExtension(new SimpleObject(5), ""),
+            "simple.number"))
+        .isEqualTo(5);
+    softly.assertThat(extractor.findValue(new ComplexObject(null), "simple.number"))
+        .isNull();
+    softly.assertThat(extractor.findValue("Object", "toString"))
+        .isEqualTo("Object");
+  }
+
+  /**
+   * Test that the compiled accessors return the same values as the default value extractor,
+   * also if the class of the values changes.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testSameValuesAsDefaultValueExtractor(SoftAssertions softly) {
+    DefaultValueExtractor defaultExtractor = new DefaultValueExtractor(false);
+    CompiledValueExtractor smallCacheExtractor = new CompiledValueExtractor(false, 1);
+    List<Object> objects = List.of(
+        new ComplexObject(new SimpleObject(1)),
+        new ComplexObjectExtension(new SimpleObject(2), "a"),
+        new SimpleObject(3),
+        new ComplexObject(new SimpleObject(4)));
+    for (int i = 0; i < 3; i++) {
+      for (Object obj : objects) {
+        softly.assertThat(extractor.findValue(obj, "simple.number"))
+            .isEqualTo(defaultExtractor.findValue(obj, "simple.number"));
+        softly.assertThat(smallCacheExtractor.findValue(obj, "simple.number"))
+            .isEqualTo(defaultExtractor.findValue(obj, "simple.number"));
+      }
+    }
+  }
+
+  /**
+   * Test illegal cache size.
+   */
+  @Test
+  void testIllegalCacheSize() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> new CompiledValueExtractor(true, 0));
+  }
+
+  /**
+   * Test to string.
+   */
+  @Test
+  void testToString() {
+    assertThat(new CompiledValueExtractor(false).toString())
+        .contains("false");
+  }
+
+  /**
+   * Test equals and hash code.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void testEqualsAndHashCode(SoftAssertions softly) {
+    softly.assertThat(new CompiledValueExtractor(false))
+        .isEqualTo(new CompiledValueExtractor(false));
+    softly.assertThat(new CompiledValueExtractor(false))
+        .isNotEqualTo(new CompiledValueExtractor(true));
+    softly.assertThat(new CompiledValueExtractor().hashCode())
+        .isEqualTo(new CompiledValueExtractor().hashCode());
+    softly.assertThat(CompiledValueExtractor.defaultValueExtractor())
+        .isEqualTo(new CompiledValueExtractor());
+  }
+
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.comparator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.comparator.model.SortOrder;
+import org.bremersee.comparator.model.SortOrderItem;
+import org.bremersee.comparator.model.SortOrderItem.CaseHandling;
+import org.bremersee.comparator.model.SortOrderItem.Direction;
+import org.bremersee.comparator.model.SortOrderItem.NullHandling;
+import org.bremersee.comparator.testmodel.ComplexObject;
+import org.bremersee.comparator.testmodel.SimpleObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * The key extracting sorter tests.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class KeyExtractingSorterTest {
+
+  /**
+   * Test that the sorter sorts like the comparator chain.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testSameOrderAsComparatorChain(SoftAssertions softly) {
+    Random random = new Random(42L);
+    List<Entry> entries = new ArrayList<>();
+    String[] names = {"anna", "Anna", "bernd", "Bernd", "carl", null};
+    for (int i = 0; i < 500; i++) {
+      Integer number = random.nextInt(10) == 0 ? null : random.nextInt(20);
+      entries.add(new Entry(
+          names[random.nextInt(names.length)],
+          number == null ? null : new ComplexObject(new SimpleObject(number)),
+          i));
+    }
+    List<SortOrder> sortOrders = List.of(
+        SortOrder.by(SortOrderItem.by("name")),
+        SortOrder.by(
+            new SortOrderItem("name", Direction.DESC, CaseHandling.SENSITIVE,
+                NullHandling.NULLS_FIRST),
+            new SortOrderItem("complex.simple.number", Direction.ASC, CaseHandling.INSENSITIVE,
+                NullHandling.NULLS_LAST)),
+        SortOrder.by(
+            new SortOrderItem("complex.simple.number", Direction.DESC, CaseHandling.INSENSITIVE,
+                NullHandling.NULLS_FIRST),
+            new SortOrderItem("name", Direction.ASC, CaseHandling.INSENSITIVE,
+                NullHandling.NATIVE)));
+    for (SortOrder sortOrder : sortOrders) {
+      List<Entry> expected = new ArrayList<>(entries);
+      expected.sort(ComparatorBuilder.newInstance()
+          .addAll(sortOrder, new CompiledValueExtractor(false))
+          .build());
+      List<Entry> actual = new ArrayList<>(entries);
+      ComparatorBuilder.newInstance()
+          .addAll(sortOrder, new CompiledValueExtractor(false))
+          .<Entry>buildKeyExtractingSorter()
+          .sort(actual);
+      softly.assertThat(actual)
+          .as("Sort with %s", sortOrder)
+          .containsExactlyElementsOf(expected);
+    }
+  }
+
+  /**
+   * Test that the specialized sort keys of numbers, temporals and strings sort like the comparator
+   * chain with every direction, case-handling and null-handling.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testTypedKeysSortLikeComparatorChain(SoftAssertions softly) {
+    Random random = new Random(7L);
+    Instant now = Instant.parse("2024-01-01T00:00:00Z");
+    List<TypedEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      boolean isNull = random.nextInt(8) == 0;
+      Instant instant = now.plusMillis(random.nextInt(50) * 500L);
+      entries.add(new TypedEntry(
+          isNull ? null : random.nextInt(30) - 15,
+          isNull ? null : random.nextLong(20) - 10,
+          isNull ? null : random.nextInt(40) / 4.0 - 5.0,
+          isNull ? null : instant,
+          isNull ? null : instant.atOffset(ZoneOffset.ofHours(random.nextInt(3))),
+          isNull ? null : (random.nextBoolean() ? "x" : "X") + random.nextInt(5),
+          i));
+    }
+    List<String> fields = List.of(
+        "intValue", "longValue", "doubleValue", "instant", "offsetDateTime", "text");
+    for (String field : fields) {
+      for (Direction direction : Direction.values()) {
+        for (CaseHandling caseHandling : CaseHandling.values()) {
+          for (NullHandling nullHandling : NullHandling.values()) {
+            SortOrderItem item = new SortOrderItem(field, direction, caseHandling, nullHandling);
+            List<TypedEntry> expected = new ArrayList<>(entries);
+            expected.sort(ComparatorBuilder.newInstance()
+                .add(item)
+                .build());
+            List<TypedEntry> actual = new ArrayList<>(entries);
+            ComparatorBuilder.newInstance()
+                .add(item)
+                .<TypedEntry>buildKeyExtractingSorter()
+                .sort(actual);
+            softly.assertThat(actual)
+                .as("Sort with %s", item)
+                .containsExactlyElementsOf(expected);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Test that the parallel sort sorts like the sequential sort.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testParallelSortLikeSequentialSort(SoftAssertions softly) {
+    Random random = new Random(11L);
+    List<Entry> entries = new ArrayList<>();
+    String[] names = {"anna", "Anna", "bernd", "Bernd", "carl", null};
+    for (int i = 0; i < 50_000; i++) {
+      entries.add(new Entry(
+          names[random.nextInt(names.length)],
+          new ComplexObject(new SimpleObject(random.nextInt(1000))),
+          i));
+    }
+    SortOrder sortOrder = SortOrder.by(
+        SortOrderItem.by("name").with(Direction.DESC),
+        SortOrderItem.by("complex.simple.number"));
+    KeyExtractingSorter<Entry> parallelSorter = ComparatorBuilder.newInstance()
+        .addAll(sortOrder)
+        .buildKeyExtractingSorter(1000);
+    softly.assertThat(parallelSorter.isThreadSafe())
+        .isTrue();
+    softly.assertThat(parallelSorter.getParallelThreshold())
+        .isEqualTo(1000);
+
+    List<Entry> expected = new ArrayList<>(entries);
+    ComparatorBuilder.newInstance()
+        .addAll(sortOrder)
+        .<Entry>buildKeyExtractingSorter(Integer.MAX_VALUE)
+        .sort(expected);
+    List<Entry> actual = new ArrayList<>(entries);
+    parallelSorter.sort(actual);
+    softly.assertThat(actual)
+        .containsExactlyElementsOf(expected);
+  }
+
+  /**
+   * Test that comparators with unknown thread-safety are detected.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testThreadSafety(SoftAssertions softly) {
+    softly.assertThat(ComparatorBuilder.newInstance()
+            .buildKeyExtractingSorter()
+            .isThreadSafe())
+        .isTrue();
+    softly.assertThat(ComparatorBuilder.newInstance()
+            .add(Comparator.reverseOrder())
+            .buildKeyExtractingSorter()
+            .isThreadSafe())
+        .isTrue();
+    softly.assertThat(ComparatorBuilder.newInstance()
+            .add(SortOrderItem.by("number"), (obj, field) -> null)
+            .buildKeyExtractingSorter()
+            .isThreadSafe())
+        .isFalse();
+    softly.assertThat(ComparatorBuilder.newInstance()
+            .add(SortOrderItem.by("number"))
+            .add(Comparator.comparing(Object::toString))
+            .buildKeyExtractingSorter()
+            .isThreadSafe())
+        .isFalse();
+    softly.assertThat(ComparatorBuilder.newInstance()
+            .add("number", Comparator.naturalOrder())
+            .buildKeyExtractingSorter()
+            .isThreadSafe())
+        .isTrue();
+  }
+
+  /**
+   * Test that the sorter factory uses its own parallel threshold and not the default one.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testSorterFactory(SoftAssertions softly) {
+    KeyExtractingSorterFactory factory = new KeyExtractingSorterFactory(5000);
+    softly.assertThat(factory.createSorter(ComparatorBuilder.newInstance()
+            .add(SortOrderItem.by("number")))
+            .getParallelThreshold())
+        .isEqualTo(5000);
+    softly.assertThat(factory.createSorter(List.of(Comparator.reverseOrder()))
+            .getParallelThreshold())
+        .isEqualTo(5000);
+    softly.assertThat(new KeyExtractingSorterFactory().getParallelThreshold())
+        .isEqualTo(KeyExtractingSorter.DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Test that the top-k selector selects the first elements of the sorted list.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testTopKSelector(SoftAssertions softly) {
+    Random random = new Random(5L);
+    List<Entry> entries = new ArrayList<>();
+    String[] names = {"anna", "Anna", "bernd", "Bernd", "carl", null};
+    for (int i = 0; i < 500; i++) {
+      entries.add(new Entry(names[random.nextInt(names.length)], null, i));
+    }
+    KeyExtractingSorter<Entry> sorter = ComparatorBuilder.newInstance()
+        .add(SortOrderItem.by("name").with(NullHandling.NULLS_FIRST))
+        .buildKeyExtractingSorter();
+    List<Entry> sorted = new ArrayList<>(entries);
+    sorter.sort(sorted);
+    for (int limit : new int[]{0, 1, 42, 500, 600}) {
+      TopKSelector<Entry> selector = sorter.topKSelector(limit);
+      entries.forEach(selector);
+      softly.assertThat(selector.getCount())
+          .isEqualTo(500);
+      softly.assertThat(selector.getResult())
+          .as("Top %s", limit)
+          .containsExactlyElementsOf(sorted.subList(0, Math.min(limit, sorted.size())));
+    }
+  }
+
+  /**
+   * Test that the top-k selector compares the sort keys, that are created by the comparators,
+   * and selects strings of a locale like the key extracting sorter.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testTopKSelectorUsesSortKeys(SoftAssertions softly) {
+    KeyExtractingComparator comparator = new KeyExtractingComparator() {
+      @Override
+      public Object extractKey(Object obj) {
+        return obj;
+      }
+
+      @Override
+      public int compareKeys(Object key1, Object key2) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public SortKeys createSortKeys(Object[] keys) {
+        return (index1, index2) -> ((Integer) keys[index1]).compareTo((Integer) keys[index2]);
+      }
+    };
+    TopKSelector<Integer> selector = new KeyExtractingSorter<Integer>(List.of(comparator))
+        .topKSelector(3);
+    for (int i = 1000; i > 0; i--) {
+      selector.accept(i);
+    }
+    softly.assertThat(selector.getResult())
+        .containsExactly(1, 2, 3);
+
+    Random random = new Random(7L);
+    String[] names = {"Äpfel", "apfel", "Zebra", "zürich", "Ödland", "oder", "éclair", "Eis"};
+    List<Entry> entries = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      entries.add(new Entry(names[random.nextInt(names.length)], null, i));
+    }
+    KeyExtractingSorter<Entry> sorter = new KeyExtractingSorter<>(List.of(new ValueComparator(
+        SortOrderItem.by("name").with(CaseHandling.INSENSITIVE), null, Locale.GERMAN)));
+    List<Entry> sorted = new ArrayList<>(entries);
+    sorter.sort(sorted);
+    TopKSelector<Entry> collatingSelector = sorter.topKSelector(10);
+    entries.forEach(collatingSelector);
+    softly.assertThat(collatingSelector.getResult())
+        .containsExactlyElementsOf(sorted.subList(0, 10));
+  }
+
+  /**
+   * Test that every sort key is extracted only once per element.
+   */
+  @Test
+  void testKeysAreExtractedOnce() {
+    ValueExtractor valueExtractor = spy(new DefaultValueExtractor());
+    List<SimpleObject> list = new ArrayList<>();
+    for (int i = 100; i > 0; i--) {
+      list.add(new SimpleObject(i));
+    }
+    ComparatorBuilder.newInstance()
+        .add(SortOrderItem.by("number"), valueExtractor)
+        .<SimpleObject>buildKeyExtractingSorter()
+        .sort(list);
+    assertThat(list)
+        .first()
+        .isEqualTo(new SimpleObject(1));
+    verify(valueExtractor, times(100)).findValue(any(), anyString());
+  }
+
+  /**
+   * Test with comparators that don't extract keys and with natural order.
+   *
+   * @param softly the soft assertions
+   */
+  @Test
+  void testWithOtherComparatorsAndNaturalOrder(SoftAssertions softly) {
+    List<Integer> list = new ArrayList<>(List.of(3, 1, 2));
+    ComparatorBuilder.newInstance()
+        .<Integer>buildKeyExtractingSorter()
+        .sort(list);
+    softly.assertThat(list)
+        .containsExactly(1, 2, 3);
+
+    ComparatorBuilder.newInstance()
+        .add(Comparator.reverseOrder())
+        .<Integer>buildKeyExtractingSorter()
+        .sort(list);
+    softly.assertThat(list)
+        .containsExactly(3, 2, 1);
+
+    KeyExtractingSorter<Integer> sorter = new KeyExtractingSorter<>(null);
+    sorter.sort(null);
+    List<Integer> single = new ArrayList<>(List.of(1));
+    sorter.sort(single);
+    softly.assertThat(single)
+        .containsExactly(1);
+  }
+
+  /**
+   * Test with non-comparable objects and expect comparator exception.
+   */
+  @Test
+  void testWithNonComparableObjectsAndExpectComparatorException() {
+    List<Object> list = new ArrayList<>(List.of(new Object(), new Object()));
+    KeyExtractingSorter<Object> sorter = ComparatorBuilder.newInstance()
+        .buildKeyExtractingSorter();
+    assertThatExceptionOfType(ComparatorException.class)
+        .isThrownBy(() -> sorter.sort(list));
+  }
+
+  /**
+   * The test entry.
+   *
+   * @param name the name
+   * @param complex the complex object
+   * @param index the index
+   */
+  record Entry(String name, ComplexObject complex, int index) {
+
+  }
+
+  /**
+   * The test entry with typed values.
+   *
+   * @param intValue the int value
+   * @param longValue the long value
+   * @param doubleValue the double value
+   * @param instant the instant
+   * @param offsetDateTime the offset date time
+   * @param text the text
+   * @param index the index
+   */
+  record TypedEntry(
+      Integer intValue,
+      Long longValue,
+      Double doubleValue,
+      Instant instant,
+      OffsetDateTime offsetDateTime,
+      String text,
+      int index) {
+
+  }
+
+}
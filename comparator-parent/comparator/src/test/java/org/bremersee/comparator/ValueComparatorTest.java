@@ -26,6 +26,10 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.bremersee.comparator.model.SortOrder;
 import org.bremersee.comparator.model.SortOrderItem;
 import org.bremersee.comparator.model.SortOrderItem.CaseHandling;
 import org.bremersee.comparator.model.SortOrderItem.Direction;
@@ -439,6 +443,34 @@ class ValueComparatorTest {
     verify(valueExtractor, times(1)).findValue(anyInt(), anyString());
   }
 
+  /**
+   * Test with locale.
+   */
+  @Test
+  void testWithLocale() {
+    List<String> values = List.of("Zebra", "Öl", "apfel", "Oase", "Äpfel", "Apfel");
+    SortOrderItem insensitive = SortOrderItem.by(null);
+    SortOrderItem sensitive = insensitive.with(CaseHandling.SENSITIVE);
+
+    List<String> actual = new ArrayList<>(values);
+    actual.sort(new ValueComparator(insensitive, null, Locale.GERMAN));
+    assertThat(actual)
+        .containsExactly("apfel", "Apfel", "Äpfel", "Oase", "Öl", "Zebra");
+
+    actual = new ArrayList<>(values);
+    actual.sort(new ValueComparator(sensitive, null, Locale.GERMAN));
+    assertThat(actual)
+        .containsExactly("apfel", "Apfel", "Äpfel", "Oase", "Öl", "Zebra");
+
+    actual = new ArrayList<>(values);
+    ComparatorBuilder.newInstance()
+        .addAll(SortOrder.by(insensitive.with(Direction.DESC)), Locale.GERMAN)
+        .<String>buildKeyExtractingSorter()
+        .sort(actual);
+    assertThat(actual)
+        .containsExactly("Zebra", "Öl", "Oase", "Äpfel", "apfel", "Apfel");
+  }
+
   /**
    * Test to string.
    */
@@ -27,7 +27,6 @@ import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.regex.Pattern;
 import org.locationtech.jts.geom.Coordinate;
 
 /**
@@ -44,21 +43,24 @@ class CoordinateToListConverter implements Serializable {
 
   private static final int MAXIMUM_FRACTION_DIGITS = 9;
 
-  private static final NumberFormat NUMBER_FORMAT = NumberFormat.getInstance(Locale.US);
+  /**
+   * The factor, that shifts the maximum fraction digits into the integer part.
+   */
+  private static final double FRACTION_SCALE = 1e9;
 
-  private static final NumberFormat TEST_NUMBER_FORMAT = NumberFormat.getInstance(Locale.US);
+  /**
+   * The limit of the scaled values, that are checked arithmetically. Below this limit the error
+   * of the scaled value is much smaller than the tenth fraction digit of the value.
+   */
+  private static final double MAXIMUM_SCALED_VALUE = 0x1p45;
 
-  static {
-    NUMBER_FORMAT.setMaximumFractionDigits(MAXIMUM_FRACTION_DIGITS);
-    NUMBER_FORMAT.setMaximumIntegerDigits(MAXIMUM_INTEGER_DIGITS);
-    NUMBER_FORMAT.setRoundingMode(RoundingMode.HALF_UP);
-    NUMBER_FORMAT.setGroupingUsed(false);
+  private static final ThreadLocal<NumberFormat> NUMBER_FORMAT = ThreadLocal
+      .withInitial(() -> createNumberFormat(MAXIMUM_INTEGER_DIGITS, MAXIMUM_FRACTION_DIGITS));
 
-    TEST_NUMBER_FORMAT.setMaximumFractionDigits(MAXIMUM_FRACTION_DIGITS + 1);
-    TEST_NUMBER_FORMAT.setMaximumIntegerDigits(MAXIMUM_INTEGER_DIGITS + 1);
-    TEST_NUMBER_FORMAT.setRoundingMode(RoundingMode.HALF_UP);
-    TEST_NUMBER_FORMAT.setGroupingUsed(false);
-  }
+  private static final ThreadLocal<NumberFormat> TEST_NUMBER_FORMAT = ThreadLocal
+      .withInitial(() -> createNumberFormat(
+          MAXIMUM_INTEGER_DIGITS + 1,
+          MAXIMUM_FRACTION_DIGITS + 1));
 
   private final boolean useBigDecimal;
 
@@ -91,21 +93,87 @@ class CoordinateToListConverter implements Serializable {
     return unmodifiableList(list);
   }
 
-  private Number round(double value) {
+  /**
+   * Rounds the given value to at most nine fraction digits.
+   *
+   * @param value the value
+   * @return the rounded value as big decimal or double (or {@code null}, if the value is not a
+   *     number)
+   */
+  Number round(double value) {
     if (Double.isNaN(value)) {
       return null;
     }
-    if (formatValue(value)) {
-      String strValue = NUMBER_FORMAT.format(value);
-      return useBigDecimal ? new BigDecimal(strValue) : new BigDecimal(strValue).doubleValue();
+    return useBigDecimal ? roundToBigDecimal(value) : roundToDouble(value);
+  }
+
+  /**
+   * Determines whether the rounded values are big decimals.
+   *
+   * @return {@code true} if the rounded values are big decimals, otherwise {@code false}
+   */
+  boolean isUseBigDecimal() {
+    return useBigDecimal;
+  }
+
+  /**
+   * Rounds the given value to at most nine fraction digits.
+   *
+   * @param value the value (must be a number)
+   * @return the rounded value
+   */
+  BigDecimal roundToBigDecimal(double value) {
+    return formatValue(value)
+        ? new BigDecimal(NUMBER_FORMAT.get().format(value))
+        : BigDecimal.valueOf(value);
+  }
+
+  /**
+   * Rounds the given value to at most nine fraction digits.
+   *
+   * @param value the value (must be a number)
+   * @return the rounded value
+   */
+  double roundToDouble(double value) {
+    return formatValue(value)
+        ? new BigDecimal(NUMBER_FORMAT.get().format(value)).doubleValue()
+        : value;
+  }
+
+  private static NumberFormat createNumberFormat(
+      int maximumIntegerDigits,
+      int maximumFractionDigits) {
+    NumberFormat numberFormat = NumberFormat.getInstance(Locale.US);
+    numberFormat.setMaximumFractionDigits(maximumFractionDigits);
+    numberFormat.setMaximumIntegerDigits(maximumIntegerDigits);
+    numberFormat.setRoundingMode(RoundingMode.HALF_UP);
+    numberFormat.setGroupingUsed(false);
+    return numberFormat;
+  }
+
+  private static boolean formatValue(final double value) {
+    if (hasFewFractionDigits(value)) {
+      return false;
     }
-    return useBigDecimal ? BigDecimal.valueOf(value) : value;
+    String testValue = TEST_NUMBER_FORMAT.get().format(value);
+    int point = testValue.indexOf('.');
+    int integerDigits = point < 0 ? testValue.length() : point;
+    int fractionDigits = point < 0 ? 0 : testValue.length() - point - 1;
+    return integerDigits > MAXIMUM_INTEGER_DIGITS || fractionDigits > MAXIMUM_FRACTION_DIGITS;
   }
 
-  private boolean formatValue(final double value) {
-    String[] testValues = TEST_NUMBER_FORMAT.format(value).split(Pattern.quote("."));
-    return testValues[0].length() > MAXIMUM_INTEGER_DIGITS
-        || (testValues.length > 1 && testValues[1].length() > MAXIMUM_FRACTION_DIGITS);
+  /**
+   * Determines arithmetically whether the given value has at most nine fraction digits, so that
+   * it doesn't need to be formatted. A value, that is too large for the check, is reported as not
+   * having few fraction digits and is tested with the number format.
+   *
+   * @param value the value
+   * @return {@code true} if the value has at most nine fraction digits
+   */
+  private static boolean hasFewFractionDigits(double value) {
+    double scaled = value * FRACTION_SCALE;
+    return Math.abs(scaled) < MAXIMUM_SCALED_VALUE
+        && Math.abs(scaled - Math.rint(scaled)) <= 4 * Math.ulp(scaled);
   }
 
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.geojson.converter.serialization;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Serializable;
+import org.bremersee.geojson.GeoJsonConstants;
+import org.bremersee.geojson.GeoJsonGeometryFactory;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+/**
+ * The geometry json writer writes a geometry directly into a json generator. It produces the same
+ * json as the {@link GeometryToJsonConverter}, but walks the coordinate sequences instead of
+ * building maps and nested coordinate lists first.
+ *
+ * @author Christian Bremer
+ */
+class GeometryJsonWriter implements Serializable {
+
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The coordinate converter, that rounds the ordinates.
+   */
+  private final CoordinateToListConverter coordinateConverter;
+
+  /**
+   * Specifies whether a bounding box should be generated or not.
+   */
+  private final boolean withBoundingBox;
+
+  /**
+   * Instantiates a new geometry json writer.
+   *
+   * @param withBoundingBox with bounding box
+   * @param useBigDecimal use big decimal
+   */
+  GeometryJsonWriter(boolean withBoundingBox, boolean useBigDecimal) {
+    this.coordinateConverter = new CoordinateToListConverter(useBigDecimal);
+    this.withBoundingBox = withBoundingBox;
+  }
+
+  /**
+   * Writes the given geometry.
+   *
+   * @param source the geometry
+   * @param gen the json generator
+   * @throws IOException if writing fails
+   * @throws IllegalArgumentException if the geometry is not supported
+   */
+  void write(Geometry source, JsonGenerator gen) throws IOException {
+    if (isNull(source)) {
+      gen.writeNull();
+      return;
+    }
+    String type = getGeometryType(source);
+    gen.writeStartObject();
+    gen.writeStringField(GeoJsonConstants.TYPE, type);
+    if (withBoundingBox) {
+      writeBoundingBox(source, gen);
+    }
+    if (GeoJsonConstants.GEOMETRY_COLLECTION.equals(type)) {
+      gen.writeFieldName(GeoJsonConstants.GEOMETRIES);
+      gen.writeStartArray();
+      for (int i = 0; i < source.getNumGeometries(); i++) {
+        write(source.getGeometryN(i), gen);
+      }
+      gen.writeEndArray();
+    } else {
+      gen.writeFieldName(GeoJsonConstants.COORDINATES);
+      writeCoordinates(source, gen);
+    }
+    gen.writeEndObject();
+  }
+
+  private static String getGeometryType(Geometry source) {
+    if (source instanceof Point) {
+      return GeoJsonConstants.POINT;
+    }
+    if (source instanceof LineString) {
+      return GeoJsonConstants.LINESTRING;
+    }
+    if (source instanceof Polygon) {
+      return GeoJsonConstants.POLYGON;
+    }
+    if (source instanceof MultiPoint) {
+      return GeoJsonConstants.MULTI_POINT;
+    }
+    if (source instanceof MultiLineString) {
+      return GeoJsonConstants.MULTI_LINESTRING;
+    }
+    if (source instanceof MultiPolygon) {
+      return GeoJsonConstants.MULTI_POLYGON;
+    }
+    if (source instanceof GeometryCollection) {
+      return GeoJsonConstants.GEOMETRY_COLLECTION;
+    }
+    throw new IllegalArgumentException("Geometry [" + source + "] is unsupported. It must be "
+        + "an instance of Point, LineString, Polygon, MultiPoint, MultiLineString, MultiPolygon "
+        + "or GeometryCollection.");
+  }
+
+  private static void writeBoundingBox(Geometry source, JsonGenerator gen) throws IOException {
+    double[] bbox = GeoJsonGeometryFactory.getBoundingBox(source);
+    if (nonNull(bbox)) {
+      gen.writeFieldName(GeoJsonConstants.BBOX);
+      gen.writeArray(bbox, 0, bbox.length);
+    }
+  }
+
+  private void writeCoordinates(Geometry source, JsonGenerator gen) throws IOException {
+    if (source instanceof Point point) {
+      CoordinateSequence sequence = point.getCoordinateSequence();
+      if (sequence.size() > 0) {
+        writeCoordinate(sequence, 0, gen);
+      } else {
+        gen.writeStartArray();
+        gen.writeEndArray();
+      }
+    } else if (source instanceof LineString lineString) {
+      writeCoordinateSequence(lineString.getCoordinateSequence(), gen);
+    } else if (source instanceof Polygon polygon) {
+      gen.writeStartArray();
+      writeCoordinateSequence(polygon.getExteriorRing().getCoordinateSequence(), gen);
+      for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+        writeCoordinateSequence(polygon.getInteriorRingN(i).getCoordinateSequence(), gen);
+      }
+      gen.writeEndArray();
+    } else {
+      gen.writeStartArray();
+      for (int i = 0; i < source.getNumGeometries(); i++) {
+        writeCoordinates(source.getGeometryN(i), gen);
+      }
+      gen.writeEndArray();
+    }
+  }
+
+  private void writeCoordinateSequence(
+      CoordinateSequence sequence,
+      JsonGenerator gen) throws IOException {
+
+    gen.writeStartArray();
+    int size = isNull(sequence) ? 0 : sequence.size();
+    for (int i = 0; i < size; i++) {
+      writeCoordinate(sequence, i, gen);
+    }
+    gen.writeEndArray();
+  }
+
+  private void writeCoordinate(
+      CoordinateSequence sequence,
+      int index,
+      JsonGenerator gen) throws IOException {
+
+    double x = sequence.getX(index);
+    double y = sequence.getY(index);
+    gen.writeStartArray();
+    // Like the coordinate converter, a coordinate with a missing ordinate is an empty array.
+    if (!Double.isNaN(x) && !Double.isNaN(y)) {
+      writeOrdinate(x, gen);
+      writeOrdinate(y, gen);
+    }
+    gen.writeEndArray();
+  }
+
+  private void writeOrdinate(double value, JsonGenerator gen) throws IOException {
+    if (coordinateConverter.isUseBigDecimal()) {
+      gen.writeNumber(coordinateConverter.roundToBigDecimal(value));
+    } else {
+      gen.writeNumber(coordinateConverter.roundToDouble(value));
+    }
+  }
+
+}
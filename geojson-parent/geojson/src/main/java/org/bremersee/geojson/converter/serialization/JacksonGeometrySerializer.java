@@ -24,19 +24,20 @@ import java.io.Serial;
 import org.locationtech.jts.geom.Geometry;
 
 /**
- * A Jackson serializer for a {@link Geometry}.
+ * A Jackson serializer for a {@link Geometry}. The geometry is written directly into the json
+ * generator; the output is the same as the json of the {@link GeometryToJsonConverter}.
  *
  * @author Christian Bremer
  */
 public class JacksonGeometrySerializer extends StdSerializer<Geometry> {
 
   @Serial
-  private static final long serialVersionUID = 3L;
+  private static final long serialVersionUID = 4L;
 
   /**
-   * The geometry to json converter.
+   * The geometry json writer.
    */
-  private final GeometryToJsonConverter converter;
+  private final GeometryJsonWriter writer;
 
   /**
    * Instantiates a new Jackson geometry serializer.
@@ -53,7 +54,7 @@ public class JacksonGeometrySerializer extends StdSerializer<Geometry> {
    */
   public JacksonGeometrySerializer(boolean withBoundingBox, boolean useBigDecimal) {
     super(Geometry.class, false);
-    this.converter = new GeometryToJsonConverter(withBoundingBox, useBigDecimal);
+    this.writer = new GeometryJsonWriter(withBoundingBox, useBigDecimal);
   }
 
   @Override
@@ -63,11 +64,7 @@ public class JacksonGeometrySerializer extends StdSerializer<Geometry> {
       SerializerProvider provider)
       throws IOException {
 
-    if (value == null) {
-      jgen.writeNull();
-    } else {
-      jgen.writeObject(converter.convert(value));
-    }
+    writer.write(value, jgen);
   }
 
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.geojson.converter.serialization;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.locationtech.jts.geom.Coordinate;
+
+/**
+ * The coordinate to list converter test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class CoordinateToListConverterTest {
+
+  /**
+   * Round to double.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void roundToDouble(SoftAssertions softly) {
+    CoordinateToListConverter target = new CoordinateToListConverter(false);
+    softly.assertThat(target.round(8.1))
+        .isEqualTo(8.1);
+    softly.assertThat(target.round(52.123456789))
+        .isEqualTo(52.123456789);
+    softly.assertThat(target.round(8.123456789123))
+        .isEqualTo(8.123456789);
+    softly.assertThat(target.round(-8.1234567895))
+        .isEqualTo(-8.12345679);
+    softly.assertThat(target.round(123456789.123456789))
+        .isEqualTo(123456789.123456789);
+    softly.assertThat(target.round(0.0000000001))
+        .isEqualTo(0.0);
+    softly.assertThat(target.round(Double.NaN))
+        .isNull();
+    softly.assertThat(target.convert(new Coordinate(8.123456789123, 12.0)))
+        .containsExactly(8.123456789, 12.0);
+  }
+
+  /**
+   * Round to big decimal.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void roundToBigDecimal(SoftAssertions softly) {
+    CoordinateToListConverter target = new CoordinateToListConverter(true);
+    softly.assertThat(target.roundToBigDecimal(8.1))
+        .isEqualTo(new BigDecimal("8.1"));
+    softly.assertThat(target.roundToBigDecimal(8.123456789123))
+        .isEqualTo(new BigDecimal("8.123456789"));
+    softly.assertThat(target.roundToBigDecimal(-8.1234567895))
+        .isEqualTo(new BigDecimal("-8.12345679"));
+    softly.assertThat(target.roundToBigDecimal(123456789.123456789))
+        .isEqualTo(new BigDecimal("123456789.12345679"));
+    softly.assertThat(target.roundToBigDecimal(12.0))
+        .isEqualTo(new BigDecimal("12.0"));
+  }
+
+  /**
+   * The values are rounded the same by multiple threads.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void roundConcurrently(SoftAssertions softly) {
+    CoordinateToListConverter target = new CoordinateToListConverter(false);
+    Random random = new Random(42L);
+    double[] values = random.doubles(20_000, -180.0, 180.0).toArray();
+    List<Number> expected = IntStream.range(0, values.length)
+        .mapToObj(i -> target.round(values[i]))
+        .toList();
+    List<Number> actual = IntStream.range(0, values.length)
+        .parallel()
+        .mapToObj(i -> target.round(values[i]))
+        .toList();
+    softly.assertThat(actual)
+        .containsExactlyElementsOf(expected);
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.geojson.converter.serialization;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.util.List;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * The Jackson geometry serializer test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class JacksonGeometrySerializerTest {
+
+  private static final List<String> GEOMETRIES = List.of(
+      "POINT (8.123456789123 52.1)",
+      "POINT Z (8.1 52.1 10.5)",
+      "POINT EMPTY",
+      "LINESTRING (0 0, 1.5 1.25, 123456789.123456789 -0.0000000001)",
+      "LINESTRING EMPTY",
+      "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 2, 1 1))",
+      "MULTIPOINT ((1 2), (3 4))",
+      "MULTILINESTRING ((0 0, 1 1), (2 2, 3 3))",
+      "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), ((5 5, 6 5, 6 6, 5 5)))",
+      "GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (0 0, 1 1), "
+          + "GEOMETRYCOLLECTION (POLYGON ((0 0, 1 0, 1 1, 0 0))))",
+      "GEOMETRYCOLLECTION EMPTY");
+
+  /**
+   * The streamed json is the same as the json of the converter.
+   *
+   * @param softly the softly
+   * @throws Exception the exception
+   */
+  @Test
+  void serialize(SoftAssertions softly) throws Exception {
+    WKTReader reader = new WKTReader();
+    for (boolean withBoundingBox : new boolean[]{false, true}) {
+      for (boolean useBigDecimal : new boolean[]{false, true}) {
+        GeometryToJsonConverter converter = new GeometryToJsonConverter(
+            withBoundingBox, useBigDecimal);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new SimpleModule()
+            .addSerializer(new JacksonGeometrySerializer(withBoundingBox, useBigDecimal)));
+        for (String wkt : GEOMETRIES) {
+          Geometry geometry = reader.read(wkt);
+          softly.assertThat(objectMapper.writeValueAsString(geometry))
+              .as("%s with bbox = %s and big decimal = %s", wkt, withBoundingBox, useBigDecimal)
+              .isEqualTo(new ObjectMapper().writeValueAsString(converter.convert(geometry)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Serialize and expect illegal argument exception.
+   */
+  @Test
+  void serializeAndExpectIllegalArgumentException() {
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new SimpleModule()
+        .addSerializer(new JacksonGeometrySerializer()));
+    assertThatExceptionOfType(JsonMappingException.class)
+        .isThrownBy(() -> objectMapper.writeValueAsString(mock(IllegalGeometry.class)))
+        .withRootCauseInstanceOf(IllegalArgumentException.class);
+  }
+
+  private abstract static class IllegalGeometry extends Geometry {
+
+    /**
+     * Creates a new <code>Geometry</code> via the specified GeometryFactory.
+     *
+     * @param factory the geometry factory
+     */
+    protected IllegalGeometry(GeometryFactory factory) {
+      super(factory);
+    }
+  }
+
+}
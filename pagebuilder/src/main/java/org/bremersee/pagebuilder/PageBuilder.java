@@ -18,10 +18,12 @@ package org.bremersee.pagebuilder;
 
 import static java.util.Objects.requireNonNullElse;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
@@ -31,7 +33,11 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.KeyExtractingSorter;
+import org.bremersee.comparator.KeyExtractingSorterFactory;
+import org.bremersee.comparator.TopKSelector;
 import org.bremersee.comparator.ValueComparator;
+import org.bremersee.comparator.ValueExtractor;
 import org.bremersee.comparator.model.SortOrder;
 import org.bremersee.comparator.model.SortOrderItem;
 import org.bremersee.comparator.spring.mapper.SortMapper;
@@ -39,7 +45,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.util.ObjectUtils;
 
 /**
@@ -51,6 +56,11 @@ import org.springframework.util.ObjectUtils;
  */
 public class PageBuilder<S, T> {
 
+  /**
+   * The default partial sort limit.
+   */
+  public static final int DEFAULT_PARTIAL_SORT_LIMIT = 10_000;
+
   private Stream<? extends S> sourceEntries;
 
   private Predicate<S> sourceFilter;
@@ -71,18 +81,23 @@ public class PageBuilder<S, T> {
 
   private Function<SortOrderItem, Comparator<?>> targetSortFn;
 
+  private Locale locale;
+
+  private KeyExtractingSorterFactory sorterFactory = new KeyExtractingSorterFactory();
+
+  private Integer partialSortLimit;
+
   /**
    * Instantiates a new page builder.
    */
   public PageBuilder() {
     sourceFilter = sourceEntry -> true;
     //noinspection unchecked
-    sourceSortFn = cf -> (Comparator<S>) new ValueComparator(cf);
+    sourceSortFn = cf -> (Comparator<S>) new ValueComparator(cf, null, locale);
     //noinspection unchecked
     converter = e -> (T) e;
-    targetFilter = targetEntry -> true;
     //noinspection unchecked
-    targetSortFn = cf -> (Comparator<T>) new ValueComparator(cf);
+    targetSortFn = cf -> (Comparator<T>) new ValueComparator(cf, null, locale);
   }
 
   /**
@@ -302,38 +317,123 @@ public class PageBuilder<S, T> {
     return this;
   }
 
+  /**
+   * Sets the locale of the default source and target sort functions to the page builder. If a
+   * locale is set, strings are sorted with the collator of this locale (see
+   * {@link ValueComparator#ValueComparator(SortOrderItem, ValueExtractor, Locale)}). This has no
+   * effect on custom sort functions.
+   *
+   * @param locale the locale
+   * @return the page builder
+   */
+  public PageBuilder<S, T> locale(Locale locale) {
+    this.locale = locale;
+    return this;
+  }
+
+  /**
+   * Sets the parallel sort threshold to the page builder. Entries are sorted in parallel, if
+   * there are at least as many entries as the threshold and all comparators are thread-safe. If
+   * no threshold is set, the default threshold is used (see
+   * {@link KeyExtractingSorter#DEFAULT_PARALLEL_THRESHOLD}).
+   *
+   * @param parallelSortThreshold the parallel sort threshold
+   * @return the page builder
+   */
+  public PageBuilder<S, T> parallelSortThreshold(Integer parallelSortThreshold) {
+    this.sorterFactory = Objects.isNull(parallelSortThreshold)
+        ? new KeyExtractingSorterFactory()
+        : new KeyExtractingSorterFactory(parallelSortThreshold);
+    return this;
+  }
+
+  /**
+   * Sets the sorter factory to the page builder, that creates the sorters with the parallel sort
+   * threshold of the application (for example the bean of the sort order autoconfiguration).
+   *
+   * @param sorterFactory the sorter factory
+   * @return the page builder
+   */
+  public PageBuilder<S, T> sorterFactory(KeyExtractingSorterFactory sorterFactory) {
+    if (!Objects.isNull(sorterFactory)) {
+      this.sorterFactory = sorterFactory;
+    }
+    return this;
+  }
+
+  /**
+   * Sets the partial sort limit to the page builder. If the target entries are sorted and the
+   * end of the requested page ({@code (pageNumber + 1) * pageSize}) is not greater than this
+   * limit, the target entries are not sorted completely: only the entries up to the end of the
+   * requested page are kept in a bounded buffer (see {@link TopKSelector}) and the other entries
+   * are only counted. If no limit is set, {@link #DEFAULT_PARTIAL_SORT_LIMIT} is used; a limit of
+   * {@code 0} disables the partial sort.
+   *
+   * @param partialSortLimit the partial sort limit
+   * @return the page builder
+   */
+  public PageBuilder<S, T> partialSortLimit(Integer partialSortLimit) {
+    this.partialSortLimit = partialSortLimit;
+    return this;
+  }
+
   /**
    * Builds the page.
    *
+   * <p>Only the target entries, that are sorted, are completely materialized. If the entries are
+   * not sorted or if the source entries are sorted, the target entries are filtered, counted and
+   * collected in one pass and only the entries of the requested page are retained. Without a
+   * target filter, only the source entries of the requested page are converted.
+   *
    * @return the page
    */
   public Page<T> build() {
+    final int limit = requireNonNullElse(partialSortLimit, DEFAULT_PARTIAL_SORT_LIMIT);
     //noinspection unchecked
-    final List<S> source = ((Stream<S>) requireNonNullElse(this.sourceEntries, Stream.empty()))
-        .filter(sourceFilter)
-        .collect(Collectors.toList());
-    if (SortTarget.SOURCE_ENTRIES.equals(sortTarget) && !ObjectUtils.isEmpty(sort)) {
-      source.sort(ComparatorBuilder.newInstance()
-          .addAll(sort, sourceSortFn)
-          .build());
+    final Stream<S> sourceStream = ((Stream<S>) requireNonNullElse(
+        this.sourceEntries, Stream.empty()))
+        .filter(sourceFilter);
+    final int number = requireNonNullElse(pageNumber, 0);
+    final int size = requireNonNullElse(pageSize, Integer.MAX_VALUE);
+    final long pageEnd = (number + 1L) * size;
+    if (ObjectUtils.isEmpty(sort) || Objects.isNull(sortTarget)) {
+      return buildStreamed(sourceStream, PageRequest.of(number, size));
     }
-    final List<T> target = source.stream()
-        .map(converter)
-        .filter(targetFilter)
-        .collect(Collectors.toList());
-    final Sort pageSort;
-    if (SortTarget.TARGET_ENTRIES.equals(sortTarget) && !ObjectUtils.isEmpty(sort)) {
-      target.sort(ComparatorBuilder.newInstance()
-          .addAll(sort, targetSortFn)
-          .build());
-      pageSort = SortMapper.defaultSortMapper().toSort(new SortOrder(sort));
-    } else {
-      pageSort = Sort.unsorted();
+    if (SortTarget.SOURCE_ENTRIES.equals(sortTarget)) {
+      final KeyExtractingSorter<S> sorter = sorterFactory.createSorter(
+          ComparatorBuilder.newInstance().addAll(sort, sourceSortFn));
+      if (Objects.isNull(targetFilter) && pageEnd <= limit) {
+        final TopKSelector<S> selector = sorter.topKSelector((int) pageEnd);
+        sourceStream.forEach(selector);
+        final Pageable pageable = PageRequest.of(number, size);
+        final List<T> content = selector.getResult().stream()
+            .skip(pageable.getOffset())
+            .map(converter)
+            .toList();
+        return new PageImpl<>(content, pageable, selector.getCount());
+      }
+      final List<S> source = sourceStream.collect(Collectors.toList());
+      sorter.sort(source);
+      return buildStreamed(source.stream(), PageRequest.of(number, size));
     }
 
-    int number = requireNonNullElse(pageNumber, 0);
-    int size = requireNonNullElse(pageSize, Integer.MAX_VALUE);
-    final Pageable pageable = PageRequest.of(number, size, pageSort);
+    final KeyExtractingSorter<T> sorter = sorterFactory.createSorter(
+        ComparatorBuilder.newInstance().addAll(sort, targetSortFn));
+    final Pageable pageable = PageRequest.of(
+        number, size, SortMapper.defaultSortMapper().toSort(new SortOrder(sort)));
+    final Stream<T> targetStream = sourceStream
+        .map(converter)
+        .filter(requireNonNullElse(targetFilter, targetEntry -> true));
+    if (pageEnd <= limit) {
+      final TopKSelector<T> selector = sorter.topKSelector((int) pageEnd);
+      targetStream.forEach(selector);
+      final List<T> content = selector.getResult().stream()
+          .skip(pageable.getOffset())
+          .toList();
+      return new PageImpl<>(content, pageable, selector.getCount());
+    }
+    final List<T> target = targetStream.collect(Collectors.toList());
+    sorter.sort(target);
     final List<T> content = target.stream()
         .skip(pageable.getOffset())
         .limit(pageable.getPageSize())
@@ -341,6 +441,41 @@ public class PageBuilder<S, T> {
     return new PageImpl<>(content, pageable, target.size());
   }
 
+  /**
+   * Converts, filters and counts the source entries in one pass and keeps only the target entries
+   * of the requested page. Without a target filter, only the source entries of the requested page
+   * are converted.
+   *
+   * @param sourceStream the filtered (and sorted) source entries
+   * @param pageable the page request
+   * @return the page
+   */
+  private Page<T> buildStreamed(Stream<S> sourceStream, Pageable pageable) {
+    final long offset = pageable.getOffset();
+    final long end = offset + pageable.getPageSize();
+    final List<T> content = new ArrayList<>();
+    long total = 0;
+    final Iterator<S> iterator = sourceStream.iterator();
+    while (iterator.hasNext()) {
+      S sourceEntry = iterator.next();
+      if (Objects.isNull(targetFilter)) {
+        if (total >= offset && total < end) {
+          content.add(converter.apply(sourceEntry));
+        }
+        total++;
+      } else {
+        T targetEntry = converter.apply(sourceEntry);
+        if (targetFilter.test(targetEntry)) {
+          if (total >= offset && total < end) {
+            content.add(targetEntry);
+          }
+          total++;
+        }
+      }
+    }
+    return new PageImpl<>(content, pageable, total);
+  }
+
   /**
    * The sort target.
    */
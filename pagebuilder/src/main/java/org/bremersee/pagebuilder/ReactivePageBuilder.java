@@ -0,0 +1,560 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.pagebuilder;
+
+import static java.util.Objects.requireNonNullElse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.KeyExtractingSorter;
+import org.bremersee.comparator.KeyExtractingSorterFactory;
+import org.bremersee.comparator.TopKSelector;
+import org.bremersee.comparator.ValueComparator;
+import org.bremersee.comparator.model.SortOrder;
+import org.bremersee.comparator.model.SortOrderItem;
+import org.bremersee.comparator.spring.mapper.SortMapper;
+import org.bremersee.pagebuilder.PageBuilder.SortTarget;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ObjectUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive page builder builds a page (or a slice) from a {@link Flux} of source entries. It
+ * works like the {@link PageBuilder}, but the source entries are consumed reactively and the
+ * converter can be asynchronous. Asynchronous conversions run with bounded concurrency (see
+ * {@link #concurrency(int)}) and keep the order of the source entries.
+ *
+ * <p>Like the {@link PageBuilder}, only the entries of the requested page are retained, if the
+ * entries are not sorted or if the target entries can be selected with a bounded buffer (see
+ * {@link #partialSortLimit(Integer)}). Without a target filter, only the source entries of the
+ * requested page are converted.
+ *
+ * <p>The converter must return exactly one target entry for each source entry, because the total
+ * number of entries may be counted before the conversion. A conversion without a target entry is
+ * signalled as an {@link IllegalStateException}; entries are removed with a target filter.
+ *
+ * @param <S> the source type
+ * @param <T> the target type
+ * @author Christian Bremer
+ */
+public class ReactivePageBuilder<S, T> {
+
+  /**
+   * The default concurrency of the asynchronous converter.
+   */
+  public static final int DEFAULT_CONCURRENCY = 16;
+
+  private Flux<? extends S> sourceEntries;
+
+  private Predicate<S> sourceFilter;
+
+  private Function<SortOrderItem, Comparator<?>> sourceSortFn;
+
+  private Integer pageNumber;
+
+  private Integer pageSize;
+
+  private List<SortOrderItem> sort;
+
+  private SortTarget sortTarget;
+
+  private Function<S, ? extends Publisher<? extends T>> converter;
+
+  private int concurrency = DEFAULT_CONCURRENCY;
+
+  private Predicate<T> targetFilter;
+
+  private Function<SortOrderItem, Comparator<?>> targetSortFn;
+
+  private Locale locale;
+
+  private KeyExtractingSorterFactory sorterFactory = new KeyExtractingSorterFactory();
+
+  private Integer partialSortLimit;
+
+  /**
+   * Instantiates a new reactive page builder.
+   */
+  public ReactivePageBuilder() {
+    sourceFilter = sourceEntry -> true;
+    //noinspection unchecked
+    sourceSortFn = cf -> (Comparator<S>) new ValueComparator(cf, null, locale);
+    //noinspection unchecked
+    converter = e -> Mono.just((T) e);
+    //noinspection unchecked
+    targetSortFn = cf -> (Comparator<T>) new ValueComparator(cf, null, locale);
+  }
+
+  /**
+   * Sets source entries to the page builder.
+   *
+   * @param entries the entries
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> sourceEntries(Flux<? extends S> entries) {
+    if (!Objects.isNull(entries)) {
+      this.sourceEntries = entries;
+    }
+    return this;
+  }
+
+  /**
+   * Sets source filter to the page builder.
+   *
+   * @param sourceFilter the source filter
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> sourceFilter(Predicate<S> sourceFilter) {
+    if (!Objects.isNull(sourceFilter)) {
+      this.sourceFilter = sourceFilter;
+    }
+    return this;
+  }
+
+  /**
+   * Sets source sort function to the page builder.
+   *
+   * @param sourceSortFn the source sort function
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> sourceSortFn(
+      Function<SortOrderItem, Comparator<?>> sourceSortFn) {
+    if (!Objects.isNull(sourceSortFn)) {
+      this.sourceSortFn = sourceSortFn;
+    }
+    return this;
+  }
+
+  /**
+   * Sets pageable to the page builder.
+   *
+   * @param pageable the pageable
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> pageable(Pageable pageable) {
+    return pageable(pageable, SortTarget.TARGET_ENTRIES);
+  }
+
+  /**
+   * Sets pageable to the page builder.
+   *
+   * @param pageable the pageable
+   * @param sortTarget the sort target
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> pageable(Pageable pageable, SortTarget sortTarget) {
+    if (!Objects.isNull(pageable)) {
+      return pageable(
+          pageable.getPageNumber(),
+          pageable.getPageSize(),
+          sortTarget,
+          SortMapper.defaultSortMapper().fromSort(pageable.getSort()).getItems());
+    }
+    return this;
+  }
+
+  /**
+   * Sets pageable to the page builder.
+   *
+   * @param pageNumber the page number
+   * @param pageSize the page size
+   * @param sort the sort
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> pageable(
+      Integer pageNumber,
+      Integer pageSize,
+      SortOrderItem... sort) {
+    return pageable(
+        pageNumber,
+        pageSize,
+        SortTarget.TARGET_ENTRIES,
+        Objects.isNull(sort) ? null : Arrays.asList(sort));
+  }
+
+  /**
+   * Sets pageable to the page builder.
+   *
+   * @param pageNumber the page number
+   * @param pageSize the page size
+   * @param sortTarget the sort target
+   * @param sort the sort
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> pageable(
+      Integer pageNumber,
+      Integer pageSize,
+      SortTarget sortTarget,
+      List<SortOrderItem> sort) {
+
+    Pageable pageable = PageRequest.of(pageNumber, pageSize);
+    this.pageNumber = pageable.getPageNumber();
+    this.pageSize = pageable.getPageSize();
+    this.sort = sort;
+    if (ObjectUtils.isEmpty(this.sort)) {
+      this.sortTarget = null;
+    } else {
+      this.sortTarget = requireNonNullElse(sortTarget, SortTarget.TARGET_ENTRIES);
+    }
+    return this;
+  }
+
+  /**
+   * Sets entry converter to the page builder. The converter must not return {@code null}; use a
+   * target filter to remove entries.
+   *
+   * @param converter the entry converter
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> converter(Function<S, T> converter) {
+    if (!Objects.isNull(converter)) {
+      this.converter = e -> Mono.justOrEmpty(converter.apply(e));
+    }
+    return this;
+  }
+
+  /**
+   * Sets an asynchronous entry converter to the page builder. The conversions run with the
+   * concurrency of {@link #concurrency(int)}, but the order of the entries is kept. The publisher
+   * of the converter must emit one target entry; only the first one is used.
+   *
+   * @param converter the asynchronous entry converter
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> asyncConverter(
+      Function<S, ? extends Publisher<? extends T>> converter) {
+    if (!Objects.isNull(converter)) {
+      this.converter = converter;
+    }
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of concurrent conversions to the page builder. The default is
+   * {@link #DEFAULT_CONCURRENCY}.
+   *
+   * @param concurrency the concurrency
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> concurrency(int concurrency) {
+    if (concurrency > 0) {
+      this.concurrency = concurrency;
+    }
+    return this;
+  }
+
+  /**
+   * Sets target filter to the page builder.
+   *
+   * @param targetFilter the target filter
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> targetFilter(Predicate<T> targetFilter) {
+    if (!Objects.isNull(targetFilter)) {
+      this.targetFilter = targetFilter;
+    }
+    return this;
+  }
+
+  /**
+   * Sets target sort function to the page builder.
+   *
+   * @param targetSortFn the target sort function
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> targetSortFn(
+      Function<SortOrderItem, Comparator<?>> targetSortFn) {
+    if (!Objects.isNull(targetSortFn)) {
+      this.targetSortFn = targetSortFn;
+    }
+    return this;
+  }
+
+  /**
+   * Sets the locale of the default source and target sort functions to the page builder (see
+   * {@link PageBuilder#locale(Locale)}).
+   *
+   * @param locale the locale
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> locale(Locale locale) {
+    this.locale = locale;
+    return this;
+  }
+
+  /**
+   * Sets the parallel sort threshold to the page builder (see
+   * {@link PageBuilder#parallelSortThreshold(Integer)}).
+   *
+   * @param parallelSortThreshold the parallel sort threshold
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> parallelSortThreshold(Integer parallelSortThreshold) {
+    this.sorterFactory = Objects.isNull(parallelSortThreshold)
+        ? new KeyExtractingSorterFactory()
+        : new KeyExtractingSorterFactory(parallelSortThreshold);
+    return this;
+  }
+
+  /**
+   * Sets the sorter factory to the page builder (see
+   * {@link PageBuilder#sorterFactory(KeyExtractingSorterFactory)}).
+   *
+   * @param sorterFactory the sorter factory
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> sorterFactory(KeyExtractingSorterFactory sorterFactory) {
+    if (!Objects.isNull(sorterFactory)) {
+      this.sorterFactory = sorterFactory;
+    }
+    return this;
+  }
+
+  /**
+   * Sets the partial sort limit to the page builder (see
+   * {@link PageBuilder#partialSortLimit(Integer)}).
+   *
+   * @param partialSortLimit the partial sort limit
+   * @return the page builder
+   */
+  public ReactivePageBuilder<S, T> partialSortLimit(Integer partialSortLimit) {
+    this.partialSortLimit = partialSortLimit;
+    return this;
+  }
+
+  /**
+   * Builds the page. All source entries are consumed to count the total number of entries.
+   *
+   * @return the page
+   */
+  public Mono<Page<T>> build() {
+    final Pageable pageable = pageRequest();
+    final long offset = pageable.getOffset();
+    final long pageEnd = offset + pageable.getPageSize();
+    final Flux<S> sourceFlux = sourceFlux();
+    if (isSorted(SortTarget.TARGET_ENTRIES)) {
+      return selectSortedTargetEntries(sourceFlux, pageEnd)
+          .<Page<T>>map(window -> new PageImpl<>(
+              window.content.stream().skip(offset).toList(),
+              pageable,
+              window.total));
+    }
+    if (isSorted(SortTarget.SOURCE_ENTRIES)) {
+      if (Objects.isNull(targetFilter) && pageEnd <= partialSortLimit()) {
+        return sourceFlux
+            .collect(() -> sourceSorter().topKSelector((int) pageEnd), TopKSelector::accept)
+            .flatMap(selector -> convert(Flux.fromIterable(selector.getResult()).skip(offset))
+                .collectList()
+                .<Page<T>>map(content -> new PageImpl<>(content, pageable, selector.getCount())));
+      }
+      return sortedSourceFlux(sourceFlux)
+          .as(flux -> buildWindow(flux, pageable));
+    }
+    return buildWindow(sourceFlux, pageable);
+  }
+
+  /**
+   * Builds a slice. Unless the entries have to be sorted, the source entries are only consumed,
+   * until the entries of the slice and one lookahead entry, that determines whether there is a
+   * next slice, are found.
+   *
+   * @return the slice
+   */
+  public Mono<Slice<T>> buildSlice() {
+    final Pageable pageable = pageRequest();
+    final long offset = pageable.getOffset();
+    final int size = pageable.getPageSize();
+    final long sliceEnd = offset + size + 1L;
+    final Flux<S> sourceFlux = sourceFlux();
+    if (isSorted(SortTarget.TARGET_ENTRIES)) {
+      return selectSortedTargetEntries(sourceFlux, sliceEnd)
+          .map(window -> toSlice(
+              window.content.stream().skip(offset).toList(), pageable));
+    }
+    final Flux<S> orderedSourceFlux = isSorted(SortTarget.SOURCE_ENTRIES)
+        ? sortedSourceFlux(sourceFlux)
+        : sourceFlux;
+    if (Objects.isNull(targetFilter)) {
+      return orderedSourceFlux
+          .skip(offset)
+          .take(size + 1L)
+          .collectList()
+          .flatMap(entries -> convert(Flux.fromIterable(entries).take(size))
+              .collectList()
+              .<Slice<T>>map(content -> new SliceImpl<>(content, pageable, entries.size() > size)));
+    }
+    return convert(orderedSourceFlux)
+        .filter(targetFilter)
+        .skip(offset)
+        .take(size + 1L)
+        .collectList()
+        .map(content -> toSlice(content, pageable));
+  }
+
+  private Pageable pageRequest() {
+    final int number = requireNonNullElse(pageNumber, 0);
+    final int size = requireNonNullElse(pageSize, Integer.MAX_VALUE);
+    final Sort pageSort = isSorted(SortTarget.TARGET_ENTRIES)
+        ? SortMapper.defaultSortMapper().toSort(new SortOrder(sort))
+        : Sort.unsorted();
+    return PageRequest.of(number, size, pageSort);
+  }
+
+  private boolean isSorted(SortTarget target) {
+    return !ObjectUtils.isEmpty(sort) && target.equals(sortTarget);
+  }
+
+  private int partialSortLimit() {
+    return requireNonNullElse(partialSortLimit, PageBuilder.DEFAULT_PARTIAL_SORT_LIMIT);
+  }
+
+  private Flux<S> sourceFlux() {
+    //noinspection unchecked
+    return ((Flux<S>) requireNonNullElse(sourceEntries, Flux.empty()))
+        .filter(sourceFilter);
+  }
+
+  private KeyExtractingSorter<S> sourceSorter() {
+    return sorterFactory.createSorter(ComparatorBuilder.newInstance()
+        .addAll(sort, sourceSortFn));
+  }
+
+  private KeyExtractingSorter<T> targetSorter() {
+    return sorterFactory.createSorter(ComparatorBuilder.newInstance()
+        .addAll(sort, targetSortFn));
+  }
+
+  private Flux<S> sortedSourceFlux(Flux<S> sourceFlux) {
+    return sourceFlux
+        .collectList()
+        .flatMapIterable(source -> {
+          List<S> list = new ArrayList<>(source);
+          sourceSorter().sort(list);
+          return list;
+        });
+  }
+
+  private Flux<T> convert(Flux<S> sourceFlux) {
+    return sourceFlux.flatMapSequential(
+        sourceEntry -> Mono.<T>from(converter.apply(sourceEntry))
+            .switchIfEmpty(Mono.error(() -> new IllegalStateException(String.format(
+                "The converter returned no target entry for source entry %s.", sourceEntry)))),
+        concurrency);
+  }
+
+  private Flux<T> convertAndFilter(Flux<S> sourceFlux) {
+    Flux<T> targetFlux = convert(sourceFlux);
+    return Objects.isNull(targetFilter) ? targetFlux : targetFlux.filter(targetFilter);
+  }
+
+  /**
+   * Sorts the target entries and keeps the first {@code limit} of them.
+   */
+  private Mono<Window<T>> selectSortedTargetEntries(Flux<S> sourceFlux, long limit) {
+    if (limit <= partialSortLimit()) {
+      return convertAndFilter(sourceFlux)
+          .collect(() -> targetSorter().topKSelector((int) limit), TopKSelector::accept)
+          .map(selector -> new Window<>(selector.getResult(), selector.getCount()));
+    }
+    return convertAndFilter(sourceFlux)
+        .collectList()
+        .map(target -> {
+          List<T> list = new ArrayList<>(target);
+          targetSorter().sort(list);
+          return new Window<>(list.stream().limit(limit).toList(), list.size());
+        });
+  }
+
+  /**
+   * Converts, filters and counts the source entries and keeps only the target entries of the
+   * requested page. Without a target filter, only the source entries of the requested page are
+   * converted.
+   */
+  private Mono<Page<T>> buildWindow(Flux<S> sourceFlux, Pageable pageable) {
+    final long offset = pageable.getOffset();
+    final long end = offset + pageable.getPageSize();
+    if (Objects.isNull(targetFilter)) {
+      return sourceFlux
+          .collect(() -> new Window<S>(offset, end), Window::add)
+          .flatMap(window -> convert(Flux.fromIterable(window.content))
+              .collectList()
+              .<Page<T>>map(content -> new PageImpl<>(content, pageable, window.total)));
+    }
+    return convertAndFilter(sourceFlux)
+        .collect(() -> new Window<T>(offset, end), Window::add)
+        .<Page<T>>map(window -> new PageImpl<>(window.content, pageable, window.total));
+  }
+
+  private Slice<T> toSlice(List<T> content, Pageable pageable) {
+    final int size = pageable.getPageSize();
+    return content.size() > size
+        ? new SliceImpl<>(content.subList(0, size), pageable, true)
+        : new SliceImpl<>(content, pageable, false);
+  }
+
+  /**
+   * The entries of a page window and the total number of entries.
+   *
+   * @param <E> the type of the entries
+   */
+  private static class Window<E> {
+
+    private final long offset;
+
+    private final long end;
+
+    private final List<E> content;
+
+    private long total;
+
+    private Window(long offset, long end) {
+      this.offset = offset;
+      this.end = end;
+      this.content = new ArrayList<>();
+    }
+
+    private Window(List<E> content, long total) {
+      this.offset = 0;
+      this.end = content.size();
+      this.content = content;
+      this.total = total;
+    }
+
+    private void add(E entry) {
+      if (total >= offset && total < end) {
+        content.add(entry);
+      }
+      total++;
+    }
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.pagebuilder.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
+import org.bremersee.comparator.spring.keyset.Keyset;
+import org.springframework.data.domain.Slice;
+
+/**
+ * The json slice data transfer object of a keyset (seek) pagination. Besides the content it
+ * carries the opaque cursor tokens of the next and the previous slice (see {@link Keyset}).
+ *
+ * @param <T> the content type
+ * @author Christian Bremer
+ */
+@Setter(AccessLevel.PROTECTED)
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@Schema(description = "The keyset slice for json deserialization.")
+public abstract class JsonKeysetSliceDto<T> extends JsonSliceDto<T> {
+
+  @Serial
+  private static final long serialVersionUID = 1;
+
+  /**
+   * The cursor of the next slice.
+   */
+  private String nextCursor;
+
+  /**
+   * The cursor of the previous slice.
+   */
+  private String previousCursor;
+
+  /**
+   * Instantiates a new keyset slice data transfer object.
+   */
+  protected JsonKeysetSliceDto() {
+  }
+
+  /**
+   * Instantiates a new keyset slice data transfer object.
+   *
+   * @param slice the slice
+   * @param nextCursor the cursor of the next slice
+   * @param previousCursor the cursor of the previous slice
+   */
+  protected JsonKeysetSliceDto(
+      Slice<? extends T> slice,
+      String nextCursor,
+      String previousCursor) {
+    super(slice);
+    this.nextCursor = nextCursor;
+    this.previousCursor = previousCursor;
+  }
+
+  /**
+   * Instantiates a new keyset slice data transfer object. The cursor of the next slice is created
+   * from the last entry of the content, if the slice has a next slice; the cursor of the previous
+   * slice is created from the first entry of the content, if the previous slice is available.
+   *
+   * @param slice the slice
+   * @param keyset the keyset
+   * @param previousAvailable specifies whether a previous slice is available
+   */
+  protected JsonKeysetSliceDto(
+      Slice<? extends T> slice,
+      Keyset keyset,
+      boolean previousAvailable) {
+    super(slice);
+    List<? extends T> content = slice.getContent();
+    if (!content.isEmpty()) {
+      this.nextCursor = slice.hasNext()
+          ? keyset.tokenOf(content.get(content.size() - 1))
+          : null;
+      this.previousCursor = previousAvailable
+          ? keyset.tokenOf(content.get(0))
+          : null;
+    }
+  }
+
+  /**
+   * Gets the cursor of the next slice.
+   *
+   * @return the cursor of the next slice (can be {@code null})
+   */
+  @Schema(description = "The cursor of the next slice.")
+  @JsonProperty("nextCursor")
+  @JsonInclude(Include.NON_NULL)
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  /**
+   * Gets the cursor of the previous slice.
+   *
+   * @return the cursor of the previous slice (can be {@code null})
+   */
+  @Schema(description = "The cursor of the previous slice.")
+  @JsonProperty("previousCursor")
+  @JsonInclude(Include.NON_NULL)
+  public String getPreviousCursor() {
+    return previousCursor;
+  }
+
+}
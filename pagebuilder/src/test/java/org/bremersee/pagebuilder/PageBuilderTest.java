@@ -18,9 +18,16 @@ package org.bremersee.pagebuilder;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.assertj.core.api.SoftAssertions;
 import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.comparator.ComparatorBuilder;
+import org.bremersee.comparator.KeyExtractingSorter;
+import org.bremersee.comparator.KeyExtractingSorterFactory;
 import org.bremersee.comparator.ValueComparator;
 import org.bremersee.comparator.model.SortOrderItem;
 import org.bremersee.comparator.model.SortOrderItem.CaseHandling;
@@ -106,6 +113,171 @@ class PageBuilderTest {
         .isEqualTo(Sort.unsorted()); // sorting of source entries is not put into the page
   }
 
+  /**
+   * Locale.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void locale(SoftAssertions softly) {
+    List<Address> entries = List.of(
+        new Address("Zürich"),
+        new Address("Örebro"),
+        new Address("Aachen"),
+        new Address("Oslo"),
+        new Address("Äsch"));
+    Page<Address> actual = new PageBuilder<Address, Address>()
+        .sourceEntries(entries)
+        .pageable(0, 10, SortOrderItem.by("city"))
+        .locale(Locale.GERMAN)
+        .build();
+    softly.assertThat(actual)
+        .containsExactly(
+            new Address("Aachen"),
+            new Address("Äsch"),
+            new Address("Örebro"),
+            new Address("Oslo"),
+            new Address("Zürich"));
+
+    actual = new PageBuilder<Address, Address>()
+        .sourceEntries(entries)
+        .pageable(0, 10, SortOrderItem.by("city"))
+        .build();
+    softly.assertThat(actual)
+        .containsExactly(
+            new Address("Aachen"),
+            new Address("Oslo"),
+            new Address("Zürich"),
+            new Address("Äsch"),
+            new Address("Örebro"));
+  }
+
+  /**
+   * Partial sort of the target entries.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void partialSortLimit(SoftAssertions softly) {
+    Random random = new Random(3L);
+    List<Address> entries = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      entries.add(new Address("City " + random.nextInt(100)));
+    }
+    for (int number = 0; number < 4; number++) {
+      Page<Address> expected = new PageBuilder<Address, Address>()
+          .sourceEntries(entries)
+          .targetFilter(address -> !address.getCity().endsWith("7"))
+          .pageable(number, 25, SortOrderItem.by("city").with(SortOrderItem.Direction.DESC))
+          .partialSortLimit(0)
+          .build();
+      Page<Address> actual = new PageBuilder<Address, Address>()
+          .sourceEntries(entries)
+          .targetFilter(address -> !address.getCity().endsWith("7"))
+          .pageable(number, 25, SortOrderItem.by("city").with(SortOrderItem.Direction.DESC))
+          .build();
+      softly.assertThat(actual.getContent())
+          .containsExactlyElementsOf(expected.getContent());
+      softly.assertThat(actual.getTotalElements())
+          .isEqualTo(expected.getTotalElements());
+      softly.assertThat(actual.getSort())
+          .isEqualTo(expected.getSort());
+    }
+  }
+
+  /**
+   * Sorter factory creates the sorters of the page builder.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void sorterFactory(SoftAssertions softly) {
+    List<Integer> thresholds = new ArrayList<>();
+    KeyExtractingSorterFactory sorterFactory = new KeyExtractingSorterFactory(2) {
+      @Override
+      public <E> KeyExtractingSorter<E> createSorter(ComparatorBuilder comparatorBuilder) {
+        KeyExtractingSorter<E> sorter = super.createSorter(comparatorBuilder);
+        thresholds.add(sorter.getParallelThreshold());
+        return sorter;
+      }
+    };
+    Random random = new Random(9L);
+    List<Address> entries = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      entries.add(new Address("City " + random.nextInt(100)));
+    }
+    for (SortTarget sortTarget : SortTarget.values()) {
+      Page<Address> expected = new PageBuilder<Address, Address>()
+          .sourceEntries(entries)
+          .pageable(1, 10, sortTarget, List.of(SortOrderItem.by("city")))
+          .partialSortLimit(0)
+          .build();
+      Page<Address> actual = new PageBuilder<Address, Address>()
+          .sourceEntries(entries)
+          .pageable(1, 10, sortTarget, List.of(SortOrderItem.by("city")))
+          .partialSortLimit(0)
+          .sorterFactory(sorterFactory)
+          .build();
+      softly.assertThat(actual.getContent())
+          .containsExactlyElementsOf(expected.getContent());
+    }
+    softly.assertThat(thresholds)
+        .containsExactly(2, 2);
+  }
+
+  /**
+   * Converter is only called for the entries of the page, if there is no target filter.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void converterIsOnlyCalledForPageEntries(SoftAssertions softly) {
+    List<Integer> entries = List.of(9, 3, 7, 1, 5, 8, 2, 6, 4, 10);
+    AtomicInteger conversions = new AtomicInteger();
+    Page<String> actual = new PageBuilder<Integer, String>()
+        .sourceEntries(entries)
+        .converter(entry -> {
+          conversions.incrementAndGet();
+          return String.valueOf(entry);
+        })
+        .pageable(1, 3)
+        .build();
+    softly.assertThat(actual.getContent())
+        .containsExactly("1", "5", "8");
+    softly.assertThat(actual.getTotalElements())
+        .isEqualTo(10);
+    softly.assertThat(conversions)
+        .hasValue(3);
+
+    conversions.set(0);
+    actual = new PageBuilder<Integer, String>()
+        .sourceEntries(entries)
+        .converter(entry -> {
+          conversions.incrementAndGet();
+          return String.valueOf(entry);
+        })
+        .pageable(1, 3, SortTarget.SOURCE_ENTRIES, SortOrderItem.by(null))
+        .build();
+    softly.assertThat(actual.getContent())
+        .containsExactly("4", "5", "6");
+    softly.assertThat(actual.getTotalElements())
+        .isEqualTo(10);
+    softly.assertThat(conversions)
+        .hasValue(3);
+
+    actual = new PageBuilder<Integer, String>()
+        .sourceEntries(entries)
+        .converter(String::valueOf)
+        .targetFilter(entry -> !entry.equals("5"))
+        .pageable(1, 3, SortTarget.SOURCE_ENTRIES, SortOrderItem.by(null))
+        .partialSortLimit(0)
+        .build();
+    softly.assertThat(actual.getContent())
+        .containsExactly("4", "6", "7");
+    softly.assertThat(actual.getTotalElements())
+        .isEqualTo(9);
+  }
+
   /**
    * Pageable.
    *
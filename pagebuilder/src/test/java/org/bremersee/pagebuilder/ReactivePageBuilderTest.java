@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.pagebuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.comparator.model.SortOrderItem;
+import org.bremersee.comparator.model.SortOrderItem.Direction;
+import org.bremersee.pagebuilder.PageBuilder.SortTarget;
+import org.bremersee.pagebuilder.testmodel.Address;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.domain.Page;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The reactive page builder test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class ReactivePageBuilderTest {
+
+  /**
+   * Build pages like the page builder.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void buildLikePageBuilder(SoftAssertions softly) {
+    Random random = new Random(13L);
+    List<Address> entries = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      entries.add(new Address("City " + random.nextInt(50)));
+    }
+    for (SortTarget sortTarget : SortTarget.values()) {
+      for (int number = 0; number < 3; number++) {
+        for (Integer partialSortLimit : new Integer[]{null, 0}) {
+          Page<Address> expected = new PageBuilder<Address, Address>()
+              .sourceEntries(entries)
+              .sourceFilter(address -> !address.getCity().endsWith("3"))
+              .targetFilter(address -> !address.getCity().endsWith("7"))
+              .pageable(number, 40, sortTarget, SortOrderItem.by("city").with(Direction.DESC))
+              .partialSortLimit(partialSortLimit)
+              .build();
+          Page<Address> actual = new ReactivePageBuilder<Address, Address>()
+              .sourceEntries(Flux.fromIterable(entries))
+              .sourceFilter(address -> !address.getCity().endsWith("3"))
+              .asyncConverter(address -> Mono.just(address)
+                  .delayElement(Duration.ofMillis(random.nextInt(2))))
+              .targetFilter(address -> !address.getCity().endsWith("7"))
+              .pageable(number, 40, sortTarget, List.of(
+                  SortOrderItem.by("city").with(Direction.DESC)))
+              .partialSortLimit(partialSortLimit)
+              .build()
+              .block();
+          softly.assertThat(actual)
+              .as("Page %s sorted by %s (limit = %s)", number, sortTarget, partialSortLimit)
+              .isEqualTo(expected);
+        }
+      }
+    }
+  }
+
+  /**
+   * Build page without sort and target filter converts only the page entries.
+   *
+   * @param softly the softly
+   */
+  @Test
+  void buildWithoutSort(SoftAssertions softly) {
+    AtomicInteger conversions = new AtomicInteger();
+    Page<String> actual = new ReactivePageBuilder<Integer, String>()
+        .sourceEntries(Flux.range(1, 10))
+        .converter(entry -> {
+          conversions.incrementAndGet();
+          return String.valueOf(entry);
+        })
+        .pageable(1, 3)
+        .build()
+        .block();
+    softly.assertThat(actual)
+        .isNotNull()
+        .containsExactly("4", "5", "6");
+    softly.assertThat(actual.getTotalElements())
+        .isEqualTo(10L);
+    softly.assertThat(conversions)
+        .hasValue(3);
+  }
+
+  /**
+   * Build page and slice signal an error, if the converter returns no target entry, because the
+   * total would count an entry, that is missing in the content.
+   */
+  @Test
+  void buildWithEmptyConversion() {
+    StepVerifier.create(new ReactivePageBuilder<Integer, String>()
+            .sourceEntries(Flux.range(1, 10))
+            .converter(entry -> entry == 2 ? null : String.valueOf(entry))
+            .pageable(0, 3)
+            .build())
+        .verifyErrorSatisfies(error -> assertThat(error)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("source entry 2"));
+
+    StepVerifier.create(new ReactivePageBuilder<Integer, String>()
+            .sourceEntries(Flux.range(1, 10))
+            .asyncConverter(entry -> entry == 5 ? Mono.empty() : Mono.just(String.valueOf(entry)))
+            .pageable(1, 3, SortTarget.SOURCE_ENTRIES, List.of(SortOrderItem.by(null)))
+            .build())
+        .verifyError(IllegalStateException.class);
+
+    StepVerifier.create(new ReactivePageBuilder<Integer, String>()
+            .sourceEntries(Flux.range(1, 10))
+            .asyncConverter(entry -> entry == 5 ? Mono.empty() : Mono.just(String.valueOf(entry)))
+            .pageable(1, 3)
+            .buildSlice())
+        .verifyError(IllegalStateException.class);
+  }
+
+  /**
+   * Build slice stops consuming the source after the lookahead entry.
+   */
+  @Test
+  void buildSlice() {
+    AtomicInteger emitted = new AtomicInteger();
+    StepVerifier.create(new ReactivePageBuilder<Integer, String>()
+            .sourceEntries(Flux.range(1, 1000).doOnNext(i -> emitted.incrementAndGet()))
+            .converter(String::valueOf)
+            .targetFilter(entry -> !entry.equals("5"))
+            .pageable(1, 3)
+            .buildSlice())
+        .assertNext(slice -> {
+          SoftAssertions softly = new SoftAssertions();
+          softly.assertThat(slice.getContent())
+              .containsExactly("4", "6", "7");
+          softly.assertThat(slice.hasNext())
+              .isTrue();
+          softly.assertThat(emitted)
+              .hasValueLessThan(100);
+          softly.assertAll();
+        })
+        .verifyComplete();
+
+    StepVerifier.create(new ReactivePageBuilder<Integer, Integer>()
+            .sourceEntries(Flux.range(1, 6))
+            .pageable(1, 3, SortTarget.SOURCE_ENTRIES, List.of(
+                SortOrderItem.by(null).with(Direction.DESC)))
+            .buildSlice())
+        .assertNext(slice -> {
+          SoftAssertions softly = new SoftAssertions();
+          softly.assertThat(slice.getContent())
+              .containsExactly(3, 2, 1);
+          softly.assertThat(slice.hasNext())
+              .isFalse();
+          softly.assertAll();
+        })
+        .verifyComplete();
+  }
+
+}
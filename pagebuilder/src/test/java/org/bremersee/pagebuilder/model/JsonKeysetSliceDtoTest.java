@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.pagebuilder.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.bremersee.comparator.model.SortOrder;
+import org.bremersee.comparator.model.SortOrderItem;
+import org.bremersee.comparator.spring.keyset.Keyset;
+import org.bremersee.comparator.spring.keyset.KeysetCursor;
+import org.bremersee.pagebuilder.testmodel.Address;
+import org.bremersee.pagebuilder.testmodel.AddressKeysetSlice;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * The json keyset slice dto test.
+ *
+ * @author Christian Bremer
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+class JsonKeysetSliceDtoTest {
+
+  /**
+   * Cursors are created from the first and the last entry.
+   *
+   * @param softly the softly
+   * @throws Exception the exception
+   */
+  @Test
+  void cursorsOfSlice(SoftAssertions softly) throws Exception {
+    Keyset keyset = new Keyset(SortOrder.by(SortOrderItem.by("city")));
+    List<Address> content = List.of(
+        new Address("Berlin"),
+        new Address("London"),
+        new Address("New York"));
+    AddressKeysetSlice actual = new AddressKeysetSlice(
+        new SliceImpl<>(content, PageRequest.of(1, 3, keyset.toSort()), true),
+        keyset,
+        true);
+    KeysetCursor next = keyset.decode(actual.getNextCursor());
+    softly.assertThat(next.getValues())
+        .containsExactly("New York");
+    KeysetCursor previous = keyset.decode(actual.getPreviousCursor());
+    softly.assertThat(previous.getValues())
+        .containsExactly("Berlin");
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    String json = objectMapper.writeValueAsString(actual);
+    softly.assertThat(objectMapper.readValue(json, AddressKeysetSlice.class))
+        .isEqualTo(actual);
+
+    actual = new AddressKeysetSlice(
+        new SliceImpl<>(content, PageRequest.of(0, 3), false),
+        keyset,
+        false);
+    softly.assertThat(actual.getNextCursor())
+        .isNull();
+    softly.assertThat(actual.getPreviousCursor())
+        .isNull();
+    softly.assertThat(objectMapper.writeValueAsString(actual))
+        .doesNotContain("Cursor");
+  }
+
+}
@@ -0,0 +1,39 @@
+package org.bremersee.pagebuilder.testmodel;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.NoArgsConstructor;
+import org.bremersee.comparator.spring.keyset.Keyset;
+import org.bremersee.pagebuilder.model.JsonKeysetSliceDto;
+import org.springframework.data.domain.Slice;
+
+/**
+ * The type Address keyset slice.
+ */
+@Schema(description = "An address keyset slice.")
+@NoArgsConstructor
+public class AddressKeysetSlice extends JsonKeysetSliceDto<Address> {
+
+  /**
+   * Instantiates a new Address keyset slice.
+   *
+   * @param slice the slice
+   * @param nextCursor the next cursor
+   * @param previousCursor the previous cursor
+   */
+  public AddressKeysetSlice(Slice<? extends Address> slice, String nextCursor,
+      String previousCursor) {
+    super(slice, nextCursor, previousCursor);
+  }
+
+  /**
+   * Instantiates a new Address keyset slice.
+   *
+   * @param slice the slice
+   * @param keyset the keyset
+   * @param previousAvailable the previous available
+   */
+  public AddressKeysetSlice(Slice<? extends Address> slice, Keyset keyset,
+      boolean previousAvailable) {
+    super(slice, keyset, previousAvailable);
+  }
+}